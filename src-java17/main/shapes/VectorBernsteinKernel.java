@@ -0,0 +1,69 @@
+package main.shapes;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The SIMD implementation of {@link BernsteinKernel}, built only into the Java 17 part of the multi-release jar. It
+ * evaluates the weighted sums a full vector of lanes at a time with the incubating Vector API, and finishes any
+ * remainder shorter than a vector with the scalar loop. It is loaded reflectively by
+ * {@link BernsteinKernel#getInstance()}, which requires the JVM to be started with
+ * --add-modules jdk.incubator.vector.
+ * @author smaffa
+ *
+ */
+final class VectorBernsteinKernel extends BernsteinKernel {
+
+	private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+	VectorBernsteinKernel() {
+	}
+
+	@Override
+	public String getName() {
+		return "vector (" + SPECIES.length() + " lanes)";
+	}
+
+	@Override
+	public void combineSamples(double[] w0, double[] w1, double[] w2, double[] w3,
+			double a, double b, double c, double d, double[] out, int outOffset, int count) {
+		DoubleVector va = DoubleVector.broadcast(SPECIES, a);
+		DoubleVector vb = DoubleVector.broadcast(SPECIES, b);
+		DoubleVector vc = DoubleVector.broadcast(SPECIES, c);
+		DoubleVector vd = DoubleVector.broadcast(SPECIES, d);
+		int upperBound = SPECIES.loopBound(count);
+		int k = 0;
+		for (; k < upperBound; k += SPECIES.length()) {
+			DoubleVector.fromArray(SPECIES, w0, k).mul(va)
+					.add(DoubleVector.fromArray(SPECIES, w1, k).mul(vb))
+					.add(DoubleVector.fromArray(SPECIES, w2, k).mul(vc))
+					.add(DoubleVector.fromArray(SPECIES, w3, k).mul(vd))
+					.intoArray(out, outOffset + k);
+		}
+		for (; k < count; k++) {
+			out[outOffset + k] = w0[k] * a + w1[k] * b + w2[k] * c + w3[k] * d;
+		}
+	}
+
+	@Override
+	public void combineCurves(double w0, double w1, double w2, double w3,
+			double[] a, double[] b, double[] c, double[] d, double[] out, int count) {
+		DoubleVector vw0 = DoubleVector.broadcast(SPECIES, w0);
+		DoubleVector vw1 = DoubleVector.broadcast(SPECIES, w1);
+		DoubleVector vw2 = DoubleVector.broadcast(SPECIES, w2);
+		DoubleVector vw3 = DoubleVector.broadcast(SPECIES, w3);
+		int upperBound = SPECIES.loopBound(count);
+		int i = 0;
+		for (; i < upperBound; i += SPECIES.length()) {
+			vw0.mul(DoubleVector.fromArray(SPECIES, a, i))
+					.add(vw1.mul(DoubleVector.fromArray(SPECIES, b, i)))
+					.add(vw2.mul(DoubleVector.fromArray(SPECIES, c, i)))
+					.add(vw3.mul(DoubleVector.fromArray(SPECIES, d, i)))
+					.intoArray(out, i);
+		}
+		for (; i < count; i++) {
+			out[i] = w0 * a[i] + w1 * b[i] + w2 * c[i] + w3 * d[i];
+		}
+	}
+
+}
@@ -0,0 +1,82 @@
+package benchmark.shapes;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import main.shapes.CurveEvaluator;
+import main.shapes.CurveEvaluators;
+import main.utils.Constants;
+
+/**
+ * Compares the registered curve evaluation backends on the same curves. The vector backend is only registered when
+ * the kernel can be loaded, so the forks add the incubator module.
+ * @author smaffa
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules=jdk.incubator.vector"})
+public class CurveEvaluatorBenchmark {
+
+	@Param({CurveEvaluators.EJML, CurveEvaluators.HORNER, CurveEvaluators.FORWARD_DIFFERENCE,
+			CurveEvaluators.BERNSTEIN, CurveEvaluators.VECTOR})
+	private String evaluatorName;
+
+	@Param({"50", "1000"})
+	private int bezierFineness;
+
+	private static final int CURVE_COUNT = 1000;
+
+	private CurveEvaluator evaluator;
+	private double[] control;
+	private double[] xs;
+	private double[] ys;
+
+	@Setup
+	public void setup() {
+		evaluator = CurveEvaluators.get(evaluatorName);
+		Random random = new Random(42);
+		control = new double[8 * CURVE_COUNT];
+		for (int i = 0; i < control.length; i += 2) {
+			control[i] = Constants.CANVAS_WIDTH * random.nextDouble();
+			control[i + 1] = Constants.CANVAS_HEIGHT * random.nextDouble();
+		}
+		xs = new double[bezierFineness + 1];
+		ys = new double[bezierFineness + 1];
+	}
+
+	@Benchmark
+	public void position(Blackhole blackhole) {
+		for (int i = 0; i < CURVE_COUNT; i++) {
+			evaluator.sample(control, 8 * i, 0, bezierFineness, xs, 0, ys, 0, 1);
+			blackhole.consume(xs);
+			blackhole.consume(ys);
+		}
+	}
+
+	@Benchmark
+	public void velocity(Blackhole blackhole) {
+		for (int i = 0; i < CURVE_COUNT; i++) {
+			evaluator.sample(control, 8 * i, 1, bezierFineness, xs, 0, ys, 0, 1);
+			blackhole.consume(xs);
+			blackhole.consume(ys);
+		}
+	}
+
+}
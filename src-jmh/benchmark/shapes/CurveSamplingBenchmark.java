@@ -0,0 +1,160 @@
+package benchmark.shapes;
+
+import java.awt.geom.Point2D;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.ejml.simple.SimpleMatrix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import main.shapes.CubicBezierCurve;
+import main.shapes.CubicCurveBatch;
+import main.shapes.CurveSamples;
+import main.utils.Constants;
+import main.utils.CubicBasisTable;
+
+/**
+ * Compares bulk sampling of cubic curves through the original EJML matrix product, the scalar kernel and the Vector
+ * API kernel. Each kernel runs in its own fork, since the kernel is selected once per JVM.
+ * @author smaffa
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class CurveSamplingBenchmark {
+
+	private static final String VECTOR_MODULE = "--add-modules=jdk.incubator.vector";
+	private static final String SCALAR_KERNEL = "-Dmain.shapes.kernel=scalar";
+
+	@Param({"100", "10000"})
+	private int curveCount;
+
+	@Param({"50", "1000"})
+	private int bezierFineness;
+
+	private CubicBezierCurve[] curves;
+	private CubicCurveBatch batch;
+	private CurveSamples samples;
+	private double[] gridX;
+	private double[] gridY;
+
+	@Setup
+	public void setup() {
+		Random random = new Random(42);
+		curves = new CubicBezierCurve[curveCount];
+		batch = new CubicCurveBatch(curveCount);
+		for (int i = 0; i < curveCount; i++) {
+			curves[i] = new CubicBezierCurve(randomPoint(random), randomPoint(random), randomPoint(random), 
+					randomPoint(random), bezierFineness);
+			batch.add(curves[i]);
+		}
+		samples = new CurveSamples(bezierFineness + 1);
+		gridX = new double[curveCount * (bezierFineness + 1)];
+		gridY = new double[curveCount * (bezierFineness + 1)];
+	}
+
+	private static Point2D randomPoint(Random random) {
+		return new Point2D.Double(Constants.CANVAS_WIDTH * random.nextDouble(), 
+				Constants.CANVAS_HEIGHT * random.nextDouble());
+	}
+
+	@Benchmark
+	@Fork(1)
+	public void positionEjml(Blackhole blackhole) {
+		for (CubicBezierCurve curve : curves) {
+			CubicBasisTable powerBasis = CubicBasisTable.getPowerBasis(bezierFineness, 0);
+			SimpleMatrix tMatrix = new SimpleMatrix(bezierFineness + 1, 4);
+			for (int i = 0; i <= bezierFineness; i++) {
+				for (int j = 0; j < 4; j++) {
+					tMatrix.set(i, j, powerBasis.get(i, j));
+				}
+			}
+			SimpleMatrix controlMatrix = new SimpleMatrix(new double[][] {
+				{curve.getP1().getX(), curve.getP1().getY()}, 
+				{curve.getC1().getX(), curve.getC1().getY()}, 
+				{curve.getC2().getX(), curve.getC2().getY()}, 
+				{curve.getP2().getX(), curve.getP2().getY()}
+			});
+			blackhole.consume(tMatrix.mult(Constants.CUBIC_POINT_COEFFICIENT_MATRIX).mult(controlMatrix));
+		}
+	}
+
+	@Benchmark
+	@Fork(value = 1, jvmArgsAppend = {VECTOR_MODULE, SCALAR_KERNEL})
+	public void positionScalar(Blackhole blackhole) {
+		for (CubicBezierCurve curve : curves) {
+			blackhole.consume(curve.computePosition(bezierFineness, samples));
+		}
+	}
+
+	@Benchmark
+	@Fork(value = 1, jvmArgsAppend = {VECTOR_MODULE})
+	public void positionVector(Blackhole blackhole) {
+		for (CubicBezierCurve curve : curves) {
+			blackhole.consume(curve.computePosition(bezierFineness, samples));
+		}
+	}
+
+	@Benchmark
+	@Fork(value = 1, jvmArgsAppend = {VECTOR_MODULE, SCALAR_KERNEL})
+	public void velocityScalar(Blackhole blackhole) {
+		for (CubicBezierCurve curve : curves) {
+			blackhole.consume(curve.computeVelocity(bezierFineness, samples));
+		}
+	}
+
+	@Benchmark
+	@Fork(value = 1, jvmArgsAppend = {VECTOR_MODULE})
+	public void velocityVector(Blackhole blackhole) {
+		for (CubicBezierCurve curve : curves) {
+			blackhole.consume(curve.computeVelocity(bezierFineness, samples));
+		}
+	}
+
+	@Benchmark
+	@Fork(value = 1, jvmArgsAppend = {VECTOR_MODULE, SCALAR_KERNEL})
+	public void curvatureScalar(Blackhole blackhole) {
+		for (CubicBezierCurve curve : curves) {
+			blackhole.consume(curve.computeCurvature(bezierFineness));
+		}
+	}
+
+	@Benchmark
+	@Fork(value = 1, jvmArgsAppend = {VECTOR_MODULE})
+	public void curvatureVector(Blackhole blackhole) {
+		for (CubicBezierCurve curve : curves) {
+			blackhole.consume(curve.computeCurvature(bezierFineness));
+		}
+	}
+
+	@Benchmark
+	@Fork(value = 1, jvmArgsAppend = {VECTOR_MODULE, SCALAR_KERNEL})
+	public void batchGridScalar(Blackhole blackhole) {
+		batch.evaluateGrid(bezierFineness, gridX, gridY);
+		blackhole.consume(gridX);
+		blackhole.consume(gridY);
+	}
+
+	@Benchmark
+	@Fork(value = 1, jvmArgsAppend = {VECTOR_MODULE})
+	public void batchGridVector(Blackhole blackhole) {
+		batch.evaluateGrid(bezierFineness, gridX, gridY);
+		blackhole.consume(gridX);
+		blackhole.consume(gridY);
+	}
+
+}
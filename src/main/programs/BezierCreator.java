@@ -9,6 +9,7 @@ import java.awt.event.ItemEvent;
 import java.awt.event.ItemListener;
 
 import javax.swing.JButton;
+import javax.swing.JComboBox;
 import javax.swing.JFrame;
 import javax.swing.JPanel;
 import javax.swing.JSlider;
@@ -16,6 +17,7 @@ import javax.swing.JToggleButton;
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
 
+import main.shapes.CatmullRomParameterization;
 import main.sketch.SketchPad;
 import main.utils.Constants;
 
@@ -61,17 +63,48 @@ public class BezierCreator implements Runnable {
         // a button that toggles between curve connecting and point adjustment modes
         JToggleButton bezierCreationButton = new JToggleButton("Cubic Bezier Creation");
         controlPanel.add(bezierCreationButton);
+        // a button that toggles spline creation: points clicked while it is on are joined into a Catmull-Rom spline
+        // when it is turned off
+        JToggleButton splineCreationButton = new JToggleButton("Catmull-Rom Spline Creation");
+        controlPanel.add(splineCreationButton);
+        // the creation modes collect points into the same list, so turning one on turns the other off
         bezierCreationButton.addItemListener(new ItemListener() {
             @Override
             public void itemStateChanged(ItemEvent e) {
                 int state = e.getStateChange();
                 if (state == ItemEvent.SELECTED) {
+                	splineCreationButton.setSelected(false);
                     sketchPad.setBezierCreationModeOn(true);
                 } else {
                     sketchPad.setBezierCreationModeOn(false);
                 }
             }
         });
+        splineCreationButton.addItemListener(new ItemListener() {
+            @Override
+            public void itemStateChanged(ItemEvent e) {
+                int state = e.getStateChange();
+                if (state == ItemEvent.SELECTED) {
+                	bezierCreationButton.setSelected(false);
+                    sketchPad.setSplineCreationModeOn(true);
+                } else {
+                    sketchPad.setSplineCreationModeOn(false);
+                }
+            }
+        });
+        
+        // a selector for the knot spacing of the splines
+        JComboBox<CatmullRomParameterization> parameterizationSelector = 
+        		new JComboBox<CatmullRomParameterization>(CatmullRomParameterization.values());
+        parameterizationSelector.setSelectedItem(sketchPad.getSplineParameterization());
+        controlPanel.add(parameterizationSelector);
+        parameterizationSelector.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                sketchPad.setSplineParameterization(
+                		(CatmullRomParameterization) parameterizationSelector.getSelectedItem());
+            }
+        });
         
         // a slider that controls the curve parameter
         JSlider tSlider = new JSlider(JSlider.HORIZONTAL, 0, Constants.BEZIER_FINENESS, 0);
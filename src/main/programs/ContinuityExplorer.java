@@ -23,10 +23,13 @@ import javax.swing.JToggleButton;
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
 
+import main.shapes.ArcLengthTable;
 import main.shapes.Arrow;
 import main.shapes.BezierCurve;
 import main.shapes.Circle;
+import main.shapes.CompositePath;
 import main.shapes.CubicBezierCurve;
+import main.shapes.FrameBuffer;
 import main.shapes.PolyLine;
 import main.shapes.RegularPolygon;
 import main.sketch.SketchPad;
@@ -40,6 +43,8 @@ public class ContinuityExplorer implements Runnable {
 	private SketchPad sketchPad = new SketchPad((int) (1.7 * Constants.CANVAS_WIDTH), Constants.CANVAS_HEIGHT);
 	private int nCurves = 3;
 	private double globalT = 0;
+	private double globalS = 0;
+	private boolean isArcLengthParameterized = false;
 	private double vectorScale = 50;
 	private JPanel controlPanel = new JPanel(new FlowLayout());
 	
@@ -60,8 +65,22 @@ public class ContinuityExplorer implements Runnable {
 	
 	private int curvatureSubdivisions = 10;
 	private double curvatureCombScale = 5000;
+	private FrameBuffer curveFrames = new FrameBuffer(Constants.BEZIER_FINENESS + 1);
+	
+	// circles that follow the curve parameter, moved and resized in place rather than rebuilt on every event
+	private Circle rider = new Circle(0, 0, DEFAULT_T_RADIUS);
+	private Circle osculatingCircle = new Circle(0, 0, 0);
+	
+	// the chain of curves as one path, for moving the rider at constant speed along it
+	private CompositePath path;
+	private ArcLengthTable.Cursor arcLengthCursor = new ArcLengthTable.Cursor();
 	
 	public ContinuityExplorer() {
+		rider.setFill(true);
+		rider.setColor(DEFAULT_T_COLOR);
+		osculatingCircle.setTraceStroke(OSCULATING_CIRCLE_STROKE);
+		osculatingCircle.setColor(OSCULATING_CIRCLE_COLOR);
+		
 		int height = sketchPad.getCanvasHeight();
 		int width = sketchPad.getCanvasWidth();
 		
@@ -77,6 +96,8 @@ public class ContinuityExplorer implements Runnable {
 			sketchPad.createBezierCurve(new ArrayList<Integer>(Arrays.asList((i*3), (i*3)+1, (i*3)+2, (i*3)+3)));
 		}
 		
+		path = new CompositePath(sketchPad.getBezierCurves());
+		
 		updateGlobalTAnnotations(true);
 		
 		// overwrite the sketchPad's mouse listener to additionally update the auxiliary curve data
@@ -86,6 +107,8 @@ public class ContinuityExplorer implements Runnable {
                 if (sketchPad.isPointSelected()) {
                     sketchPad.movePoint(e.getX(), e.getY());
                     
+                    path.refresh();
+                    updateGlobalT();
                     updateGlobalTAnnotations(true);
                 }
             }
@@ -100,9 +123,10 @@ public class ContinuityExplorer implements Runnable {
         tSlider.setPaintTicks(true);
         tSlider.addChangeListener(new ChangeListener() {
         	public void stateChanged(ChangeEvent e) {
-        		int tIdx = ((JSlider) e.getSource()).getValue();
-        		globalT = (double) tIdx / Constants.BEZIER_FINENESS;
+        		JSlider slider = (JSlider) e.getSource();
+        		globalS = (double) slider.getValue() / slider.getMaximum();
         		
+        		updateGlobalT();
         		updateGlobalTAnnotations(true);
 
         		sketchPad.repaint();
@@ -110,6 +134,34 @@ public class ContinuityExplorer implements Runnable {
         });
         Dimension tSliderDim = tSlider.getPreferredSize();
         tSlider.setPreferredSize(new Dimension(tSliderDim.width+100,tSliderDim.height));
+        
+        // a button that switches the slider between the curve parameter and arc length along the whole path
+        JToggleButton arcLengthButton = new JToggleButton("Parameterize by arc length");
+        controlPanel.add(arcLengthButton);
+        arcLengthButton.addItemListener(new ItemListener() {
+            @Override
+            public void itemStateChanged(ItemEvent e) {
+            	isArcLengthParameterized = e.getStateChange() == ItemEvent.SELECTED;
+            	arcLengthButton.setText(isArcLengthParameterized ? "Parameterize by time" : "Parameterize by arc length");
+            	
+            	updateGlobalT();
+            	updateGlobalTAnnotations(true);
+            	sketchPad.repaint();
+            }
+        });
+	}
+	
+	/**
+	 * Sets the global curve parameter from the position of the slider, which is read as a proportion of either the
+	 * global curve parameter or the arc length along the whole path.
+	 */
+	public void updateGlobalT() {
+		if (isArcLengthParameterized) {
+			int curveIndex = path.findSegment(globalS);
+			globalT = curveIndex + path.computeLocalT(globalS, curveIndex, arcLengthCursor);
+		} else {
+			globalT = globalS * (this.nCurves + 1);
+		}
 	}
 	
 	public int getCurveIndex(double t) {
@@ -132,25 +184,24 @@ public class ContinuityExplorer implements Runnable {
 		
 		for (int i = 0; i < curves.size(); i++) {
 			BezierCurve currentCurve = curves.get(i);
-			Point2D[] curvePosition = currentCurve.computePosition();
-			Point2D[] curveVelocity = ((CubicBezierCurve) currentCurve).computeVelocity();
-			
-			double[] curveCurvature = ((CubicBezierCurve) currentCurve).computeCurvature();
-			Point2D[] curvatureCombShaft = new Point2D[curveCurvature.length];
+			((CubicBezierCurve) currentCurve).computeFrames(this.curveFrames);
+			double[] positionX = this.curveFrames.getPositionX();
+			double[] positionY = this.curveFrames.getPositionY();
+			double[] normalX = this.curveFrames.getNormalX();
+			double[] normalY = this.curveFrames.getNormalY();
+			double[] curveCurvature = this.curveFrames.getCurvature();
+			Point2D[] curvatureCombShaft = new Point2D[this.curveFrames.getSampleCount()];
 			
-			for (int j = 0; j < curveCurvature.length; j++) {
-				Point2D tangentVector = Utility.normalizeVector(curveVelocity[j]);
-				Point2D normalVector = new Point2D.Double(-tangentVector.getY(), tangentVector.getX());
-				
+			for (int j = 0; j < curvatureCombShaft.length; j++) {
 				// curvature comb positions are c(t) = x(t) - d * K(t) * n(t)
 				// TODO: try applying a monotonic transformation to K(t); maybe arctan?
-				Point2D curvatureCombVector = Utility.scaleVector(normalVector, this.curvatureCombScale * curveCurvature[j]);
-				curvatureCombShaft[j] = new Point2D.Double(curvePosition[j].getX() - curvatureCombVector.getX(), 
-						curvePosition[j].getY() + curvatureCombVector.getY());	
+				double combScale = this.curvatureCombScale * curveCurvature[j];
+				curvatureCombShaft[j] = new Point2D.Double(positionX[j] - combScale * normalX[j], 
+						positionY[j] + combScale * normalY[j]);	
 				
 				if (j % this.curvatureSubdivisions == 0) {
 					PolyLine combTooth = new PolyLine(new Point2D[] {
-							curvePosition[j],
+							new Point2D.Double(positionX[j], positionY[j]),
 							curvatureCombShaft[j]	
 					});
 					combTooth.setTraceStroke(CURVATURE_COMB_STROKE);
@@ -181,9 +232,8 @@ public class ContinuityExplorer implements Runnable {
 			Point2D scaledNormalVector = Utility.scaleVector(normalVector, -this.vectorScale);
 			Point2D osculatingRadiusVector = Utility.scaleVector(normalVector, radiusOfCurvature);
 			
-			Circle rider = new Circle(currentPt, DEFAULT_T_RADIUS);
-			rider.setFill(true);
-			rider.setColor(DEFAULT_T_COLOR);
+			rider.setX(currentPt.getX());
+			rider.setY(currentPt.getY());
 			
 			Arrow tangentArrow = new Arrow(currentPt, scaledTangentVector);
 			tangentArrow.setTraceStroke(TANGENT_STROKE);
@@ -201,10 +251,9 @@ public class ContinuityExplorer implements Runnable {
 			osculatingRadius.setTraceStroke(OSCULATING_CIRCLE_STROKE);
 			osculatingRadius.setColor(OSCULATING_CIRCLE_COLOR);
 			
-			Circle osculatingCircle = new Circle(currentPt.getX() + osculatingRadiusVector.getX(), 
-					currentPt.getY() + osculatingRadiusVector.getY(), Utility.computeVectorNorm(osculatingRadiusVector));
-			osculatingCircle.setTraceStroke(OSCULATING_CIRCLE_STROKE);
-			osculatingCircle.setColor(OSCULATING_CIRCLE_COLOR);
+			osculatingCircle.setX(currentPt.getX() + osculatingRadiusVector.getX());
+			osculatingCircle.setY(currentPt.getY() + osculatingRadiusVector.getY());
+			osculatingCircle.setRadius(Utility.computeVectorNorm(osculatingRadiusVector));
 			
 			sketchPad.getAnnotationShapes().add(rider);
 			sketchPad.getAnnotationShapes().add(tangentArrow);
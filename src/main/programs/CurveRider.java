@@ -27,6 +27,7 @@ import javax.swing.JPanel;
 import javax.swing.JSlider;
 import javax.swing.JToggleButton;
 
+import main.shapes.ArcLengthTable;
 import main.shapes.BezierCurve;
 import main.shapes.RegularPolygon;
 import main.shapes.AnnotationShape;
@@ -70,7 +71,8 @@ public class CurveRider implements Runnable {
 	private final static Stroke DEFAULT_SECONDARY_STROKE = new BasicStroke(3.0f);
 	
 	
-	private double[] cumulativeDistance;
+	// one cursor per arc length rider, since each rider advances steadily and is warm started from its last frame
+	private ArrayList<ArcLengthTable.Cursor> arcLengthCursors = new ArrayList<ArcLengthTable.Cursor>();
 	
 	private Timer timer = new Timer(Constants.FRAME_DELAY_MS, new ActionListener() {
 		@Override
@@ -104,18 +106,15 @@ public class CurveRider implements Runnable {
 		sketchPad.addRandomPoint();
 		sketchPad.createBezierCurve(new ArrayList<Integer>(Arrays.asList(0, 1, 2, 3)));
 		curve = sketchPad.getBezierCurves().get(0);
-		cumulativeDistance = curve.computeCumulativeArcLengthDistance();
 		
 		realignPoints();
 		
-		// overwrite the sketchPad's mouse listener to additionally update the auxiliary curve data
+		// overwrite the sketchPad's mouse listener to additionally move the riders along with the curve
 		sketchPad.addMouseMotionListener(new MouseAdapter() {
             @Override
             public void mouseDragged(MouseEvent e) {
                 if (sketchPad.isPointSelected()) {
                     sketchPad.movePoint(e.getX(), e.getY());
-                    
-                    cumulativeDistance = curve.computeCumulativeArcLengthDistance();
                     realignPoints();
                 }
             }
@@ -339,6 +338,9 @@ public class CurveRider implements Runnable {
 		// compute all offsets in t and s necessary to define nPoints and roll them into the domain [0, 1]
 		// then, compute the positions of the corresponding points
 		double offset = 1.0 / (double) nPoints;
+		while (arcLengthCursors.size() < nPoints) {
+			arcLengthCursors.add(new ArcLengthTable.Cursor());
+		}
 		for (int i = 0; i < nPoints; i++) {
 			double rolledT = baseT + (i * offset);
 			if (rolledT > 1) {
@@ -354,7 +356,7 @@ public class CurveRider implements Runnable {
 				rolledS -= 1;
 			}
 			
-			double arcLengthT = curve.arcLengthApproximateT(this.cumulativeDistance, rolledS);
+			double arcLengthT = curve.arcLengthSolveT(rolledS, arcLengthCursors.get(i));
 			Point2D ptS = curve.computePositionAtT(arcLengthT);
 			((RegularPolygon) annotationShapes.get((2 * i) + 1)).setX(ptS.getX());
 			((RegularPolygon) annotationShapes.get((2 * i) + 1)).setY(ptS.getY());
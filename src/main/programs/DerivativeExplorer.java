@@ -21,7 +21,6 @@ import javax.swing.JToggleButton;
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
 
-import main.shapes.BezierCurve;
 import main.shapes.CubicBezierCurve;
 import main.shapes.Arrow;
 import main.shapes.PlotLine;
@@ -39,7 +38,7 @@ import main.utils.Utility;
 public class DerivativeExplorer implements Runnable {
 
 	private JFrame f = new JFrame();
-	private BezierCurve curve;
+	private CubicBezierCurve curve; // the curve as plotted: y inverted, first endpoint at the origin
 	private LinePlot positionPlot = new LinePlot();
 	private LinePlot velocityPlot = new LinePlot();
 	private SketchPad sketchPad = new SketchPad(positionPlot.getFigureWidth(), positionPlot.getFigureWidth());
@@ -59,21 +58,15 @@ public class DerivativeExplorer implements Runnable {
 		sketchPad.setShowT(false);
 		sketchPad.setT(globalT);
 		
-		curve = Utility.invertYCoordinates((CubicBezierCurve) sketchPad.getBezierCurves().get(0), sketchPad.getCanvasHeight());
-		CubicBezierCurve curveCopy = new CubicBezierCurve((CubicBezierCurve) curve);
-		curveCopy.centerAtP1();
-		Point2D[] position = curveCopy.computePosition();
-		int idxPosition = (int) Math.round(this.globalT * position.length);
-		Point2D[] velocity = curveCopy.computeVelocity();
-		int idxVelocity = (int) Math.round(this.globalT * velocity.length);
+		updateCurve();
+		Point2D position = curve.computePositionAtT(globalT);
+		Point2D velocity = curve.getVelocityCurve().computePositionAtT(globalT);
 		
-		positionPlot.addLine(new PlotLine(Arrays.asList(curveCopy.computePosition()), Color.BLUE));
-		positionPlot.addAnnotation(new Arrow(position[idxPosition].getX(), position[idxPosition].getY(),
-				velocity[idxVelocity].getX(), velocity[idxVelocity].getY()));
+		positionPlot.addLine(new PlotLine(Arrays.asList(curve.computePosition()), Color.BLUE));
+		positionPlot.addAnnotation(new Arrow(position.getX(), position.getY(), velocity.getX(), velocity.getY()));
 		
-		velocityPlot.addLine(new PlotLine(Arrays.asList(curveCopy.computeVelocity()), Color.BLUE));
-		velocityPlot.addAnnotation(new Arrow(0, 0,
-				velocity[idxVelocity].getX(), velocity[idxVelocity].getY()));
+		velocityPlot.addLine(new PlotLine(Arrays.asList(curve.getVelocityCurve().computePosition()), Color.BLUE));
+		velocityPlot.addAnnotation(new Arrow(0, 0, velocity.getX(), velocity.getY()));
 		
 		positionPlot.setShowT(false);
 		positionPlot.setT(globalT);
@@ -88,24 +81,12 @@ public class DerivativeExplorer implements Runnable {
             public void mouseDragged(MouseEvent e) {
                 if (sketchPad.isPointSelected()) {
                     sketchPad.movePoint(e.getX(), e.getY());
-                    curve = Utility.invertYCoordinates((CubicBezierCurve) sketchPad.getBezierCurves().get(0), sketchPad.getCanvasHeight());
-                    
-                    CubicBezierCurve curveCopy = new CubicBezierCurve((CubicBezierCurve) curve);
-                    curveCopy.centerAtP1();
-                    
-                    Point2D[] position = curveCopy.computePosition();
-            		int idxPosition = Utility.imputeTIndex(globalT, position.length);
-            		Point2D[] velocity = curveCopy.computeVelocity();
-            		int idxVelocity = Utility.imputeTIndex(globalT, velocity.length);
-                    
-                    positionPlot.setLine(0, new PlotLine(Arrays.asList(curveCopy.computePosition()), Color.BLUE));
-                    positionPlot.setAnnotation(0, new Arrow(position[idxPosition].getX(), position[idxPosition].getY(),
-				vectorScale * velocity[idxVelocity].getX(), vectorScale * velocity[idxVelocity].getY()));
+                    updateCurve();
+                    positionPlot.setLine(0, new PlotLine(Arrays.asList(curve.computePosition()), Color.BLUE));
+                    velocityPlot.setLine(0, 
+                    		new PlotLine(Arrays.asList(curve.getVelocityCurve().computePosition()), Color.BLUE));
+                    updateAnnotations();
                     positionPlot.repaint();
-                    
-                    velocityPlot.setLine(0, new PlotLine(Arrays.asList(curveCopy.computeVelocity()), Color.BLUE));
-                    velocityPlot.setAnnotation(0, new Arrow(0, 0,
-				velocity[idxVelocity].getX(), velocity[idxVelocity].getY()));
                     velocityPlot.repaint();
                 }
             }
@@ -124,19 +105,7 @@ public class DerivativeExplorer implements Runnable {
         		positionPlot.setT(globalT);
         		velocityPlot.setT(globalT);
         		
-        		CubicBezierCurve curveCopy = new CubicBezierCurve((CubicBezierCurve) curve);
-        		curveCopy.centerAtP1();
-        		
-        		Point2D[] position = curveCopy.computePosition();
-        		int idxPosition = Utility.imputeTIndex(globalT, position.length);
-        		Point2D[] velocity = curveCopy.computeVelocity();
-        		int idxVelocity = Utility.imputeTIndex(globalT, velocity.length);
-                
-                positionPlot.setAnnotation(0, new Arrow(position[idxPosition].getX(), position[idxPosition].getY(),
-			vectorScale * velocity[idxVelocity].getX(), vectorScale * velocity[idxVelocity].getY()));
-                
-                velocityPlot.setAnnotation(0, new Arrow(0, 0,
-			velocity[idxVelocity].getX(), velocity[idxVelocity].getY()));
+        		updateAnnotations();
         		
         		sketchPad.repaint();
         		positionPlot.repaint();
@@ -171,19 +140,7 @@ public class DerivativeExplorer implements Runnable {
         		int vScale = ((JSlider) e.getSource()).getValue();
         		vectorScale = (double) vScale / 100;
         		
-        		CubicBezierCurve curveCopy = new CubicBezierCurve((CubicBezierCurve) curve);
-        		curveCopy.centerAtP1();
-        		
-        		Point2D[] position = curveCopy.computePosition();
-        		int idxPosition = Utility.imputeTIndex(globalT, position.length);
-        		Point2D[] velocity = curveCopy.computeVelocity();
-        		int idxVelocity = Utility.imputeTIndex(globalT, velocity.length);
-                
-                positionPlot.setAnnotation(0, new Arrow(position[idxPosition].getX(), position[idxPosition].getY(),
-			vectorScale * velocity[idxVelocity].getX(), vectorScale * velocity[idxVelocity].getY()));
-                
-                velocityPlot.setAnnotation(0, new Arrow(0, 0,
-			velocity[idxVelocity].getX(), velocity[idxVelocity].getY()));
+        		updateAnnotations();
         		
         		sketchPad.repaint();
         		positionPlot.repaint();
@@ -208,6 +165,28 @@ public class DerivativeExplorer implements Runnable {
         });
 	}
 	
+	/**
+	 * Rebuilds the plotted curve from the curve on the sketch pad, with its y coordinates inverted and its first 
+	 * endpoint at the origin.
+	 */
+	private void updateCurve() {
+		curve = Utility.invertYCoordinates((CubicBezierCurve) sketchPad.getBezierCurves().get(0), 
+				sketchPad.getCanvasHeight());
+		curve.centerAtP1();
+	}
+	
+	/**
+	 * Moves the velocity vectors on both plots to the current value of t. The velocity is read from the curve's 
+	 * cached hodograph, so the curve is not resampled.
+	 */
+	private void updateAnnotations() {
+		Point2D position = curve.computePositionAtT(globalT);
+		Point2D velocity = curve.getVelocityCurve().computePositionAtT(globalT);
+		positionPlot.setAnnotation(0, new Arrow(position.getX(), position.getY(),
+				vectorScale * velocity.getX(), vectorScale * velocity.getY()));
+		velocityPlot.setAnnotation(0, new Arrow(0, 0, velocity.getX(), velocity.getY()));
+	}
+	
 	@Override
 	public void run() {
 		
@@ -0,0 +1,307 @@
+package main.shapes;
+
+import java.awt.geom.Point2D;
+import java.util.Arrays;
+
+import main.utils.Constants;
+
+/**
+ * Measures the arc length of a curve by integrating its speed |B'(t)| with adaptive Gauss-Legendre quadrature. An
+ * interval is accepted when a five point rule over it agrees with the same rule over its two halves to within the
+ * tolerance; otherwise each half is integrated again to half the tolerance. The speed of a polynomial curve is smooth
+ * away from cusps, so the whole of a typical cubic is accepted after one or two halvings. The inverse, from a
+ * proportion of arc length back to the curve parameter, is solved by Newton steps on the same integral.
+ * @author smaffa
+ *
+ */
+public final class ArcLengthIntegrator {
+
+	// five point Gauss-Legendre nodes and weights, mapped onto [0, 1]
+	private static final double[] NODES = {
+			0.5 - 0.5 * 0.9061798459386640, 0.5 - 0.5 * 0.5384693101056831, 0.5,
+			0.5 + 0.5 * 0.5384693101056831, 0.5 + 0.5 * 0.9061798459386640};
+	private static final double[] WEIGHTS = {
+			0.5 * 0.2369268850561891, 0.5 * 0.4786286704993665, 0.5 * 0.5688888888888889,
+			0.5 * 0.4786286704993665, 0.5 * 0.2369268850561891};
+	// the nodes of the rules over the two halves of an interval, together, mapped onto [0, 1]
+	private static final double[] HALVES_NODES = halvesNodes();
+	// the coefficients, in increasing order of degree, of the integral from 0 to u of the Lagrange basis polynomial of
+	// each of those nodes, so that the integral over [0, u] of the polynomial through the speeds sampled at the nodes
+	// is a sum of these
+	private static final double[][] PARTIAL_WEIGHTS = integrateBasis(HALVES_NODES);
+
+	private ArcLengthIntegrator() {
+	}
+
+	/**
+	 * Measures the length of a curve between two values of the curve parameter.
+	 * @param curve		the {@link BezierCurve} to measure
+	 * @param t0		the curve parameter at the start of the arc
+	 * @param t1		the curve parameter at the end of the arc
+	 * @param tolerance	the maximum absolute error of the length, which must be positive
+	 * @return the length of the arc between t0 and t1, which is never negative
+	 */
+	public static double integrate(BezierCurve curve, double t0, double t1, double tolerance) {
+		checkTolerance(tolerance);
+		if (t1 < t0) {
+			double swap = t0;
+			t0 = t1;
+			t1 = swap;
+		}
+		return adapt(curve, t0, t1, gauss(curve, t0, t1, null, 0), tolerance, 0, null);
+	}
+
+	/**
+	 * Builds a lookup table from proportions of arc length to values of the curve parameter, at evenly spaced values
+	 * of t. The whole curve is integrated once, keeping the ten speeds sampled by the rules over the two halves of
+	 * each accepted interval; the length up to a value of t inside an interval is the integral of the polynomial
+	 * through those speeds, corrected linearly to agree with the rules at the end of the interval. The table therefore
+	 * costs as many evaluations of the speed as {@link #integrate} over the whole curve, however many samples it
+	 * holds.
+	 * @param curve		the {@link BezierCurve} to measure
+	 * @param nSegments	the number of evenly spaced intervals of t in the table
+	 * @param tolerance	the maximum absolute error of the total length, which must be positive
+	 * @return an {@link ArcLengthTable} object of nSegments + 1 samples
+	 */
+	public static ArcLengthTable buildTable(BezierCurve curve, int nSegments, double tolerance) {
+		checkTolerance(tolerance);
+		if (nSegments < 1) {
+			throw new IllegalArgumentException("An arc length table needs at least one segment, got " + nSegments);
+		}
+		Partition partition = new Partition();
+		adapt(curve, 0, 1, gauss(curve, 0, 1, null, 0), tolerance, 0, partition);
+
+		double[] t = new double[nSegments + 1];
+		double[] cumulativeLength = new double[nSegments + 1];
+		// the accepted interval holding t[i], and the length of the curve up to its start
+		int j = 0;
+		double start = 0;
+		double startLength = 0;
+		for (int i = 1; i <= nSegments; i++) {
+			t[i] = (double) i / nSegments;
+			while (j < partition.size - 1 && partition.ends[j] < t[i]) {
+				startLength += partition.lengths[j];
+				start = partition.ends[j];
+				j++;
+			}
+			double width = partition.ends[j] - start;
+			double u = width > 0 ? Math.min((t[i] - start) / width, 1) : 1;
+			double length = partition.lengths[j];
+			if (u < 1) {
+				double[] speeds = partition.speeds;
+				int offset = 10 * j;
+				length = width * partialRule(speeds, offset, u)
+						+ u * (length - width * partialRule(speeds, offset, 1));
+			}
+			cumulativeLength[i] = startLength + length;
+		}
+		return new ArcLengthTable(t, cumulativeLength);
+	}
+
+	/**
+	 * Finds the value of the curve parameter t at which the arc length from the start of the curve is s proportion of
+	 * the total length. The estimate of the table is refined by Newton steps on the integrated arc length, whose
+	 * derivative in t is the speed of the curve, kept within the segment of the table holding s by falling back to
+	 * bisection. The length is kept as a running sum from one iterate to the next, so a Newton step measures only the
+	 * short arc it moved along, by a single rule; only the first arc from the start of the segment and the bisection
+	 * steps are integrated adaptively. A cursor carrying the t solved for on the previous call, and the length up to
+	 * it, warm starts the solve from there, so a steadily advancing s, as in an animation, typically takes one or two
+	 * steps of a single rule each.
+	 * @param curve		the {@link BezierCurve} the table was built for
+	 * @param table		the {@link ArcLengthTable} object of the curve
+	 * @param s		a double value between 0 and 1, inclusive, representing the proportion of the total length; values
+	 * outside the range are clamped to it
+	 * @param tolerance	the maximum absolute error, in length, of the arc up to the point found, which must be positive
+	 * @param cursor	the {@link ArcLengthTable.Cursor} object holding the previous solve, or null to start from the
+	 * table
+	 * @return the curve parameter t
+	 */
+	public static double solveT(BezierCurve curve, ArcLengthTable table, double s, double tolerance,
+			ArcLengthTable.Cursor cursor) {
+		checkTolerance(tolerance);
+		s = ArcLengthTable.clamp(s);
+		int segment = table.findSegment(s, cursor);
+		double totalLength = table.getTotalLength();
+		double t;
+		double length = Double.NaN;
+		int iterationCount = 0;
+		if (totalLength == 0 || s == 0 || s == 1) {
+			t = table.interpolate(segment, s);
+		} else {
+			double targetLength = s * totalLength;
+			double low = table.getSampleT(segment);
+			double high = table.getSampleT(segment + 1);
+			// the last point the length is known at, and the length up to it
+			double anchorT = low;
+			double anchorLength = table.getCumulativeLength(segment) * totalLength;
+			boolean isShortStep = false;
+			t = table.interpolate(segment, s);
+			if (cursor != null && cursor.table == table && !Double.isNaN(cursor.t)) {
+				// extrapolate from the previous solution by the second order expansion of t in arc length,
+				// dt = h / |v| - h^2 (v . a) / (2 |v|^4), for a step h along the curve
+				Point2D velocity = curve.computeVelocityAtT(cursor.t);
+				Point2D acceleration = curve.computeAccelerationAtT(cursor.t);
+				double speedSquared = velocity.getX() * velocity.getX() + velocity.getY() * velocity.getY();
+				double h = targetLength - cursor.length;
+				double warmT = cursor.t + h / Math.sqrt(speedSquared) - 0.5 * h * h
+						* (velocity.getX() * acceleration.getX() + velocity.getY() * acceleration.getY())
+						/ (speedSquared * speedSquared);
+				if (warmT > low && warmT < high) {
+					t = warmT;
+					// the step from the previous solution is measured by a single rule, so only within one segment
+					if (cursor.t >= low && cursor.t <= high) {
+						anchorT = cursor.t;
+						anchorLength = cursor.length;
+						isShortStep = true;
+					}
+				}
+			}
+			while (iterationCount < Constants.MAX_ARC_LENGTH_ITERATIONS) {
+				iterationCount++;
+				length = anchorLength + (isShortStep ? gauss(curve, anchorT, t, null, 0)
+						: (t < anchorT ? -1 : 1) * integrate(curve, anchorT, t, tolerance));
+				double error = length - targetLength;
+				if (Math.abs(error) <= tolerance) {
+					break;
+				}
+				if (error < 0) {
+					low = t;
+				} else {
+					high = t;
+				}
+				anchorT = t;
+				anchorLength = length;
+				double next = t - error / curve.computeSpeedAtT(t);
+				isShortStep = next > low && next < high;
+				t = isShortStep ? next : 0.5 * (low + high);
+			}
+		}
+		if (cursor != null) {
+			cursor.table = table;
+			cursor.t = t;
+			cursor.length = Double.isNaN(length) ? s * totalLength : length;
+			cursor.iterationCount = iterationCount;
+		}
+		return t;
+	}
+
+	private static double adapt(BezierCurve curve, double a, double b, double whole, double tolerance, int depth,
+			Partition partition) {
+		double mid = 0.5 * (a + b);
+		double[] speeds = partition == null ? null : partition.pending;
+		double left = gauss(curve, a, mid, speeds, 0);
+		double right = gauss(curve, mid, b, speeds, 5);
+		if (Math.abs(left + right - whole) <= tolerance || depth >= Constants.MAX_ARC_LENGTH_DEPTH
+				|| mid <= a || mid >= b) {
+			if (partition != null) {
+				partition.add(b, left + right);
+			}
+			return left + right;
+		}
+		return adapt(curve, a, mid, left, 0.5 * tolerance, depth + 1, partition)
+				+ adapt(curve, mid, b, right, 0.5 * tolerance, depth + 1, partition);
+	}
+
+	/**
+	 * Integrates the speed of a curve over an interval by the five point rule.
+	 * @param speeds	the array that receives the speeds at the nodes, or null
+	 * @param offset	the index in speeds of the speed at the first node
+	 */
+	private static double gauss(BezierCurve curve, double a, double b, double[] speeds, int offset) {
+		double width = b - a;
+		double sum = 0;
+		for (int i = 0; i < NODES.length; i++) {
+			double speed = curve.computeSpeedAtT(a + NODES[i] * width);
+			if (speeds != null) {
+				speeds[offset + i] = speed;
+			}
+			sum += WEIGHTS[i] * speed;
+		}
+		return sum * width;
+	}
+
+	/**
+	 * Integrates the polynomial through the speeds at the nodes of the halves of an interval, scaled to [0, 1], from
+	 * 0 to u.
+	 */
+	private static double partialRule(double[] speeds, int offset, double u) {
+		double sum = 0;
+		for (int i = 0; i < HALVES_NODES.length; i++) {
+			double[] coefficients = PARTIAL_WEIGHTS[i];
+			double weight = 0;
+			for (int k = coefficients.length - 1; k >= 0; k--) {
+				weight = weight * u + coefficients[k];
+			}
+			sum += weight * speeds[offset + i];
+		}
+		return sum;
+	}
+
+	private static double[] halvesNodes() {
+		double[] nodes = new double[2 * NODES.length];
+		for (int i = 0; i < NODES.length; i++) {
+			nodes[i] = 0.5 * NODES[i];
+			nodes[NODES.length + i] = 0.5 + 0.5 * NODES[i];
+		}
+		return nodes;
+	}
+
+	private static double[][] integrateBasis(double[] nodes) {
+		int n = nodes.length;
+		double[][] integrals = new double[n][n + 1];
+		for (int i = 0; i < n; i++) {
+			// expand the product of (u - x_j) / (x_i - x_j) over j != i, then integrate it term by term
+			double[] basis = new double[n];
+			basis[0] = 1;
+			int degree = 0;
+			for (int j = 0; j < n; j++) {
+				if (j == i) {
+					continue;
+				}
+				double scale = 1 / (nodes[i] - nodes[j]);
+				for (int k = degree + 1; k >= 0; k--) {
+					basis[k] = scale * ((k > 0 ? basis[k - 1] : 0) - nodes[j] * basis[k]);
+				}
+				degree++;
+			}
+			for (int k = 0; k < n; k++) {
+				integrals[i][k + 1] = basis[k] / (k + 1);
+			}
+		}
+		return integrals;
+	}
+
+	private static void checkTolerance(double tolerance) {
+		if (!(tolerance > 0)) {
+			throw new IllegalArgumentException("The arc length tolerance must be positive, got " + tolerance);
+		}
+	}
+
+	/**
+	 * The intervals accepted by the adaptive integration, in increasing order, each with its right end, its length and
+	 * the speeds sampled by the rules over its two halves.
+	 */
+	private static final class Partition {
+
+		private double[] ends = new double[16];
+		private double[] lengths = new double[16];
+		private double[] speeds = new double[10 * 16];
+		private int size = 0;
+		// the speeds sampled by the rules over the two halves of the interval being tested
+		private final double[] pending = new double[10];
+
+		private void add(double end, double length) {
+			if (size == ends.length) {
+				ends = Arrays.copyOf(ends, 2 * size);
+				lengths = Arrays.copyOf(lengths, 2 * size);
+				speeds = Arrays.copyOf(speeds, 20 * size);
+			}
+			ends[size] = end;
+			lengths[size] = length;
+			System.arraycopy(pending, 0, speeds, 10 * size, 10);
+			size++;
+		}
+
+	}
+
+}
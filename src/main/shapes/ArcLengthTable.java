@@ -0,0 +1,251 @@
+package main.shapes;
+
+import java.util.Arrays;
+
+import main.utils.Utility;
+
+/**
+ * A lookup table from proportions of arc length to values of the curve parameter t, built from a run of samples
+ * along a curve. The table holds the cumulative length from the first sample to each sample as a proportion of the
+ * total length, measured either along the chords between samples or by integrating the speed of the curve with
+ * {@link ArcLengthIntegrator}, and finds the segment holding a proportion s by binary search, so that a lookup costs
+ * O(log n) in the number of samples rather than a scan of the whole table.
+ * <p>
+ * Callers that look up a steadily advancing s, such as an animation along the curve, can pass a {@link Cursor}
+ * remembering the last segment found; a lookup that lands in the same or the next segment then takes constant time,
+ * and any other lookup falls back to the binary search.
+ * @author smaffa
+ *
+ */
+public class ArcLengthTable {
+
+	private final double[] t;
+	private final double[] cumulativeLength;
+	private final double totalLength;
+
+	/**
+	 * Constructor for an ArcLengthTable object over a set of samples along a curve, measuring the length between
+	 * consecutive samples by the chord between them
+	 * @param samples	the {@link CurveSamples} object holding at least two samples, in increasing order of t
+	 */
+	public ArcLengthTable(CurveSamples samples) {
+		this(Arrays.copyOf(samples.getT(), samples.size()), chordLengths(samples));
+	}
+
+	/**
+	 * Constructor for an ArcLengthTable object from the cumulative length of a curve at increasing values of t. The
+	 * arrays are owned by the table, and the lengths are normalized in place.
+	 * @param t		the values of the curve parameter, in increasing order
+	 * @param cumulativeLength	the length of the curve from t[0] to each value of t, starting at 0
+	 */
+	ArcLengthTable(double[] t, double[] cumulativeLength) {
+		int size = t.length;
+		if (size < 2) {
+			throw new IllegalArgumentException("An arc length table needs at least two samples, got " + size);
+		}
+		this.t = t;
+		this.cumulativeLength = cumulativeLength;
+		this.totalLength = cumulativeLength[size - 1];
+		if (totalLength > 0) {
+			for (int i = 1; i < size; i++) {
+				cumulativeLength[i] /= totalLength;
+			}
+		} else {
+			// a curve collapsed to a point has no arc length to follow, so fall back to even spacing by sample
+			for (int i = 1; i < size; i++) {
+				cumulativeLength[i] = (double) i / (size - 1);
+			}
+		}
+	}
+
+	private static double[] chordLengths(CurveSamples samples) {
+		double[] xs = samples.getX();
+		double[] ys = samples.getY();
+		double[] cumulativeLength = new double[samples.size()];
+		for (int i = 1; i < cumulativeLength.length; i++) {
+			double dx = xs[i] - xs[i-1];
+			double dy = ys[i] - ys[i-1];
+			cumulativeLength[i] = cumulativeLength[i-1] + Math.sqrt(dx * dx + dy * dy);
+		}
+		return cumulativeLength;
+	}
+
+	/**
+	 * Provides the number of samples in the table.
+	 * @return the number of samples
+	 */
+	public int size() {
+		return t.length;
+	}
+
+	/**
+	 * Provides the total length the table was built from.
+	 * @return the unnormalized arc length of the curve, as measured when the table was built
+	 */
+	public double getTotalLength() {
+		return totalLength;
+	}
+
+	/**
+	 * Provides the value of the curve parameter at a sample.
+	 * @param index		the index of the sample
+	 * @return the value of t the sample was taken at
+	 */
+	public double getSampleT(int index) {
+		return t[index];
+	}
+
+	/**
+	 * Provides the distance from the first sample to a sample, as a proportion of the total length.
+	 * @param index		the index of the sample
+	 * @return a double between 0 and 1, inclusive
+	 */
+	public double getCumulativeLength(int index) {
+		return cumulativeLength[index];
+	}
+
+	/**
+	 * Estimates the value of the curve parameter t which produces the point s proportion of the distance from the
+	 * first endpoint of the curve.
+	 * @param s		a double value between 0 and 1, inclusive, representing the proportion of the total length; values
+	 * outside the range are clamped to it
+	 * @return a double approximation for the curve parameter t
+	 */
+	public double getT(double s) {
+		s = clamp(s);
+		return interpolate(findSegment(cumulativeLength, cumulativeLength.length, s), s);
+	}
+
+	/**
+	 * Estimates the value of the curve parameter t which produces the point s proportion of the distance from the
+	 * first endpoint of the curve, starting the search from the segment a cursor last landed in. The cursor is moved
+	 * to the segment holding s.
+	 * @param s		a double value between 0 and 1, inclusive, representing the proportion of the total length; values
+	 * outside the range are clamped to it
+	 * @param cursor	the {@link Cursor} object holding the hint, or null to search the whole table
+	 * @return a double approximation for the curve parameter t
+	 */
+	public double getT(double s, Cursor cursor) {
+		s = clamp(s);
+		return interpolate(findSegment(s, cursor), s);
+	}
+
+	/**
+	 * Finds the segment of the table holding s, starting from the segment a cursor last landed in, and moves the
+	 * cursor to it.
+	 * @param s		a double value between 0 and 1, inclusive
+	 * @param cursor	the {@link Cursor} object holding the hint, or null to search the whole table
+	 * @return the index i of the segment from sample i to sample i + 1 holding s
+	 */
+	int findSegment(double s, Cursor cursor) {
+		int n = cumulativeLength.length;
+		if (cursor == null) {
+			return findSegment(cumulativeLength, n, s);
+		}
+		int segment = Math.min(Math.max(cursor.segment, 0), n - 2);
+		if (!isInSegment(cumulativeLength, n, segment, s)) {
+			if (segment < n - 2 && isInSegment(cumulativeLength, n, segment + 1, s)) {
+				segment++;
+			} else {
+				segment = findSegment(cumulativeLength, n, s);
+			}
+		}
+		cursor.segment = segment;
+		return segment;
+	}
+
+	double interpolate(int segment, double s) {
+		return interpolate(cumulativeLength, segment, s, t[segment], t[segment+1]);
+	}
+
+	/**
+	 * Interpolates the curve parameter linearly in arc length within a segment of a cumulative length table.
+	 * @param cumulativeLength	the nondecreasing cumulative lengths
+	 * @param segment	the index i of the segment from sample i to sample i + 1 holding s
+	 * @param s		the proportion of the total length
+	 * @param tLow	the value of t at sample i
+	 * @param tHigh		the value of t at sample i + 1
+	 * @return the interpolated value of t
+	 */
+	static double interpolate(double[] cumulativeLength, int segment, double s, double tLow, double tHigh) {
+		double segmentLength = cumulativeLength[segment+1] - cumulativeLength[segment];
+		double sPartial = segmentLength > 0 ? Math.max(0, s - cumulativeLength[segment]) / segmentLength : 1;
+		return Utility.lerp(tLow, tHigh, sPartial);
+	}
+
+	static double clamp(double s) {
+		return s < 0 ? 0 : (s > 1 ? 1 : s);
+	}
+
+	private static boolean isInSegment(double[] cumulativeLength, int size, int segment, double s) {
+		return cumulativeLength[segment] <= s && (segment == size - 2 || s < cumulativeLength[segment+1]);
+	}
+
+	/**
+	 * Finds the last segment of a nondecreasing cumulative length table which starts at or before s.
+	 * @param cumulativeLength	the nondecreasing cumulative lengths
+	 * @param size		the number of entries in use, at least two
+	 * @param s			the proportion of the total length to find
+	 * @return the index i, between 0 and size - 2, of the segment from sample i to sample i + 1 holding s
+	 */
+	static int findSegment(double[] cumulativeLength, int size, double s) {
+		// invariant: cumulativeLength[low] <= s, or low == 0; every segment after high starts after s
+		int low = 0;
+		int high = size - 2;
+		while (low < high) {
+			int mid = (low + high + 1) >>> 1;
+			if (cumulativeLength[mid] <= s) {
+				low = mid;
+			} else {
+				high = mid - 1;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * A hint for lookups of a steadily advancing s, remembering the segment of the table the last lookup landed in,
+	 * and, for {@link ArcLengthIntegrator#solveT}, the last value of t solved for and the arc length up to it, which
+	 * warm start the next solve. The solve remembers the table it was made with, and only warm starts from a solve
+	 * on the same table, so a cursor stays valid, if less useful, when the table is rebuilt.
+	 * @author smaffa
+	 *
+	 */
+	public static class Cursor {
+
+		int segment = 0;
+		ArcLengthTable table;
+		double t = Double.NaN;
+		double length = Double.NaN;
+		int iterationCount = 0;
+
+		/**
+		 * Moves the cursor back to the start of the table, and forgets the last value of t solved for.
+		 */
+		public void reset() {
+			segment = 0;
+			table = null;
+			t = Double.NaN;
+			length = Double.NaN;
+			iterationCount = 0;
+		}
+
+		/**
+		 * Provides the last value of t solved for.
+		 * @return the curve parameter found by the last solve, or NaN if none has been made since the last reset
+		 */
+		public double getT() {
+			return t;
+		}
+
+		/**
+		 * Provides the number of Newton steps taken by the last solve.
+		 * @return the number of times the arc length was measured by the last solve
+		 */
+		public int getIterationCount() {
+			return iterationCount;
+		}
+
+	}
+
+}
@@ -0,0 +1,401 @@
+package main.shapes;
+
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Class representing a B-spline curve: a piecewise polynomial curve of a given degree, defined by a sequence of
+ * control points and a clamped, non-decreasing knot vector. The curve starts at the first control point, ends at the
+ * last, and is evaluated over the parameter domain [knot(degree), knot(controlPointCount)] by de Boor's algorithm.
+ * <p>
+ * Every non-empty knot span is a Bezier curve of the same degree. {@link #toBezierCurves()} and
+ * {@link #toBezierBatch(CubicCurveBatch)} extract those segments by knot insertion in a single pass over the control
+ * points, so that long splines can be drawn and measured with the Bezier curve code.
+ * @author smaffa
+ *
+ */
+public class BSplineCurve {
+
+	private final Point2D[] controlPoints;
+	private final int degree;
+	private final double[] knots;
+
+	/**
+	 * Constructor for a B-spline curve with a clamped, uniform knot vector, so that every segment has the same
+	 * parameter length
+	 * @param controlPoints		at least degree + 1 {@link Point2D} objects, in order along the curve
+	 * @param degree	the degree of the polynomial segments, at least 1
+	 */
+	public BSplineCurve(Point2D[] controlPoints, int degree) {
+		this(controlPoints, degree, clampedUniformKnots(controlPoints.length, degree));
+	}
+
+	/**
+	 * Constructor for a B-spline curve with a specified knot vector
+	 * @param controlPoints		at least degree + 1 {@link Point2D} objects, in order along the curve
+	 * @param degree	the degree of the polynomial segments, at least 1
+	 * @param knots		controlPoints.length + degree + 1 non-decreasing knots, whose first degree + 1 and last
+	 * degree + 1 values are equal, and in which no interior knot is repeated more than degree times
+	 */
+	public BSplineCurve(Point2D[] controlPoints, int degree, double[] knots) {
+		if (degree < 1) {
+			throw new IllegalArgumentException("The degree must be at least 1: " + degree);
+		}
+		if (controlPoints.length < degree + 1) {
+			throw new IllegalArgumentException("A B-spline of degree " + degree + " needs at least " + (degree + 1)
+					+ " control points: " + controlPoints.length);
+		}
+		checkKnots(knots, controlPoints.length, degree);
+		this.controlPoints = Arrays.copyOf(controlPoints, controlPoints.length);
+		this.degree = degree;
+		this.knots = Arrays.copyOf(knots, knots.length);
+	}
+
+	/**
+	 * Builds the clamped knot vector with unit spacing between distinct knots.
+	 * @param nControlPoints	the number of control points
+	 * @param degree	the degree of the curve
+	 * @return an array of nControlPoints + degree + 1 knots, running from 0 to nControlPoints - degree
+	 */
+	public static double[] clampedUniformKnots(int nControlPoints, int degree) {
+		double[] knots = new double[nControlPoints + degree + 1];
+		int nSegments = nControlPoints - degree;
+		for (int i = 0; i < knots.length; i++) {
+			knots[i] = Math.min(Math.max(i - degree, 0), nSegments);
+		}
+		return knots;
+	}
+
+	private static void checkKnots(double[] knots, int nControlPoints, int degree) {
+		if (knots.length != nControlPoints + degree + 1) {
+			throw new IllegalArgumentException("Expected " + (nControlPoints + degree + 1) + " knots: "
+					+ knots.length);
+		}
+		int multiplicity = 1;
+		for (int i = 1; i < knots.length; i++) {
+			if (!(knots[i] >= knots[i - 1])) {
+				throw new IllegalArgumentException("Knots must be non-decreasing: " + knots[i - 1] + ", " + knots[i]);
+			}
+			multiplicity = knots[i] == knots[i - 1] ? multiplicity + 1 : 1;
+			if (multiplicity > degree && i > degree && i < nControlPoints) {
+				throw new IllegalArgumentException("Interior knot " + knots[i] + " is repeated more than " + degree
+						+ " times");
+			}
+		}
+		for (int i = 1; i <= degree; i++) {
+			if (knots[i] != knots[0] || knots[knots.length - 1 - i] != knots[knots.length - 1]) {
+				throw new IllegalArgumentException("The knot vector must be clamped: the first and last "
+						+ (degree + 1) + " knots must be equal");
+			}
+		}
+		if (!(knots[knots.length - 1] > knots[0])) {
+			throw new IllegalArgumentException("The knot vector must span a non-empty domain");
+		}
+	}
+
+	public Point2D[] getControlPoints() {
+		return Arrays.copyOf(controlPoints, controlPoints.length);
+	}
+
+	public Point2D getControlPoint(int index) {
+		return controlPoints[index];
+	}
+
+	/**
+	 * Replaces a control point of the curve.
+	 * @param index		the index of the control point
+	 * @param point		the new {@link Point2D} control point
+	 */
+	public void setControlPoint(int index, Point2D point) {
+		controlPoints[index] = point;
+	}
+
+	public int getControlPointCount() {
+		return controlPoints.length;
+	}
+
+	public int getDegree() {
+		return degree;
+	}
+
+	public double[] getKnots() {
+		return Arrays.copyOf(knots, knots.length);
+	}
+
+	public double getDomainStart() {
+		return knots[degree];
+	}
+
+	public double getDomainEnd() {
+		return knots[controlPoints.length];
+	}
+
+	/**
+	 * Provides the number of Bezier segments of the curve, which is the number of non-empty knot spans.
+	 * @return an integer count of the segments
+	 */
+	public int getSegmentCount() {
+		int nSegments = 0;
+		for (int i = degree; i < controlPoints.length; i++) {
+			if (knots[i + 1] > knots[i]) {
+				nSegments++;
+			}
+		}
+		return nSegments;
+	}
+
+	/**
+	 * Finds the knot span holding a parameter value by binary search.
+	 * @param u		a parameter value, which is clamped to the domain
+	 * @return the index k such that knot(k) <= u < knot(k + 1), or the last non-empty span if u is at the end of
+	 * the domain
+	 */
+	protected int findSpan(double u) {
+		int n = controlPoints.length - 1;
+		if (u >= knots[n + 1]) {
+			int span = n;
+			while (knots[span] == knots[span + 1]) {
+				span--;
+			}
+			return span;
+		}
+		if (u <= knots[degree]) {
+			return degree;
+		}
+		int low = degree;
+		int high = n + 1;
+		int mid = (low + high) >>> 1;
+		while (u < knots[mid] || u >= knots[mid + 1]) {
+			if (u < knots[mid]) {
+				high = mid;
+			} else {
+				low = mid;
+			}
+			mid = (low + high) >>> 1;
+		}
+		return mid;
+	}
+
+	/**
+	 * Provides the point identified by parameter value u along the curve.
+	 * @param u		a parameter value in the domain of the curve
+	 * @return a {@link Point2D} object representing the (x,y) coordinates of the curve at u
+	 */
+	public Point2D computePositionAtT(double u) {
+		return computePositionAtT(u, new Point2D.Double());
+	}
+
+	/**
+	 * Writes the point identified by parameter value u along the curve into a caller-supplied point, by de Boor's
+	 * algorithm on the degree + 1 control points that influence the span holding u.
+	 * @param u		a parameter value in the domain of the curve
+	 * @param out	the {@link Point2D} object that receives the (x,y) coordinates
+	 * @return the out {@link Point2D} object
+	 */
+	public Point2D computePositionAtT(double u, Point2D out) {
+		int span = findSpan(u);
+		double[] dx = new double[degree + 1];
+		double[] dy = new double[degree + 1];
+		for (int j = 0; j <= degree; j++) {
+			Point2D pt = controlPoints[span - degree + j];
+			dx[j] = pt.getX();
+			dy[j] = pt.getY();
+		}
+		deBoor(span, u, dx, dy);
+		out.setLocation(dx[degree], dy[degree]);
+		return out;
+	}
+
+	/**
+	 * Runs the triangular scheme of de Boor's algorithm in place on the coordinates of the control points of a span.
+	 * The result is left at index degree of each array.
+	 * @param span	the knot span holding u
+	 * @param u		the parameter value
+	 * @param coordinates	arrays of degree + 1 values each
+	 */
+	protected void deBoor(int span, double u, double[]... coordinates) {
+		for (int r = 1; r <= degree; r++) {
+			for (int j = degree; j >= r; j--) {
+				double left = knots[span - degree + j];
+				double alpha = (u - left) / (knots[span + 1 + j - r] - left);
+				for (double[] d : coordinates) {
+					d[j] = (1 - alpha) * d[j - 1] + alpha * d[j];
+				}
+			}
+		}
+	}
+
+	/**
+	 * Samples the position of the curve at bezierFineness regular intervals over its parameter domain.
+	 * @param bezierFineness	the number of intervals to sample
+	 * @return an array of bezierFineness + 1 {@link Point2D} objects along the curve
+	 */
+	public Point2D[] computePosition(int bezierFineness) {
+		double start = getDomainStart();
+		double length = getDomainEnd() - start;
+		Point2D[] positions = new Point2D[bezierFineness + 1];
+		for (int i = 0; i <= bezierFineness; i++) {
+			positions[i] = computePositionAtT(start + length * i / bezierFineness);
+		}
+		return positions;
+	}
+
+	/**
+	 * Converts the curve into its Bezier segments, one for each non-empty knot span. Segments of degree 2 and 3 are
+	 * {@link QuadraticBezierCurve} and {@link CubicBezierCurve} objects; other degrees give
+	 * {@link GeneralBezierCurve} objects.
+	 * @return a {@link List} of getSegmentCount() {@link BezierCurve} objects, in order along the curve
+	 */
+	public List<BezierCurve> toBezierCurves() {
+		double[][] segments = decompose(controlCoordinates(0), controlCoordinates(1));
+		int nSegments = segments[0].length / (degree + 1);
+		List<BezierCurve> curves = new ArrayList<BezierCurve>(nSegments);
+		for (int i = 0; i < nSegments; i++) {
+			Point2D[] points = new Point2D[degree + 1];
+			for (int j = 0; j <= degree; j++) {
+				points[j] = new Point2D.Double(segments[0][i * (degree + 1) + j], segments[1][i * (degree + 1) + j]);
+			}
+			if (degree == 3) {
+				curves.add(new CubicBezierCurve(points[0], points[1], points[2], points[3]));
+			} else if (degree == 2) {
+				curves.add(new QuadraticBezierCurve(points[0], points[1], points[2]));
+			} else {
+				curves.add(new GeneralBezierCurve(points));
+			}
+		}
+		return curves;
+	}
+
+	/**
+	 * Converts the curve into cubic Bezier segments packed into a batch, one for each non-empty knot span. Segments
+	 * of degree 1 and 2 are raised to degree 3 exactly. The conversion takes time linear in the number of control
+	 * points, and creates no curve or point objects.
+	 * @param batch		the {@link CubicCurveBatch} that receives the segments, replacing its contents
+	 * @return the batch
+	 * @throws IllegalStateException if the degree of the curve is above 3
+	 */
+	public CubicCurveBatch toBezierBatch(CubicCurveBatch batch) {
+		if (degree > 3) {
+			throw new IllegalStateException("Segments of degree " + degree + " are not cubic");
+		}
+		double[][] segments = decompose(controlCoordinates(0), controlCoordinates(1));
+		packCubics(segments[0], segments[1], degree, batch);
+		return batch;
+	}
+
+	/**
+	 * Packs Bezier segments of degree 1 to 3 into a batch of cubic curves, raising the degree where necessary.
+	 * @param xs	the x coordinates of the control points of the segments, degree + 1 per segment
+	 * @param ys	the y coordinates of the control points of the segments, degree + 1 per segment
+	 * @param degree	the degree of the segments
+	 * @param batch		the {@link CubicCurveBatch} that receives the segments, replacing its contents
+	 */
+	static void packCubics(double[] xs, double[] ys, int degree, CubicCurveBatch batch) {
+		int nSegments = xs.length / (degree + 1);
+		batch.clear();
+		batch.ensureCapacity(nSegments);
+		for (int i = 0; i < nSegments; i++) {
+			int base = i * (degree + 1);
+			if (degree == 3) {
+				batch.add(xs[base], ys[base], xs[base + 1], ys[base + 1], xs[base + 2], ys[base + 2],
+						xs[base + 3], ys[base + 3]);
+			} else if (degree == 2) {
+				batch.add(xs[base], ys[base], (xs[base] + 2 * xs[base + 1]) / 3, (ys[base] + 2 * ys[base + 1]) / 3,
+						(2 * xs[base + 1] + xs[base + 2]) / 3, (2 * ys[base + 1] + ys[base + 2]) / 3,
+						xs[base + 2], ys[base + 2]);
+			} else {
+				batch.add(xs[base], ys[base], (2 * xs[base] + xs[base + 1]) / 3, (2 * ys[base] + ys[base + 1]) / 3,
+						(xs[base] + 2 * xs[base + 1]) / 3, (ys[base] + 2 * ys[base + 1]) / 3,
+						xs[base + 1], ys[base + 1]);
+			}
+		}
+	}
+
+	/**
+	 * Copies one coordinate of every control point into an array.
+	 * @param dim	the coordinate: 0 for x, 1 for y
+	 * @return an array of getControlPointCount() doubles
+	 */
+	protected double[] controlCoordinates(int dim) {
+		double[] values = new double[controlPoints.length];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = dim == 0 ? controlPoints[i].getX() : controlPoints[i].getY();
+		}
+		return values;
+	}
+
+	/**
+	 * Decomposes the curve into its Bezier segments by inserting every interior knot until its multiplicity equals
+	 * the degree (Piegl and Tiller, The NURBS Book, algorithm A5.6). Each coordinate is decomposed independently, so
+	 * the method applies equally to homogeneous coordinates. The work is proportional to the number of control points
+	 * times the square of the degree.
+	 * @param coordinates	arrays of getControlPointCount() control values each
+	 * @return for each input array, an array of getSegmentCount() * (degree + 1) values, holding the Bezier control
+	 * values of each segment in turn
+	 */
+	protected double[][] decompose(double[]... coordinates) {
+		int p = degree;
+		int m = knots.length - 1;
+		int nDims = coordinates.length;
+		double[][] segments = new double[nDims][getSegmentCount() * (p + 1)];
+		double[] alphas = new double[p];
+		for (int d = 0; d < nDims; d++) {
+			System.arraycopy(coordinates[d], 0, segments[d], 0, p + 1);
+		}
+		int a = p;
+		int b = p + 1;
+		int segment = 0;
+		while (b < m) {
+			int i = b;
+			while (b < m && knots[b + 1] == knots[b]) {
+				b++;
+			}
+			int multiplicity = b - i + 1;
+			int base = segment * (p + 1);
+			if (multiplicity < p) {
+				double numerator = knots[b] - knots[a];
+				for (int j = p; j > multiplicity; j--) {
+					alphas[j - multiplicity - 1] = numerator / (knots[a + j] - knots[a]);
+				}
+				int r = p - multiplicity;
+				for (int j = 1; j <= r; j++) {
+					int save = r - j;
+					int s = multiplicity + j;
+					for (int k = p; k >= s; k--) {
+						double alpha = alphas[k - s];
+						for (double[] q : segments) {
+							q[base + k] = alpha * q[base + k] + (1 - alpha) * q[base + k - 1];
+						}
+					}
+					if (b < m) {
+						// the last point of each insertion is also a control point of the next segment
+						for (double[] q : segments) {
+							q[base + p + 1 + save] = q[base + p];
+						}
+					}
+				}
+			}
+			segment++;
+			if (b < m) {
+				int nextBase = segment * (p + 1);
+				for (int j = p - multiplicity; j <= p; j++) {
+					for (int d = 0; d < nDims; d++) {
+						segments[d][nextBase + j] = coordinates[d][b - p + j];
+					}
+				}
+				a = b;
+				b++;
+			}
+		}
+		return segments;
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " [degree=" + degree + ", controlPoints=" + Arrays.toString(controlPoints)
+				+ ", knots=" + Arrays.toString(knots) + "]";
+	}
+
+}
@@ -0,0 +1,120 @@
+package main.shapes;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+import main.utils.CubicBasisTable;
+
+/**
+ * The {@link CurveEvaluator} that samples a curve as weighted sums of its control points with the shared Bernstein
+ * weight tables of {@link CubicBasisTable}, running the sums through a {@link BernsteinKernel}. It is registered
+ * twice in {@link CurveEvaluators}: with the scalar kernel, and with the vector kernel when the JVM can load it.
+ * Both produce bit-identical samples.
+ * @author smaffa
+ *
+ */
+final class BernsteinCurveEvaluator implements CurveEvaluator {
+
+	private final String name;
+	private final BernsteinKernel kernel;
+	private final Set<EvaluatorCapability> capabilities;
+
+	/**
+	 * Constructor for a BernsteinCurveEvaluator
+	 * @param name	the name to register the backend under
+	 * @param kernel	the {@link BernsteinKernel} that runs the sums
+	 */
+	BernsteinCurveEvaluator(String name, BernsteinKernel kernel) {
+		this.name = name;
+		this.kernel = kernel;
+		EnumSet<EvaluatorCapability> capabilities = EnumSet.of(EvaluatorCapability.POINT_EVALUATION,
+				EvaluatorCapability.EXACT_ENDPOINTS, EvaluatorCapability.BIT_IDENTICAL);
+		if (kernel == BernsteinKernel.getScalarInstance()) {
+			capabilities.add(EvaluatorCapability.ALLOCATION_FREE);
+		} else {
+			capabilities.add(EvaluatorCapability.SIMD);
+		}
+		this.capabilities = Collections.unmodifiableSet(capabilities);
+	}
+
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public Set<EvaluatorCapability> getCapabilities() {
+		return capabilities;
+	}
+
+	public BernsteinKernel getKernel() {
+		return kernel;
+	}
+
+	@Override
+	public void sample(double[] control, int controlOffset, int derivativeOrder, int bezierFineness,
+			double[] xs, int xOffset, double[] ys, int yOffset, int stride) {
+		CubicBasisTable weights = CubicBasisTable.getBernsteinWeights(bezierFineness, derivativeOrder);
+		double p1X = control[controlOffset];
+		double p1Y = control[controlOffset + 1];
+		double c1X = control[controlOffset + 2];
+		double c1Y = control[controlOffset + 3];
+		double c2X = control[controlOffset + 4];
+		double c2Y = control[controlOffset + 5];
+		double p2X = control[controlOffset + 6];
+		double p2Y = control[controlOffset + 7];
+
+		if (stride == 1) {
+			// contiguous output: let the kernel run down the weight columns
+			weights.combine(kernel, p1X, c1X, c2X, p2X, xs, xOffset);
+			weights.combine(kernel, p1Y, c1Y, c2Y, p2Y, ys, yOffset);
+			return;
+		}
+		for (int i = 0; i <= bezierFineness; i++) {
+			double w0 = weights.get(i, 0);
+			double w1 = weights.get(i, 1);
+			double w2 = weights.get(i, 2);
+			double w3 = weights.get(i, 3);
+			xs[xOffset + i * stride] = w0 * p1X + w1 * c1X + w2 * c2X + w3 * p2X;
+			ys[yOffset + i * stride] = w0 * p1Y + w1 * c1Y + w2 * c2Y + w3 * p2Y;
+		}
+	}
+
+	@Override
+	public void evaluate(double[] control, int controlOffset, int derivativeOrder, double t,
+			double[] out, int outOffset) {
+		double s = 1 - t;
+		double w0;
+		double w1;
+		double w2;
+		double w3;
+		switch (derivativeOrder) {
+		case 0:
+			w0 = s * s * s;
+			w1 = 3 * s * s * t;
+			w2 = 3 * s * t * t;
+			w3 = t * t * t;
+			break;
+		case 1:
+			w0 = -3 * s * s;
+			w1 = 3 * s * (s - 2 * t);
+			w2 = 3 * t * (2 * s - t);
+			w3 = 3 * t * t;
+			break;
+		case 2:
+			w0 = 6 * s;
+			w1 = 6 * t - 12 * s;
+			w2 = 6 * s - 12 * t;
+			w3 = 6 * t;
+			break;
+		default:
+			throw new IllegalArgumentException("derivativeOrder must be between 0 and 2: " + derivativeOrder);
+		}
+		for (int dim = 0; dim < 2; dim++) {
+			out[outOffset + dim] = w0 * control[controlOffset + dim] + w1 * control[controlOffset + 2 + dim]
+					+ w2 * control[controlOffset + 4 + dim] + w3 * control[controlOffset + 6 + dim];
+		}
+	}
+
+}
@@ -0,0 +1,111 @@
+package main.shapes;
+
+/**
+ * The inner loops of bulk cubic Bezier evaluation: weighted sums of four control coordinates with the four cubic
+ * Bernstein weights (or their derivatives), either for one curve over a run of samples of t, or for a run of curves at
+ * one value of t. This class is the portable scalar implementation. On Java 17 and later the multi-release jar also
+ * carries a subclass that evaluates the same sums with SIMD lanes of the incubating Vector API;
+ * {@link #getInstance()} selects it when the running JVM can load it, and falls back to this class otherwise.
+ * <p>
+ * Every implementation accumulates the sums in the same order, w0 * a + w1 * b + w2 * c + w3 * d, without fused
+ * multiply-adds, so that all backends produce bit-identical results.
+ * @author smaffa
+ *
+ */
+public class BernsteinKernel {
+
+	/**
+	 * The system property that selects the kernel: "scalar" forces the scalar kernel, and any other value, or none,
+	 * selects the vector kernel when it is available.
+	 */
+	public static final String KERNEL_PROPERTY = "main.shapes.kernel";
+
+	private static final String VECTOR_KERNEL_CLASS = "main.shapes.VectorBernsteinKernel";
+	private static final BernsteinKernel SCALAR = new BernsteinKernel();
+	private static final BernsteinKernel INSTANCE = selectInstance();
+
+	protected BernsteinKernel() {
+	}
+
+	/**
+	 * Provides the kernel used for bulk evaluation in this JVM.
+	 * @return the vector kernel if it is available and not disabled, the scalar kernel otherwise
+	 */
+	public static BernsteinKernel getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Provides the portable scalar kernel, whatever kernel is selected for this JVM.
+	 * @return the scalar {@link BernsteinKernel}
+	 */
+	public static BernsteinKernel getScalarInstance() {
+		return SCALAR;
+	}
+
+	private static BernsteinKernel selectInstance() {
+		if ("scalar".equals(System.getProperty(KERNEL_PROPERTY))) {
+			return SCALAR;
+		}
+		try {
+			// only present in the Java 17 part of the multi-release jar, and only loadable when the JVM was started
+			// with --add-modules jdk.incubator.vector
+			Class<?> vectorKernel = Class.forName(VECTOR_KERNEL_CLASS);
+			return (BernsteinKernel) vectorKernel.getDeclaredConstructor().newInstance();
+		} catch (ReflectiveOperationException | LinkageError e) {
+			return SCALAR;
+		}
+	}
+
+	/**
+	 * Provides a name for the kernel, for diagnostics.
+	 * @return a String naming the kernel
+	 */
+	public String getName() {
+		return "scalar";
+	}
+
+	/**
+	 * Evaluates one coordinate of one curve at a run of samples: out[outOffset + k] = w0[k] * a + w1[k] * b
+	 * + w2[k] * c + w3[k] * d for k from 0 to count - 1, where w0 through w3 are the columns of a weight table.
+	 * @param w0	the weights of the first control coordinate
+	 * @param w1	the weights of the second control coordinate
+	 * @param w2	the weights of the third control coordinate
+	 * @param w3	the weights of the fourth control coordinate
+	 * @param a		the first control coordinate
+	 * @param b		the second control coordinate
+	 * @param c		the third control coordinate
+	 * @param d		the fourth control coordinate
+	 * @param out	the array that receives the samples
+	 * @param outOffset		the index in out of the first sample
+	 * @param count		the number of samples
+	 */
+	public void combineSamples(double[] w0, double[] w1, double[] w2, double[] w3,
+			double a, double b, double c, double d, double[] out, int outOffset, int count) {
+		for (int k = 0; k < count; k++) {
+			out[outOffset + k] = w0[k] * a + w1[k] * b + w2[k] * c + w3[k] * d;
+		}
+	}
+
+	/**
+	 * Evaluates one coordinate of a run of curves at one sample: out[i] = w0 * a[i] + w1 * b[i] + w2 * c[i]
+	 * + w3 * d[i] for i from 0 to count - 1, where a through d hold the control coordinates of the curves.
+	 * @param w0	the weight of the first control coordinate
+	 * @param w1	the weight of the second control coordinate
+	 * @param w2	the weight of the third control coordinate
+	 * @param w3	the weight of the fourth control coordinate
+	 * @param a		the first control coordinates of the curves
+	 * @param b		the second control coordinates of the curves
+	 * @param c		the third control coordinates of the curves
+	 * @param d		the fourth control coordinates of the curves
+	 * @param out	the array that receives the coordinate of curve i at index i
+	 * @param count		the number of curves
+	 */
+	public void combineCurves(double w0, double w1, double w2, double w3,
+			double[] a, double[] b, double[] c, double[] d, double[] out, int count) {
+		for (int i = 0; i < count; i++) {
+			out[i] = w0 * a[i] + w1 * b[i] + w2 * c[i] + w3 * d[i];
+		}
+	}
+
+}
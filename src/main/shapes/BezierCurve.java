@@ -1,9 +1,10 @@
 package main.shapes;
 
 import main.utils.Constants;
-import main.utils.Utility;
 
 import java.awt.geom.Point2D;
+import java.nio.BufferOverflowException;
+import java.nio.DoubleBuffer;
 import java.util.Arrays;
 
 /**
@@ -11,8 +12,19 @@ import java.util.Arrays;
  * @author smaffa
  *
  */
-public abstract class BezierCurve implements Transformable2D<BezierCurve> {
+public abstract class BezierCurve implements Transformable2D<BezierCurve>, Versioned {
     private int bezierFineness = Constants.BEZIER_FINENESS; // number of points to interpolate along the curve
+    private SamplingMode samplingMode = SamplingMode.DIRECT; // method for sampling along the curve
+    
+    // control point tracking, used to version-stamp data cached from the control points
+    private long version = 0;
+    private Point2D[] trackedPoints;
+    private long[] trackedVersions;
+    private double[] trackedCoordinates;
+    
+    // arc length table, built on demand and cached at arcLengthVersion
+    private ArcLengthTable arcLengthTable;
+    private long arcLengthVersion = -1;
 
     /**
      * Provides an array of points representing the position of the curve. The curve is discretely quantized by 
@@ -22,12 +34,263 @@ public abstract class BezierCurve implements Transformable2D<BezierCurve> {
      */
     public abstract Point2D[] computePosition();
     
+    /**
+     * Provides an array of points representing the position of the curve. The curve is discretely quantized by 
+     * bezierFineness regular intervals on the curve parameter t, bounded between 0 and 1, inclusive
+     * @param bezierFineness	the number of points to interpolate along the curve
+     * @return An array of {@link Point2D} objects of length bezierFineness + 1 representing (x,y) coordinates
+     * on the curve
+     */
+    public Point2D[] computePosition(int bezierFineness) {
+    	double[] coordinates = new double[2 * (bezierFineness + 1)];
+    	computePosition(bezierFineness, coordinates, 0);
+    	return toPoints(coordinates, bezierFineness + 1);
+    }
+    
+    /**
+     * Writes the position of the curve into a caller-supplied array as interleaved (x,y) pairs. The curve is 
+     * discretely quantized by bezierFineness regular intervals on the curve parameter t, bounded between 0 and 1, 
+     * inclusive
+     * @param bezierFineness	the number of points to interpolate along the curve
+     * @param xy	the array that receives 2 * (bezierFineness + 1) values
+     * @param offset	the index in xy of the first x coordinate
+     */
+    public void computePosition(int bezierFineness, double[] xy, int offset) {
+    	samplePosition(bezierFineness, xy, offset, xy, offset + 1, 2);
+    }
+    
+    /**
+     * Writes the position of the curve into caller-supplied arrays of x and y coordinates.
+     * @param bezierFineness	the number of points to interpolate along the curve
+     * @param xs	the array that receives bezierFineness + 1 x coordinates
+     * @param ys	the array that receives bezierFineness + 1 y coordinates
+     * @param offset	the index in xs and ys of the first sample
+     */
+    public void computePosition(int bezierFineness, double[] xs, double[] ys, int offset) {
+    	samplePosition(bezierFineness, xs, offset, ys, offset, 1);
+    }
+    
+    /**
+     * Writes the position of the curve into a {@link DoubleBuffer} as interleaved (x,y) pairs, starting at the 
+     * buffer's position and advancing it past the written values.
+     * @param bezierFineness	the number of points to interpolate along the curve
+     * @param buffer	the {@link DoubleBuffer} with at least 2 * (bezierFineness + 1) values remaining
+     * @throws BufferOverflowException if fewer values remain, in which case the buffer is left untouched
+     */
+    public void computePosition(int bezierFineness, DoubleBuffer buffer) {
+    	int length = 2 * (bezierFineness + 1);
+    	if (buffer.remaining() < length) {
+    		throw new BufferOverflowException();
+    	}
+    	if (buffer.hasArray()) {
+    		computePosition(bezierFineness, buffer.array(), buffer.arrayOffset() + buffer.position());
+    		buffer.position(buffer.position() + length);
+    	} else {
+    		double[] coordinates = new double[length];
+    		computePosition(bezierFineness, coordinates, 0);
+    		buffer.put(coordinates);
+    	}
+    }
+    
+    /**
+     * Writes the position of the curve into a reusable {@link CurveSamples} object.
+     * @param bezierFineness	the number of points to interpolate along the curve
+     * @param samples	the {@link CurveSamples} object to fill, which is resized to bezierFineness + 1 samples
+     * @return the samples {@link CurveSamples} object
+     */
+    public CurveSamples computePosition(int bezierFineness, CurveSamples samples) {
+    	samples.resize(bezierFineness + 1);
+    	computePosition(bezierFineness, samples.getX(), samples.getY(), 0);
+    	writeRegularT(bezierFineness, samples);
+    	return samples;
+    }
+    
+    /**
+     * Writes the values of t of bezierFineness regular intervals, bounded between 0 and 1, inclusive, into the t array
+     * of a {@link CurveSamples} object that already holds bezierFineness + 1 samples.
+     * @param bezierFineness	the number of intervals
+     * @param samples	the {@link CurveSamples} object to fill
+     */
+    static void writeRegularT(int bezierFineness, CurveSamples samples) {
+    	double[] tValues = samples.getT();
+    	for (int i = 0; i <= bezierFineness; i++) {
+    		tValues[i] = (double) i / bezierFineness;
+    	}
+    }
+    
+    /**
+     * Flattens the curve into a polyline that stays within a tolerance of the curve. The curve is halved by de 
+     * Casteljau subdivision until the control polygon of every piece lies within the tolerance of the chord between 
+     * its endpoints, so nearly straight stretches produce few samples and tight bends produce many. By the convex hull
+     * property, the curve then lies within the tolerance of the polyline.
+     * @param tolerance		the maximum distance, in the units of the control points, between the curve and the polyline
+     * @param samples	the {@link CurveSamples} object to fill with the vertices of the polyline and their values of t
+     * @return the samples {@link CurveSamples} object
+     */
+    public CurveSamples flatten(double tolerance, CurveSamples samples) {
+    	checkTolerance(tolerance);
+    	int nPoints = getControlPointCount();
+    	double[] xs = new double[nPoints];
+    	double[] ys = new double[nPoints];
+    	for (int i = 0; i < nPoints; i++) {
+    		Point2D pt = getControlPoint(i);
+    		xs[i] = pt.getX();
+    		ys[i] = pt.getY();
+    	}
+    	samples.clear();
+    	samples.add(0, xs[0], ys[0]);
+    	flattenControlPolygon(xs, ys, 0, 1, tolerance * tolerance, 0, samples);
+    	return samples;
+    }
+    
+    /**
+     * Flattens the curve into a polyline at the default tolerance of {@link Constants#FLATNESS_TOLERANCE}.
+     * @param samples	the {@link CurveSamples} object to fill with the vertices of the polyline and their values of t
+     * @return the samples {@link CurveSamples} object
+     * @see #flatten(double, CurveSamples)
+     */
+    public CurveSamples flatten(CurveSamples samples) {
+    	return flatten(Constants.FLATNESS_TOLERANCE, samples);
+    }
+    
+    /**
+     * Appends the polyline of the piece of the curve between t0 and t1, given by its control polygon, excluding the 
+     * piece's first point.
+     */
+    private static void flattenControlPolygon(double[] xs, double[] ys, double t0, double t1, double toleranceSq, 
+    		int depth, CurveSamples samples) {
+    	int n = xs.length - 1;
+    	boolean isFlat = true;
+    	for (int i = 1; i < n && isFlat; i++) {
+    		isFlat = isNearChord(xs[i], ys[i], xs[0], ys[0], xs[n] - xs[0], ys[n] - ys[0], toleranceSq);
+    	}
+    	if (isFlat || depth >= Constants.MAX_FLATTENING_DEPTH) {
+    		samples.add(t1, xs[n], ys[n]);
+    		return;
+    	}
+    	
+    	// de Casteljau subdivision at the midpoint: the left piece takes the first point of each level, the right 
+    	// piece the last point of each level
+    	double[] leftX = new double[n + 1];
+    	double[] leftY = new double[n + 1];
+    	double[] rightX = Arrays.copyOf(xs, n + 1);
+    	double[] rightY = Arrays.copyOf(ys, n + 1);
+    	for (int level = 0; level <= n; level++) {
+    		leftX[level] = rightX[0];
+    		leftY[level] = rightY[0];
+    		for (int i = 0; i < n - level; i++) {
+    			rightX[i] = 0.5 * (rightX[i] + rightX[i + 1]);
+    			rightY[i] = 0.5 * (rightY[i] + rightY[i + 1]);
+    		}
+    	}
+    	double tMid = 0.5 * (t0 + t1);
+    	flattenControlPolygon(leftX, leftY, t0, tMid, toleranceSq, depth + 1, samples);
+    	flattenControlPolygon(rightX, rightY, tMid, t1, toleranceSq, depth + 1, samples);
+    }
+    
+    /**
+     * Checks whether a point lies within a tolerance of a chord, both across the chord and past either of its ends.
+     * @param px	the x coordinate of the point
+     * @param py	the y coordinate of the point
+     * @param ax	the x coordinate of the start of the chord
+     * @param ay	the y coordinate of the start of the chord
+     * @param dx	the x component of the vector from the start to the end of the chord
+     * @param dy	the y component of the vector from the start to the end of the chord
+     * @param toleranceSq	the square of the tolerance
+     * @return true if the point is within the tolerance of the chord
+     */
+    protected static boolean isNearChord(double px, double py, double ax, double ay, double dx, double dy, 
+    		double toleranceSq) {
+    	double qx = px - ax;
+    	double qy = py - ay;
+    	double lengthSq = dx * dx + dy * dy;
+    	if (lengthSq == 0) {
+    		return qx * qx + qy * qy <= toleranceSq;
+    	}
+    	// the cross product is the distance from the chord's line, and the dot product the distance along it, 
+    	// both scaled by the length of the chord
+    	double cross = qx * dy - qy * dx;
+    	if (cross * cross > toleranceSq * lengthSq) {
+    		return false;
+    	}
+    	double dot = qx * dx + qy * dy;
+    	double overshoot = dot < 0 ? -dot : Math.max(0, dot - lengthSq);
+    	return overshoot * overshoot <= toleranceSq * lengthSq;
+    }
+    
+    /**
+     * Rejects flattening tolerances which are not positive.
+     * @param tolerance		the flattening tolerance
+     */
+    protected static void checkTolerance(double tolerance) {
+    	if (!(tolerance > 0)) {
+    		throw new IllegalArgumentException("tolerance must be positive: " + tolerance);
+    	}
+    }
+    
+    /**
+     * Samples the position of the curve at bezierFineness regular intervals on the curve parameter t. Sample i is 
+     * written to xs[xOffset + i * stride] and ys[yOffset + i * stride], so xs and ys may be the same array. 
+     * Subclasses should override this with an evaluation that does not allocate per sample.
+     * @param bezierFineness	the number of points to interpolate along the curve
+     * @param xs	the array that receives the x coordinates
+     * @param xOffset	the index in xs of the first x coordinate
+     * @param ys	the array that receives the y coordinates
+     * @param yOffset	the index in ys of the first y coordinate
+     * @param stride	the distance between consecutive samples in xs and ys
+     */
+    protected void samplePosition(int bezierFineness, double[] xs, int xOffset, double[] ys, int yOffset, int stride) {
+    	for (int i = 0; i <= bezierFineness; i++) {
+    		Point2D pt = computePositionAtT((double) i / bezierFineness);
+    		xs[xOffset + i * stride] = pt.getX();
+    		ys[yOffset + i * stride] = pt.getY();
+    	}
+    }
+    
+    /**
+     * Converts interleaved (x,y) coordinates into point objects.
+     * @param xy	the array of interleaved coordinates
+     * @param count		the number of points
+     * @return An array of {@link Point2D} objects of length count
+     */
+    protected static Point2D[] toPoints(double[] xy, int count) {
+    	Point2D[] points = new Point2D[count];
+    	for (int i = 0; i < count; i++) {
+    		points[i] = new Point2D.Double(xy[2 * i], xy[2 * i + 1]);
+    	}
+    	return points;
+    }
+    
     /**
      * Provides the point identified by parameter value t along the curve.
      * @param t		a double between 0 and 1, inclusive
      * @return A {@link Point2D} object providing the (x,y) coordinates of the specified point
      */
     public abstract Point2D computePositionAtT(double t);
+    
+    /**
+     * Provides the velocity of the curve at parameter value t.
+     * @param t		a double between 0 and 1, inclusive
+     * @return A {@link Point2D} object representing the velocity vector at the specified point
+     */
+    public abstract Point2D computeVelocityAtT(double t);
+    
+    /**
+     * Provides the acceleration of the curve at parameter value t.
+     * @param t		a double between 0 and 1, inclusive
+     * @return A {@link Point2D} object representing the acceleration vector at the specified point
+     */
+    public abstract Point2D computeAccelerationAtT(double t);
+    
+    /**
+     * Provides the speed of the curve at parameter value t, the magnitude of its velocity.
+     * @param t		a double between 0 and 1, inclusive
+     * @return a non-negative double representing the speed at the specified point
+     */
+    public double computeSpeedAtT(double t) {
+    	Point2D velocity = computeVelocityAtT(t);
+    	return Math.sqrt(velocity.getX() * velocity.getX() + velocity.getY() * velocity.getY());
+    }
 
     /**
      * Provides an array of points that control the shape of the curve.
@@ -37,6 +300,81 @@ public abstract class BezierCurve implements Transformable2D<BezierCurve> {
      */
     public abstract Point2D[] getControlPoints();
     
+    /**
+     * Provides the number of control points of the curve.
+     * @return an integer equal to order + 1
+     */
+    public int getControlPointCount() {
+    	return getOrder() + 1;
+    }
+    
+    /**
+     * Provides a single control point of the curve.
+     * @param index		the index of the control point, between 0 and order, inclusive
+     * @return the {@link Point2D} control point at the specified index of {@link #getControlPoints()}
+     */
+    public Point2D getControlPoint(int index) {
+    	return getControlPoints()[index];
+    }
+    
+    /**
+     * Provides the version of the curve's geometry. The version changes whenever a control point is replaced or
+     * moved, so data derived from the control points can be cached and stamped with the version it was computed at.
+     * Control points which implement {@link Versioned} are checked by their modification counter; any other
+     * points are checked by comparing their coordinates.
+     * @return a long value identifying the current state of the control points
+     */
+    @Override
+    public long getVersion() {
+    	int nPoints = getControlPointCount();
+    	if (trackedPoints == null || trackedPoints.length != nPoints) {
+    		trackedPoints = new Point2D[nPoints];
+    		trackedVersions = new long[nPoints];
+    		trackedCoordinates = new double[2 * nPoints];
+    		trackControlPoints();
+    		return version;
+    	}
+    	for (int i = 0; i < nPoints; i++) {
+    		Point2D pt = getControlPoint(i);
+    		boolean isChanged;
+    		if (pt != trackedPoints[i]) {
+    			isChanged = true;
+    		} else if (pt instanceof Versioned) {
+    			isChanged = ((Versioned) pt).getVersion() != trackedVersions[i];
+    		} else {
+    			isChanged = pt.getX() != trackedCoordinates[2 * i] || pt.getY() != trackedCoordinates[2 * i + 1];
+    		}
+    		if (isChanged) {
+    			trackControlPoints();
+    			break;
+    		}
+    	}
+    	return version;
+    }
+    
+    /**
+     * Advances the version of the curve, for subclasses whose geometry depends on more than the positions of the
+     * control points.
+     */
+    protected void advanceVersion() {
+    	getVersion();
+    	version++;
+    }
+    
+    /**
+     * Records the current state of the control points and advances the version of the curve.
+     */
+    private void trackControlPoints() {
+    	for (int i = 0; i < trackedPoints.length; i++) {
+    		Point2D pt = getControlPoint(i);
+    		trackedPoints[i] = pt;
+    		trackedVersions[i] = pt instanceof Versioned ? ((Versioned) pt).getVersion() : 0;
+    		trackedCoordinates[2 * i] = pt.getX();
+    		trackedCoordinates[2 * i + 1] = pt.getY();
+    	}
+    	version++;
+    }
+    
     /**
      * Provides an array of points that represent a sequence of linear interpolations at proportion t between
      * consecutive control points and subsequent reference points.
@@ -53,25 +391,116 @@ public abstract class BezierCurve implements Transformable2D<BezierCurve> {
      */
     public abstract int getOrder();
     
+    /**
+     * Provides the arc length of the curve, integrated to within {@link Constants#ARC_LENGTH_TOLERANCE}.
+     * @return the length of the curve
+     */
+    public double computeArcLength() {
+    	return computeArcLength(0, 1, Constants.ARC_LENGTH_TOLERANCE);
+    }
+    
+    /**
+     * Provides the arc length of the curve between two values of the curve parameter, by adaptive Gauss-Legendre
+     * quadrature of the speed of the curve.
+     * @param t0	the curve parameter at the start of the arc
+     * @param t1	the curve parameter at the end of the arc
+     * @param tolerance		the maximum absolute error of the length, which must be positive
+     * @return the length of the arc between t0 and t1
+     * @see ArcLengthIntegrator
+     */
+    public double computeArcLength(double t0, double t1, double tolerance) {
+    	return ArcLengthIntegrator.integrate(this, t0, t1, tolerance);
+    }
+    
+    /**
+     * Provides the arc length table of the curve, over bezierFineness evenly spaced values of t. The table is built
+     * on the first request and kept until the control points or the fineness change, so any number of consumers can
+     * query it between changes for the cost of a single build.
+     * @return the {@link ArcLengthTable} object of the curve, which must not be modified
+     */
+    public ArcLengthTable getArcLengthTable() {
+    	long curveVersion = getVersion();
+    	if (arcLengthTable == null || arcLengthVersion != curveVersion
+    			|| arcLengthTable.size() != this.bezierFineness + 1) {
+    		arcLengthTable = computeArcLengthTable();
+    		arcLengthVersion = curveVersion;
+    	}
+    	return arcLengthTable;
+    }
+    
+    /**
+     * Provides the arc length of the curve, from the cached arc length table.
+     * @return the length of the curve
+     * @see #getArcLengthTable()
+     */
+    public double getArcLength() {
+    	return getArcLengthTable().getTotalLength();
+    }
+    
     /**
      * Provides an array representing the cumulative arc length distance from the first endpoint to the point
-     * represented by the curve parameter t for bezierFineness evenly spaced values of t.
+     * represented by the curve parameter t for bezierFineness evenly spaced values of t, as a proportion of the
+     * length of the curve.
      * @return an array of double values representing distance from the first endpoint of the curve
      */
     public double[] computeCumulativeArcLengthDistance() {
-    	double[] cumulativeDistance = new double[this.bezierFineness + 1];
-    	Point2D[] position = this.computePosition();
- 		cumulativeDistance[0] = 0;
- 		for (int i = 1; i < position.length; i++) {
- 			cumulativeDistance[i] = Math.sqrt(Math.pow(position[i].getX() - position[i-1].getX(), 2) + 
- 					Math.pow(position[i].getY() - position[i-1].getY(), 2)) + cumulativeDistance[i-1];
- 		}
- 		for (int i = 1; i < position.length; i++) {
- 			cumulativeDistance[i] = cumulativeDistance[i] / cumulativeDistance[cumulativeDistance.length-1];
- 		}
+    	ArcLengthTable table = computeArcLengthTable();
+    	double[] cumulativeDistance = new double[table.size()];
+    	for (int i = 0; i < cumulativeDistance.length; i++) {
+    		cumulativeDistance[i] = table.getCumulativeLength(i);
+    	}
+    	return cumulativeDistance;
+    }
+    
+    /**
+     * Provides an array representing the cumulative arc length distance from the first endpoint to each of a set of
+     * samples along the curve, such as the vertices produced by {@link #flatten(double, CurveSamples)}, as a 
+     * proportion of the distance to the last sample.
+     * @param samples	the {@link CurveSamples} object holding the samples, in increasing order of t
+     * @return an array of samples.size() double values representing distance from the first endpoint of the curve
+     */
+    public double[] computeCumulativeArcLengthDistance(CurveSamples samples) {
+    	ArcLengthTable table = new ArcLengthTable(samples);
+    	double[] cumulativeDistance = new double[table.size()];
+    	for (int i = 0; i < cumulativeDistance.length; i++) {
+    		cumulativeDistance[i] = table.getCumulativeLength(i);
+    	}
  		return cumulativeDistance;
     }
     
+    /**
+     * Provides a lookup table from proportions of arc length to values of the curve parameter t, over bezierFineness
+     * evenly spaced values of t, integrated to within {@link Constants#ARC_LENGTH_TOLERANCE}. The table also keeps
+     * the total length of the curve.
+     * @return an {@link ArcLengthTable} object for the curve
+     */
+    public ArcLengthTable computeArcLengthTable() {
+    	return computeArcLengthTable(this.bezierFineness, Constants.ARC_LENGTH_TOLERANCE);
+    }
+    
+    /**
+     * Provides a lookup table from proportions of arc length to values of the curve parameter t, over evenly spaced
+     * values of t, by adaptive Gauss-Legendre quadrature of the speed of the curve.
+     * @param bezierFineness	the number of intervals of t in the table
+     * @param tolerance		the maximum absolute error of the total length, which must be positive
+     * @return an {@link ArcLengthTable} object for the curve
+     * @see ArcLengthIntegrator
+     */
+    public ArcLengthTable computeArcLengthTable(int bezierFineness, double tolerance) {
+    	return ArcLengthIntegrator.buildTable(this, bezierFineness, tolerance);
+    }
+    
+    /**
+     * Provides a lookup table from proportions of arc length to values of the curve parameter t, over a set of 
+     * samples along the curve, such as the vertices produced by {@link #flatten(double, CurveSamples)}. The length
+     * between consecutive samples is measured along the chord between them.
+     * @param samples	the {@link CurveSamples} object holding the samples, in increasing order of t
+     * @return an {@link ArcLengthTable} object for the curve
+     */
+    public ArcLengthTable computeArcLengthTable(CurveSamples samples) {
+    	return new ArcLengthTable(samples);
+    }
+    
     /**
      * Estimates the value of the curve parameter t which produces the point s proportion of the distance from 
      * the first endpoint of the curve.
@@ -81,19 +510,56 @@ public abstract class BezierCurve implements Transformable2D<BezierCurve> {
      * @return a double approximation for the curve parameter t
      */
     public double arcLengthApproximateT(double[] cumulativeDistance, double s) {
-    	int maxIdxLessThan = 0;
- 		int minIdxGreaterThan = cumulativeDistance.length - 1;
- 		double sPartial = 0;
- 		for (int i = 0; i < cumulativeDistance.length - 1; i++) {
- 			if (cumulativeDistance[i] <= s & s <= cumulativeDistance[i+1]) {
- 				maxIdxLessThan = i;
- 				minIdxGreaterThan = i + 1;
- 				sPartial = (s - cumulativeDistance[i]) / (cumulativeDistance[i+1] - cumulativeDistance[i]);
- 			}
- 		}
- 		double tLow = (double) maxIdxLessThan / this.getBezierFineness();
- 		double tHigh = (double) minIdxGreaterThan / this.getBezierFineness();
- 		return Utility.lerp(tLow, tHigh, sPartial);
+    	s = ArcLengthTable.clamp(s);
+    	int i = ArcLengthTable.findSegment(cumulativeDistance, cumulativeDistance.length, s);
+    	return ArcLengthTable.interpolate(cumulativeDistance, i, s, (double) i / this.getBezierFineness(), 
+    			(double) (i + 1) / this.getBezierFineness());
+    }
+
+    /**
+     * Estimates the value of the curve parameter t which produces the point s proportion of the distance from 
+     * the first endpoint of the curve, from a set of samples with variable spacing in t.
+     * @param samples	the {@link CurveSamples} object holding the samples, in increasing order of t
+     * @param cumulativeDistance	the array of values representing the distance from the endpoint to each sample,
+     * as provided by {@link #computeCumulativeArcLengthDistance(CurveSamples)}
+     * @param s		a double value between 0 and 1, inclusive, representing the proportion of the maximum
+     * distance along the curve
+     * @return a double approximation for the curve parameter t
+     */
+    public double arcLengthApproximateT(CurveSamples samples, double[] cumulativeDistance, double s) {
+    	s = ArcLengthTable.clamp(s);
+    	int i = ArcLengthTable.findSegment(cumulativeDistance, cumulativeDistance.length, s);
+    	return ArcLengthTable.interpolate(cumulativeDistance, i, s, samples.getT(i), samples.getT(i+1));
+    }
+
+    /**
+     * Finds the value of the curve parameter t which produces the point s proportion of the distance from the first
+     * endpoint of the curve, to within {@link Constants#ARC_LENGTH_TOLERANCE} of arc length, by refining the estimate
+     * of an arc length table with Newton steps.
+     * @param table		the {@link ArcLengthTable} object of the curve, as provided by {@link #computeArcLengthTable()}
+     * @param s		a double value between 0 and 1, inclusive, representing the proportion of the maximum
+     * distance along the curve
+     * @param cursor	the {@link ArcLengthTable.Cursor} object holding the previous solve, which warm starts this one,
+     * or null to start from the table
+     * @return the curve parameter t
+     * @see ArcLengthIntegrator#solveT(BezierCurve, ArcLengthTable, double, double, ArcLengthTable.Cursor)
+     */
+    public double arcLengthSolveT(ArcLengthTable table, double s, ArcLengthTable.Cursor cursor) {
+    	return ArcLengthIntegrator.solveT(this, table, s, Constants.ARC_LENGTH_TOLERANCE, cursor);
+    }
+
+    /**
+     * Finds the value of the curve parameter t which produces the point s proportion of the distance from the first
+     * endpoint of the curve, starting from the curve's own cached arc length table.
+     * @param s		a double value between 0 and 1, inclusive, representing the proportion of the maximum
+     * distance along the curve
+     * @param cursor	the {@link ArcLengthTable.Cursor} object holding the previous solve, which warm starts this one,
+     * or null to start from the table
+     * @return the curve parameter t
+     * @see #getArcLengthTable()
+     */
+    public double arcLengthSolveT(double s, ArcLengthTable.Cursor cursor) {
+    	return arcLengthSolveT(getArcLengthTable(), s, cursor);
     }
 
 	public int getBezierFineness() {
@@ -104,6 +570,38 @@ public abstract class BezierCurve implements Transformable2D<BezierCurve> {
 		this.bezierFineness = bezierFineness;
 	}
 
+	public SamplingMode getSamplingMode() {
+		return samplingMode;
+	}
+
+	public void setSamplingMode(SamplingMode samplingMode) {
+		this.samplingMode = samplingMode;
+	}
+
+	/**
+	 * Provides a hash code consistent with {@link #equals(Object)}, computed from the degree, the fineness and the 
+	 * control coordinates of the curve without sampling it. Curves are mutable, so a curve used as a key in a hash 
+	 * table must not be moved while it is in the table.
+	 */
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = getOrder();
+		result = prime * result + bezierFineness;
+		for (int i = 0; i < getControlPointCount(); i++) {
+			Point2D pt = getControlPoint(i);
+			// adding 0.0 turns -0.0 into 0.0, which equals() treats as the same coordinate
+			result = prime * result + Double.hashCode(pt.getX() + 0.0);
+			result = prime * result + Double.hashCode(pt.getY() + 0.0);
+		}
+		return result;
+	}
+
+	/**
+	 * Checks whether another object is a curve of the same class, degree and fineness with the same control 
+	 * coordinates, in time linear in the number of control points. Coordinates are compared with ==, so 0.0 equals 
+	 * -0.0, and a curve with a NaN coordinate only equals itself.
+	 */
 	@Override
 	public boolean equals(Object obj) {
 		if (this == obj)
@@ -113,7 +611,15 @@ public abstract class BezierCurve implements Transformable2D<BezierCurve> {
 		if (getClass() != obj.getClass())
 			return false;
 		BezierCurve other = (BezierCurve) obj;
-		return Arrays.equals(this.computePosition(), other.computePosition());
+		if (getOrder() != other.getOrder() || bezierFineness != other.bezierFineness)
+			return false;
+		for (int i = 0; i < getControlPointCount(); i++) {
+			Point2D pt = getControlPoint(i);
+			Point2D otherPt = other.getControlPoint(i);
+			if (pt.getX() != otherPt.getX() || pt.getY() != otherPt.getY())
+				return false;
+		}
+		return true;
 	}
     
     
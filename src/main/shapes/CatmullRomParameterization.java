@@ -0,0 +1,38 @@
+package main.shapes;
+
+/**
+ * The knot spacings of a Catmull-Rom spline. The parameter interval between consecutive points is their distance
+ * raised to the power {@link #getAlpha()}.
+ * @author smaffa
+ *
+ */
+public enum CatmullRomParameterization {
+	
+	/**
+	 * Spaces the knots evenly. The classic Catmull-Rom spline, which can form cusps and self-intersections within
+	 * a segment when points are unevenly spaced.
+	 */
+	UNIFORM(0),
+	
+	/**
+	 * Spaces the knots by the square root of the distance between points, which guarantees no cusps or
+	 * self-intersections within a segment.
+	 */
+	CENTRIPETAL(0.5),
+	
+	/**
+	 * Spaces the knots by the distance between points.
+	 */
+	CHORDAL(1);
+	
+	private final double alpha;
+	
+	private CatmullRomParameterization(double alpha) {
+		this.alpha = alpha;
+	}
+	
+	public double getAlpha() {
+		return alpha;
+	}
+
+}
@@ -0,0 +1,212 @@
+package main.shapes;
+
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * A class for interpolating a sequence of points with a chain of {@link CubicBezierCurve} objects, as a Catmull-Rom
+ * spline. Segment i runs from point i to point i + 1, and shares those point objects as its endpoints, so consecutive
+ * segments meet exactly. Its inner control points are owned by the spline and derived from points i - 1 through
+ * i + 2, with the tangent at each point following the chord between its neighbours; at the ends of the chain the
+ * missing neighbour is the reflection of the next point through the endpoint.
+ * <p>
+ * Because each segment depends only on four points, the spline is maintained incrementally: moving one point
+ * updates at most four segments in place, and appending a point adds one segment and updates the one before it.
+ * @author smaffa
+ *
+ */
+public class CatmullRomSpline {
+
+	private final List<Point2D> points = new ArrayList<Point2D>();
+	// a point may be interpolated more than once, as where a closed loop returns to its first point
+	private final IdentityHashMap<Point2D, List<Integer>> pointIndices = new IdentityHashMap<Point2D, List<Integer>>();
+	private final List<CubicBezierCurve> curves = new ArrayList<CubicBezierCurve>();
+	private final List<CubicBezierCurve> curvesView = Collections.unmodifiableList(curves);
+	private CatmullRomParameterization parameterization;
+
+	/**
+	 * Default constructor for an empty CatmullRomSpline with centripetal parameterization
+	 */
+	public CatmullRomSpline() {
+		this(CatmullRomParameterization.CENTRIPETAL);
+	}
+
+	/**
+	 * Constructor for an empty CatmullRomSpline
+	 * @param parameterization	the {@link CatmullRomParameterization} spacing the knots
+	 */
+	public CatmullRomSpline(CatmullRomParameterization parameterization) {
+		this.parameterization = parameterization;
+	}
+
+	/**
+	 * Constructor for a CatmullRomSpline through a sequence of points, in time linear in the number of points
+	 * @param points	the {@link Point2D} objects to interpolate, in order
+	 * @param parameterization	the {@link CatmullRomParameterization} spacing the knots
+	 */
+	public CatmullRomSpline(List<? extends Point2D> points, CatmullRomParameterization parameterization) {
+		this(parameterization);
+		for (Point2D pt : points) {
+			append(pt);
+		}
+	}
+
+	/**
+	 * Provides the segments of the spline, which are updated in place as the points move.
+	 * @return an unmodifiable {@link List} of getPointCount() - 1 {@link CubicBezierCurve} objects
+	 */
+	public List<CubicBezierCurve> getCurves() {
+		return curvesView;
+	}
+
+	public int getPointCount() {
+		return points.size();
+	}
+
+	public Point2D getPoint(int index) {
+		return points.get(index);
+	}
+
+	/**
+	 * Provides the first position of a point in the spline.
+	 * @param point		a {@link Point2D} object, compared by identity
+	 * @return the first index of the point, or -1 if it is not interpolated by the spline
+	 */
+	public int indexOf(Point2D point) {
+		List<Integer> indices = pointIndices.get(point);
+		return indices == null ? -1 : indices.get(0);
+	}
+
+	public CatmullRomParameterization getParameterization() {
+		return parameterization;
+	}
+
+	/**
+	 * Changes the knot spacing, recomputing every segment.
+	 * @param parameterization	the {@link CatmullRomParameterization} spacing the knots
+	 */
+	public void setParameterization(CatmullRomParameterization parameterization) {
+		this.parameterization = parameterization;
+		for (int i = 0; i < curves.size(); i++) {
+			updateSegment(i);
+		}
+	}
+
+	/**
+	 * Appends a point to the end of the spline, adding a segment from the previous last point and updating the
+	 * segment before it, whose end tangent now follows the new point.
+	 * @param point		the {@link Point2D} object to interpolate
+	 */
+	public void append(Point2D point) {
+		points.add(point);
+		List<Integer> indices = pointIndices.get(point);
+		if (indices == null) {
+			indices = new ArrayList<Integer>(1);
+			pointIndices.put(point, indices);
+		}
+		indices.add(points.size() - 1);
+		int nPoints = points.size();
+		if (nPoints < 2) {
+			return;
+		}
+		curves.add(new CubicBezierCurve(points.get(nPoints - 2), new Point2D.Double(), new Point2D.Double(), point));
+		updateSegment(nPoints - 2);
+		if (nPoints > 2) {
+			updateSegment(nPoints - 3);
+		}
+	}
+
+	/**
+	 * Updates the segments that depend on a point after it has moved: the two segments that end at it and the two
+	 * beyond them, at most.
+	 * @param index		the index of the point that moved
+	 */
+	public void pointMoved(int index) {
+		for (int i = Math.max(0, index - 2); i <= Math.min(curves.size() - 1, index + 1); i++) {
+			updateSegment(i);
+		}
+	}
+
+	/**
+	 * Updates the segments that depend on a point after it has moved, around every position the spline interpolates
+	 * it at.
+	 * @param point		the {@link Point2D} object that moved, compared by identity
+	 * @return true if the point is interpolated by the spline
+	 */
+	public boolean pointMoved(Point2D point) {
+		List<Integer> indices = pointIndices.get(point);
+		if (indices == null) {
+			return false;
+		}
+		for (int index : indices) {
+			pointMoved(index);
+		}
+		return true;
+	}
+
+	/**
+	 * Recomputes the inner control points of a segment from its four neighbouring points, by converting the
+	 * Catmull-Rom tangents at its endpoints to Bezier form: C1 = P1 + T1 / 3 and C2 = P2 - T2 / 3, where the
+	 * tangents are taken with respect to the segment's own unit parameter interval.
+	 * @param i		the index of the segment
+	 */
+	private void updateSegment(int i) {
+		Point2D p1 = points.get(i);
+		Point2D p2 = points.get(i + 1);
+		double x1 = p1.getX();
+		double y1 = p1.getY();
+		double x2 = p2.getX();
+		double y2 = p2.getY();
+		double x0;
+		double y0;
+		if (i > 0) {
+			x0 = points.get(i - 1).getX();
+			y0 = points.get(i - 1).getY();
+		} else {
+			x0 = 2 * x1 - x2;
+			y0 = 2 * y1 - y2;
+		}
+		double x3;
+		double y3;
+		if (i + 2 < points.size()) {
+			x3 = points.get(i + 2).getX();
+			y3 = points.get(i + 2).getY();
+		} else {
+			x3 = 2 * x2 - x1;
+			y3 = 2 * y2 - y1;
+		}
+
+		double alpha = parameterization.getAlpha();
+		double d1 = knotInterval(x1, y1, x2, y2, alpha, 1);
+		double d0 = knotInterval(x0, y0, x1, y1, alpha, d1);
+		double d2 = knotInterval(x2, y2, x3, y3, alpha, d1);
+
+		// the derivative of the Barry and Goldman pyramid at each endpoint, scaled to the interval d1
+		double scale0 = d1 / (d0 + d1);
+		double t1x = (x1 - x0) * d1 / d0 - (x2 - x0) * scale0 + (x2 - x1);
+		double t1y = (y1 - y0) * d1 / d0 - (y2 - y0) * scale0 + (y2 - y1);
+		double scale2 = d1 / (d1 + d2);
+		double t2x = (x2 - x1) - (x3 - x1) * scale2 + (x3 - x2) * d1 / d2;
+		double t2y = (y2 - y1) - (y3 - y1) * scale2 + (y3 - y2) * d1 / d2;
+
+		CubicBezierCurve curve = curves.get(i);
+		curve.getC1().setLocation(x1 + t1x / 3, y1 + t1y / 3);
+		curve.getC2().setLocation(x2 - t2x / 3, y2 - t2y / 3);
+	}
+
+	/**
+	 * Provides the knot interval between two points, their distance raised to the power alpha, or a fallback
+	 * interval if the points coincide.
+	 */
+	private static double knotInterval(double xa, double ya, double xb, double yb, double alpha, double fallback) {
+		double distanceSq = (xb - xa) * (xb - xa) + (yb - ya) * (yb - ya);
+		if (distanceSq < 1e-24) {
+			return fallback;
+		}
+		return alpha == 0 ? 1 : Math.pow(distanceSq, alpha / 2);
+	}
+
+}
@@ -1,16 +1,27 @@
 package main.shapes;
 
+import java.awt.geom.AffineTransform;
 import java.awt.geom.Point2D;
 
-import main.utils.Utility;
+import main.utils.Constants;
 
+/**
+ * Class representing a circle annotation. Its trace is the flattening of four exact rational quadratic quarter arcs
+ * ({@link RationalBezierCurve#circle(double, double, double)}), computed relative to the center and cached until the
+ * radius changes, so moving a circle or tracing it again costs no trigonometry and no curve evaluation.
+ * @author smaffa
+ *
+ */
 public class Circle extends AnnotationShape implements Transformable2D<Circle> {
 	
 	private double x; // the x coordinate of the center
 	private double y; // the y coordinate of the center
 	private double radius = 5; // the radius of the circle
 	private boolean fill = false;
-	private int discretization = 100;
+	private int discretization = 100; // the maximum number of segments in the trace
+	
+	private CurveSamples outline = new CurveSamples(); // the flattened circle, relative to the center
+	private double outlineRadius = Double.NaN; // the radius the outline was flattened at
 	
 	public Circle(double x, double y, double radius) {
 		this.x = x;
@@ -56,6 +67,16 @@ public class Circle extends AnnotationShape implements Transformable2D<Circle> {
 		this.fill = fill;
 	}
 
+	/**
+	 * Not supported: an affine map takes a circle to an ellipse in general, which a Circle cannot hold, and the
+	 * primitive transforms the default would decompose the map into are not implemented for it.
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public Circle applyTransform(AffineTransform transform) {
+		throw new UnsupportedOperationException("Circle does not support affine transforms: " + transform);
+	}
+
 	@Override
 	public Circle translate(double xDelta, double yDelta) {
 		// TODO Auto-generated method stub
@@ -98,17 +119,58 @@ public class Circle extends AnnotationShape implements Transformable2D<Circle> {
 		return null;
 	}
 
+	/**
+	 * Writes the trace of the circle into a caller-supplied container, starting and ending at the point
+	 * (x + radius, y).
+	 * @param samples	the {@link CurveSamples} object that receives the trace, which is empty if the radius is not
+	 * finite; its t values are the arc parameters of the quarter circles, offset by the index of the quarter
+	 * @return the samples object
+	 */
+	public CurveSamples computeTrace(CurveSamples samples) {
+		updateOutline();
+		int nSamples = outline.size();
+		samples.clear();
+		samples.ensureCapacity(nSamples);
+		for (int i = 0; i < nSamples; i++) {
+			samples.add(outline.getT(i), this.x + outline.getX(i), this.y + outline.getY(i));
+		}
+		return samples;
+	}
+
+	/**
+	 * Flattens the quarter arcs of a circle of the current radius about the origin, if the cached outline was
+	 * flattened at a different radius. The tolerance is never finer than {@link Constants#FLATNESS_TOLERANCE}, and is
+	 * coarsened for large circles so that the number of segments in the trace stays within a small multiple of the
+	 * discretization.
+	 */
+	private void updateOutline() {
+		if (radius == outlineRadius) {
+			return;
+		}
+		outline.clear();
+		outlineRadius = radius;
+		if (Double.isInfinite(radius) || Double.isNaN(radius)) { // e.g. the osculating circle at an inflection
+			return;
+		}
+		// the distance from its chord of the control point of an arc spanning 2 pi / discretization, which is what the
+		// flatness test measures; pieces are halved, so the trace has fewer than 2 * discretization segments
+		double halfAngle = Math.PI / discretization;
+		double tolerance = Math.max(Constants.FLATNESS_TOLERANCE,
+				Math.abs(radius) * Math.sin(halfAngle) * Math.tan(halfAngle));
+		RationalBezierCurve[] quarters = RationalBezierCurve.circle(0, 0, radius);
+		CurveSamples quarterSamples = new CurveSamples();
+		for (int i = 0; i < quarters.length; i++) {
+			quarters[i].flatten(tolerance, quarterSamples);
+			// each quarter starts where the previous one ended
+			for (int j = i == 0 ? 0 : 1; j < quarterSamples.size(); j++) {
+				outline.add(i + quarterSamples.getT(j), quarterSamples.getX(j), quarterSamples.getY(j));
+			}
+		}
+	}
+
 	@Override
 	public Point2D[] getTrace() {
-		// TODO Auto-generated method stub
-		double[] thetaVals = Utility.linspace(0, 2*Math.PI, discretization + 1);
-		Point2D[] trace = new Point2D[discretization + 1];
-		for (int i = 0; i <= discretization; i++) {
-			double traceX = this.x + this.radius * Math.cos(thetaVals[i]);
-			double traceY = this.y + this.radius * Math.sin(thetaVals[i]);
-            trace[i] = new Point2D.Double(traceX, traceY);
-        }
-		return trace;
+		return computeTrace(new CurveSamples(outline.size())).toPoints();
 	}
 
 }
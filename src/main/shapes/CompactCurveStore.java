@@ -0,0 +1,309 @@
+package main.shapes;
+
+import java.awt.geom.Point2D;
+import java.util.Arrays;
+
+/**
+ * A compact store for large, read-mostly collections of cubic Bezier curves. The control coordinates of each curve are
+ * kept as 8 floats in one packed array, 32 bytes per curve, instead of a curve object holding four point objects.
+ * Stored curves are evaluated in float arithmetic.
+ * <p>
+ * Error bound: let u = 2^-24 be the unit roundoff of float, and M the largest absolute control coordinate of a curve
+ * as given to the store. Rounding the coordinates to float moves each by at most u * M; rounding t to float moves the
+ * point by at most u times the speed of the curve, which is at most 6 M per coordinate; and evaluating the position
+ * in float, as a sum of the control coordinates with the non-negative Bernstein weights, adds at most about 9 u * M.
+ * Every coordinate computed by {@link #computePositionAtT(int, double, Point2D)} or
+ * {@link #evaluateGrid(int, double[], double[])} is therefore within {@link #ERROR_BOUND} * M of the double-precision
+ * curve at the same t. For a canvas a few thousand pixels across that is a few thousandths of a pixel.
+ * <p>
+ * A curve that is going to be edited is promoted with {@link #promote(int)} to a {@link CubicBezierCurve} in double
+ * precision, which the store evaluates in its place until it is compacted again with {@link #compact(int)}.
+ * @author smaffa
+ *
+ */
+public class CompactCurveStore {
+
+	/**
+	 * The bound on the error of float evaluation, relative to the largest absolute control coordinate of the curve.
+	 */
+	public static final double ERROR_BOUND = 16 * 0x1p-24;
+
+	private static final int COORDINATES_PER_CURVE = 8;
+	private static final int DEFAULT_CAPACITY = 16;
+
+	private float[] coordinates;
+	private int size = 0;
+	// the promoted curves by index, allocated at the capacity of the store on the first promotion, so that a store
+	// which is never edited spends no memory on it and a lookup is an array load rather than a boxed map key
+	private CubicBezierCurve[] promoted;
+	private int nPromoted = 0;
+
+	// the float Bernstein weights of the last grid evaluated, four per sample
+	private float[] gridWeights = new float[0];
+	private int gridFineness = -1;
+
+	/**
+	 * Default constructor for an empty CompactCurveStore
+	 */
+	public CompactCurveStore() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructor for an empty CompactCurveStore with room for a specified number of curves
+	 * @param capacity	the number of curves to allocate room for
+	 */
+	public CompactCurveStore(int capacity) {
+		coordinates = new float[COORDINATES_PER_CURVE * capacity];
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Removes all curves from the store, keeping the allocated storage.
+	 */
+	public void clear() {
+		if (promoted != null) {
+			Arrays.fill(promoted, 0, size, null);
+		}
+		size = 0;
+		nPromoted = 0;
+	}
+
+	/**
+	 * Grows the packed array, if necessary, to hold the specified number of curves, preserving the stored curves.
+	 * @param capacity	the number of curves to allocate room for
+	 */
+	public void ensureCapacity(int capacity) {
+		if (coordinates.length < COORDINATES_PER_CURVE * capacity) {
+			int newCapacity = Math.max(capacity, 2 * coordinates.length / COORDINATES_PER_CURVE);
+			coordinates = Arrays.copyOf(coordinates, COORDINATES_PER_CURVE * newCapacity);
+			if (promoted != null) {
+				promoted = Arrays.copyOf(promoted, newCapacity);
+			}
+		}
+	}
+
+	/**
+	 * Appends a curve to the store, rounding its control coordinates to float.
+	 * @param curve		the {@link CubicBezierCurve} to store
+	 * @return the index of the curve in the store
+	 */
+	public int add(CubicBezierCurve curve) {
+		return add(curve.getP1().getX(), curve.getP1().getY(), curve.getC1().getX(), curve.getC1().getY(),
+				curve.getC2().getX(), curve.getC2().getY(), curve.getP2().getX(), curve.getP2().getY());
+	}
+
+	/**
+	 * Appends a curve to the store from its control coordinates, rounding them to float.
+	 * @return the index of the curve in the store
+	 */
+	public int add(double p1x, double p1y, double c1x, double c1y, double c2x, double c2y, double p2x, double p2y) {
+		ensureCapacity(size + 1);
+		int base = COORDINATES_PER_CURVE * size;
+		coordinates[base] = (float) p1x;
+		coordinates[base + 1] = (float) p1y;
+		coordinates[base + 2] = (float) c1x;
+		coordinates[base + 3] = (float) c1y;
+		coordinates[base + 4] = (float) c2x;
+		coordinates[base + 5] = (float) c2y;
+		coordinates[base + 6] = (float) p2x;
+		coordinates[base + 7] = (float) p2y;
+		return size++;
+	}
+
+	/**
+	 * Checks whether a curve is held in double precision for editing.
+	 * @param index		the index of the curve in the store
+	 * @return true if the curve has been promoted and not compacted since
+	 */
+	public boolean isPromoted(int index) {
+		return getPromoted(index) != null;
+	}
+
+	/**
+	 * Promotes a curve to double precision for editing. The store evaluates the returned curve in place of the
+	 * packed coordinates, so edits to it are visible through the store, until {@link #compact(int)} is called.
+	 * @param index		the index of the curve in the store
+	 * @return the {@link CubicBezierCurve} holding the curve in double precision; promoting a curve again returns
+	 * the same object
+	 */
+	public CubicBezierCurve promote(int index) {
+		checkIndex(index);
+		CubicBezierCurve curve = getPromoted(index);
+		if (curve == null) {
+			curve = getCurve(index, new CubicBezierCurve(new Point2D.Double(), new Point2D.Double(),
+					new Point2D.Double(), new Point2D.Double()));
+			if (promoted == null) {
+				promoted = new CubicBezierCurve[coordinates.length / COORDINATES_PER_CURVE];
+			}
+			promoted[index] = curve;
+			nPromoted++;
+		}
+		return curve;
+	}
+
+	/**
+	 * Writes a promoted curve back into the packed array in float precision and releases it. Curves that are not
+	 * promoted are unchanged.
+	 * @param index		the index of the curve in the store
+	 */
+	public void compact(int index) {
+		CubicBezierCurve curve = getPromoted(index);
+		if (curve != null) {
+			promoted[index] = null;
+			nPromoted--;
+			int base = COORDINATES_PER_CURVE * index;
+			coordinates[base] = (float) curve.getP1().getX();
+			coordinates[base + 1] = (float) curve.getP1().getY();
+			coordinates[base + 2] = (float) curve.getC1().getX();
+			coordinates[base + 3] = (float) curve.getC1().getY();
+			coordinates[base + 4] = (float) curve.getC2().getX();
+			coordinates[base + 5] = (float) curve.getC2().getY();
+			coordinates[base + 6] = (float) curve.getP2().getX();
+			coordinates[base + 7] = (float) curve.getP2().getY();
+		}
+	}
+
+	/**
+	 * Writes a stored curve into the control points of a preallocated curve, so that any curve algorithm can be run
+	 * on it without allocating.
+	 * @param index		the index of the curve in the store
+	 * @param out	the {@link CubicBezierCurve} that receives the control coordinates
+	 * @return the out {@link CubicBezierCurve}
+	 */
+	public CubicBezierCurve getCurve(int index, CubicBezierCurve out) {
+		checkIndex(index);
+		CubicBezierCurve curve = getPromoted(index);
+		if (curve != null) {
+			out.getP1().setLocation(curve.getP1());
+			out.getC1().setLocation(curve.getC1());
+			out.getC2().setLocation(curve.getC2());
+			out.getP2().setLocation(curve.getP2());
+		} else {
+			int base = COORDINATES_PER_CURVE * index;
+			out.getP1().setLocation(coordinates[base], coordinates[base + 1]);
+			out.getC1().setLocation(coordinates[base + 2], coordinates[base + 3]);
+			out.getC2().setLocation(coordinates[base + 4], coordinates[base + 5]);
+			out.getP2().setLocation(coordinates[base + 6], coordinates[base + 7]);
+		}
+		return out;
+	}
+
+	/**
+	 * Unpacks the stored curves into a batch of double-precision curves.
+	 * @param batch		the {@link CubicCurveBatch} that receives the curves, replacing its contents
+	 * @return the batch
+	 */
+	public CubicCurveBatch toBatch(CubicCurveBatch batch) {
+		batch.clear();
+		batch.ensureCapacity(size);
+		for (int i = 0; i < size; i++) {
+			CubicBezierCurve curve = getPromoted(i);
+			if (curve != null) {
+				batch.add(curve);
+			} else {
+				int base = COORDINATES_PER_CURVE * i;
+				batch.add(coordinates[base], coordinates[base + 1], coordinates[base + 2], coordinates[base + 3],
+						coordinates[base + 4], coordinates[base + 5], coordinates[base + 6], coordinates[base + 7]);
+			}
+		}
+		return batch;
+	}
+
+	/**
+	 * Evaluates the position of a stored curve at t, in float arithmetic unless the curve is promoted.
+	 * @param index		the index of the curve in the store
+	 * @param t		a double between 0 and 1, inclusive
+	 * @param out	the {@link Point2D} object that receives the (x,y) coordinates
+	 * @return the out {@link Point2D} object
+	 */
+	public Point2D computePositionAtT(int index, double t, Point2D out) {
+		checkIndex(index);
+		CubicBezierCurve curve = getPromoted(index);
+		if (curve != null) {
+			return curve.computePositionAtT(t, out);
+		}
+		float tf = (float) t;
+		float sf = 1 - tf;
+		float w0 = sf * sf * sf;
+		float w1 = 3 * sf * sf * tf;
+		float w2 = 3 * sf * tf * tf;
+		float w3 = tf * tf * tf;
+		int base = COORDINATES_PER_CURVE * index;
+		out.setLocation(combine(w0, w1, w2, w3, base), combine(w0, w1, w2, w3, base + 1));
+		return out;
+	}
+
+	private float combine(float w0, float w1, float w2, float w3, int offset) {
+		return w0 * coordinates[offset] + w1 * coordinates[offset + 2] + w2 * coordinates[offset + 4]
+				+ w3 * coordinates[offset + 6];
+	}
+
+	/**
+	 * Samples the position of every stored curve at bezierFineness regular intervals on the curve parameter t, in the
+	 * curve-major layout of {@link CubicCurveBatch#evaluateGrid(int, double[], double[])}. Compact curves are
+	 * evaluated in float arithmetic, and promoted curves in double.
+	 * @param bezierFineness	the number of points to interpolate along each curve
+	 * @param outX	the array that receives size() * (bezierFineness + 1) x coordinates
+	 * @param outY	the array that receives size() * (bezierFineness + 1) y coordinates
+	 */
+	public void evaluateGrid(int bezierFineness, double[] outX, double[] outY) {
+		int nSamples = bezierFineness + 1;
+		if (gridFineness != bezierFineness) {
+			gridWeights = new float[4 * nSamples];
+			for (int k = 0; k < nSamples; k++) {
+				float t = (float) k / bezierFineness;
+				float s = 1 - t;
+				gridWeights[4 * k] = s * s * s;
+				gridWeights[4 * k + 1] = 3 * s * s * t;
+				gridWeights[4 * k + 2] = 3 * s * t * t;
+				gridWeights[4 * k + 3] = t * t * t;
+			}
+			gridFineness = bezierFineness;
+		}
+		Point2D pt = new Point2D.Double();
+		for (int i = 0; i < size; i++) {
+			int outBase = i * nSamples;
+			CubicBezierCurve curve = getPromoted(i);
+			if (curve != null) {
+				for (int k = 0; k < nSamples; k++) {
+					curve.computePositionAtT((double) k / bezierFineness, pt);
+					outX[outBase + k] = pt.getX();
+					outY[outBase + k] = pt.getY();
+				}
+				continue;
+			}
+			int base = COORDINATES_PER_CURVE * i;
+			float x0 = coordinates[base];
+			float y0 = coordinates[base + 1];
+			float x1 = coordinates[base + 2];
+			float y1 = coordinates[base + 3];
+			float x2 = coordinates[base + 4];
+			float y2 = coordinates[base + 5];
+			float x3 = coordinates[base + 6];
+			float y3 = coordinates[base + 7];
+			for (int k = 0; k < nSamples; k++) {
+				float w0 = gridWeights[4 * k];
+				float w1 = gridWeights[4 * k + 1];
+				float w2 = gridWeights[4 * k + 2];
+				float w3 = gridWeights[4 * k + 3];
+				outX[outBase + k] = w0 * x0 + w1 * x1 + w2 * x2 + w3 * x3;
+				outY[outBase + k] = w0 * y0 + w1 * y1 + w2 * y2 + w3 * y3;
+			}
+		}
+	}
+
+	private CubicBezierCurve getPromoted(int index) {
+		return nPromoted == 0 || index < 0 || index >= size ? null : promoted[index];
+	}
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+		}
+	}
+
+}
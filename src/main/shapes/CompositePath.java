@@ -0,0 +1,201 @@
+package main.shapes;
+
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A path made of a chain of {@link BezierCurve} segments, parameterized by arc length across the whole chain. The
+ * path keeps the length of each segment and the prefix sums of those lengths, so that a proportion s of the length of
+ * the path maps to a segment by binary search in O(log n), and to a value of t within the segment by the segment's own
+ * arc length solve.
+ * <p>
+ * Segments are measured lazily. A segment reported changed through {@link #segmentChanged(int)} is measured again on
+ * the next query, along with the prefix sums after it; the segments before it and their sums are left alone. Checking
+ * every segment for changes on every query would cost O(n), so moved segments must be reported, either one at a time
+ * or all together with {@link #refresh()}. A segment is measured through its own cached arc length table
+ * ({@link BezierCurve#getArcLengthTable()}), which the solve for t within the segment uses as well, so each change to a
+ * segment is integrated once.
+ * @author smaffa
+ *
+ */
+public class CompositePath {
+
+	private final List<BezierCurve> segments = new ArrayList<BezierCurve>();
+	private double[] segmentLengths = new double[16];
+	private long[] segmentVersions = new long[16];
+	private boolean[] isSegmentChanged = new boolean[16];
+	// startLengths[i] is the length of the path before segment i, and startLengths[n] the total length
+	private double[] startLengths = new double[17];
+	// the first entry of startLengths that is out of date, or the number of segments if none are
+	private int staleFrom = 0;
+
+	/**
+	 * Default constructor for an empty CompositePath object
+	 */
+	public CompositePath() {
+	}
+
+	/**
+	 * Constructor for a CompositePath object through a chain of curves
+	 * @param segments	the {@link BezierCurve} segments, in order along the path
+	 */
+	public CompositePath(List<? extends BezierCurve> segments) {
+		for (BezierCurve segment : segments) {
+			add(segment);
+		}
+	}
+
+	/**
+	 * Appends a segment to the end of the path.
+	 * @param segment	the {@link BezierCurve} to append
+	 */
+	public void add(BezierCurve segment) {
+		int index = segments.size();
+		if (index == segmentLengths.length) {
+			int newCapacity = 2 * index;
+			segmentLengths = Arrays.copyOf(segmentLengths, newCapacity);
+			segmentVersions = Arrays.copyOf(segmentVersions, newCapacity);
+			isSegmentChanged = Arrays.copyOf(isSegmentChanged, newCapacity);
+			startLengths = Arrays.copyOf(startLengths, newCapacity + 1);
+		}
+		segments.add(segment);
+		segmentChanged(index);
+	}
+
+	/**
+	 * Replaces a segment of the path.
+	 * @param index		the index of the segment
+	 * @param segment	the {@link BezierCurve} to put in its place
+	 */
+	public void set(int index, BezierCurve segment) {
+		segments.set(index, segment);
+		segmentChanged(index);
+	}
+
+	public BezierCurve getSegment(int index) {
+		return segments.get(index);
+	}
+
+	public int getSegmentCount() {
+		return segments.size();
+	}
+
+	/**
+	 * Marks a segment to be measured again on the next query, with the prefix sums after it.
+	 * @param index		the index of the segment whose geometry changed
+	 */
+	public void segmentChanged(int index) {
+		if (index < 0 || index >= segments.size()) {
+			throw new IndexOutOfBoundsException("No segment " + index + " in a path of " + segments.size());
+		}
+		isSegmentChanged[index] = true;
+		staleFrom = Math.min(staleFrom, index);
+	}
+
+	/**
+	 * Checks the version of every segment, and marks those that changed since they were measured.
+	 * @return the number of segments marked changed
+	 */
+	public int refresh() {
+		int nChanged = 0;
+		for (int i = 0; i < segments.size(); i++) {
+			if (!isSegmentChanged[i] && segments.get(i).getVersion() != segmentVersions[i]) {
+				segmentChanged(i);
+				nChanged++;
+			}
+		}
+		return nChanged;
+	}
+
+	/**
+	 * Measures the changed segments and recomputes the prefix sums from the first of them on.
+	 */
+	private void update() {
+		int n = segments.size();
+		for (int i = staleFrom; i < n; i++) {
+			if (isSegmentChanged[i]) {
+				BezierCurve segment = segments.get(i);
+				segmentVersions[i] = segment.getVersion();
+				segmentLengths[i] = segment.getArcLength();
+				isSegmentChanged[i] = false;
+			}
+			startLengths[i + 1] = startLengths[i] + segmentLengths[i];
+		}
+		staleFrom = n;
+	}
+
+	/**
+	 * Provides the total length of the path.
+	 * @return the sum of the arc lengths of the segments
+	 */
+	public double getTotalLength() {
+		update();
+		return startLengths[segments.size()];
+	}
+
+	/**
+	 * Provides the arc length of a segment.
+	 * @param index		the index of the segment
+	 * @return the length of the segment
+	 */
+	public double getSegmentLength(int index) {
+		update();
+		return segmentLengths[index];
+	}
+
+	/**
+	 * Provides the length of the path before a segment.
+	 * @param index		the index of the segment, between 0 and the number of segments, inclusive
+	 * @return the sum of the lengths of the segments before the index
+	 */
+	public double getStartLength(int index) {
+		update();
+		return startLengths[index];
+	}
+
+	/**
+	 * Finds the segment holding the point s proportion of the distance along the path, by binary search on the
+	 * prefix sums of the segment lengths.
+	 * @param s		a double value between 0 and 1, inclusive, representing the proportion of the total length; values
+	 * outside the range are clamped to it
+	 * @return the index of the segment
+	 */
+	public int findSegment(double s) {
+		int n = segments.size();
+		if (n == 0) {
+			throw new IllegalStateException("An empty path has no segments");
+		}
+		double targetLength = ArcLengthTable.clamp(s) * getTotalLength();
+		return ArcLengthTable.findSegment(startLengths, n + 1, targetLength);
+	}
+
+	/**
+	 * Finds the value of the curve parameter t, within a segment, of the point s proportion of the distance along the
+	 * path.
+	 * @param s		a double value between 0 and 1, inclusive, representing the proportion of the total length; values
+	 * outside the range are clamped to it
+	 * @param index		the index of the segment, as provided by {@link #findSegment(double)}
+	 * @param cursor	the {@link ArcLengthTable.Cursor} object holding the previous solve, which warm starts this one,
+	 * or null to start from the segment's table
+	 * @return the curve parameter t of the segment
+	 */
+	public double computeLocalT(double s, int index, ArcLengthTable.Cursor cursor) {
+		double segmentLength = getSegmentLength(index);
+		double localS = segmentLength > 0
+				? (ArcLengthTable.clamp(s) * getTotalLength() - startLengths[index]) / segmentLength : 0;
+		return segments.get(index).arcLengthSolveT(localS, cursor);
+	}
+
+	/**
+	 * Provides the point s proportion of the distance along the path.
+	 * @param s		a double value between 0 and 1, inclusive, representing the proportion of the total length
+	 * @return A {@link Point2D} object providing the (x,y) coordinates of the specified point
+	 */
+	public Point2D computePositionAtS(double s) {
+		int index = findSegment(s);
+		return segments.get(index).computePositionAtT(computeLocalT(s, index, null));
+	}
+
+}
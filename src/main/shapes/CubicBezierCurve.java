@@ -3,10 +3,8 @@ package main.shapes;
 import main.utils.Constants;
 import main.utils.Utility;
 
+import java.awt.geom.AffineTransform;
 import java.awt.geom.Point2D;
-import java.util.Objects;
-
-import org.ejml.simple.SimpleMatrix;
 
 /**
  * A class representing cubic Bezier curves. Cubic Bezier curves are defined by 4 points.
@@ -14,11 +12,34 @@ import org.ejml.simple.SimpleMatrix;
  *
  */
 public class CubicBezierCurve extends BezierCurve {
+	private static final CurveEvaluator FORWARD_DIFFERENCE_EVALUATOR = 
+			CurveEvaluators.get(CurveEvaluators.FORWARD_DIFFERENCE);
+	
 	private Point2D p1;
     private Point2D c1;
     private Point2D c2;
     private Point2D p2;
     
+    // power basis coefficients of the position, velocity and acceleration polynomials, cached at coefficientVersion
+    private final double[] positionCoefficients = new double[8];
+    private final double[] velocityCoefficients = new double[6];
+    private final double[] accelerationCoefficients = new double[4];
+    private long coefficientVersion = -1;
+    
+    // hodographs (derivative curves), rebuilt in place when the control points change
+    private QuadraticBezierCurve velocityCurve;
+    private GeneralBezierCurve accelerationCurve;
+    private long hodographVersion = -1;
+    
+    // the backend that samples this curve, or null to follow the sampling mode, and its input
+    private CurveEvaluator evaluator;
+    private final double[] evaluationScratch = new double[8];
+    
+    // affine map [m00, m10, m01, m11, m02, m12] not yet applied to the control points, when transforms are deferred
+    private boolean isTransformDeferred = false;
+    private boolean hasPendingTransform = false;
+    private final double[] pendingTransform = {1, 0, 0, 1, 0, 0};
+    
     /**
      * Basic constructor for a CubicBezierCurve based on all four control points.
      * @param p1	a {@link Point2D} object representing the first endpoint of the curve
@@ -59,160 +80,296 @@ public class CubicBezierCurve extends BezierCurve {
     	this.c2 = new Point2D.Double(other.getC2().getX(), other.getC2().getY());
     	this.p2 = new Point2D.Double(other.getP2().getX(), other.getP2().getY());
     	this.setBezierFineness(other.getBezierFineness());
+    	this.setSamplingMode(other.getSamplingMode());
+    	this.evaluator = other.evaluator;
     }
     
     public Point2D getP1() {
+		applyPendingTransform();
 		return p1;
 	}
 
 	public void setP1(Point2D p1) {
+		applyPendingTransform();
 		this.p1 = p1;
 	}
 
 	public Point2D getC1() {
+		applyPendingTransform();
 		return c1;
 	}
 
 	public void setC1(Point2D c1) {
+		applyPendingTransform();
 		this.c1 = c1;
 	}
 
 	public Point2D getC2() {
+		applyPendingTransform();
 		return c2;
 	}
 
 	public void setC2(Point2D c2) {
+		applyPendingTransform();
 		this.c2 = c2;
 	}
 
 	public Point2D getP2() {
+		applyPendingTransform();
 		return p2;
 	}
 
 	public void setP2(Point2D p2) {
+		applyPendingTransform();
 		this.p2 = p2;
 	}
 	
 	@Override
 	public Point2D[] getControlPoints() {
+		applyPendingTransform();
         return new Point2D[]{p1, c1, c2, p2};
     }
-
+	
 	@Override
-	public int hashCode() {
-		final int prime = 31;
-		int result = super.hashCode();
-		result = prime * result + Objects.hash(c1, c2, p1, p2);
-		return result;
+	public Point2D getControlPoint(int index) {
+		applyPendingTransform();
+		switch (index) {
+		case 0:
+			return p1;
+		case 1:
+			return c1;
+		case 2:
+			return c2;
+		case 3:
+			return p2;
+		default:
+			throw new IndexOutOfBoundsException("Control point index: " + index);
+		}
 	}
-
+	
 	@Override
-	public boolean equals(Object obj) {
-		if (this == obj)
-			return true;
-		if (!super.equals(obj))
-			return false;
-		if (getClass() != obj.getClass())
-			return false;
-		CubicBezierCurve other = (CubicBezierCurve) obj;
-		return Objects.equals(c1, other.c1) && Objects.equals(c2, other.c2) && Objects.equals(p1, other.p1)
-				&& Objects.equals(p2, other.p2);
+	public int getControlPointCount() {
+		return 4;
 	}
 
 	@Override
 	public String toString() {
+		applyPendingTransform();
 		return "CubicBezierCurve [p1=" + p1 + ", c1=" + c1 + ", c2=" + c2 + ", p2=" + p2 + "]";
 	}
 
-	/**
-	 * Computes the parameter matrix for efficient calculation of the full curve's position.
-	 * @param bezierFineness	the number of points to interpolate along the curve
-	 * @return A {@link SimpleMatrix} of row vectors [1, t, t^2, t^3] for all values t between 0 and 1, inclusive,
-	 * discretized into bezierFineness intervals
-	 */
-	private SimpleMatrix computeTMatrixPosition(int bezierFineness) {
-    	double[] tVals = Utility.linspace(0, 1, bezierFineness + 1);
-    	
-    	SimpleMatrix tCoefficientMatrix = new SimpleMatrix(bezierFineness + 1, 4);
-    	
-        for (int i = 0; i <= bezierFineness; i++) {
-            tCoefficientMatrix.set(i, 0, 1);
-            tCoefficientMatrix.set(i, 1, tVals[i]);
-            tCoefficientMatrix.set(i, 2, Math.pow(tVals[i], 2));
-            tCoefficientMatrix.set(i, 3, Math.pow(tVals[i], 3));
-        }
-        
-        return tCoefficientMatrix;
+    /**
+     * Provides the backend that samples the curve in a sampling mode: the curve's own backend if it has one, the 
+     * forward differencing backend in {@link SamplingMode#FORWARD_DIFFERENCE} mode, and the default backend of 
+     * {@link CurveEvaluators} otherwise.
+     * @param mode	the {@link SamplingMode} to sample with
+     * @return the {@link CurveEvaluator} to sample with
+     */
+    public CurveEvaluator getEvaluator(SamplingMode mode) {
+    	if (evaluator != null) {
+    		return evaluator;
+    	}
+    	return mode == SamplingMode.FORWARD_DIFFERENCE ? FORWARD_DIFFERENCE_EVALUATOR : CurveEvaluators.getDefault();
     }
-        
-	/**
-	 * Computes the parameter matrix for efficient calculation of the full curve's velocity.
-	 * @param bezierFineness	the number of points to interpolate along the curve
-	 * @return A {@link SimpleMatrix} of row vectors [0, 1, 2t, 3t^2] for all values t between 0 and 1, inclusive,
-	 * discretized into bezierFineness intervals
-	 */
-    private SimpleMatrix computeTMatrixVelocity(int bezierFineness) {
-    	double[] tVals = Utility.linspace(0, 1, bezierFineness + 1);
-    	
-    	SimpleMatrix tCoefficientMatrix = new SimpleMatrix(bezierFineness + 1, 4);
-    	
-        for (int i = 0; i <= bezierFineness; i++) {
-            tCoefficientMatrix.set(i, 1, 1);
-            tCoefficientMatrix.set(i, 2, 2 * tVals[i]);
-            tCoefficientMatrix.set(i, 3, 3 * Math.pow(tVals[i], 2));
-        }
-        
-        return tCoefficientMatrix;
+    
+    /**
+     * Provides the backend that samples the curve in its own sampling mode.
+     * @return the {@link CurveEvaluator} to sample with
+     * @see #getEvaluator(SamplingMode)
+     */
+    public CurveEvaluator getEvaluator() {
+    	return getEvaluator(getSamplingMode());
     }
-       
+    
     /**
-	 * Computes the parameter matrix for efficient calculation of the full curve's acceleration.
-	 * @param bezierFineness	the number of points to interpolate along the curve
-	 * @return A {@link SimpleMatrix} of row vectors [0, 0, 2, 6t] for all values t between 0 and 1, inclusive,
-	 * discretized into bezierFineness intervals
-	 */
-    private SimpleMatrix computeTMatrixAcceleration(int bezierFineness) {
-    	double[] tVals = Utility.linspace(0, 1, bezierFineness + 1);
-    	
-    	SimpleMatrix tCoefficientMatrix = new SimpleMatrix(bezierFineness + 1, 4);
-    	
-        for (int i = 0; i <= bezierFineness; i++) {
-            tCoefficientMatrix.set(i, 2, 2);
-            tCoefficientMatrix.set(i, 3, 6 * tVals[i]);
-        }
-        
-        return tCoefficientMatrix;
+     * Gives the curve a backend of its own, which samples it whatever its sampling mode.
+     * @param evaluator		the {@link CurveEvaluator} to sample with, or null to follow the sampling mode and the 
+     * default backend
+     */
+    public void setEvaluator(CurveEvaluator evaluator) {
+    	this.evaluator = evaluator;
+    }
+
+    /**
+     * Samples the curve, or one of its derivatives, at bezierFineness regular intervals on the curve parameter t
+     * with the backend selected for the sampling mode. Sample i is written to xs[xOffset + i * stride] and 
+     * ys[yOffset + i * stride], so xs and ys may be the same array.
+     * @param bezierFineness	the number of points to interpolate along the curve
+     * @param derivativeOrder	0 for position, 1 for velocity, 2 for acceleration
+     * @param mode	the {@link SamplingMode} to sample with
+     * @param xs	the array that receives the x coordinates
+     * @param xOffset	the index in xs of the first x coordinate
+     * @param ys	the array that receives the y coordinates
+     * @param yOffset	the index in ys of the first y coordinate
+     * @param stride	the distance between consecutive samples in xs and ys
+     * @see #getEvaluator(SamplingMode)
+     */
+    private void sample(int bezierFineness, int derivativeOrder, SamplingMode mode, 
+    		double[] xs, int xOffset, double[] ys, int yOffset, int stride) {
+    	getControlCoordinates(evaluationScratch, 0);
+    	getEvaluator(mode).sample(evaluationScratch, 0, derivativeOrder, bezierFineness, 
+    			xs, xOffset, ys, yOffset, stride);
     }
     
     /**
-	 * Converts the control points into a matrix for efficient calculation.
-	 * @return A {@link SimpleMatrix} where each row is a control point.
-	 */
-    private SimpleMatrix getControlCoordinateMatrix() {
-    	return new SimpleMatrix(new double[][] {
-    		{p1.getX(), p1.getY()}, 
-			{c1.getX(), c1.getY()}, 
-			{c2.getX(), c2.getY()},
-			{p2.getX(), p2.getY()}
-		});
+     * Samples the curve, or one of its derivatives, into a new array of points.
+     * @see #sample(int, int, SamplingMode, double[], int, double[], int, int)
+     */
+    private Point2D[] sample(int bezierFineness, int derivativeOrder, SamplingMode mode) {
+    	double[] coordinates = new double[2 * (bezierFineness + 1)];
+    	sample(bezierFineness, derivativeOrder, mode, coordinates, 0, coordinates, 1, 2);
+    	return toPoints(coordinates, bezierFineness + 1);
+    }
+    
+    @Override
+    protected void samplePosition(int bezierFineness, double[] xs, int xOffset, double[] ys, int yOffset, int stride) {
+    	sample(bezierFineness, 0, getSamplingMode(), xs, xOffset, ys, yOffset, stride);
+    }
+    
+    @Override
+    public CurveSamples flatten(double tolerance, CurveSamples samples) {
+    	checkTolerance(tolerance);
+    	applyPendingTransform();
+    	samples.clear();
+    	samples.add(0, p1.getX(), p1.getY());
+    	flattenCubic(p1.getX(), p1.getY(), c1.getX(), c1.getY(), c2.getX(), c2.getY(), p2.getX(), p2.getY(), 
+    			0, 1, tolerance * tolerance, 0, samples);
+    	return samples;
     }
-   
+    
     /**
-     * Provides an array of points representing the position of the curve. The curve is discretely quantized by 
-     * bezierFineness regular intervals on the curve parameter t, bounded between 0 and 1, inclusive
+     * Appends the polyline of the piece of the curve between t0 and t1, given by its four control points, excluding 
+     * the piece's first point. The piece is halved by de Casteljau subdivision until both of its inner control 
+     * points lie within the tolerance of its chord.
+     */
+    private static void flattenCubic(double x0, double y0, double x1, double y1, double x2, double y2, 
+    		double x3, double y3, double t0, double t1, double toleranceSq, int depth, CurveSamples samples) {
+    	double dx = x3 - x0;
+    	double dy = y3 - y0;
+    	if (depth >= Constants.MAX_FLATTENING_DEPTH || (isNearChord(x1, y1, x0, y0, dx, dy, toleranceSq) 
+    			&& isNearChord(x2, y2, x0, y0, dx, dy, toleranceSq))) {
+    		samples.add(t1, x3, y3);
+    		return;
+    	}
+    	double x01 = 0.5 * (x0 + x1);
+    	double y01 = 0.5 * (y0 + y1);
+    	double x12 = 0.5 * (x1 + x2);
+    	double y12 = 0.5 * (y1 + y2);
+    	double x23 = 0.5 * (x2 + x3);
+    	double y23 = 0.5 * (y2 + y3);
+    	double x012 = 0.5 * (x01 + x12);
+    	double y012 = 0.5 * (y01 + y12);
+    	double x123 = 0.5 * (x12 + x23);
+    	double y123 = 0.5 * (y12 + y23);
+    	double xMid = 0.5 * (x012 + x123);
+    	double yMid = 0.5 * (y012 + y123);
+    	double tMid = 0.5 * (t0 + t1);
+    	flattenCubic(x0, y0, x01, y01, x012, y012, xMid, yMid, t0, tMid, toleranceSq, depth + 1, samples);
+    	flattenCubic(xMid, yMid, x123, y123, x23, y23, x3, y3, tMid, t1, toleranceSq, depth + 1, samples);
+    }
+    
+    /**
+     * Provides the hodograph of the curve: the quadratic Bezier curve traced by the velocity, with control points 
+     * 3(c1 - p1), 3(c2 - c1) and 3(p2 - c2). The hodograph is built once and cached; when the control points of this 
+     * curve have changed, its control points are updated in place before it is returned.
+     * @return the {@link QuadraticBezierCurve} whose position at t is the velocity of this curve at t
+     */
+    public QuadraticBezierCurve getVelocityCurve() {
+    	updateHodographs();
+    	return velocityCurve;
+    }
+    
+    /**
+     * Provides the hodograph of the velocity: the line traced by the acceleration, with control points 
+     * 6(p1 - 2c1 + c2) and 6(c1 - 2c2 + p2). It is cached like {@link #getVelocityCurve()}.
+     * @return the degree 1 {@link GeneralBezierCurve} whose position at t is the acceleration of this curve at t
+     */
+    public GeneralBezierCurve getAccelerationCurve() {
+    	updateHodographs();
+    	return accelerationCurve;
+    }
+    
+    /**
+     * Recomputes the control points of the hodographs if the control points have changed since they were last 
+     * computed.
+     */
+    private void updateHodographs() {
+    	long curveVersion = getVersion();
+    	if (curveVersion == hodographVersion) {
+    		return;
+    	}
+    	if (velocityCurve == null) {
+    		velocityCurve = new QuadraticBezierCurve(new Point2D.Double(), new Point2D.Double(), new Point2D.Double());
+    		accelerationCurve = new GeneralBezierCurve(new Point2D.Double(), new Point2D.Double());
+    	}
+    	velocityCurve.setBezierFineness(getBezierFineness());
+    	accelerationCurve.setBezierFineness(getBezierFineness());
+    	Point2D q0 = velocityCurve.getP1();
+    	Point2D q1 = velocityCurve.getC1();
+    	Point2D q2 = velocityCurve.getP2();
+    	q0.setLocation(3 * (c1.getX() - p1.getX()), 3 * (c1.getY() - p1.getY()));
+    	q1.setLocation(3 * (c2.getX() - c1.getX()), 3 * (c2.getY() - c1.getY()));
+    	q2.setLocation(3 * (p2.getX() - c2.getX()), 3 * (p2.getY() - c2.getY()));
+    	accelerationCurve.getControlPoint(0).setLocation(2 * (q1.getX() - q0.getX()), 2 * (q1.getY() - q0.getY()));
+    	accelerationCurve.getControlPoint(1).setLocation(2 * (q2.getX() - q1.getX()), 2 * (q2.getY() - q1.getY()));
+    	hodographVersion = curveVersion;
+    }
+    
+    /**
+     * Recomputes the cached power basis coefficients if the control points have changed since they were last 
+     * computed. The position coefficients [a, b, c, d] of each coordinate are a = p1, b = 3(c1 - p1), 
+     * c = 3(p1 - 2c1 + c2), d = p2 - p1 + 3(c1 - c2), which are the rows of CUBIC_POINT_COEFFICIENT_MATRIX applied
+     * to the control coordinates. The velocity and acceleration coefficients are the power basis coefficients of the 
+     * hodographs: [q0, 2(q1 - q0), q0 - 2q1 + q2] for the velocity curve q and [r0, r1 - r0] for the acceleration 
+     * line r, which equal [b, 2c, 3d] and [2c, 6d]. Each array stores the x coefficients followed by the y 
+     * coefficients.
+     */
+    private void updateCoefficients() {
+    	long curveVersion = getVersion();
+    	if (curveVersion == coefficientVersion) {
+    		return;
+    	}
+    	updateHodographs();
+    	for (int dim = 0; dim < 2; dim++) {
+    		double p1Coord = dim == 0 ? p1.getX() : p1.getY();
+    		double c1Coord = dim == 0 ? c1.getX() : c1.getY();
+    		double c2Coord = dim == 0 ? c2.getX() : c2.getY();
+    		double p2Coord = dim == 0 ? p2.getX() : p2.getY();
+    		
+    		positionCoefficients[4 * dim] = p1Coord;
+    		positionCoefficients[4 * dim + 1] = 3 * (c1Coord - p1Coord);
+    		positionCoefficients[4 * dim + 2] = 3 * (p1Coord - 2 * c1Coord + c2Coord);
+    		positionCoefficients[4 * dim + 3] = p2Coord - p1Coord + 3 * (c1Coord - c2Coord);
+    		
+    		double q0 = coordinate(velocityCurve.getP1(), dim);
+    		double q1 = coordinate(velocityCurve.getC1(), dim);
+    		double q2 = coordinate(velocityCurve.getP2(), dim);
+    		velocityCoefficients[3 * dim] = q0;
+    		velocityCoefficients[3 * dim + 1] = 2 * (q1 - q0);
+    		velocityCoefficients[3 * dim + 2] = q0 - 2 * q1 + q2;
+    		
+    		double r0 = coordinate(accelerationCurve.getControlPoint(0), dim);
+    		double r1 = coordinate(accelerationCurve.getControlPoint(1), dim);
+    		accelerationCoefficients[2 * dim] = r0;
+    		accelerationCoefficients[2 * dim + 1] = r1 - r0;
+    	}
+    	coefficientVersion = curveVersion;
+    }
+    
+    private static double coordinate(Point2D pt, int dim) {
+    	return dim == 0 ? pt.getX() : pt.getY();
+    }
+    
+    /**
+     * Provides an array of points representing the position of the curve, sampled with the specified mode instead
+     * of the curve's own sampling mode.
      * @param bezierFineness	the number of points to interpolate along the curve
+     * @param mode	the {@link SamplingMode} to sample with
      * @return An array of {@link Point2D} objects of length bezierFineness + 1 representing (x,y) coordinates
      * on the curve
      */
-    public Point2D[] computePosition(int bezierFineness) {
-    	SimpleMatrix controlCoordinateMatrix = getControlCoordinateMatrix();
-        SimpleMatrix positionMatrix = computeTMatrixPosition(bezierFineness).mult(Constants.CUBIC_POINT_COEFFICIENT_MATRIX).mult(controlCoordinateMatrix);
-        
-        Point2D[] positionArray = new Point2D[bezierFineness + 1];
-        for (int i = 0; i <= bezierFineness; i++) { 
-        	positionArray[i] = new Point2D.Double(positionMatrix.get(i, 0), positionMatrix.get(i, 1));
-        }
-        return positionArray;
+    public Point2D[] computePosition(int bezierFineness, SamplingMode mode) {
+    	return sample(bezierFineness, 0, mode);
     }
     
     @Override
@@ -222,13 +379,32 @@ public class CubicBezierCurve extends BezierCurve {
     
     @Override
     public Point2D computePositionAtT(double t) {
-    	SimpleMatrix controlCoordinateMatrix = getControlCoordinateMatrix();
-    	SimpleMatrix tPoint = new SimpleMatrix(new double[][] {
-    		{1, t, Math.pow(t, 2), Math.pow(t, 3)}
-    	});
-        SimpleMatrix positionMatrix = tPoint.mult(Constants.CUBIC_POINT_COEFFICIENT_MATRIX).mult(controlCoordinateMatrix);
-        
-        return new Point2D.Double(positionMatrix.get(0, 0), positionMatrix.get(0, 1));
+    	return computePositionAtT(t, new Point2D.Double());
+    }
+    
+    /**
+     * Writes the point identified by parameter value t along the curve into a caller-supplied point.
+     * @param t		a double between 0 and 1, inclusive
+     * @param out	the {@link Point2D} object that receives the (x,y) coordinates of the specified point
+     * @return the out {@link Point2D} object
+     */
+    public Point2D computePositionAtT(double t, Point2D out) {
+    	updateCoefficients();
+    	out.setLocation(positionCoordinateAtT(0, t), 
+    			positionCoordinateAtT(1, t));
+    	return out;
+    }
+    
+    /**
+     * Writes the point identified by parameter value t along the curve into a caller-supplied array.
+     * @param t		a double between 0 and 1, inclusive
+     * @param out	the array that receives the x coordinate at index offset and the y coordinate at index offset + 1
+     * @param offset	the index in out at which to write the x coordinate
+     */
+    public void computePositionAtT(double t, double[] out, int offset) {
+    	updateCoefficients();
+    	out[offset] = positionCoordinateAtT(0, t);
+    	out[offset + 1] = positionCoordinateAtT(1, t);
     }
     
     /**
@@ -239,17 +415,55 @@ public class CubicBezierCurve extends BezierCurve {
      * the curve
      */
     public Point2D[] computeVelocity(int bezierFineness) {
-    	SimpleMatrix controlCoordinateMatrix = getControlCoordinateMatrix();
-        SimpleMatrix velocityMatrix = computeTMatrixVelocity(bezierFineness).mult(Constants.CUBIC_POINT_COEFFICIENT_MATRIX).mult(controlCoordinateMatrix);
-        
-        Point2D[] velocityArray = new Point2D[bezierFineness + 1];
-        for (int i = 0; i <= this.getBezierFineness(); i++) { 
-        	velocityArray[i] = new Point2D.Double(velocityMatrix.get(i, 0), velocityMatrix.get(i, 1));
-        }
-        
-        return velocityArray;
+        return sample(bezierFineness, 1, getSamplingMode());
+    }
+    
+    /**
+     * Provides an array of points representing the velocity along the curve, sampled with the specified mode 
+     * instead of the curve's own sampling mode.
+     * @param bezierFineness	the number of points to interpolate along the curve
+     * @param mode	the {@link SamplingMode} to sample with
+     * @return An array of {@link Point2D} objects of length bezierFineness + 1 representing velocities along
+     * the curve
+     */
+    public Point2D[] computeVelocity(int bezierFineness, SamplingMode mode) {
+    	return sample(bezierFineness, 1, mode);
     }
 
+    /**
+     * Writes the velocity along the curve into a caller-supplied array as interleaved (x,y) pairs.
+     * @param bezierFineness	the number of points to interpolate along the curve
+     * @param xy	the array that receives 2 * (bezierFineness + 1) values
+     * @param offset	the index in xy of the first x component
+     */
+    public void computeVelocity(int bezierFineness, double[] xy, int offset) {
+    	sample(bezierFineness, 1, getSamplingMode(), xy, offset, xy, offset + 1, 2);
+    }
+    
+    /**
+     * Writes the velocity along the curve into caller-supplied arrays of x and y components.
+     * @param bezierFineness	the number of points to interpolate along the curve
+     * @param xs	the array that receives bezierFineness + 1 x components
+     * @param ys	the array that receives bezierFineness + 1 y components
+     * @param offset	the index in xs and ys of the first sample
+     */
+    public void computeVelocity(int bezierFineness, double[] xs, double[] ys, int offset) {
+    	sample(bezierFineness, 1, getSamplingMode(), xs, offset, ys, offset, 1);
+    }
+    
+    /**
+     * Writes the velocity along the curve into a reusable {@link CurveSamples} object.
+     * @param bezierFineness	the number of points to interpolate along the curve
+     * @param samples	the {@link CurveSamples} object to fill, which is resized to bezierFineness + 1 samples
+     * @return the samples {@link CurveSamples} object
+     */
+    public CurveSamples computeVelocity(int bezierFineness, CurveSamples samples) {
+    	samples.resize(bezierFineness + 1);
+    	computeVelocity(bezierFineness, samples.getX(), samples.getY(), 0);
+    	writeRegularT(bezierFineness, samples);
+    	return samples;
+    }
+    
     /**
      * Provides an array of points representing the velocity along the curve. The curve is discretely quantized by 
      * bezierFineness regular intervals on the curve parameter t, bounded between 0 and 1, inclusive
@@ -260,14 +474,46 @@ public class CubicBezierCurve extends BezierCurve {
     	return computeVelocity(this.getBezierFineness());
     }
     
+    /**
+     * Provides the velocity of the curve at parameter value t.
+     * @param t		a double between 0 and 1, inclusive
+     * @return A {@link Point2D} object representing the velocity vector at the specified point
+     */
     public Point2D computeVelocityAtT(double t) {
-    	SimpleMatrix controlCoordinateMatrix = getControlCoordinateMatrix();
-    	SimpleMatrix tPoint = new SimpleMatrix(new double[][] {
-    		{0, 1, 2 * t, 3 * Math.pow(t, 2)}
-    	});
-        SimpleMatrix velocityMatrix = tPoint.mult(Constants.CUBIC_POINT_COEFFICIENT_MATRIX).mult(controlCoordinateMatrix);
-        
-        return new Point2D.Double(velocityMatrix.get(0, 0), velocityMatrix.get(0, 1));
+    	return computeVelocityAtT(t, new Point2D.Double());
+    }
+    
+    /**
+     * Writes the velocity of the curve at parameter value t into a caller-supplied point.
+     * @param t		a double between 0 and 1, inclusive
+     * @param out	the {@link Point2D} object that receives the velocity vector at the specified point
+     * @return the out {@link Point2D} object
+     */
+    public Point2D computeVelocityAtT(double t, Point2D out) {
+    	updateCoefficients();
+    	out.setLocation(velocityCoordinateAtT(0, t), 
+    			velocityCoordinateAtT(1, t));
+    	return out;
+    }
+    
+    /**
+     * Writes the velocity of the curve at parameter value t into a caller-supplied array.
+     * @param t		a double between 0 and 1, inclusive
+     * @param out	the array that receives the x component at index offset and the y component at index offset + 1
+     * @param offset	the index in out at which to write the x component
+     */
+    public void computeVelocityAtT(double t, double[] out, int offset) {
+    	updateCoefficients();
+    	out[offset] = velocityCoordinateAtT(0, t);
+    	out[offset + 1] = velocityCoordinateAtT(1, t);
+    }
+    
+    @Override
+    public double computeSpeedAtT(double t) {
+    	updateCoefficients();
+    	double velocityX = velocityCoordinateAtT(0, t);
+    	double velocityY = velocityCoordinateAtT(1, t);
+    	return Math.sqrt(velocityX * velocityX + velocityY * velocityY);
     }
     
     /**
@@ -278,15 +524,53 @@ public class CubicBezierCurve extends BezierCurve {
      * the curve
      */
     public Point2D[] computeAcceleration(int bezierFineness) {
-    	SimpleMatrix controlCoordinateMatrix = getControlCoordinateMatrix();
-        SimpleMatrix accelerationMatrix = computeTMatrixAcceleration(bezierFineness).mult(Constants.CUBIC_POINT_COEFFICIENT_MATRIX).mult(controlCoordinateMatrix);
-        
-        Point2D[] accelerationArray = new Point2D[bezierFineness + 1];
-        for (int i = 0; i <= this.getBezierFineness(); i++) { 
-        	accelerationArray[i] = new Point2D.Double(accelerationMatrix.get(i, 0), accelerationMatrix.get(i, 1));
-        }
-        
-        return accelerationArray;
+        return sample(bezierFineness, 2, getSamplingMode());
+    }
+    
+    /**
+     * Provides an array of points representing the acceleration along the curve, sampled with the specified mode 
+     * instead of the curve's own sampling mode.
+     * @param bezierFineness	the number of points to interpolate along the curve
+     * @param mode	the {@link SamplingMode} to sample with
+     * @return An array of {@link Point2D} objects of length bezierFineness + 1 representing acceleration along
+     * the curve
+     */
+    public Point2D[] computeAcceleration(int bezierFineness, SamplingMode mode) {
+    	return sample(bezierFineness, 2, mode);
+    }
+    
+    /**
+     * Writes the acceleration along the curve into a caller-supplied array as interleaved (x,y) pairs.
+     * @param bezierFineness	the number of points to interpolate along the curve
+     * @param xy	the array that receives 2 * (bezierFineness + 1) values
+     * @param offset	the index in xy of the first x component
+     */
+    public void computeAcceleration(int bezierFineness, double[] xy, int offset) {
+    	sample(bezierFineness, 2, getSamplingMode(), xy, offset, xy, offset + 1, 2);
+    }
+    
+    /**
+     * Writes the acceleration along the curve into caller-supplied arrays of x and y components.
+     * @param bezierFineness	the number of points to interpolate along the curve
+     * @param xs	the array that receives bezierFineness + 1 x components
+     * @param ys	the array that receives bezierFineness + 1 y components
+     * @param offset	the index in xs and ys of the first sample
+     */
+    public void computeAcceleration(int bezierFineness, double[] xs, double[] ys, int offset) {
+    	sample(bezierFineness, 2, getSamplingMode(), xs, offset, ys, offset, 1);
+    }
+    
+    /**
+     * Writes the acceleration along the curve into a reusable {@link CurveSamples} object.
+     * @param bezierFineness	the number of points to interpolate along the curve
+     * @param samples	the {@link CurveSamples} object to fill, which is resized to bezierFineness + 1 samples
+     * @return the samples {@link CurveSamples} object
+     */
+    public CurveSamples computeAcceleration(int bezierFineness, CurveSamples samples) {
+    	samples.resize(bezierFineness + 1);
+    	computeAcceleration(bezierFineness, samples.getX(), samples.getY(), 0);
+    	writeRegularT(bezierFineness, samples);
+    	return samples;
     }
     
     /**
@@ -299,48 +583,188 @@ public class CubicBezierCurve extends BezierCurve {
     	return computeAcceleration(this.getBezierFineness());
     }
     
+    /**
+     * Provides the acceleration of the curve at parameter value t.
+     * @param t		a double between 0 and 1, inclusive
+     * @return A {@link Point2D} object representing the acceleration vector at the specified point
+     */
     public Point2D computeAccelerationAtT(double t) {
-    	SimpleMatrix controlCoordinateMatrix = getControlCoordinateMatrix();
-    	SimpleMatrix tPoint = new SimpleMatrix(new double[][] {
-    		{0, 0, 2, 6 * t}
-    	});
-        SimpleMatrix accelerationMatrix = tPoint.mult(Constants.CUBIC_POINT_COEFFICIENT_MATRIX).mult(controlCoordinateMatrix);
-        
-        return new Point2D.Double(accelerationMatrix.get(0, 0), accelerationMatrix.get(0, 1));
+    	return computeAccelerationAtT(t, new Point2D.Double());
+    }
+    
+    /**
+     * Writes the acceleration of the curve at parameter value t into a caller-supplied point.
+     * @param t		a double between 0 and 1, inclusive
+     * @param out	the {@link Point2D} object that receives the acceleration vector at the specified point
+     * @return the out {@link Point2D} object
+     */
+    public Point2D computeAccelerationAtT(double t, Point2D out) {
+    	updateCoefficients();
+    	out.setLocation(accelerationCoordinateAtT(0, t), 
+    			accelerationCoordinateAtT(1, t));
+    	return out;
+    }
+    
+    /**
+     * Writes the acceleration of the curve at parameter value t into a caller-supplied array.
+     * @param t		a double between 0 and 1, inclusive
+     * @param out	the array that receives the x component at index offset and the y component at index offset + 1
+     * @param offset	the index in out at which to write the x component
+     */
+    public void computeAccelerationAtT(double t, double[] out, int offset) {
+    	updateCoefficients();
+    	out[offset] = accelerationCoordinateAtT(0, t);
+    	out[offset + 1] = accelerationCoordinateAtT(1, t);
     }
     
+    /**
+     * Provides an array of the signed curvature along the curve. The curve is discretely quantized by 
+     * bezierFineness regular intervals on the curve parameter t, bounded between 0 and 1, inclusive
+     * @param bezierFineness	the number of points to interpolate along the curve
+     * @return An array of doubles of length bezierFineness + 1 representing the signed curvature along the curve
+     */
     public double[] computeCurvature(int bezierFineness) {
-    	Point2D[] velocityArray = computeVelocity(bezierFineness);
-    	Point2D[] accelerationArray = computeAcceleration(bezierFineness);
+    	int nSamples = bezierFineness + 1;
+    	double[] velocityX = new double[nSamples];
+    	double[] velocityY = new double[nSamples];
+    	double[] accelerationX = new double[nSamples];
+    	double[] accelerationY = new double[nSamples];
+    	sample(bezierFineness, 1, getSamplingMode(), velocityX, 0, velocityY, 0, 1);
+    	sample(bezierFineness, 2, getSamplingMode(), accelerationX, 0, accelerationY, 0, 1);
     	
-    	double[] curvatureArray = new double[bezierFineness + 1];
-    	for (int i = 0; i <= this.getBezierFineness(); i++) { 
-    		double determinant = (velocityArray[i].getX() * accelerationArray[i].getY()) - 
-        			(velocityArray[i].getY() * accelerationArray[i].getX());
-        	double vectorNorm = Utility.computeVectorNorm(velocityArray[i]);
-        	curvatureArray[i] = determinant / Math.pow(vectorNorm, 3);
+    	double[] curvatureArray = new double[nSamples];
+    	for (int i = 0; i < nSamples; i++) { 
+    		double vX = velocityX[i];
+    		double vY = velocityY[i];
+    		double vectorNorm = Math.sqrt(vX * vX + vY * vY);
+    		curvatureArray[i] = ((vX * accelerationY[i]) - (vY * accelerationX[i])) 
+    				/ (vectorNorm * vectorNorm * vectorNorm);
         }
     	
     	return curvatureArray;
     }
     
+    /**
+     * Provides an array of the signed curvature along the curve. The curve is discretely quantized by 
+     * bezierFineness regular intervals on the curve parameter t, bounded between 0 and 1, inclusive
+     * @return An array of doubles of length bezierFineness + 1 representing the signed curvature along the curve
+     */
     public double[] computeCurvature() {
     	return computeCurvature(this.getBezierFineness());
     }
     
+    /**
+     * Computes the differential frames of the curve in a single pass. The curve is discretely quantized by 
+     * bezierFineness regular intervals on the curve parameter t, bounded between 0 and 1, inclusive, and for each 
+     * sample the buffer receives the position, velocity, acceleration, unit tangent, unit normal and signed curvature.
+     * The unit normal is the unit tangent rotated by a quarter turn, (-tangentY, tangentX). Where the velocity 
+     * vanishes, the tangent, normal and curvature are undefined (NaN).
+     * @param bezierFineness	the number of points to interpolate along the curve
+     * @param frames	the {@link FrameBuffer} object to fill, which is resized to bezierFineness + 1 samples
+     * @return the frames {@link FrameBuffer} object
+     */
+    public FrameBuffer computeFrames(int bezierFineness, FrameBuffer frames) {
+    	updateCoefficients();
+    	frames.resize(bezierFineness + 1);
+    	double[] positionX = frames.getPositionX();
+    	double[] positionY = frames.getPositionY();
+    	double[] velocityX = frames.getVelocityX();
+    	double[] velocityY = frames.getVelocityY();
+    	double[] accelerationX = frames.getAccelerationX();
+    	double[] accelerationY = frames.getAccelerationY();
+    	double[] tangentX = frames.getTangentX();
+    	double[] tangentY = frames.getTangentY();
+    	double[] normalX = frames.getNormalX();
+    	double[] normalY = frames.getNormalY();
+    	double[] curvature = frames.getCurvature();
+    	
+    	for (int i = 0; i <= bezierFineness; i++) {
+    		double t = (double) i / bezierFineness;
+    		positionX[i] = positionCoordinateAtT(0, t);
+    		positionY[i] = positionCoordinateAtT(1, t);
+    		double vX = velocityCoordinateAtT(0, t);
+    		double vY = velocityCoordinateAtT(1, t);
+    		double aX = accelerationCoordinateAtT(0, t);
+    		double aY = accelerationCoordinateAtT(1, t);
+    		velocityX[i] = vX;
+    		velocityY[i] = vY;
+    		accelerationX[i] = aX;
+    		accelerationY[i] = aY;
+    		
+    		double speed = Math.sqrt(vX * vX + vY * vY);
+    		double tX = vX / speed;
+    		double tY = vY / speed;
+    		tangentX[i] = tX;
+    		tangentY[i] = tY;
+    		normalX[i] = -tY;
+    		normalY[i] = tX;
+    		curvature[i] = ((vX * aY) - (vY * aX)) / (speed * speed * speed);
+    	}
+    	return frames;
+    }
+    
+    /**
+     * Computes the differential frames of the curve in a single pass, at the curve's own fineness.
+     * @param frames	the {@link FrameBuffer} object to fill, which is resized to bezierFineness + 1 samples
+     * @return the frames {@link FrameBuffer} object
+     * @see #computeFrames(int, FrameBuffer)
+     */
+    public FrameBuffer computeFrames(FrameBuffer frames) {
+    	return computeFrames(this.getBezierFineness(), frames);
+    }
+    
+    /**
+     * Provides the signed curvature of the curve at parameter value t.
+     * @param t		a double between 0 and 1, inclusive
+     * @return a double representing the signed curvature at the specified point
+     */
     public double computeCurvatureAtT(double t) {
-    	Point2D velocityVector = computeVelocityAtT(t);
-    	Point2D accelerationVector = computeAccelerationAtT(t);
+    	updateCoefficients();
+    	double velocityX = velocityCoordinateAtT(0, t);
+    	double velocityY = velocityCoordinateAtT(1, t);
+    	double accelerationX = accelerationCoordinateAtT(0, t);
+    	double accelerationY = accelerationCoordinateAtT(1, t);
     	
-    	double determinant = (velocityVector.getX() * accelerationVector.getY()) - 
-    			(velocityVector.getY() * accelerationVector.getX());
-    	double vectorNorm = Utility.computeVectorNorm(velocityVector);
+    	double determinant = (velocityX * accelerationY) - (velocityY * accelerationX);
+    	double vectorNorm = Math.sqrt(velocityX * velocityX + velocityY * velocityY);
     	
-    	return determinant / Math.pow(vectorNorm, 3);
+    	return determinant / (vectorNorm * vectorNorm * vectorNorm);
+    }
+    
+    /**
+     * Evaluates one coordinate of the curve's position in Horner form from the cached power basis coefficients,
+     * which the caller brings up to date with {@link #updateCoefficients()} once for any number of evaluations.
+     * @param dim	the coordinate to evaluate: 0 for x, 1 for y
+     * @param t		a double between 0 and 1, inclusive
+     * @return the coordinate of the position at t
+     */
+    private double positionCoordinateAtT(int dim, double t) {
+    	int i = 4 * dim;
+    	return ((positionCoefficients[i + 3] * t + positionCoefficients[i + 2]) * t + positionCoefficients[i + 1]) * t 
+    			+ positionCoefficients[i];
+    }
+    
+    /**
+     * Evaluates one coordinate of the curve's velocity in Horner form from the cached power basis coefficients.
+     * @see #positionCoordinateAtT(int, double)
+     */
+    private double velocityCoordinateAtT(int dim, double t) {
+    	int i = 3 * dim;
+    	return (velocityCoefficients[i + 2] * t + velocityCoefficients[i + 1]) * t + velocityCoefficients[i];
+    }
+    
+    /**
+     * Evaluates one coordinate of the curve's acceleration in Horner form from the cached power basis coefficients.
+     * @see #positionCoordinateAtT(int, double)
+     */
+    private double accelerationCoordinateAtT(int dim, double t) {
+    	int i = 2 * dim;
+    	return accelerationCoefficients[i + 1] * t + accelerationCoefficients[i];
     }
     
     @Override
     public Point2D[] computeLerpsAtT(double t) {
+    	applyPendingTransform();
     	Point2D[] lerpsAtT = new Point2D[6];
     	
     	lerpsAtT[3] = Utility.lerp(p1, c1, t);
@@ -355,18 +779,368 @@ public class CubicBezierCurve extends BezierCurve {
     	return lerpsAtT;
     }
     
+    /**
+     * Writes the de Casteljau pyramid at t into a caller-supplied array, in the layout of 
+     * {@link #computeLerpsAtT(double)}: the (x,y) pairs of the position, the two second-level points and the three 
+     * first-level points.
+     * @param t		a double between 0 and 1, inclusive
+     * @param out	the array that receives 12 doubles
+     * @param offset	the index in out of the first value
+     */
+    public void computeLerpsAtT(double t, double[] out, int offset) {
+    	applyPendingTransform();
+    	double s = 1 - t;
+    	double x01 = s * p1.getX() + t * c1.getX();
+    	double y01 = s * p1.getY() + t * c1.getY();
+    	double x12 = s * c1.getX() + t * c2.getX();
+    	double y12 = s * c1.getY() + t * c2.getY();
+    	double x23 = s * c2.getX() + t * p2.getX();
+    	double y23 = s * c2.getY() + t * p2.getY();
+    	double x012 = s * x01 + t * x12;
+    	double y012 = s * y01 + t * y12;
+    	double x123 = s * x12 + t * x23;
+    	double y123 = s * y12 + t * y23;
+    	out[offset] = s * x012 + t * x123;
+    	out[offset + 1] = s * y012 + t * y123;
+    	out[offset + 2] = x012;
+    	out[offset + 3] = y012;
+    	out[offset + 4] = x123;
+    	out[offset + 5] = y123;
+    	out[offset + 6] = x01;
+    	out[offset + 7] = y01;
+    	out[offset + 8] = x12;
+    	out[offset + 9] = y12;
+    	out[offset + 10] = x23;
+    	out[offset + 11] = y23;
+    }
+    
+    /**
+     * Copies the control coordinates of the curve into an array, as the 8 values 
+     * [P1.x, P1.y, C1.x, C1.y, C2.x, C2.y, P2.x, P2.y] used by the static subdivision methods.
+     * @param out	the array that receives the coordinates
+     * @param offset	the index in out of the first value
+     */
+    public void getControlCoordinates(double[] out, int offset) {
+    	applyPendingTransform();
+    	out[offset] = p1.getX();
+    	out[offset + 1] = p1.getY();
+    	out[offset + 2] = c1.getX();
+    	out[offset + 3] = c1.getY();
+    	out[offset + 4] = c2.getX();
+    	out[offset + 5] = c2.getY();
+    	out[offset + 6] = p2.getX();
+    	out[offset + 7] = p2.getY();
+    }
+    
+    /**
+     * Moves the control points of the curve to coordinates held in an array.
+     * @param in	the array holding the coordinates, in the layout of {@link #getControlCoordinates(double[], int)}
+     * @param offset	the index in the array of the first value
+     */
+    public void setControlCoordinates(double[] in, int offset) {
+    	setControlCoordinates(in[offset], in[offset + 1], in[offset + 2], in[offset + 3], in[offset + 4], in[offset + 5], 
+    			in[offset + 6], in[offset + 7]);
+    }
+    
+    private void setControlCoordinates(double x0, double y0, double x1, double y1, double x2, double y2, 
+    		double x3, double y3) {
+    	applyPendingTransform();
+    	p1.setLocation(x0, y0);
+    	c1.setLocation(x1, y1);
+    	c2.setLocation(x2, y2);
+    	p2.setLocation(x3, y3);
+    }
+    
+    /**
+     * Splits the curve at t into the parts before and after t, writing them into the control points of two 
+     * preallocated curves. The output curves may share points with each other or with this curve.
+     * @param t		a double between 0 and 1, inclusive
+     * @param leftOut	the {@link CubicBezierCurve} that receives the part from 0 to t
+     * @param rightOut	the {@link CubicBezierCurve} that receives the part from t to 1
+     */
+    public void splitAt(double t, CubicBezierCurve leftOut, CubicBezierCurve rightOut) {
+    	// the coordinates are all read into locals before either output is written, as the outputs may share points 
+    	// with this curve
+    	applyPendingTransform();
+    	double s = 1 - t;
+    	double x0 = p1.getX();
+    	double y0 = p1.getY();
+    	double x1 = c1.getX();
+    	double y1 = c1.getY();
+    	double x2 = c2.getX();
+    	double y2 = c2.getY();
+    	double x3 = p2.getX();
+    	double y3 = p2.getY();
+    	double x01 = s * x0 + t * x1;
+    	double y01 = s * y0 + t * y1;
+    	double x12 = s * x1 + t * x2;
+    	double y12 = s * y1 + t * y2;
+    	double x23 = s * x2 + t * x3;
+    	double y23 = s * y2 + t * y3;
+    	double x012 = s * x01 + t * x12;
+    	double y012 = s * y01 + t * y12;
+    	double x123 = s * x12 + t * x23;
+    	double y123 = s * y12 + t * y23;
+    	double xMid = s * x012 + t * x123;
+    	double yMid = s * y012 + t * y123;
+    	leftOut.setControlCoordinates(x0, y0, x01, y01, x012, y012, xMid, yMid);
+    	rightOut.setControlCoordinates(xMid, yMid, x123, y123, x23, y23, x3, y3);
+    }
+    
+    /**
+     * Writes the part of the curve between two parameter values into the control points of a preallocated curve, 
+     * which may be this curve. Trimming with t0 greater than t1 gives the part reversed.
+     * @param t0	the parameter value at which the trimmed curve starts
+     * @param t1	the parameter value at which the trimmed curve ends
+     * @param out	the {@link CubicBezierCurve} that receives the part
+     * @return the out {@link CubicBezierCurve}
+     */
+    public CubicBezierCurve trim(double t0, double t1, CubicBezierCurve out) {
+    	applyPendingTransform();
+    	double s0 = 1 - t0;
+    	double s1 = 1 - t1;
+    	double x0 = p1.getX();
+    	double y0 = p1.getY();
+    	double x1 = c1.getX();
+    	double y1 = c1.getY();
+    	double x2 = c2.getX();
+    	double y2 = c2.getY();
+    	double x3 = p2.getX();
+    	double y3 = p2.getY();
+    	out.setControlCoordinates(
+    			blossom(x0, x1, x2, x3, s0, t0, s0, t0, s0, t0), blossom(y0, y1, y2, y3, s0, t0, s0, t0, s0, t0), 
+    			blossom(x0, x1, x2, x3, s0, t0, s0, t0, s1, t1), blossom(y0, y1, y2, y3, s0, t0, s0, t0, s1, t1), 
+    			blossom(x0, x1, x2, x3, s0, t0, s1, t1, s1, t1), blossom(y0, y1, y2, y3, s0, t0, s1, t1, s1, t1), 
+    			blossom(x0, x1, x2, x3, s1, t1, s1, t1, s1, t1), blossom(y0, y1, y2, y3, s1, t1, s1, t1, s1, t1));
+    	return out;
+    }
+    
+    /**
+     * Splits a cubic curve, held as 8 control coordinates in an array, at t by de Casteljau's algorithm. The 
+     * outputs may overlap the input, so a curve can be split in place: split(a, i, t, a, i, a, i + 8) leaves the 
+     * left part at i and the right part after it.
+     * @param curve		the array holding the control coordinates of the curve
+     * @param offset	the index in curve of the first coordinate
+     * @param t		a double between 0 and 1, inclusive
+     * @param left		the array that receives the 8 control coordinates of the part from 0 to t
+     * @param leftOffset	the index in left of the first coordinate
+     * @param right		the array that receives the 8 control coordinates of the part from t to 1
+     * @param rightOffset	the index in right of the first coordinate
+     */
+    public static void split(double[] curve, int offset, double t, double[] left, int leftOffset, 
+    		double[] right, int rightOffset) {
+    	double s = 1 - t;
+    	double x0 = curve[offset];
+    	double y0 = curve[offset + 1];
+    	double x1 = curve[offset + 2];
+    	double y1 = curve[offset + 3];
+    	double x2 = curve[offset + 4];
+    	double y2 = curve[offset + 5];
+    	double x3 = curve[offset + 6];
+    	double y3 = curve[offset + 7];
+    	double x01 = s * x0 + t * x1;
+    	double y01 = s * y0 + t * y1;
+    	double x12 = s * x1 + t * x2;
+    	double y12 = s * y1 + t * y2;
+    	double x23 = s * x2 + t * x3;
+    	double y23 = s * y2 + t * y3;
+    	double x012 = s * x01 + t * x12;
+    	double y012 = s * y01 + t * y12;
+    	double x123 = s * x12 + t * x23;
+    	double y123 = s * y12 + t * y23;
+    	double xMid = s * x012 + t * x123;
+    	double yMid = s * y012 + t * y123;
+    	left[leftOffset] = x0;
+    	left[leftOffset + 1] = y0;
+    	left[leftOffset + 2] = x01;
+    	left[leftOffset + 3] = y01;
+    	left[leftOffset + 4] = x012;
+    	left[leftOffset + 5] = y012;
+    	left[leftOffset + 6] = xMid;
+    	left[leftOffset + 7] = yMid;
+    	right[rightOffset] = xMid;
+    	right[rightOffset + 1] = yMid;
+    	right[rightOffset + 2] = x123;
+    	right[rightOffset + 3] = y123;
+    	right[rightOffset + 4] = x23;
+    	right[rightOffset + 5] = y23;
+    	right[rightOffset + 6] = x3;
+    	right[rightOffset + 7] = y3;
+    }
+    
+    /**
+     * Extracts the part of a cubic curve, held as 8 control coordinates in an array, between two parameter values. 
+     * The output may overlap the input. Trimming with t0 greater than t1 gives the part reversed.
+     * @param curve		the array holding the control coordinates of the curve
+     * @param offset	the index in curve of the first coordinate
+     * @param t0	the parameter value at which the trimmed curve starts
+     * @param t1	the parameter value at which the trimmed curve ends
+     * @param out	the array that receives the 8 control coordinates of the part
+     * @param outOffset		the index in out of the first coordinate
+     */
+    public static void trim(double[] curve, int offset, double t0, double t1, double[] out, int outOffset) {
+    	// the control points of the part are the blossom of the curve at (t0, t0, t0), (t0, t0, t1), (t0, t1, t1) 
+    	// and (t1, t1, t1), so both ends are cut in one pass with no intermediate curve
+    	double s0 = 1 - t0;
+    	double s1 = 1 - t1;
+    	for (int dim = 0; dim < 2; dim++) {
+    		double q0 = curve[offset + dim];
+    		double q1 = curve[offset + 2 + dim];
+    		double q2 = curve[offset + 4 + dim];
+    		double q3 = curve[offset + 6 + dim];
+    		double b000 = blossom(q0, q1, q2, q3, s0, t0, s0, t0, s0, t0);
+    		double b001 = blossom(q0, q1, q2, q3, s0, t0, s0, t0, s1, t1);
+    		double b011 = blossom(q0, q1, q2, q3, s0, t0, s1, t1, s1, t1);
+    		double b111 = blossom(q0, q1, q2, q3, s1, t1, s1, t1, s1, t1);
+    		out[outOffset + dim] = b000;
+    		out[outOffset + 2 + dim] = b001;
+    		out[outOffset + 4 + dim] = b011;
+    		out[outOffset + 6 + dim] = b111;
+    	}
+    }
+    
+    /**
+     * Evaluates the blossom (polar form) of one coordinate of a cubic curve at three parameter values (ua, ub, uc), 
+     * each given with its complement, by three levels of linear interpolation.
+     */
+    private static double blossom(double q0, double q1, double q2, double q3, double sa, double ua, 
+    		double sb, double ub, double sc, double uc) {
+    	double r0 = sa * q0 + ua * q1;
+    	double r1 = sa * q1 + ua * q2;
+    	double r2 = sa * q2 + ua * q3;
+    	double u0 = sb * r0 + ub * r1;
+    	double u1 = sb * r1 + ub * r2;
+    	return sc * u0 + uc * u1;
+    }
+    
+    /**
+     * Subdivides a cubic curve, held as 8 control coordinates in an array, into 2^depth pieces of equal parameter 
+     * length by repeated halving. The pieces are written in order, 8 coordinates each, and the work is done in 
+     * place in the output array with no allocation; the output may overlap the input at the same offset.
+     * @param curve		the array holding the control coordinates of the curve
+     * @param offset	the index in curve of the first coordinate
+     * @param depth		the number of times to halve the pieces
+     * @param out	the array that receives 8 * 2^depth control coordinates
+     * @param outOffset		the index in out of the first coordinate
+     */
+    public static void subdivide(double[] curve, int offset, int depth, double[] out, int outOffset) {
+    	System.arraycopy(curve, offset, out, outOffset, 8);
+    	for (int level = 0; level < depth; level++) {
+    		// split the pieces from the last to the first, so that no piece is overwritten before it is split
+    		for (int k = (1 << level) - 1; k >= 0; k--) {
+    			split(out, outOffset + 8 * k, 0.5, out, outOffset + 16 * k, out, outOffset + 16 * k + 8);
+    		}
+    	}
+    }
+    
     @Override
     public int getOrder() {
     	return 3;
     }
     
+	/**
+	 * Checks whether transforms are deferred.
+	 * @return true if transforms accumulate into a pending affine map instead of moving the control points
+	 * @see #setTransformDeferred(boolean)
+	 */
+	public boolean isTransformDeferred() {
+		return isTransformDeferred;
+	}
+
+	/**
+	 * Turns deferred transforms on or off. While they are deferred, the transform methods compose into a single 
+	 * pending affine map instead of rewriting the control points, and the map is applied once, the next time the 
+	 * geometry is read. A chain of transforms then moves each control point once, with one rounding. Turning 
+	 * deferral off applies any pending map.
+	 * @param isTransformDeferred	a boolean specifying whether transforms are deferred
+	 */
+	public void setTransformDeferred(boolean isTransformDeferred) {
+		this.isTransformDeferred = isTransformDeferred;
+		if (!isTransformDeferred) {
+			applyPendingTransform();
+		}
+	}
+
+	/**
+	 * Checks whether a deferred transform is waiting to be applied.
+	 * @return true if the control points have not yet been moved by the pending affine map
+	 */
+	public boolean hasPendingTransform() {
+		return hasPendingTransform;
+	}
+
+	/**
+	 * Moves the control points by the pending affine map, if any, and resets it. Every method that reads the 
+	 * geometry calls this first, so it only needs to be called directly before reading the control points through 
+	 * references obtained earlier.
+	 */
+	public void applyPendingTransform() {
+		if (!hasPendingTransform) {
+			return;
+		}
+		// clear the flag first: the point getters below must not re-enter
+		hasPendingTransform = false;
+		double[] m = pendingTransform;
+		for (Point2D pt : new Point2D[] {p1, c1, c2, p2}) {
+			double x = pt.getX();
+			double y = pt.getY();
+			pt.setLocation(m[0] * x + m[2] * y + m[4], m[1] * x + m[3] * y + m[5]);
+		}
+		m[0] = 1;
+		m[1] = 0;
+		m[2] = 0;
+		m[3] = 1;
+		m[4] = 0;
+		m[5] = 0;
+	}
+
+	/**
+	 * Transforms the curve by the affine map (x, y) -> (m00 x + m01 y + m02, m10 x + m11 y + m12), either at once or, 
+	 * if transforms are deferred, by composing it after the pending map.
+	 * @return this curve
+	 */
+	private CubicBezierCurve transform(double m00, double m01, double m02, double m10, double m11, double m12) {
+		if (isTransformDeferred) {
+			double[] m = pendingTransform;
+			double n00 = m00 * m[0] + m01 * m[1];
+			double n10 = m10 * m[0] + m11 * m[1];
+			double n01 = m00 * m[2] + m01 * m[3];
+			double n11 = m10 * m[2] + m11 * m[3];
+			double n02 = m00 * m[4] + m01 * m[5] + m02;
+			double n12 = m10 * m[4] + m11 * m[5] + m12;
+			m[0] = n00;
+			m[1] = n10;
+			m[2] = n01;
+			m[3] = n11;
+			m[4] = n02;
+			m[5] = n12;
+			hasPendingTransform = true;
+			return this;
+		}
+		for (Point2D pt : new Point2D[] {p1, c1, c2, p2}) {
+			double x = pt.getX();
+			double y = pt.getY();
+			pt.setLocation(m00 * x + m01 * y + m02, m10 * x + m11 * y + m12);
+		}
+		return this;
+	}
+
+	/**
+	 * Transforms the curve by an affine map in one step. Affine maps send Bezier curves to the Bezier curves of the 
+	 * transformed control points, so this is exact up to the rounding of the control coordinates. The map is 
+	 * deferred if transforms are deferred.
+	 * @param transform		the {@link AffineTransform} to apply
+	 * @return the transformed CubicBezierCurve
+	 */
+	@Override
+	public CubicBezierCurve applyTransform(AffineTransform transform) {
+		return transform(transform.getScaleX(), transform.getShearX(), transform.getTranslateX(), 
+				transform.getShearY(), transform.getScaleY(), transform.getTranslateY());
+	}
+
 	@Override
 	public CubicBezierCurve translate(double xDelta, double yDelta) {
-		this.p1.setLocation(p1.getX() + xDelta, p1.getY() + yDelta);
-		this.c1.setLocation(c1.getX() + xDelta, c1.getY() + yDelta);
-		this.c2.setLocation(c2.getX() + xDelta, c2.getY() + yDelta);
-		this.p2.setLocation(p2.getX() + xDelta, p2.getY() + yDelta);
-		return this;
+		return transform(1, 0, xDelta, 0, 1, yDelta);
 	}
 	
 	/**
@@ -374,11 +1148,12 @@ public class CubicBezierCurve extends BezierCurve {
 	 * @return the translated CubicBezierCurve
 	 */
 	public CubicBezierCurve centerAtP1() {
-    	double xDelta = p1.getX();
-    	double yDelta = p1.getY();
-    	translate(-xDelta, -yDelta);
-    	return this;
-    }
+		// the current position of P1 is the pending map applied to it
+		double[] m = pendingTransform;
+		double xDelta = m[0] * p1.getX() + m[2] * p1.getY() + m[4];
+		double yDelta = m[1] * p1.getX() + m[3] * p1.getY() + m[5];
+		return translate(-xDelta, -yDelta);
+	}
 
 	@Override
 	public CubicBezierCurve reflect(double axisVectorX, double axisVectorY) {
@@ -390,37 +1165,21 @@ public class CubicBezierCurve extends BezierCurve {
 		double transformCoeff00 = xComponentSquared - yComponentSquared;
 		double transformCoeff01 = 2 * xComponent * yComponent;
 		double transformCoeff11 = yComponentSquared - xComponentSquared;
-		
-		this.p1.setLocation(transformCoeff00 * p1.getX() + transformCoeff01 * p1.getY(), 
-				transformCoeff01 * p1.getX() + transformCoeff11 * p1.getY());
-		this.c1.setLocation(transformCoeff00 * c1.getX() + transformCoeff01 * c1.getY(), 
-				transformCoeff01 * c1.getX() + transformCoeff11 * c1.getY());
-		this.c2.setLocation(transformCoeff00 * c2.getX() + transformCoeff01 * c2.getY(), 
-				transformCoeff01 * c2.getX() + transformCoeff11 * c2.getY());
-		this.p2.setLocation(transformCoeff00 * p2.getX() + transformCoeff01 * p2.getY(), 
-				transformCoeff01 * p2.getX() + transformCoeff11 * p2.getY());
-		return this;
+		return transform(transformCoeff00, transformCoeff01, 0, transformCoeff01, transformCoeff11, 0);
 	}
 
 	@Override
 	public CubicBezierCurve scale(double xScale, double yScale) {
-		// TODO Auto-generated method stub
-		this.p1.setLocation(p1.getX() * xScale, p1.getY() * yScale);
-		this.c1.setLocation(c1.getX() * xScale, c1.getY() * yScale);
-		this.c2.setLocation(c2.getX() * xScale, c2.getY() * yScale);
-		this.p2.setLocation(p2.getX() * xScale, p2.getY() * yScale);
-		return this;
+		return transform(xScale, 0, 0, 0, yScale, 0);
 	}
 
 	@Override
 	public CubicBezierCurve scale(double factor) {
-		// TODO Auto-generated method stub
 		return scale(factor, factor);
 	}
 
 	@Override
 	public CubicBezierCurve rotate(double radians) {
-		// TODO Auto-generated method stub
 		double cosCoeff;
 		double sinCoeff;
 		if (radians == Math.PI / 2) {
@@ -436,32 +1195,16 @@ public class CubicBezierCurve extends BezierCurve {
 			cosCoeff = Math.cos(radians);
 			sinCoeff = Math.sin(radians);
 		}
-		this.p1.setLocation(cosCoeff * p1.getX() - sinCoeff * p1.getY(),
-				sinCoeff * p1.getX() + cosCoeff * p1.getY());
-		this.c1.setLocation(cosCoeff * c1.getX() - sinCoeff * c1.getY(),
-				sinCoeff * c1.getX() + cosCoeff * c1.getY());
-		this.c2.setLocation(cosCoeff * c2.getX() - sinCoeff * c2.getY(),
-				sinCoeff * c2.getX() + cosCoeff * c2.getY());
-		this.p2.setLocation(cosCoeff * p2.getX() - sinCoeff * p2.getY(),
-				sinCoeff * p2.getX() + cosCoeff * p2.getY());
-		return this;
+		return transform(cosCoeff, -sinCoeff, 0, sinCoeff, cosCoeff, 0);
 	}
 
 	@Override
 	public CubicBezierCurve shearX(double factor) {
-		this.p1.setLocation(p1.getX() + factor * p1.getY(), p1.getY());
-		this.c1.setLocation(c1.getX() + factor * c1.getY(), c1.getY());
-		this.c2.setLocation(c2.getX() + factor * c2.getY(), c2.getY());
-		this.p2.setLocation(p2.getX() + factor * p2.getY(), p2.getY());
-		return this;
+		return transform(1, factor, 0, 0, 1, 0);
 	}
 	
 	@Override
 	public CubicBezierCurve shearY(double factor) {
-		this.p1.setLocation(p1.getX(), factor * p1.getX() + p1.getY());
-		this.c1.setLocation(c1.getX(), factor * c1.getX() + c1.getY());
-		this.c2.setLocation(c2.getX(), factor * c2.getX() + c2.getY());
-		this.p2.setLocation(p2.getX(), factor * p2.getX() + p2.getY());
-		return this;
+		return transform(1, 0, 0, factor, 1, 0);
 	}
 }
\ No newline at end of file
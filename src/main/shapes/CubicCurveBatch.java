@@ -0,0 +1,249 @@
+package main.shapes;
+
+import java.awt.geom.Point2D;
+import java.util.Arrays;
+import java.util.List;
+
+import main.utils.CubicBasisTable;
+
+/**
+ * A class for evaluating many cubic Bezier curves together. The control coordinates of the curves are packed into
+ * contiguous primitive arrays (one array per control coordinate), so that evaluating every curve at a common value of
+ * the curve parameter is a single loop of multiply-adds over the arrays, free of virtual calls and per-curve setup.
+ * The loops are run by a {@link BernsteinKernel}, which uses SIMD lanes where the JVM supports them.
+ * Curves are packed by value: moving a control point of a packed curve does not affect the batch until the curve
+ * is packed again with {@link #set(int, CubicBezierCurve)} or {@link #pack(List)}.
+ * @author smaffa
+ *
+ */
+public class CubicCurveBatch {
+
+	private static final int DEFAULT_CAPACITY = 16;
+
+	private int size = 0;
+	private double[] p1X;
+	private double[] p1Y;
+	private double[] c1X;
+	private double[] c1Y;
+	private double[] c2X;
+	private double[] c2Y;
+	private double[] p2X;
+	private double[] p2Y;
+
+	private BernsteinKernel kernel = BernsteinKernel.getInstance();
+
+	/**
+	 * Default constructor for an empty CubicCurveBatch
+	 */
+	public CubicCurveBatch() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructor for an empty CubicCurveBatch with room for a specified number of curves
+	 * @param capacity	the number of curves to allocate room for
+	 */
+	public CubicCurveBatch(int capacity) {
+		p1X = new double[capacity];
+		p1Y = new double[capacity];
+		c1X = new double[capacity];
+		c1Y = new double[capacity];
+		c2X = new double[capacity];
+		c2Y = new double[capacity];
+		p2X = new double[capacity];
+		p2Y = new double[capacity];
+	}
+
+	public BernsteinKernel getKernel() {
+		return kernel;
+	}
+
+	/**
+	 * Sets the kernel that evaluates the batch, for example to compare the scalar kernel against the vector kernel.
+	 * @param kernel	the {@link BernsteinKernel} to use
+	 */
+	public void setKernel(BernsteinKernel kernel) {
+		this.kernel = kernel;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Removes all curves from the batch, keeping the allocated storage.
+	 */
+	public void clear() {
+		size = 0;
+	}
+
+	/**
+	 * Replaces the contents of the batch with the cubic curves in a list. Curves of any other type are skipped.
+	 * @param curves	the {@link List} of {@link BezierCurve} objects to pack
+	 * @return the number of curves packed
+	 */
+	public int pack(List<? extends BezierCurve> curves) {
+		clear();
+		ensureCapacity(curves.size());
+		for (BezierCurve curve : curves) {
+			if (curve instanceof CubicBezierCurve) {
+				add((CubicBezierCurve) curve);
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Appends a curve to the batch.
+	 * @param curve		the {@link CubicBezierCurve} to pack
+	 * @return the index of the curve in the batch
+	 */
+	public int add(CubicBezierCurve curve) {
+		ensureCapacity(size + 1);
+		set(size, curve);
+		return size++;
+	}
+
+	/**
+	 * Appends a curve to the batch from its control coordinates.
+	 * @return the index of the curve in the batch
+	 */
+	public int add(double p1x, double p1y, double c1x, double c1y, double c2x, double c2y, double p2x, double p2y) {
+		ensureCapacity(size + 1);
+		set(size, p1x, p1y, c1x, c1y, c2x, c2y, p2x, p2y);
+		return size++;
+	}
+
+	/**
+	 * Overwrites the curve at an index of the batch with the current control points of a curve.
+	 * @param index		the index of the curve in the batch
+	 * @param curve		the {@link CubicBezierCurve} to pack
+	 */
+	public void set(int index, CubicBezierCurve curve) {
+		set(index, curve.getP1().getX(), curve.getP1().getY(), curve.getC1().getX(), curve.getC1().getY(),
+				curve.getC2().getX(), curve.getC2().getY(), curve.getP2().getX(), curve.getP2().getY());
+	}
+
+	/**
+	 * Overwrites the curve at an index of the batch with new control coordinates.
+	 * @param index		the index of the curve in the batch
+	 */
+	public void set(int index, double p1x, double p1y, double c1x, double c1y, double c2x, double c2y,
+			double p2x, double p2y) {
+		p1X[index] = p1x;
+		p1Y[index] = p1y;
+		c1X[index] = c1x;
+		c1Y[index] = c1y;
+		c2X[index] = c2x;
+		c2Y[index] = c2y;
+		p2X[index] = p2x;
+		p2Y[index] = p2y;
+	}
+
+	/**
+	 * Unpacks a curve of the batch into a new {@link CubicBezierCurve} object.
+	 * @param index		the index of the curve in the batch
+	 * @return a {@link CubicBezierCurve} with the control coordinates stored at the index
+	 */
+	public CubicBezierCurve getCurve(int index) {
+		return new CubicBezierCurve(new Point2D.Double(p1X[index], p1Y[index]),
+				new Point2D.Double(c1X[index], c1Y[index]),
+				new Point2D.Double(c2X[index], c2Y[index]),
+				new Point2D.Double(p2X[index], p2Y[index]));
+	}
+
+	/**
+	 * Grows the arrays, if necessary, to hold the specified number of curves, preserving the packed curves.
+	 * @param capacity	the number of curves to allocate room for
+	 */
+	public void ensureCapacity(int capacity) {
+		if (p1X.length < capacity) {
+			int newCapacity = Math.max(capacity, 2 * p1X.length);
+			p1X = Arrays.copyOf(p1X, newCapacity);
+			p1Y = Arrays.copyOf(p1Y, newCapacity);
+			c1X = Arrays.copyOf(c1X, newCapacity);
+			c1Y = Arrays.copyOf(c1Y, newCapacity);
+			c2X = Arrays.copyOf(c2X, newCapacity);
+			c2Y = Arrays.copyOf(c2Y, newCapacity);
+			p2X = Arrays.copyOf(p2X, newCapacity);
+			p2Y = Arrays.copyOf(p2Y, newCapacity);
+		}
+	}
+
+	/**
+	 * Evaluates the position of every curve in the batch at the same value of the curve parameter.
+	 * @param t		a double between 0 and 1, inclusive
+	 * @param outX	the array that receives the x coordinate of curve i at index i
+	 * @param outY	the array that receives the y coordinate of curve i at index i
+	 */
+	public void evaluateAt(double t, double[] outX, double[] outY) {
+		evaluateAt(t, 0, outX, outY);
+	}
+
+	/**
+	 * Evaluates the position, or a derivative, of every curve in the batch at the same value of the curve parameter.
+	 * @param t		a double between 0 and 1, inclusive
+	 * @param derivativeOrder	0 for position, 1 for velocity, 2 for acceleration
+	 * @param outX	the array that receives the x component of curve i at index i
+	 * @param outY	the array that receives the y component of curve i at index i
+	 */
+	public void evaluateAt(double t, int derivativeOrder, double[] outX, double[] outY) {
+		double s = 1 - t;
+		double w0;
+		double w1;
+		double w2;
+		double w3;
+		if (derivativeOrder == 0) {
+			w0 = s * s * s;
+			w1 = 3 * s * s * t;
+			w2 = 3 * s * t * t;
+			w3 = t * t * t;
+		} else if (derivativeOrder == 1) {
+			w0 = -3 * s * s;
+			w1 = 3 * s * s - 6 * s * t;
+			w2 = 6 * s * t - 3 * t * t;
+			w3 = 3 * t * t;
+		} else if (derivativeOrder == 2) {
+			w0 = 6 * s;
+			w1 = 6 * (3 * t - 2);
+			w2 = 6 * (1 - 3 * t);
+			w3 = 6 * t;
+		} else {
+			throw new IllegalArgumentException("derivativeOrder must be between 0 and 2: " + derivativeOrder);
+		}
+		kernel.combineCurves(w0, w1, w2, w3, p1X, c1X, c2X, p2X, outX, size);
+		kernel.combineCurves(w0, w1, w2, w3, p1Y, c1Y, c2Y, p2Y, outY, size);
+	}
+
+	/**
+	 * Samples the position of every curve in the batch at bezierFineness regular intervals on the curve parameter t,
+	 * bounded between 0 and 1, inclusive. The samples of curve i occupy indices i * (bezierFineness + 1) through
+	 * i * (bezierFineness + 1) + bezierFineness of the output arrays.
+	 * @param bezierFineness	the number of points to interpolate along each curve
+	 * @param outX	the array that receives size() * (bezierFineness + 1) x coordinates
+	 * @param outY	the array that receives size() * (bezierFineness + 1) y coordinates
+	 */
+	public void evaluateGrid(int bezierFineness, double[] outX, double[] outY) {
+		evaluateGrid(bezierFineness, 0, outX, outY);
+	}
+
+	/**
+	 * Samples the position, or a derivative, of every curve in the batch at bezierFineness regular intervals on the
+	 * curve parameter t, bounded between 0 and 1, inclusive.
+	 * @param bezierFineness	the number of points to interpolate along each curve
+	 * @param derivativeOrder	0 for position, 1 for velocity, 2 for acceleration
+	 * @param outX	the array that receives size() * (bezierFineness + 1) x components
+	 * @param outY	the array that receives size() * (bezierFineness + 1) y components
+	 * @see #evaluateGrid(int, double[], double[])
+	 */
+	public void evaluateGrid(int bezierFineness, int derivativeOrder, double[] outX, double[] outY) {
+		CubicBasisTable weights = CubicBasisTable.getBernsteinWeights(bezierFineness, derivativeOrder);
+		int nSamples = bezierFineness + 1;
+		for (int i = 0; i < size; i++) {
+			int base = i * nSamples;
+			weights.combine(kernel, p1X[i], c1X[i], c2X[i], p2X[i], outX, base);
+			weights.combine(kernel, p1Y[i], c1Y[i], c2Y[i], p2Y[i], outY, base);
+		}
+	}
+
+}
@@ -0,0 +1,70 @@
+package main.shapes;
+
+import java.util.Set;
+
+/**
+ * A backend for evaluating cubic Bezier curves and their derivatives. Backends are interchangeable: they are looked
+ * up by name in {@link CurveEvaluators}, where one of them is selected as the default for sampling every
+ * {@link CubicBezierCurve}, and a curve can also be given its own backend with
+ * {@link CubicBezierCurve#setEvaluator(CurveEvaluator)}.
+ * <p>
+ * A curve is passed to a backend as its 8 control coordinates [P1.x, P1.y, C1.x, C1.y, C2.x, C2.y, P2.x, P2.y], in
+ * the layout of {@link CubicBezierCurve#getControlCoordinates(double[], int)}. Backends hold no state that depends on
+ * the curve, and may be shared between threads.
+ * @author smaffa
+ *
+ */
+public interface CurveEvaluator {
+
+	/**
+	 * Provides the name the backend is registered under in {@link CurveEvaluators}.
+	 * @return a String naming the backend
+	 */
+	public String getName();
+
+	/**
+	 * Provides the properties of the backend.
+	 * @return an unmodifiable {@link Set} of {@link EvaluatorCapability} values
+	 */
+	public Set<EvaluatorCapability> getCapabilities();
+
+	/**
+	 * Checks whether the backend has a property.
+	 * @param capability	the {@link EvaluatorCapability} to check
+	 * @return true if the backend reports the capability
+	 */
+	public default boolean hasCapability(EvaluatorCapability capability) {
+		return getCapabilities().contains(capability);
+	}
+
+	/**
+	 * Samples a curve, or one of its derivatives, at bezierFineness regular intervals on the curve parameter t.
+	 * Sample i is written to xs[xOffset + i * stride] and ys[yOffset + i * stride], so xs and ys may be the same
+	 * array.
+	 * @param control	the array holding the control coordinates of the curve
+	 * @param controlOffset		the index in control of P1.x
+	 * @param derivativeOrder	0 for position, 1 for velocity, 2 for acceleration
+	 * @param bezierFineness	the number of intervals to sample along the curve
+	 * @param xs	the array that receives the x coordinates
+	 * @param xOffset	the index in xs of the first x coordinate
+	 * @param ys	the array that receives the y coordinates
+	 * @param yOffset	the index in ys of the first y coordinate
+	 * @param stride	the distance between consecutive samples in xs and ys
+	 */
+	public void sample(double[] control, int controlOffset, int derivativeOrder, int bezierFineness,
+			double[] xs, int xOffset, double[] ys, int yOffset, int stride);
+
+	/**
+	 * Evaluates a curve, or one of its derivatives, at a single value of t.
+	 * @param control	the array holding the control coordinates of the curve
+	 * @param controlOffset		the index in control of P1.x
+	 * @param derivativeOrder	0 for position, 1 for velocity, 2 for acceleration
+	 * @param t		a double between 0 and 1, inclusive
+	 * @param out	the array that receives the (x,y) coordinates
+	 * @param outOffset		the index in out of the x coordinate
+	 * @throws UnsupportedOperationException if the backend does not have {@link EvaluatorCapability#POINT_EVALUATION}
+	 */
+	public void evaluate(double[] control, int controlOffset, int derivativeOrder, double t,
+			double[] out, int outOffset);
+
+}
@@ -0,0 +1,121 @@
+package main.shapes;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The registry of {@link CurveEvaluator} backends, and the selection of the default backend that samples every
+ * {@link CubicBezierCurve} in {@link SamplingMode#DIRECT} mode without a backend of its own. The built-in backends
+ * are registered under the names {@link #EJML}, {@link #HORNER}, {@link #FORWARD_DIFFERENCE}, {@link #BERNSTEIN} and,
+ * when the JVM can load the SIMD kernel of {@link BernsteinKernel}, {@link #VECTOR}.
+ * <p>
+ * The default is chosen once per JVM from the system property {@link #EVALUATOR_PROPERTY}, falling back to the
+ * vector backend when it is available and to the scalar Bernstein backend otherwise, and can be changed at runtime
+ * with {@link #setDefault(String)}. That allows backends to be compared on the same workload, with the EJML backend
+ * as the correctness oracle.
+ * @author smaffa
+ *
+ */
+public final class CurveEvaluators {
+
+	/**
+	 * The system property naming the default backend, for example -Dmain.shapes.evaluator=horner. Unknown names are
+	 * ignored.
+	 */
+	public static final String EVALUATOR_PROPERTY = "main.shapes.evaluator";
+
+	public static final String EJML = "ejml";
+	public static final String HORNER = "horner";
+	public static final String FORWARD_DIFFERENCE = "forward-difference";
+	public static final String BERNSTEIN = "bernstein";
+	public static final String VECTOR = "vector";
+
+	private static final Map<String, CurveEvaluator> REGISTRY = new LinkedHashMap<String, CurveEvaluator>();
+	private static volatile CurveEvaluator defaultEvaluator;
+
+	static {
+		register(new EjmlCurveEvaluator());
+		register(new HornerCurveEvaluator());
+		register(new ForwardDifferenceCurveEvaluator());
+		register(new BernsteinCurveEvaluator(BERNSTEIN, BernsteinKernel.getScalarInstance()));
+		if (BernsteinKernel.getInstance() != BernsteinKernel.getScalarInstance()) {
+			register(new BernsteinCurveEvaluator(VECTOR, BernsteinKernel.getInstance()));
+		}
+		defaultEvaluator = selectDefault();
+	}
+
+	private CurveEvaluators() {
+	}
+
+	private static CurveEvaluator selectDefault() {
+		String name = System.getProperty(EVALUATOR_PROPERTY);
+		if (name != null && isAvailable(name)) {
+			return get(name);
+		}
+		return isAvailable(VECTOR) ? get(VECTOR) : get(BERNSTEIN);
+	}
+
+	/**
+	 * Adds a backend to the registry, under its own name.
+	 * @param evaluator		the {@link CurveEvaluator} to register
+	 * @throws IllegalArgumentException if a backend is already registered under the same name
+	 */
+	public static synchronized void register(CurveEvaluator evaluator) {
+		if (REGISTRY.containsKey(evaluator.getName())) {
+			throw new IllegalArgumentException("An evaluator is already registered as " + evaluator.getName());
+		}
+		REGISTRY.put(evaluator.getName(), evaluator);
+	}
+
+	/**
+	 * Checks whether a backend is registered.
+	 * @param name	the name of the backend
+	 * @return true if a backend is registered under the name
+	 */
+	public static synchronized boolean isAvailable(String name) {
+		return REGISTRY.containsKey(name);
+	}
+
+	/**
+	 * Provides a registered backend.
+	 * @param name	the name of the backend
+	 * @return the {@link CurveEvaluator} registered under the name
+	 * @throws IllegalArgumentException if no backend is registered under the name
+	 */
+	public static synchronized CurveEvaluator get(String name) {
+		CurveEvaluator evaluator = REGISTRY.get(name);
+		if (evaluator == null) {
+			throw new IllegalArgumentException("No evaluator registered as " + name + ": " + REGISTRY.keySet());
+		}
+		return evaluator;
+	}
+
+	/**
+	 * Provides every registered backend.
+	 * @return an unmodifiable {@link List} of {@link CurveEvaluator} objects, in the order they were registered
+	 */
+	public static synchronized List<CurveEvaluator> getAvailable() {
+		return Collections.unmodifiableList(new ArrayList<CurveEvaluator>(REGISTRY.values()));
+	}
+
+	/**
+	 * Provides the backend used by curves that do not have one of their own.
+	 * @return the default {@link CurveEvaluator}
+	 */
+	public static CurveEvaluator getDefault() {
+		return defaultEvaluator;
+	}
+
+	/**
+	 * Selects the backend used by curves that do not have one of their own.
+	 * @param name	the name of a registered backend
+	 * @throws IllegalArgumentException if no backend is registered under the name
+	 */
+	public static void setDefault(String name) {
+		defaultEvaluator = get(name);
+	}
+
+}
@@ -0,0 +1,108 @@
+package main.shapes;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A registry of canonical {@link BezierCurve} instances. Interning a curve returns the first curve interned that
+ * equals it, so that a scene with many repeated curves, such as glyphs and symbols, keeps one instance of each, and
+ * caches can key on the canonical instance by identity.
+ * <p>
+ * Curves are mutable. A canonical curve that is moved after it was interned is no longer returned for curves equal to
+ * its old geometry, since every match is checked with {@link BezierCurve#equals(Object)} against the current
+ * geometry; {@link #purgeModified()} drops such curves from the registry.
+ * @author smaffa
+ *
+ */
+public class CurveInterner {
+
+	// canonical curves, bucketed by their hash code when they were interned
+	private final Map<Integer, List<BezierCurve>> canonicalCurves = new HashMap<Integer, List<BezierCurve>>();
+	private int size = 0;
+
+	/**
+	 * Provides the canonical instance of a curve, registering the curve itself as canonical if no equal curve has
+	 * been interned.
+	 * @param curve		the {@link BezierCurve} to intern
+	 * @return the canonical curve equal to the input, of the same class
+	 */
+	@SuppressWarnings("unchecked")
+	public synchronized <T extends BezierCurve> T intern(T curve) {
+		int hash = curve.hashCode();
+		List<BezierCurve> bucket = canonicalCurves.get(hash);
+		if (bucket == null) {
+			bucket = new ArrayList<BezierCurve>(1);
+			canonicalCurves.put(hash, bucket);
+		}
+		for (BezierCurve canonical : bucket) {
+			if (canonical.equals(curve)) {
+				// equal curves are of the same class
+				return (T) canonical;
+			}
+		}
+		bucket.add(curve);
+		size++;
+		return curve;
+	}
+
+	/**
+	 * Checks whether a curve is the canonical instance of its geometry.
+	 * @param curve		a {@link BezierCurve}
+	 * @return true if the curve itself was interned and has not been moved since
+	 */
+	public synchronized boolean isCanonical(BezierCurve curve) {
+		List<BezierCurve> bucket = canonicalCurves.get(curve.hashCode());
+		if (bucket != null) {
+			for (BezierCurve canonical : bucket) {
+				if (canonical == curve) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Drops the canonical curves that have been moved since they were interned.
+	 * @return the number of curves dropped
+	 */
+	public synchronized int purgeModified() {
+		int nPurged = 0;
+		Iterator<Map.Entry<Integer, List<BezierCurve>>> entries = canonicalCurves.entrySet().iterator();
+		while (entries.hasNext()) {
+			Map.Entry<Integer, List<BezierCurve>> entry = entries.next();
+			Iterator<BezierCurve> curves = entry.getValue().iterator();
+			while (curves.hasNext()) {
+				if (curves.next().hashCode() != entry.getKey()) {
+					curves.remove();
+					nPurged++;
+				}
+			}
+			if (entry.getValue().isEmpty()) {
+				entries.remove();
+			}
+		}
+		size -= nPurged;
+		return nPurged;
+	}
+
+	/**
+	 * Provides the number of canonical curves.
+	 * @return the number of distinct curves interned, including any moved since
+	 */
+	public synchronized int size() {
+		return size;
+	}
+
+	/**
+	 * Removes every canonical curve.
+	 */
+	public synchronized void clear() {
+		canonicalCurves.clear();
+		size = 0;
+	}
+
+}
@@ -0,0 +1,121 @@
+package main.shapes;
+
+import java.awt.geom.Point2D;
+import java.util.Arrays;
+
+/**
+ * A reusable holder for a run of (x,y) samples along a curve, and the values of the curve parameter t they were taken
+ * at, stored as separate primitive arrays. The arrays are grown on demand and reused between calls, so their length
+ * may exceed the number of samples currently held.
+ * @author smaffa
+ *
+ */
+public class CurveSamples {
+
+	private int size = 0;
+	private double[] t = new double[0];
+	private double[] x = new double[0];
+	private double[] y = new double[0];
+
+	/**
+	 * Default constructor for an empty CurveSamples object
+	 */
+	public CurveSamples() {
+	}
+
+	/**
+	 * Constructor for a CurveSamples object with room for a specified number of samples
+	 * @param capacity	the number of samples to allocate room for
+	 */
+	public CurveSamples(int capacity) {
+		ensureCapacity(capacity);
+	}
+
+	/**
+	 * Grows the arrays, if necessary, to hold the specified number of samples, and sets the number of samples held.
+	 * @param size	the number of samples
+	 */
+	public void resize(int size) {
+		ensureCapacity(size);
+		this.size = size;
+	}
+
+	/**
+	 * Grows the arrays, if necessary, to hold the specified number of samples, preserving the samples already held.
+	 * @param capacity	the number of samples to allocate room for
+	 */
+	public void ensureCapacity(int capacity) {
+		if (x.length < capacity) {
+			t = Arrays.copyOf(t, capacity);
+			x = Arrays.copyOf(x, capacity);
+			y = Arrays.copyOf(y, capacity);
+		}
+	}
+
+	/**
+	 * Removes all samples, keeping the allocated storage.
+	 */
+	public void clear() {
+		size = 0;
+	}
+
+	/**
+	 * Appends a sample, growing the arrays if necessary while preserving the samples already held.
+	 * @param t		the value of the curve parameter at the sample
+	 * @param x		the x coordinate of the sample
+	 * @param y		the y coordinate of the sample
+	 */
+	public void add(double t, double x, double y) {
+		if (size == this.x.length) {
+			int newCapacity = Math.max(16, 2 * size);
+			this.t = Arrays.copyOf(this.t, newCapacity);
+			this.x = Arrays.copyOf(this.x, newCapacity);
+			this.y = Arrays.copyOf(this.y, newCapacity);
+		}
+		this.t[size] = t;
+		this.x[size] = x;
+		this.y[size] = y;
+		size++;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public double[] getT() {
+		return t;
+	}
+
+	public double[] getX() {
+		return x;
+	}
+
+	public double[] getY() {
+		return y;
+	}
+
+	public double getT(int index) {
+		return t[index];
+	}
+
+	public double getX(int index) {
+		return x[index];
+	}
+
+	public double getY(int index) {
+		return y[index];
+	}
+
+	/**
+	 * Copies the samples into new point objects.
+	 * @return An array of {@link Point2D} objects of length size()
+	 */
+	public Point2D[] toPoints() {
+		Point2D[] points = new Point2D[size];
+		for (int i = 0; i < size; i++) {
+			points[i] = new Point2D.Double(x[i], y[i]);
+		}
+		return points;
+	}
+
+}
@@ -0,0 +1,92 @@
+package main.shapes;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+import org.ejml.simple.SimpleMatrix;
+
+import main.utils.Constants;
+import main.utils.CubicBasisTable;
+
+/**
+ * The reference {@link CurveEvaluator}, which evaluates a curve as the matrix product T * M * C of the power basis
+ * rows T, CUBIC_POINT_COEFFICIENT_MATRIX M and the control coordinates C with EJML, as the curves originally did.
+ * It allocates its matrices on every call and is kept as a correctness oracle for the faster backends rather than
+ * for drawing.
+ * @author smaffa
+ *
+ */
+final class EjmlCurveEvaluator implements CurveEvaluator {
+
+	private static final Set<EvaluatorCapability> CAPABILITIES = Collections.unmodifiableSet(
+			EnumSet.of(EvaluatorCapability.POINT_EVALUATION, EvaluatorCapability.EXACT_ENDPOINTS,
+					EvaluatorCapability.REFERENCE));
+
+	@Override
+	public String getName() {
+		return CurveEvaluators.EJML;
+	}
+
+	@Override
+	public Set<EvaluatorCapability> getCapabilities() {
+		return CAPABILITIES;
+	}
+
+	@Override
+	public void sample(double[] control, int controlOffset, int derivativeOrder, int bezierFineness,
+			double[] xs, int xOffset, double[] ys, int yOffset, int stride) {
+		checkDerivativeOrder(derivativeOrder);
+		CubicBasisTable powerBasis = CubicBasisTable.getPowerBasis(bezierFineness, derivativeOrder);
+		SimpleMatrix tMatrix = new SimpleMatrix(bezierFineness + 1, 4);
+		for (int i = 0; i <= bezierFineness; i++) {
+			for (int j = 0; j < 4; j++) {
+				tMatrix.set(i, j, powerBasis.get(i, j));
+			}
+		}
+		SimpleMatrix result = tMatrix.mult(Constants.CUBIC_POINT_COEFFICIENT_MATRIX)
+				.mult(getControlCoordinateMatrix(control, controlOffset));
+		for (int i = 0; i <= bezierFineness; i++) {
+			xs[xOffset + i * stride] = result.get(i, 0);
+			ys[yOffset + i * stride] = result.get(i, 1);
+		}
+	}
+
+	@Override
+	public void evaluate(double[] control, int controlOffset, int derivativeOrder, double t,
+			double[] out, int outOffset) {
+		checkDerivativeOrder(derivativeOrder);
+		SimpleMatrix tPoint;
+		if (derivativeOrder == 0) {
+			tPoint = new SimpleMatrix(new double[][] {{1, t, t * t, t * t * t}});
+		} else if (derivativeOrder == 1) {
+			tPoint = new SimpleMatrix(new double[][] {{0, 1, 2 * t, 3 * t * t}});
+		} else {
+			tPoint = new SimpleMatrix(new double[][] {{0, 0, 2, 6 * t}});
+		}
+		SimpleMatrix result = tPoint.mult(Constants.CUBIC_POINT_COEFFICIENT_MATRIX)
+				.mult(getControlCoordinateMatrix(control, controlOffset));
+		out[outOffset] = result.get(0, 0);
+		out[outOffset + 1] = result.get(0, 1);
+	}
+
+	/**
+	 * Provides the control coordinates of a curve as a matrix.
+	 * @return A {@link SimpleMatrix} where each row is a control point.
+	 */
+	private static SimpleMatrix getControlCoordinateMatrix(double[] control, int offset) {
+		return new SimpleMatrix(new double[][] {
+			{control[offset], control[offset + 1]},
+			{control[offset + 2], control[offset + 3]},
+			{control[offset + 4], control[offset + 5]},
+			{control[offset + 6], control[offset + 7]}
+		});
+	}
+
+	private static void checkDerivativeOrder(int derivativeOrder) {
+		if (derivativeOrder < 0 || derivativeOrder > 2) {
+			throw new IllegalArgumentException("derivativeOrder must be between 0 and 2: " + derivativeOrder);
+		}
+	}
+
+}
@@ -0,0 +1,44 @@
+package main.shapes;
+
+/**
+ * The properties a {@link CurveEvaluator} can report through {@link CurveEvaluator#getCapabilities()}, so that
+ * callers can check that a backend is suitable before selecting it.
+ * @author smaffa
+ *
+ */
+public enum EvaluatorCapability {
+
+	/**
+	 * Evaluates a curve at an arbitrary value of t through
+	 * {@link CurveEvaluator#evaluate(double[], int, int, double, double[], int)}, not only at regular intervals.
+	 */
+	POINT_EVALUATION,
+
+	/**
+	 * Samples the position at t = 0 and t = 1 exactly at the endpoints, so that curves which share an endpoint
+	 * still meet exactly.
+	 */
+	EXACT_ENDPOINTS,
+
+	/**
+	 * Samples curves bit-identically to the scalar Bernstein backend, {@link CurveEvaluators#BERNSTEIN}.
+	 */
+	BIT_IDENTICAL,
+
+	/**
+	 * Samples without allocating any objects.
+	 */
+	ALLOCATION_FREE,
+
+	/**
+	 * Evaluates several samples at once in SIMD lanes.
+	 */
+	SIMD,
+
+	/**
+	 * Evaluates by the textbook matrix product rather than for speed, to serve as a correctness oracle for the other
+	 * backends.
+	 */
+	REFERENCE
+
+}
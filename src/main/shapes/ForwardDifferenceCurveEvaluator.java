@@ -0,0 +1,77 @@
+package main.shapes;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * The {@link CurveEvaluator} that steps through the samples of a curve with a {@link ForwardDifferencer}, at one
+ * addition per degree per sample. It only samples at regular intervals, and its error grows with the number of
+ * samples, within the bound given by {@link ForwardDifferencer}. The last position sample is pinned to P2.
+ * @author smaffa
+ *
+ */
+final class ForwardDifferenceCurveEvaluator implements CurveEvaluator {
+
+	private static final Set<EvaluatorCapability> CAPABILITIES = Collections.unmodifiableSet(
+			EnumSet.of(EvaluatorCapability.EXACT_ENDPOINTS, EvaluatorCapability.ALLOCATION_FREE));
+
+	@Override
+	public String getName() {
+		return CurveEvaluators.FORWARD_DIFFERENCE;
+	}
+
+	@Override
+	public Set<EvaluatorCapability> getCapabilities() {
+		return CAPABILITIES;
+	}
+
+	@Override
+	public void sample(double[] control, int controlOffset, int derivativeOrder, int bezierFineness,
+			double[] xs, int xOffset, double[] ys, int yOffset, int stride) {
+		if (derivativeOrder < 0 || derivativeOrder > 2) {
+			throw new IllegalArgumentException("derivativeOrder must be between 0 and 2: " + derivativeOrder);
+		}
+		sampleCoordinate(control, controlOffset, derivativeOrder, bezierFineness, xs, xOffset, stride);
+		sampleCoordinate(control, controlOffset + 1, derivativeOrder, bezierFineness, ys, yOffset, stride);
+	}
+
+	/**
+	 * Samples one coordinate from the power basis coefficients [a, b, c, d] of the position, [b, 2c, 3d] of the
+	 * velocity or [2c, 6d] of the acceleration.
+	 */
+	private static void sampleCoordinate(double[] control, int offset, int derivativeOrder, int bezierFineness,
+			double[] out, int outOffset, int stride) {
+		double p1 = control[offset];
+		double c1 = control[offset + 2];
+		double c2 = control[offset + 4];
+		double p2 = control[offset + 6];
+		double a = p1;
+		double b = 3 * (c1 - p1);
+		double c = 3 * (p1 - 2 * c1 + c2);
+		double d = p2 - p1 + 3 * (c1 - c2);
+		switch (derivativeOrder) {
+		case 0:
+			ForwardDifferencer.sample(a, b, c, d, 3, bezierFineness, out, outOffset, stride);
+			// pin the endpoint so that curves which share it still meet exactly
+			out[outOffset + bezierFineness * stride] = p2;
+			break;
+		case 1:
+			ForwardDifferencer.sample(b, 2 * c, 3 * d, 0, 2, bezierFineness, out, outOffset, stride);
+			break;
+		default:
+			ForwardDifferencer.sample(2 * c, 6 * d, 0, 0, 1, bezierFineness, out, outOffset, stride);
+		}
+	}
+
+	/**
+	 * Not supported: forward differencing only samples at regular intervals.
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public void evaluate(double[] control, int controlOffset, int derivativeOrder, double t,
+			double[] out, int outOffset) {
+		throw new UnsupportedOperationException("The " + getName() + " evaluator only samples at regular intervals");
+	}
+
+}
@@ -0,0 +1,116 @@
+package main.shapes;
+
+/**
+ * A reusable holder for the differential frames of a curve sampled at regular intervals of the curve parameter:
+ * position, velocity, acceleration, unit tangent, unit normal and signed curvature. The arrays are grown on demand and
+ * reused between calls, so their length may exceed the number of samples currently held.
+ * @author smaffa
+ *
+ */
+public class FrameBuffer {
+
+	private int sampleCount = 0;
+	private double[] positionX = new double[0];
+	private double[] positionY = new double[0];
+	private double[] velocityX = new double[0];
+	private double[] velocityY = new double[0];
+	private double[] accelerationX = new double[0];
+	private double[] accelerationY = new double[0];
+	private double[] tangentX = new double[0];
+	private double[] tangentY = new double[0];
+	private double[] normalX = new double[0];
+	private double[] normalY = new double[0];
+	private double[] curvature = new double[0];
+
+	/**
+	 * Default constructor for an empty FrameBuffer
+	 */
+	public FrameBuffer() {
+	}
+
+	/**
+	 * Constructor for a FrameBuffer with room for a specified number of samples
+	 * @param capacity	the number of samples to allocate room for
+	 */
+	public FrameBuffer(int capacity) {
+		ensureCapacity(capacity);
+	}
+
+	/**
+	 * Grows the arrays, if necessary, to hold the specified number of samples, and sets the number of samples held.
+	 * @param sampleCount	the number of samples
+	 */
+	public void resize(int sampleCount) {
+		ensureCapacity(sampleCount);
+		this.sampleCount = sampleCount;
+	}
+
+	/**
+	 * Grows the arrays, if necessary, to hold the specified number of samples. Existing contents are not preserved.
+	 * @param capacity	the number of samples to allocate room for
+	 */
+	public void ensureCapacity(int capacity) {
+		if (curvature.length < capacity) {
+			positionX = new double[capacity];
+			positionY = new double[capacity];
+			velocityX = new double[capacity];
+			velocityY = new double[capacity];
+			accelerationX = new double[capacity];
+			accelerationY = new double[capacity];
+			tangentX = new double[capacity];
+			tangentY = new double[capacity];
+			normalX = new double[capacity];
+			normalY = new double[capacity];
+			curvature = new double[capacity];
+		}
+	}
+
+	public int getSampleCount() {
+		return sampleCount;
+	}
+
+	public double[] getPositionX() {
+		return positionX;
+	}
+
+	public double[] getPositionY() {
+		return positionY;
+	}
+
+	public double[] getVelocityX() {
+		return velocityX;
+	}
+
+	public double[] getVelocityY() {
+		return velocityY;
+	}
+
+	public double[] getAccelerationX() {
+		return accelerationX;
+	}
+
+	public double[] getAccelerationY() {
+		return accelerationY;
+	}
+
+	public double[] getTangentX() {
+		return tangentX;
+	}
+
+	public double[] getTangentY() {
+		return tangentY;
+	}
+
+	public double[] getNormalX() {
+		return normalX;
+	}
+
+	public double[] getNormalY() {
+		return normalY;
+	}
+
+	public double[] getCurvature() {
+		return curvature;
+	}
+
+}
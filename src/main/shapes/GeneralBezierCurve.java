@@ -0,0 +1,449 @@
+package main.shapes;
+
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Point2D;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+import main.utils.Utility;
+
+/**
+ * Class representing a Bezier curve of arbitrary degree, defined by order + 1 control points. Points on the curve are
+ * evaluated in Bernstein form with cached binomial weights, without allocation. Curves of degree 1, 2 and 3 use
+ * hand-expanded Bernstein polynomials; higher degrees use a nested (Horner-like) evaluation of the Bernstein sum.
+ * Cubic curves which need the full set of bulk sampling paths should use {@link CubicBezierCurve}.
+ * @author smaffa
+ *
+ */
+public class GeneralBezierCurve extends BezierCurve {
+
+	private static final ConcurrentHashMap<Integer, double[]> BINOMIAL_CACHE =
+			new ConcurrentHashMap<Integer, double[]>();
+
+	private final Point2D[] controlPoints;
+	private final int degree;
+
+	/**
+	 * Constructor for a Bezier curve through its control points
+	 * @param controlPoints		at least 2 {@link Point2D} objects, in order from the first to the last endpoint
+	 */
+	public GeneralBezierCurve(Point2D... controlPoints) {
+		if (controlPoints.length < 2) {
+			throw new IllegalArgumentException("A Bezier curve needs at least 2 control points: "
+					+ controlPoints.length);
+		}
+		this.controlPoints = Arrays.copyOf(controlPoints, controlPoints.length);
+		this.degree = controlPoints.length - 1;
+	}
+
+	/**
+	 * Constructor for a Bezier curve through its control points, with a specified fineness
+	 * @param controlPoints		at least 2 {@link Point2D} objects, in order from the first to the last endpoint
+	 * @param bezierFineness	the number of points to interpolate along the curve
+	 */
+	public GeneralBezierCurve(Point2D[] controlPoints, int bezierFineness) {
+		this(controlPoints);
+		this.setBezierFineness(bezierFineness);
+	}
+
+	/**
+	 * Copy constructor for a Bezier curve, which copies each of the control points
+	 * @param other		the {@link GeneralBezierCurve} to copy
+	 */
+	public GeneralBezierCurve(GeneralBezierCurve other) {
+		this.controlPoints = new Point2D[other.controlPoints.length];
+		for (int i = 0; i < controlPoints.length; i++) {
+			controlPoints[i] = new Point2D.Double(other.controlPoints[i].getX(), other.controlPoints[i].getY());
+		}
+		this.degree = other.degree;
+		this.setBezierFineness(other.getBezierFineness());
+		this.setSamplingMode(other.getSamplingMode());
+	}
+
+	@Override
+	public Point2D[] getControlPoints() {
+		return Arrays.copyOf(controlPoints, controlPoints.length);
+	}
+
+	@Override
+	public Point2D getControlPoint(int index) {
+		return controlPoints[index];
+	}
+
+	/**
+	 * Replaces a control point of the curve.
+	 * @param index		the index of the control point, between 0 and order, inclusive
+	 * @param point		the new {@link Point2D} control point
+	 */
+	public void setControlPoint(int index, Point2D point) {
+		controlPoints[index] = point;
+	}
+
+	@Override
+	public int getControlPointCount() {
+		return controlPoints.length;
+	}
+
+	@Override
+	public int getOrder() {
+		return degree;
+	}
+
+	/**
+	 * Provides the binomial coefficients C(n, 0) through C(n, n), shared by every curve of degree n.
+	 * @param n		the degree
+	 * @return an array of n + 1 doubles, which must not be modified
+	 */
+	static double[] getBinomials(int n) {
+		return BINOMIAL_CACHE.computeIfAbsent(n, k -> {
+			double[] row = new double[k + 1];
+			row[0] = 1;
+			for (int i = 1; i <= k; i++) {
+				row[i] = row[i - 1] * (k - i + 1) / i;
+			}
+			return row;
+		});
+	}
+
+	/**
+	 * Provides one coordinate of the control point of a derivative curve (hodograph). The control points of the
+	 * k-th derivative are the k-th forward differences of the control points, scaled by n! / (n - k)!.
+	 * @param dim	the coordinate: 0 for x, 1 for y
+	 * @param derivativeOrder	the order k of the derivative
+	 * @param index		the index of the control point of the derivative curve, between 0 and n - k, inclusive
+	 * @return the coordinate of the control point
+	 */
+	private double derivativeControlCoordinate(int dim, int derivativeOrder, int index) {
+		switch (derivativeOrder) {
+		case 0:
+			return coordinate(dim, index);
+		case 1:
+			return degree * (coordinate(dim, index + 1) - coordinate(dim, index));
+		case 2:
+			return degree * (degree - 1)
+					* (coordinate(dim, index + 2) - 2 * coordinate(dim, index + 1) + coordinate(dim, index));
+		default:
+			double[] binomials = getBinomials(derivativeOrder);
+			double difference = 0;
+			for (int j = 0; j <= derivativeOrder; j++) {
+				double term = binomials[j] * coordinate(dim, index + j);
+				difference += (derivativeOrder - j) % 2 == 0 ? term : -term;
+			}
+			for (int j = 0; j < derivativeOrder; j++) {
+				difference *= degree - j;
+			}
+			return difference;
+		}
+	}
+
+	private double coordinate(int dim, int index) {
+		return dim == 0 ? controlPoints[index].getX() : controlPoints[index].getY();
+	}
+
+	/**
+	 * Evaluates one coordinate of the curve, or of one of its derivatives, at parameter value t.
+	 * @param dim	the coordinate: 0 for x, 1 for y
+	 * @param derivativeOrder	the order of the derivative, 0 for position
+	 * @param t		a double between 0 and 1, inclusive
+	 * @return the coordinate at t
+	 */
+	private double coordinateAtT(int dim, int derivativeOrder, double t) {
+		int n = degree - derivativeOrder;
+		if (n < 0) {
+			return 0;
+		}
+		double s = 1 - t;
+		switch (n) {
+		case 0:
+			return derivativeControlCoordinate(dim, derivativeOrder, 0);
+		case 1:
+			return s * derivativeControlCoordinate(dim, derivativeOrder, 0)
+					+ t * derivativeControlCoordinate(dim, derivativeOrder, 1);
+		case 2:
+			return s * s * derivativeControlCoordinate(dim, derivativeOrder, 0)
+					+ 2 * s * t * derivativeControlCoordinate(dim, derivativeOrder, 1)
+					+ t * t * derivativeControlCoordinate(dim, derivativeOrder, 2);
+		case 3:
+			return s * s * s * derivativeControlCoordinate(dim, derivativeOrder, 0)
+					+ 3 * s * s * t * derivativeControlCoordinate(dim, derivativeOrder, 1)
+					+ 3 * s * t * t * derivativeControlCoordinate(dim, derivativeOrder, 2)
+					+ t * t * t * derivativeControlCoordinate(dim, derivativeOrder, 3);
+		default:
+			// nested evaluation of sum C(n,i) s^(n-i) t^i Q_i: factor out s^n and run Horner's rule on t / s, or,
+			// past the midpoint, factor out t^n and run it on s / t from the other end, so the ratio is at most 1
+			double[] binomials = getBinomials(n);
+			double result;
+			if (t <= 0.5) {
+				double ratio = t / s;
+				result = binomials[n] * derivativeControlCoordinate(dim, derivativeOrder, n);
+				for (int i = n - 1; i >= 0; i--) {
+					result = result * ratio + binomials[i] * derivativeControlCoordinate(dim, derivativeOrder, i);
+				}
+				return result * Math.pow(s, n);
+			} else {
+				double ratio = s / t;
+				result = binomials[0] * derivativeControlCoordinate(dim, derivativeOrder, 0);
+				for (int i = 1; i <= n; i++) {
+					result = result * ratio + binomials[i] * derivativeControlCoordinate(dim, derivativeOrder, i);
+				}
+				return result * Math.pow(t, n);
+			}
+		}
+	}
+
+	@Override
+	protected void samplePosition(int bezierFineness, double[] xs, int xOffset, double[] ys, int yOffset, int stride) {
+		for (int i = 0; i <= bezierFineness; i++) {
+			double t = (double) i / bezierFineness;
+			xs[xOffset + i * stride] = coordinateAtT(0, 0, t);
+			ys[yOffset + i * stride] = coordinateAtT(1, 0, t);
+		}
+	}
+
+	/**
+	 * Samples a derivative of the curve into a new array of points.
+	 */
+	private Point2D[] sampleDerivative(int bezierFineness, int derivativeOrder) {
+		Point2D[] samples = new Point2D[bezierFineness + 1];
+		for (int i = 0; i <= bezierFineness; i++) {
+			double t = (double) i / bezierFineness;
+			samples[i] = new Point2D.Double(coordinateAtT(0, derivativeOrder, t), coordinateAtT(1, derivativeOrder, t));
+		}
+		return samples;
+	}
+
+	@Override
+	public Point2D[] computePosition() {
+		return computePosition(this.getBezierFineness());
+	}
+
+	@Override
+	public Point2D computePositionAtT(double t) {
+		return computePositionAtT(t, new Point2D.Double());
+	}
+
+	/**
+	 * Writes the point identified by parameter value t along the curve into a caller-supplied point.
+	 * @param t		a double between 0 and 1, inclusive
+	 * @param out	the {@link Point2D} object that receives the (x,y) coordinates
+	 * @return the out {@link Point2D} object
+	 */
+	public Point2D computePositionAtT(double t, Point2D out) {
+		out.setLocation(coordinateAtT(0, 0, t), coordinateAtT(1, 0, t));
+		return out;
+	}
+
+	/**
+	 * Provides an array of points representing the velocity along the curve. The curve is discretely quantized by
+	 * bezierFineness regular intervals on the curve parameter t, bounded between 0 and 1, inclusive
+	 * @param bezierFineness	the number of points to interpolate along the curve
+	 * @return An array of {@link Point2D} objects of length bezierFineness + 1 representing velocities along
+	 * the curve
+	 */
+	public Point2D[] computeVelocity(int bezierFineness) {
+		return sampleDerivative(bezierFineness, 1);
+	}
+
+	public Point2D[] computeVelocity() {
+		return computeVelocity(this.getBezierFineness());
+	}
+
+	public Point2D computeVelocityAtT(double t) {
+		return computeVelocityAtT(t, new Point2D.Double());
+	}
+
+	/**
+	 * Writes the velocity of the curve at parameter value t into a caller-supplied point.
+	 * @param t		a double between 0 and 1, inclusive
+	 * @param out	the {@link Point2D} object that receives the velocity
+	 * @return the out {@link Point2D} object
+	 */
+	public Point2D computeVelocityAtT(double t, Point2D out) {
+		out.setLocation(coordinateAtT(0, 1, t), coordinateAtT(1, 1, t));
+		return out;
+	}
+
+	@Override
+	public double computeSpeedAtT(double t) {
+		double velocityX = coordinateAtT(0, 1, t);
+		double velocityY = coordinateAtT(1, 1, t);
+		return Math.sqrt(velocityX * velocityX + velocityY * velocityY);
+	}
+
+	/**
+	 * Provides an array of points representing the acceleration along the curve. The curve is discretely quantized
+	 * by bezierFineness regular intervals on the curve parameter t, bounded between 0 and 1, inclusive
+	 * @param bezierFineness	the number of points to interpolate along the curve
+	 * @return An array of {@link Point2D} objects of length bezierFineness + 1 representing acceleration along
+	 * the curve
+	 */
+	public Point2D[] computeAcceleration(int bezierFineness) {
+		return sampleDerivative(bezierFineness, 2);
+	}
+
+	public Point2D[] computeAcceleration() {
+		return computeAcceleration(this.getBezierFineness());
+	}
+
+	public Point2D computeAccelerationAtT(double t) {
+		return computeAccelerationAtT(t, new Point2D.Double());
+	}
+
+	/**
+	 * Writes the acceleration of the curve at parameter value t into a caller-supplied point.
+	 * @param t		a double between 0 and 1, inclusive
+	 * @param out	the {@link Point2D} object that receives the acceleration
+	 * @return the out {@link Point2D} object
+	 */
+	public Point2D computeAccelerationAtT(double t, Point2D out) {
+		out.setLocation(coordinateAtT(0, 2, t), coordinateAtT(1, 2, t));
+		return out;
+	}
+
+	/**
+	 * Provides the signed curvature of the curve at parameter value t.
+	 * @param t		a double between 0 and 1, inclusive
+	 * @return a double representing the signed curvature at the specified point
+	 */
+	public double computeCurvatureAtT(double t) {
+		double velocityX = coordinateAtT(0, 1, t);
+		double velocityY = coordinateAtT(1, 1, t);
+		double accelerationX = coordinateAtT(0, 2, t);
+		double accelerationY = coordinateAtT(1, 2, t);
+
+		double determinant = (velocityX * accelerationY) - (velocityY * accelerationX);
+		double vectorNorm = Math.sqrt(velocityX * velocityX + velocityY * velocityY);
+
+		return determinant / (vectorNorm * vectorNorm * vectorNorm);
+	}
+
+	/**
+	 * Provides an array of the signed curvature along the curve. The curve is discretely quantized by
+	 * bezierFineness regular intervals on the curve parameter t, bounded between 0 and 1, inclusive
+	 * @param bezierFineness	the number of points to interpolate along the curve
+	 * @return An array of doubles of length bezierFineness + 1 representing the signed curvature along the curve
+	 */
+	public double[] computeCurvature(int bezierFineness) {
+		double[] curvatureArray = new double[bezierFineness + 1];
+		for (int i = 0; i <= bezierFineness; i++) {
+			curvatureArray[i] = computeCurvatureAtT((double) i / bezierFineness);
+		}
+		return curvatureArray;
+	}
+
+	public double[] computeCurvature() {
+		return computeCurvature(this.getBezierFineness());
+	}
+
+	/**
+	 * Provides the full de Casteljau pyramid at t. For a curve of order n, the returned array holds the position
+	 * at index 0, followed by the 2 points of the last level of interpolation, and so on, up to the n linear
+	 * interpolations between consecutive control points at the end. The level with k points starts at index
+	 * k(k - 1) / 2.
+	 */
+	@Override
+	public Point2D[] computeLerpsAtT(double t) {
+		Point2D[] lerpsAtT = new Point2D[degree * (degree + 1) / 2];
+		int levelStart = (degree - 1) * degree / 2;
+		for (int i = 0; i < degree; i++) {
+			lerpsAtT[levelStart + i] = Utility.lerp(controlPoints[i], controlPoints[i + 1], t);
+		}
+		for (int k = degree - 1; k >= 1; k--) {
+			int previousStart = levelStart;
+			levelStart = (k - 1) * k / 2;
+			for (int i = 0; i < k; i++) {
+				lerpsAtT[levelStart + i] = Utility.lerp(lerpsAtT[previousStart + i], lerpsAtT[previousStart + i + 1],
+						t);
+			}
+		}
+		return lerpsAtT;
+	}
+
+	/**
+	 * Applies the affine map (x, y) -> (m00 x + m01 y + dx, m10 x + m11 y + dy) to every control point in place.
+	 */
+	private void transformControlPoints(double m00, double m01, double m10, double m11, double dx, double dy) {
+		for (Point2D pt : controlPoints) {
+			double x = pt.getX();
+			double y = pt.getY();
+			pt.setLocation(m00 * x + m01 * y + dx, m10 * x + m11 * y + dy);
+		}
+	}
+
+	@Override
+	public GeneralBezierCurve translate(double xDelta, double yDelta) {
+		transformControlPoints(1, 0, 0, 1, xDelta, yDelta);
+		return this;
+	}
+
+	@Override
+	public GeneralBezierCurve reflect(double axisVectorX, double axisVectorY) {
+		double vectorNorm = Math.sqrt(Math.pow(axisVectorX, 2) + Math.pow(axisVectorY, 2));
+		double xComponent = axisVectorX / vectorNorm;
+		double yComponent = axisVectorY / vectorNorm;
+		double xComponentSquared = Math.pow(xComponent, 2);
+		double yComponentSquared = Math.pow(yComponent, 2);
+		double transformCoeff00 = xComponentSquared - yComponentSquared;
+		double transformCoeff01 = 2 * xComponent * yComponent;
+		double transformCoeff11 = yComponentSquared - xComponentSquared;
+		transformControlPoints(transformCoeff00, transformCoeff01, transformCoeff01, transformCoeff11, 0, 0);
+		return this;
+	}
+
+	@Override
+	public GeneralBezierCurve scale(double xScale, double yScale) {
+		transformControlPoints(xScale, 0, 0, yScale, 0, 0);
+		return this;
+	}
+
+	@Override
+	public GeneralBezierCurve scale(double factor) {
+		return scale(factor, factor);
+	}
+
+	@Override
+	public GeneralBezierCurve rotate(double radians) {
+		double cosCoeff;
+		double sinCoeff;
+		if (radians == Math.PI / 2) {
+			cosCoeff = 0;
+			sinCoeff = 1;
+		} else if (radians == Math.PI) {
+			cosCoeff = -1;
+			sinCoeff = 0;
+		} else if (radians == 3 * Math.PI / 2) {
+			cosCoeff = 0;
+			sinCoeff = -1;
+		} else {
+			cosCoeff = Math.cos(radians);
+			sinCoeff = Math.sin(radians);
+		}
+		transformControlPoints(cosCoeff, -sinCoeff, sinCoeff, cosCoeff, 0, 0);
+		return this;
+	}
+
+	@Override
+	public GeneralBezierCurve shearX(double factor) {
+		transformControlPoints(1, factor, 0, 1, 0, 0);
+		return this;
+	}
+
+	@Override
+	public GeneralBezierCurve shearY(double factor) {
+		transformControlPoints(1, 0, factor, 1, 0, 0);
+		return this;
+	}
+
+	@Override
+	public GeneralBezierCurve applyTransform(AffineTransform transform) {
+		transformControlPoints(transform.getScaleX(), transform.getShearX(), transform.getShearY(), 
+				transform.getScaleY(), transform.getTranslateX(), transform.getTranslateY());
+		return this;
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " [controlPoints=" + Arrays.toString(controlPoints) + "]";
+	}
+
+}
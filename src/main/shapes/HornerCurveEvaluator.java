@@ -0,0 +1,107 @@
+package main.shapes;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+import main.utils.CubicBasisTable;
+
+/**
+ * The {@link CurveEvaluator} that converts a curve to its power basis coefficients and evaluates each sample
+ * independently by Horner's rule, at three multiply-adds per coordinate for the position. It needs no tables, but
+ * the position at t = 1 is the rounded sum of the coefficients rather than exactly P2.
+ * @author smaffa
+ *
+ */
+final class HornerCurveEvaluator implements CurveEvaluator {
+
+	private static final Set<EvaluatorCapability> CAPABILITIES = Collections.unmodifiableSet(
+			EnumSet.of(EvaluatorCapability.POINT_EVALUATION, EvaluatorCapability.ALLOCATION_FREE));
+
+	@Override
+	public String getName() {
+		return CurveEvaluators.HORNER;
+	}
+
+	@Override
+	public Set<EvaluatorCapability> getCapabilities() {
+		return CAPABILITIES;
+	}
+
+	@Override
+	public void sample(double[] control, int controlOffset, int derivativeOrder, int bezierFineness,
+			double[] xs, int xOffset, double[] ys, int yOffset, int stride) {
+		checkDerivativeOrder(derivativeOrder);
+		// share the sample values of t with the tables, so that every backend samples at the same t
+		CubicBasisTable table = CubicBasisTable.getPowerBasis(bezierFineness, 0);
+		double ax = powerCoefficient(control, controlOffset, 0);
+		double bx = powerCoefficient(control, controlOffset, 1);
+		double cx = powerCoefficient(control, controlOffset, 2);
+		double dx = powerCoefficient(control, controlOffset, 3);
+		double ay = powerCoefficient(control, controlOffset + 1, 0);
+		double by = powerCoefficient(control, controlOffset + 1, 1);
+		double cy = powerCoefficient(control, controlOffset + 1, 2);
+		double dy = powerCoefficient(control, controlOffset + 1, 3);
+		for (int i = 0; i <= bezierFineness; i++) {
+			double t = table.getT(i);
+			xs[xOffset + i * stride] = horner(ax, bx, cx, dx, derivativeOrder, t);
+			ys[yOffset + i * stride] = horner(ay, by, cy, dy, derivativeOrder, t);
+		}
+	}
+
+	@Override
+	public void evaluate(double[] control, int controlOffset, int derivativeOrder, double t,
+			double[] out, int outOffset) {
+		checkDerivativeOrder(derivativeOrder);
+		for (int dim = 0; dim < 2; dim++) {
+			out[outOffset + dim] = horner(powerCoefficient(control, controlOffset + dim, 0),
+					powerCoefficient(control, controlOffset + dim, 1), powerCoefficient(control, controlOffset + dim, 2),
+					powerCoefficient(control, controlOffset + dim, 3), derivativeOrder, t);
+		}
+	}
+
+	/**
+	 * Provides a power basis coefficient of one coordinate of the position: a = p1, b = 3(c1 - p1),
+	 * c = 3(p1 - 2c1 + c2) or d = p2 - p1 + 3(c1 - c2), as in CubicBezierCurve's coefficient cache.
+	 * @param control	the array holding the control coordinates
+	 * @param offset	the index in control of the coordinate of P1
+	 * @param power		the power of t, between 0 and 3, inclusive
+	 */
+	private static double powerCoefficient(double[] control, int offset, int power) {
+		double p1 = control[offset];
+		double c1 = control[offset + 2];
+		double c2 = control[offset + 4];
+		double p2 = control[offset + 6];
+		switch (power) {
+		case 0:
+			return p1;
+		case 1:
+			return 3 * (c1 - p1);
+		case 2:
+			return 3 * (p1 - 2 * c1 + c2);
+		default:
+			return p2 - p1 + 3 * (c1 - c2);
+		}
+	}
+
+	/**
+	 * Evaluates a derivative of the cubic a + b t + c t^2 + d t^3 by Horner's rule.
+	 */
+	private static double horner(double a, double b, double c, double d, int derivativeOrder, double t) {
+		switch (derivativeOrder) {
+		case 0:
+			return ((d * t + c) * t + b) * t + a;
+		case 1:
+			return (3 * d * t + 2 * c) * t + b;
+		default:
+			return 6 * d * t + 2 * c;
+		}
+	}
+
+	private static void checkDerivativeOrder(int derivativeOrder) {
+		if (derivativeOrder < 0 || derivativeOrder > 2) {
+			throw new IllegalArgumentException("derivativeOrder must be between 0 and 2: " + derivativeOrder);
+		}
+	}
+
+}
@@ -0,0 +1,144 @@
+package main.shapes;
+
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Class representing a non-uniform rational B-spline (NURBS) curve: a B-spline curve whose control points carry
+ * positive weights. It is evaluated, and decomposed into segments, as a B-spline in homogeneous coordinates
+ * (w x, w y, w) projected back to the plane. Its segments are {@link RationalBezierCurve} objects, which represent
+ * conic sections exactly.
+ * @author smaffa
+ *
+ */
+public class NurbsCurve extends BSplineCurve {
+
+	private final double[] weights;
+
+	/**
+	 * Constructor for a NURBS curve with a clamped, uniform knot vector
+	 * @param controlPoints		at least degree + 1 {@link Point2D} objects, in order along the curve
+	 * @param weights	the positive weight of each control point
+	 * @param degree	the degree of the segments, at least 1
+	 */
+	public NurbsCurve(Point2D[] controlPoints, double[] weights, int degree) {
+		this(controlPoints, weights, degree, clampedUniformKnots(controlPoints.length, degree));
+	}
+
+	/**
+	 * Constructor for a NURBS curve with a specified knot vector
+	 * @param controlPoints		at least degree + 1 {@link Point2D} objects, in order along the curve
+	 * @param weights	the positive weight of each control point
+	 * @param degree	the degree of the segments, at least 1
+	 * @param knots		a clamped knot vector, as for {@link BSplineCurve#BSplineCurve(Point2D[], int, double[])}
+	 */
+	public NurbsCurve(Point2D[] controlPoints, double[] weights, int degree, double[] knots) {
+		super(controlPoints, degree, knots);
+		if (weights.length != controlPoints.length) {
+			throw new IllegalArgumentException("Expected " + controlPoints.length + " weights: " + weights.length);
+		}
+		for (double weight : weights) {
+			if (!(weight > 0)) {
+				throw new IllegalArgumentException("Weights must be positive: " + weight);
+			}
+		}
+		this.weights = Arrays.copyOf(weights, weights.length);
+	}
+
+	public double getWeight(int index) {
+		return weights[index];
+	}
+
+	/**
+	 * Sets the weight of a control point.
+	 * @param index		the index of the control point
+	 * @param weight	the new positive weight
+	 */
+	public void setWeight(int index, double weight) {
+		if (!(weight > 0)) {
+			throw new IllegalArgumentException("Weights must be positive: " + weight);
+		}
+		weights[index] = weight;
+	}
+
+	/**
+	 * Writes the point identified by parameter value u along the curve into a caller-supplied point, by de Boor's
+	 * algorithm on the weighted control points of the span holding u.
+	 */
+	@Override
+	public Point2D computePositionAtT(double u, Point2D out) {
+		int degree = getDegree();
+		int span = findSpan(u);
+		double[] wx = new double[degree + 1];
+		double[] wy = new double[degree + 1];
+		double[] w = new double[degree + 1];
+		for (int j = 0; j <= degree; j++) {
+			int index = span - degree + j;
+			Point2D pt = getControlPoint(index);
+			w[j] = weights[index];
+			wx[j] = w[j] * pt.getX();
+			wy[j] = w[j] * pt.getY();
+		}
+		deBoor(span, u, wx, wy, w);
+		out.setLocation(wx[degree] / w[degree], wy[degree] / w[degree]);
+		return out;
+	}
+
+	/**
+	 * Converts the curve into its rational Bezier segments, one for each non-empty knot span, by knot insertion on
+	 * the weighted control points.
+	 * @return a {@link List} of getSegmentCount() {@link RationalBezierCurve} objects, in order along the curve
+	 */
+	@Override
+	public List<BezierCurve> toBezierCurves() {
+		int degree = getDegree();
+		double[][] segments = decomposeHomogeneous();
+		int nSegments = segments[2].length / (degree + 1);
+		List<BezierCurve> curves = new ArrayList<BezierCurve>(nSegments);
+		for (int i = 0; i < nSegments; i++) {
+			Point2D[] points = new Point2D[degree + 1];
+			double[] segmentWeights = new double[degree + 1];
+			for (int j = 0; j <= degree; j++) {
+				int index = i * (degree + 1) + j;
+				segmentWeights[j] = segments[2][index];
+				points[j] = new Point2D.Double(segments[0][index] / segmentWeights[j],
+						segments[1][index] / segmentWeights[j]);
+			}
+			curves.add(new RationalBezierCurve(points, segmentWeights));
+		}
+		return curves;
+	}
+
+	/**
+	 * Converts the curve into cubic Bezier segments packed into a batch. This is only possible when all the weights
+	 * are equal, in which case the curve is a polynomial B-spline; otherwise use {@link #toBezierCurves()}.
+	 * @throws IllegalStateException if the weights are not all equal, or the degree of the curve is above 3
+	 */
+	@Override
+	public CubicCurveBatch toBezierBatch(CubicCurveBatch batch) {
+		for (double weight : weights) {
+			if (weight != weights[0]) {
+				throw new IllegalStateException("The segments of a NURBS curve with unequal weights are rational");
+			}
+		}
+		return super.toBezierBatch(batch);
+	}
+
+	private double[][] decomposeHomogeneous() {
+		double[] xs = controlCoordinates(0);
+		double[] ys = controlCoordinates(1);
+		for (int i = 0; i < weights.length; i++) {
+			xs[i] *= weights[i];
+			ys[i] *= weights[i];
+		}
+		return decompose(xs, ys, weights);
+	}
+
+	@Override
+	public String toString() {
+		return super.toString().replaceFirst("\\]$", ", weights=" + Arrays.toString(weights) + "]");
+	}
+
+}
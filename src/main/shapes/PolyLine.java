@@ -1,5 +1,6 @@
 package main.shapes;
 
+import java.awt.geom.AffineTransform;
 import java.awt.geom.Point2D;
 
 public class PolyLine extends AnnotationShape implements Transformable2D<PolyLine> {
@@ -12,50 +13,76 @@ public class PolyLine extends AnnotationShape implements Transformable2D<PolyLin
 	
 	@Override
 	public Point2D[] getTrace() {
-		// TODO Auto-generated method stub
 		return trace;
 	}
 
+	/**
+	 * Moves every point of the trace in place by the affine map [[m00, m01], [m10, m11]] followed by a shift.
+	 */
+	private void transformTrace(double m00, double m01, double m10, double m11, double dx, double dy) {
+		for (Point2D pt : trace) {
+			double x = pt.getX();
+			double y = pt.getY();
+			pt.setLocation(m00 * x + m01 * y + dx, m10 * x + m11 * y + dy);
+		}
+	}
+
 	@Override
 	public PolyLine translate(double xDelta, double yDelta) {
-		// TODO Auto-generated method stub
-		return null;
+		transformTrace(1, 0, 0, 1, xDelta, yDelta);
+		return this;
 	}
 
 	@Override
 	public PolyLine reflect(double axisVectorX, double axisVectorY) {
-		// TODO Auto-generated method stub
-		return null;
+		double vectorNorm = Math.sqrt(Math.pow(axisVectorX, 2) + Math.pow(axisVectorY, 2));
+		double xComponent = axisVectorX / vectorNorm;
+		double yComponent = axisVectorY / vectorNorm;
+		double xComponentSquared = Math.pow(xComponent, 2);
+		double yComponentSquared = Math.pow(yComponent, 2);
+		double transformCoeff00 = xComponentSquared - yComponentSquared;
+		double transformCoeff01 = 2 * xComponent * yComponent;
+		double transformCoeff11 = yComponentSquared - xComponentSquared;
+		transformTrace(transformCoeff00, transformCoeff01, transformCoeff01, transformCoeff11, 0, 0);
+		return this;
 	}
 
 	@Override
 	public PolyLine scale(double xScale, double yScale) {
-		// TODO Auto-generated method stub
-		return null;
+		transformTrace(xScale, 0, 0, yScale, 0, 0);
+		return this;
 	}
 
 	@Override
 	public PolyLine scale(double factor) {
-		// TODO Auto-generated method stub
-		return null;
+		return scale(factor, factor);
 	}
 
 	@Override
 	public PolyLine rotate(double radians) {
-		// TODO Auto-generated method stub
-		return null;
+		double cosCoeff = Math.cos(radians);
+		double sinCoeff = Math.sin(radians);
+		transformTrace(cosCoeff, -sinCoeff, sinCoeff, cosCoeff, 0, 0);
+		return this;
 	}
 
 	@Override
 	public PolyLine shearX(double factor) {
-		// TODO Auto-generated method stub
-		return null;
+		transformTrace(1, factor, 0, 1, 0, 0);
+		return this;
 	}
 
 	@Override
 	public PolyLine shearY(double factor) {
-		// TODO Auto-generated method stub
-		return null;
+		transformTrace(1, 0, factor, 1, 0, 0);
+		return this;
+	}
+
+	@Override
+	public PolyLine applyTransform(AffineTransform transform) {
+		transformTrace(transform.getScaleX(), transform.getShearX(), transform.getShearY(), transform.getScaleY(), 
+				transform.getTranslateX(), transform.getTranslateY());
+		return this;
 	}
 
 }
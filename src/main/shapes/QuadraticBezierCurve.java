@@ -1,99 +1,113 @@
 package main.shapes;
 
-import main.utils.Utility;
-
+import java.awt.geom.AffineTransform;
 import java.awt.geom.Point2D;
 
-public class QuadraticBezierCurve extends BezierCurve {
-    public Point2D p1;
-    public Point2D p2;
-    public Point2D p3;
-
-    public Point2D[] p1p2Endpoints = new Point2D[this.getBezierFineness() + 1];
-    public Point2D[] p2p3Endpoints = new Point2D[this.getBezierFineness() + 1];
-    public Point2D[] traceArray = new Point2D[this.getBezierFineness() + 1];
-
-    public QuadraticBezierCurve(Point2D p1, Point2D p2, Point2D p3) {
-        this.p1 = p1;
-        this.p2 = p2;
-        this.p2 = p3;
-
-        computePosition();
+/**
+ * Class representing a quadratic Bezier curve, defined by two endpoints and one control point.
+ * @author smaffa
+ *
+ */
+public class QuadraticBezierCurve extends GeneralBezierCurve {
+
+	/**
+	 * Basic constructor for a QuadraticBezierCurve object
+	 * @param p1	the first endpoint
+	 * @param c1	the control point
+	 * @param p2	the second endpoint
+	 */
+    public QuadraticBezierCurve(Point2D p1, Point2D c1, Point2D p2) {
+        super(p1, c1, p2);
     }
-
-    public Point2D[] computePosition() {
-        for (int i = 0; i <= this.getBezierFineness(); i++) {
-            double t = (double) i / this.getBezierFineness();
-            p1p2Endpoints[i] = Utility.lerp(p1, p2, t);
-            p2p3Endpoints[i] = Utility.lerp(p2, p3, t);
-
-            traceArray[i] = Utility.lerp(p1p2Endpoints[i], p2p3Endpoints[i], t);
-        }
-        return this.traceArray;
+    
+    /**
+	 * Constructor for a QuadraticBezierCurve object with a specified fineness
+	 * @param p1	the first endpoint
+	 * @param c1	the control point
+	 * @param p2	the second endpoint
+	 * @param bezierFineness	the number of points to interpolate along the curve
+	 */
+    public QuadraticBezierCurve(Point2D p1, Point2D c1, Point2D p2, int bezierFineness) {
+        super(new Point2D[] {p1, c1, p2}, bezierFineness);
     }
     
-    public Point2D computePositionAtT(double t) {
-    	// TODO: fill
-    	return new Point2D.Double(0, 0);
+    /**
+     * Copy constructor for a QuadraticBezierCurve object
+     * @param other		the {@link QuadraticBezierCurve} to copy
+     */
+    public QuadraticBezierCurve(QuadraticBezierCurve other) {
+    	super(other);
     }
 
-    public Point2D[] getTraceArray() {
-        return this.traceArray;
-    }
+    public Point2D getP1() {
+		return getControlPoint(0);
+	}
 
-    public Point2D[] getControlPoints() {
-        return new Point2D[]{p1, p2, p3};
-    }
-    
-    public Point2D[] computeLerpsAtT(double t) {
-    	int i = (int) Math.round(this.getBezierFineness() * t);
-    	return new Point2D[]{traceArray[i], 
-    			p1p2Endpoints[i], p2p3Endpoints[i]};
-    }
-    
-    public int getOrder() {
-    	return 2;
-    }
+	public void setP1(Point2D p1) {
+		setControlPoint(0, p1);
+	}
+
+	public Point2D getC1() {
+		return getControlPoint(1);
+	}
+
+	public void setC1(Point2D c1) {
+		setControlPoint(1, c1);
+	}
+
+	public Point2D getP2() {
+		return getControlPoint(2);
+	}
+
+	public void setP2(Point2D p2) {
+		setControlPoint(2, p2);
+	}
 
 	@Override
-	public QuadraticBezierCurve translate(double x, double y) {
-		// TODO Auto-generated method stub
+	public QuadraticBezierCurve translate(double xDelta, double yDelta) {
+		super.translate(xDelta, yDelta);
 		return this;
 	}
 
 	@Override
 	public QuadraticBezierCurve reflect(double axisVectorX, double axisVectorY) {
-		// TODO Auto-generated method stub
+		super.reflect(axisVectorX, axisVectorY);
 		return this;
 	}
 
 	@Override
 	public QuadraticBezierCurve scale(double xScale, double yScale) {
-		// TODO Auto-generated method stub
+		super.scale(xScale, yScale);
 		return this;
 	}
 
 	@Override
 	public QuadraticBezierCurve scale(double factor) {
-		// TODO Auto-generated method stub
+		super.scale(factor);
 		return this;
 	}
 
 	@Override
 	public QuadraticBezierCurve rotate(double radians) {
-		// TODO Auto-generated method stub
+		super.rotate(radians);
 		return this;
 	}
 
 	@Override
 	public QuadraticBezierCurve shearX(double factor) {
-		// TODO Auto-generated method stub
+		super.shearX(factor);
 		return this;
 	}
 	
 	@Override
 	public QuadraticBezierCurve shearY(double factor) {
-		// TODO Auto-generated method stub
+		super.shearY(factor);
+		return this;
+	}
+
+	@Override
+	public QuadraticBezierCurve applyTransform(AffineTransform transform) {
+		super.applyTransform(transform);
 		return this;
 	}
 }
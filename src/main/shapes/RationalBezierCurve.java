@@ -0,0 +1,507 @@
+package main.shapes;
+
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Point2D;
+import java.util.Arrays;
+
+import main.utils.Constants;
+
+/**
+ * Class representing a rational Bezier curve, in which every control point carries a positive weight. The curve is
+ * the weighted average sum(w_i P_i B_i(t)) / sum(w_i B_i(t)) of the control points, which lets rational quadratic
+ * curves represent conic sections, and in particular circular arcs, exactly. With all weights equal to 1 the curve is
+ * an ordinary polynomial Bezier curve.
+ * @author smaffa
+ *
+ */
+public class RationalBezierCurve extends BezierCurve {
+
+	private static final double HALF_SQRT_2 = Math.sqrt(2) / 2;
+
+	private final Point2D[] controlPoints;
+	private final double[] weights;
+	private final int degree;
+
+	/**
+	 * Constructor for a rational Bezier curve through weighted control points
+	 * @param controlPoints		at least 2 {@link Point2D} objects, in order from the first to the last endpoint
+	 * @param weights	the positive weight of each control point
+	 */
+	public RationalBezierCurve(Point2D[] controlPoints, double[] weights) {
+		if (controlPoints.length < 2) {
+			throw new IllegalArgumentException("A Bezier curve needs at least 2 control points: "
+					+ controlPoints.length);
+		}
+		if (weights.length != controlPoints.length) {
+			throw new IllegalArgumentException("Expected " + controlPoints.length + " weights: " + weights.length);
+		}
+		for (double weight : weights) {
+			if (!(weight > 0)) {
+				throw new IllegalArgumentException("Weights must be positive: " + weight);
+			}
+		}
+		this.controlPoints = Arrays.copyOf(controlPoints, controlPoints.length);
+		this.weights = Arrays.copyOf(weights, weights.length);
+		this.degree = controlPoints.length - 1;
+	}
+
+	/**
+	 * Constructor for a rational quadratic Bezier curve, which is a conic section
+	 * @param p1	the first endpoint
+	 * @param c1	the control point
+	 * @param p2	the second endpoint
+	 * @param weight	the weight of the control point; the endpoints have weight 1. The curve is an ellipse for
+	 * weights below 1, a parabola for 1 and a hyperbola above 1
+	 */
+	public RationalBezierCurve(Point2D p1, Point2D c1, Point2D p2, double weight) {
+		this(new Point2D[] {p1, c1, p2}, new double[] {1, weight, 1});
+	}
+
+	/**
+	 * Copy constructor for a rational Bezier curve, which copies each of the control points
+	 * @param other		the {@link RationalBezierCurve} to copy
+	 */
+	public RationalBezierCurve(RationalBezierCurve other) {
+		this.controlPoints = new Point2D[other.controlPoints.length];
+		for (int i = 0; i < controlPoints.length; i++) {
+			controlPoints[i] = new Point2D.Double(other.controlPoints[i].getX(), other.controlPoints[i].getY());
+		}
+		this.weights = Arrays.copyOf(other.weights, other.weights.length);
+		this.degree = other.degree;
+		this.setBezierFineness(other.getBezierFineness());
+		this.setSamplingMode(other.getSamplingMode());
+	}
+
+	/**
+	 * Builds an exact circular arc out of rational quadratic segments, each spanning at most a quarter turn.
+	 * The angles follow the coordinate system, so positive sweeps turn from the positive x axis towards the
+	 * positive y axis.
+	 * @param centerX	the x coordinate of the center
+	 * @param centerY	the y coordinate of the center
+	 * @param radius	the radius
+	 * @param startAngle	the angle of the first endpoint, in radians
+	 * @param sweepAngle	the signed angle covered by the arc, in radians
+	 * @return an array of {@link RationalBezierCurve} segments, in order along the arc
+	 */
+	public static RationalBezierCurve[] arc(double centerX, double centerY, double radius, double startAngle,
+			double sweepAngle) {
+		int nSegments = Math.max(1, (int) Math.ceil(Math.abs(sweepAngle) / (Math.PI / 2) - 1e-12));
+		double segmentAngle = sweepAngle / nSegments;
+		double weight = Math.cos(segmentAngle / 2);
+		double controlDistance = radius / weight;
+		RationalBezierCurve[] segments = new RationalBezierCurve[nSegments];
+		for (int i = 0; i < nSegments; i++) {
+			double angle0 = startAngle + i * segmentAngle;
+			double angle1 = angle0 + segmentAngle;
+			double angleMid = angle0 + segmentAngle / 2;
+			segments[i] = new RationalBezierCurve(
+					new Point2D.Double(centerX + radius * Math.cos(angle0), centerY + radius * Math.sin(angle0)),
+					new Point2D.Double(centerX + controlDistance * Math.cos(angleMid),
+							centerY + controlDistance * Math.sin(angleMid)),
+					new Point2D.Double(centerX + radius * Math.cos(angle1), centerY + radius * Math.sin(angle1)),
+					weight);
+		}
+		return segments;
+	}
+
+	/**
+	 * Builds an exact circle out of four rational quadratic quarter arcs, starting and ending at
+	 * (centerX + radius, centerY). No trigonometric functions are evaluated.
+	 * @param centerX	the x coordinate of the center
+	 * @param centerY	the y coordinate of the center
+	 * @param radius	the radius
+	 * @return an array of 4 {@link RationalBezierCurve} segments, in order around the circle
+	 */
+	public static RationalBezierCurve[] circle(double centerX, double centerY, double radius) {
+		double[][] corners = {{1, 0}, {1, 1}, {0, 1}, {-1, 1}, {-1, 0}, {-1, -1}, {0, -1}, {1, -1}, {1, 0}};
+		RationalBezierCurve[] segments = new RationalBezierCurve[4];
+		for (int i = 0; i < 4; i++) {
+			double[] start = corners[2 * i];
+			double[] control = corners[2 * i + 1];
+			double[] end = corners[2 * i + 2];
+			segments[i] = new RationalBezierCurve(
+					new Point2D.Double(centerX + radius * start[0], centerY + radius * start[1]),
+					new Point2D.Double(centerX + radius * control[0], centerY + radius * control[1]),
+					new Point2D.Double(centerX + radius * end[0], centerY + radius * end[1]),
+					HALF_SQRT_2);
+		}
+		return segments;
+	}
+
+	@Override
+	public Point2D[] getControlPoints() {
+		return Arrays.copyOf(controlPoints, controlPoints.length);
+	}
+
+	@Override
+	public Point2D getControlPoint(int index) {
+		return controlPoints[index];
+	}
+
+	/**
+	 * Replaces a control point of the curve, keeping its weight.
+	 * @param index		the index of the control point, between 0 and order, inclusive
+	 * @param point		the new {@link Point2D} control point
+	 */
+	public void setControlPoint(int index, Point2D point) {
+		controlPoints[index] = point;
+	}
+
+	@Override
+	public int getControlPointCount() {
+		return controlPoints.length;
+	}
+
+	public double getWeight(int index) {
+		return weights[index];
+	}
+
+	/**
+	 * Sets the weight of a control point.
+	 * @param index		the index of the control point, between 0 and order, inclusive
+	 * @param weight	the new positive weight
+	 */
+	public void setWeight(int index, double weight) {
+		if (!(weight > 0)) {
+			throw new IllegalArgumentException("Weights must be positive: " + weight);
+		}
+		weights[index] = weight;
+		advanceVersion();
+	}
+
+	@Override
+	public int getOrder() {
+		return degree;
+	}
+
+	/**
+	 * Evaluates the homogeneous curve (w x, w y, w) and its first two derivatives at t. The derivatives of a Bezier
+	 * curve of degree n are Bezier curves of degree n - 1 and n - 2 over the forward differences of its (weighted)
+	 * control points.
+	 * @param t		a double between 0 and 1, inclusive
+	 * @param out	an array of at least 9 doubles receiving [wx, wy, w, wx', wy', w', wx'', wy'', w'']
+	 */
+	private void evaluateHomogeneous(double t, double[] out) {
+		double[] hx = new double[degree + 1];
+		double[] hy = new double[degree + 1];
+		double[] hw = Arrays.copyOf(weights, degree + 1);
+		for (int i = 0; i <= degree; i++) {
+			hx[i] = weights[i] * controlPoints[i].getX();
+			hy[i] = weights[i] * controlPoints[i].getY();
+		}
+		double scale = 1;
+		for (int order = 0; order <= 2; order++) {
+			int n = degree - order;
+			if (n < 0) {
+				out[3 * order] = 0;
+				out[3 * order + 1] = 0;
+				out[3 * order + 2] = 0;
+				continue;
+			}
+			out[3 * order] = scale * deCasteljau(hx, n, t);
+			out[3 * order + 1] = scale * deCasteljau(hy, n, t);
+			out[3 * order + 2] = scale * deCasteljau(hw, n, t);
+			// forward differences for the next derivative
+			for (int i = 0; i < n; i++) {
+				hx[i] = hx[i + 1] - hx[i];
+				hy[i] = hy[i + 1] - hy[i];
+				hw[i] = hw[i + 1] - hw[i];
+			}
+			scale *= n;
+		}
+	}
+
+	/**
+	 * Evaluates the polynomial Bezier curve of degree n over the first n + 1 values of a coefficient array, leaving
+	 * the coefficients unchanged.
+	 */
+	private static double deCasteljau(double[] coefficients, int n, double t) {
+		double[] level = Arrays.copyOf(coefficients, n + 1);
+		for (int k = n; k > 0; k--) {
+			for (int i = 0; i < k; i++) {
+				level[i] = (1 - t) * level[i] + t * level[i + 1];
+			}
+		}
+		return level[0];
+	}
+
+	@Override
+	public Point2D[] computePosition() {
+		return computePosition(this.getBezierFineness());
+	}
+
+	@Override
+	public Point2D computePositionAtT(double t) {
+		return computePositionAtT(t, new Point2D.Double());
+	}
+
+	/**
+	 * Writes the point identified by parameter value t along the curve into a caller-supplied point.
+	 * @param t		a double between 0 and 1, inclusive
+	 * @param out	the {@link Point2D} object that receives the (x,y) coordinates
+	 * @return the out {@link Point2D} object
+	 */
+	public Point2D computePositionAtT(double t, Point2D out) {
+		double s = 1 - t;
+		double numeratorX = 0;
+		double numeratorY = 0;
+		double denominator = 0;
+		if (degree == 2) {
+			double b0 = weights[0] * s * s;
+			double b1 = weights[1] * 2 * s * t;
+			double b2 = weights[2] * t * t;
+			numeratorX = b0 * controlPoints[0].getX() + b1 * controlPoints[1].getX() + b2 * controlPoints[2].getX();
+			numeratorY = b0 * controlPoints[0].getY() + b1 * controlPoints[1].getY() + b2 * controlPoints[2].getY();
+			denominator = b0 + b1 + b2;
+		} else {
+			// Horner's rule on t / s, or on s / t past the midpoint; the common factor s^n or t^n cancels in the
+			// quotient, so it is never computed
+			boolean isLeftHalf = t <= 0.5;
+			double ratio = isLeftHalf ? t / s : s / t;
+			double[] binomials = GeneralBezierCurve.getBinomials(degree);
+			for (int j = 0; j <= degree; j++) {
+				int i = isLeftHalf ? degree - j : j;
+				double weight = weights[i] * binomials[i];
+				numeratorX = numeratorX * ratio + weight * controlPoints[i].getX();
+				numeratorY = numeratorY * ratio + weight * controlPoints[i].getY();
+				denominator = denominator * ratio + weight;
+			}
+		}
+		out.setLocation(numeratorX / denominator, numeratorY / denominator);
+		return out;
+	}
+
+	@Override
+	protected void samplePosition(int bezierFineness, double[] xs, int xOffset, double[] ys, int yOffset, int stride) {
+		Point2D pt = new Point2D.Double();
+		for (int i = 0; i <= bezierFineness; i++) {
+			computePositionAtT((double) i / bezierFineness, pt);
+			xs[xOffset + i * stride] = pt.getX();
+			ys[yOffset + i * stride] = pt.getY();
+		}
+	}
+
+	/**
+	 * Provides the velocity of the curve at parameter value t, by the quotient rule on the homogeneous curve:
+	 * C' = (A' - w' C) / w, where A = w C.
+	 * @param t		a double between 0 and 1, inclusive
+	 * @return a {@link Point2D} object representing the velocity at the specified point
+	 */
+	public Point2D computeVelocityAtT(double t) {
+		double[] h = new double[9];
+		evaluateHomogeneous(t, h);
+		double x = h[0] / h[2];
+		double y = h[1] / h[2];
+		return new Point2D.Double((h[3] - h[5] * x) / h[2], (h[4] - h[5] * y) / h[2]);
+	}
+
+	/**
+	 * Provides the acceleration of the curve at parameter value t, by differentiating the quotient rule again:
+	 * C'' = (A'' - 2 w' C' - w'' C) / w.
+	 * @param t		a double between 0 and 1, inclusive
+	 * @return a {@link Point2D} object representing the acceleration at the specified point
+	 */
+	public Point2D computeAccelerationAtT(double t) {
+		double[] h = new double[9];
+		evaluateHomogeneous(t, h);
+		double x = h[0] / h[2];
+		double y = h[1] / h[2];
+		double vx = (h[3] - h[5] * x) / h[2];
+		double vy = (h[4] - h[5] * y) / h[2];
+		return new Point2D.Double((h[6] - 2 * h[5] * vx - h[8] * x) / h[2], (h[7] - 2 * h[5] * vy - h[8] * y) / h[2]);
+	}
+
+	/**
+	 * Provides the signed curvature of the curve at parameter value t.
+	 * @param t		a double between 0 and 1, inclusive
+	 * @return a double representing the signed curvature at the specified point
+	 */
+	public double computeCurvatureAtT(double t) {
+		Point2D velocity = computeVelocityAtT(t);
+		Point2D acceleration = computeAccelerationAtT(t);
+		double determinant = (velocity.getX() * acceleration.getY()) - (velocity.getY() * acceleration.getX());
+		double vectorNorm = Math.sqrt(velocity.getX() * velocity.getX() + velocity.getY() * velocity.getY());
+		return determinant / (vectorNorm * vectorNorm * vectorNorm);
+	}
+
+	/**
+	 * Provides the de Casteljau pyramid at t, computed on the weighted control points and projected back to the
+	 * plane, in the layout of {@link GeneralBezierCurve#computeLerpsAtT(double)}.
+	 */
+	@Override
+	public Point2D[] computeLerpsAtT(double t) {
+		double[] wx = new double[degree + 1];
+		double[] wy = new double[degree + 1];
+		double[] w = Arrays.copyOf(weights, degree + 1);
+		for (int i = 0; i <= degree; i++) {
+			wx[i] = weights[i] * controlPoints[i].getX();
+			wy[i] = weights[i] * controlPoints[i].getY();
+		}
+		Point2D[] lerpsAtT = new Point2D[degree * (degree + 1) / 2];
+		for (int k = degree; k >= 1; k--) {
+			int levelStart = (k - 1) * k / 2;
+			for (int i = 0; i < k; i++) {
+				wx[i] = (1 - t) * wx[i] + t * wx[i + 1];
+				wy[i] = (1 - t) * wy[i] + t * wy[i + 1];
+				w[i] = (1 - t) * w[i] + t * w[i + 1];
+				lerpsAtT[levelStart + i] = new Point2D.Double(wx[i] / w[i], wy[i] / w[i]);
+			}
+		}
+		return lerpsAtT;
+	}
+
+	/**
+	 * Flattens the curve by subdividing its weighted control points with de Casteljau's algorithm. With positive
+	 * weights, every piece lies in the convex hull of its projected control points, so the same control polygon
+	 * flatness test as for polynomial curves applies.
+	 */
+	@Override
+	public CurveSamples flatten(double tolerance, CurveSamples samples) {
+		checkTolerance(tolerance);
+		double[] wx = new double[degree + 1];
+		double[] wy = new double[degree + 1];
+		double[] w = Arrays.copyOf(weights, degree + 1);
+		for (int i = 0; i <= degree; i++) {
+			wx[i] = weights[i] * controlPoints[i].getX();
+			wy[i] = weights[i] * controlPoints[i].getY();
+		}
+		samples.clear();
+		samples.add(0, controlPoints[0].getX(), controlPoints[0].getY());
+		flattenHomogeneous(wx, wy, w, 0, 1, tolerance * tolerance, 0, samples);
+		return samples;
+	}
+
+	private static void flattenHomogeneous(double[] wx, double[] wy, double[] w, double t0, double t1,
+			double toleranceSq, int depth, CurveSamples samples) {
+		int n = w.length - 1;
+		double x0 = wx[0] / w[0];
+		double y0 = wy[0] / w[0];
+		double xn = wx[n] / w[n];
+		double yn = wy[n] / w[n];
+		boolean isFlat = true;
+		for (int i = 1; i < n && isFlat; i++) {
+			isFlat = isNearChord(wx[i] / w[i], wy[i] / w[i], x0, y0, xn - x0, yn - y0, toleranceSq);
+		}
+		if (isFlat || depth >= Constants.MAX_FLATTENING_DEPTH) {
+			samples.add(t1, xn, yn);
+			return;
+		}
+
+		double[] leftX = new double[n + 1];
+		double[] leftY = new double[n + 1];
+		double[] leftW = new double[n + 1];
+		double[] rightX = Arrays.copyOf(wx, n + 1);
+		double[] rightY = Arrays.copyOf(wy, n + 1);
+		double[] rightW = Arrays.copyOf(w, n + 1);
+		for (int level = 0; level <= n; level++) {
+			leftX[level] = rightX[0];
+			leftY[level] = rightY[0];
+			leftW[level] = rightW[0];
+			for (int i = 0; i < n - level; i++) {
+				rightX[i] = 0.5 * (rightX[i] + rightX[i + 1]);
+				rightY[i] = 0.5 * (rightY[i] + rightY[i + 1]);
+				rightW[i] = 0.5 * (rightW[i] + rightW[i + 1]);
+			}
+		}
+		double tMid = 0.5 * (t0 + t1);
+		flattenHomogeneous(leftX, leftY, leftW, t0, tMid, toleranceSq, depth + 1, samples);
+		flattenHomogeneous(rightX, rightY, rightW, tMid, t1, toleranceSq, depth + 1, samples);
+	}
+
+	/**
+	 * Applies the affine map (x, y) -> (m00 x + m01 y + dx, m10 x + m11 y + dy) to every control point in place.
+	 * Rational curves are invariant under affine maps, so the weights are unchanged.
+	 */
+	private void transformControlPoints(double m00, double m01, double m10, double m11, double dx, double dy) {
+		for (Point2D pt : controlPoints) {
+			double x = pt.getX();
+			double y = pt.getY();
+			pt.setLocation(m00 * x + m01 * y + dx, m10 * x + m11 * y + dy);
+		}
+	}
+
+	@Override
+	public RationalBezierCurve translate(double xDelta, double yDelta) {
+		transformControlPoints(1, 0, 0, 1, xDelta, yDelta);
+		return this;
+	}
+
+	@Override
+	public RationalBezierCurve reflect(double axisVectorX, double axisVectorY) {
+		double vectorNorm = Math.sqrt(Math.pow(axisVectorX, 2) + Math.pow(axisVectorY, 2));
+		double xComponent = axisVectorX / vectorNorm;
+		double yComponent = axisVectorY / vectorNorm;
+		double xComponentSquared = Math.pow(xComponent, 2);
+		double yComponentSquared = Math.pow(yComponent, 2);
+		double transformCoeff00 = xComponentSquared - yComponentSquared;
+		double transformCoeff01 = 2 * xComponent * yComponent;
+		double transformCoeff11 = yComponentSquared - xComponentSquared;
+		transformControlPoints(transformCoeff00, transformCoeff01, transformCoeff01, transformCoeff11, 0, 0);
+		return this;
+	}
+
+	@Override
+	public RationalBezierCurve scale(double xScale, double yScale) {
+		transformControlPoints(xScale, 0, 0, yScale, 0, 0);
+		return this;
+	}
+
+	@Override
+	public RationalBezierCurve scale(double factor) {
+		return scale(factor, factor);
+	}
+
+	@Override
+	public RationalBezierCurve rotate(double radians) {
+		double cosCoeff = Math.cos(radians);
+		double sinCoeff = Math.sin(radians);
+		transformControlPoints(cosCoeff, -sinCoeff, sinCoeff, cosCoeff, 0, 0);
+		return this;
+	}
+
+	@Override
+	public RationalBezierCurve shearX(double factor) {
+		transformControlPoints(1, factor, 0, 1, 0, 0);
+		return this;
+	}
+
+	@Override
+	public RationalBezierCurve shearY(double factor) {
+		transformControlPoints(1, 0, factor, 1, 0, 0);
+		return this;
+	}
+
+	@Override
+	public RationalBezierCurve applyTransform(AffineTransform transform) {
+		transformControlPoints(transform.getScaleX(), transform.getShearX(), transform.getShearY(), 
+				transform.getScaleY(), transform.getTranslateX(), transform.getTranslateY());
+		return this;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = super.hashCode();
+		result = prime * result + Arrays.hashCode(weights);
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!super.equals(obj))
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		RationalBezierCurve other = (RationalBezierCurve) obj;
+		return Arrays.equals(weights, other.weights);
+	}
+
+	@Override
+	public String toString() {
+		return "RationalBezierCurve [controlPoints=" + Arrays.toString(controlPoints) + ", weights="
+				+ Arrays.toString(weights) + "]";
+	}
+
+}
@@ -1,5 +1,6 @@
 package main.shapes;
 
+import java.awt.geom.AffineTransform;
 import java.awt.geom.Point2D;
 
 import main.utils.Utility;
@@ -109,6 +110,16 @@ public class RegularPolygon extends AnnotationShape implements Transformable2D<R
 		this.orientation = orientation;
 	}
 
+	/**
+	 * Not supported: an affine map takes a regular polygon to an irregular one in general, which a RegularPolygon
+	 * cannot hold, and the primitive transforms the default would decompose the map into are not implemented for it.
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public RegularPolygon applyTransform(AffineTransform transform) {
+		throw new UnsupportedOperationException("RegularPolygon does not support affine transforms: " + transform);
+	}
+
 	@Override
 	public RegularPolygon translate(double xDelta, double yDelta) {
 		// TODO Auto-generated method stub
@@ -0,0 +1,22 @@
+package main.shapes;
+
+/**
+ * The methods available for sampling a curve at regular intervals of the curve parameter.
+ * @author smaffa
+ *
+ */
+public enum SamplingMode {
+	
+	/**
+	 * Evaluates every sample independently as a weighted sum of the control points, using the shared Bernstein
+	 * weight tables.
+	 */
+	DIRECT,
+	
+	/**
+	 * Steps through the samples by forward differencing, at one addition per degree of the polynomial per sample.
+	 * See {@link ForwardDifferencer} for the error bound relative to {@link #DIRECT}.
+	 */
+	FORWARD_DIFFERENCE
+
+}
@@ -1,5 +1,7 @@
 package main.shapes;
 
+import java.awt.geom.AffineTransform;
+
 /**
  * Interface for 2D geometric objects that can be subjected to linear transformations in the 2D plane.
  * @author smaffa
@@ -59,5 +61,34 @@ public interface Transformable2D<T> {
 	 * @return the sheared object
 	 */
 	public T shearY(double factor);
+	
+	/**
+	 * Transforms the object by an arbitrary affine map in a single call. By default the map is decomposed as a 
+	 * scale, then a shear in the x dimension, then a rotation, then a translation, and the object is put through 
+	 * those four transforms; implementations that can map their geometry directly should override this.
+	 * @param transform		the invertible {@link AffineTransform} to apply
+	 * @return the transformed object
+	 * @throws IllegalArgumentException if the transform is not invertible
+	 */
+	public default T applyTransform(AffineTransform transform) {
+		double a = transform.getScaleX();
+		double b = transform.getShearX();
+		double c = transform.getShearY();
+		double d = transform.getScaleY();
+		double determinant = a * d - b * c;
+		double xScale = Math.hypot(a, c);
+		if (xScale == 0 || determinant == 0) {
+			throw new IllegalArgumentException("Affine transform is not invertible: " + transform);
+		}
+		// [[a, b], [c, d]] = rotation(theta) * [[1, k], [0, 1]] * [[xScale, 0], [0, yScale]]
+		double cos = a / xScale;
+		double sin = c / xScale;
+		double yScale = determinant / xScale;
+		double shear = (cos * b + sin * d) / yScale;
+		scale(xScale, yScale);
+		shearX(shear);
+		rotate(Math.atan2(c, a));
+		return translate(transform.getTranslateX(), transform.getTranslateY());
+	}
 
 }
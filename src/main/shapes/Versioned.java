@@ -0,0 +1,18 @@
+package main.shapes;
+
+/**
+ * Interface for mutable objects that expose a modification counter, so that dependent data can be cached
+ * and cheaply revalidated instead of recomputed.
+ * @author smaffa
+ *
+ */
+public interface Versioned {
+	
+	/**
+	 * Provides the current version of the object. The version changes whenever the state of the object changes.
+	 * @return a long value which differs from any previously returned value if the object has been modified 
+	 * since that value was returned
+	 */
+	public long getVersion();
+
+}
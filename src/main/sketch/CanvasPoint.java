@@ -1,5 +1,6 @@
 package main.sketch;
 
+import main.shapes.Versioned;
 import main.utils.Constants;
 
 import java.awt.geom.Point2D;
@@ -10,10 +11,11 @@ import java.awt.geom.Point2D;
  * @author smaffa
  *
  */
-class CanvasPoint extends Point2D {
+class CanvasPoint extends Point2D implements Versioned {
     private double x;
     private double y;
     private double radius = Constants.POINT_RADIUS;
+    private long version = 0; // incremented whenever the coordinates change
 
     /**
      * Basic constructor based on a pair of (x,y) coordinates
@@ -55,6 +57,12 @@ class CanvasPoint extends Point2D {
     public void setLocation(double x, double y) {
         this.x = x;
         this.y = y;
+        this.version++;
+    }
+    
+    @Override
+    public long getVersion() {
+    	return version;
     }
 
     public void setRadius(double r) {
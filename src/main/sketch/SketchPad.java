@@ -2,8 +2,15 @@ package main.sketch;
 
 import main.shapes.AnnotationShape;
 import main.shapes.BezierCurve;
+import main.shapes.CatmullRomParameterization;
+import main.shapes.CatmullRomSpline;
 import main.shapes.Circle;
 import main.shapes.CubicBezierCurve;
+import main.shapes.CubicCurveBatch;
+import main.shapes.CurveSamples;
+import main.shapes.GeneralBezierCurve;
+import main.shapes.QuadraticBezierCurve;
+import main.shapes.SamplingMode;
 import main.utils.Constants;
 
 import java.awt.BasicStroke;
@@ -11,11 +18,11 @@ import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
-import java.awt.Shape;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.geom.Ellipse2D;
 import java.awt.geom.Line2D;
+import java.awt.geom.Path2D;
 import java.awt.geom.Point2D;
 import java.util.ArrayList;
 import java.util.concurrent.ThreadLocalRandom;
@@ -39,11 +46,24 @@ public class SketchPad extends JPanel {
     private ArrayList<BezierCurve> bezierCurves = new ArrayList<BezierCurve>();
     private ArrayList<ArrayList<Integer>> bezierControlIndices = new ArrayList<ArrayList<Integer>>();
     
+    // spline data
+    private ArrayList<CatmullRomSpline> splines = new ArrayList<CatmullRomSpline>();
+    private ArrayList<ArrayList<Integer>> splineControlIndices = new ArrayList<ArrayList<Integer>>();
+    private CatmullRomParameterization splineParameterization = CatmullRomParameterization.CENTRIPETAL;
+    
+    // reusable buffers for curve rendering
+    private CurveSamples traceSamples = new CurveSamples(Constants.BEZIER_FINENESS + 1);
+    private Line2D.Double traceSegment = new Line2D.Double();
+    private double flatnessTolerance = 0; // samples at each curve's fineness unless a tolerance is set to flatten to
+    private CubicCurveBatch curveBatch = new CubicCurveBatch();
+    private CurveSamples batchSamples = new CurveSamples();
+    
     // annotation data
     private ArrayList<AnnotationShape> annotationShapes = new ArrayList<AnnotationShape>();
     
     // curve creation
     private boolean isBezierCreationModeOn = false;
+    private boolean isSplineCreationModeOn = false; // points are collected until the mode is turned off
     private ArrayList<Integer> currentBezierCreationList = new ArrayList<Integer>(4);
     
     // curve parameter
@@ -104,7 +124,7 @@ public class SketchPad extends JPanel {
     	addMouseListener(new MouseAdapter() {
             @Override
             public void mousePressed(MouseEvent e) {
-                if (isBezierCreationModeOn) {
+                if (isBezierCreationModeOn || isSplineCreationModeOn) {
                     int nextSelectionIndex = getBoundingPointIndex(e.getX(), e.getY());
                     if (nextSelectionIndex != Constants.NULL_INDEX) {
                         // if next selection is an already-selected point, remove it from the creation list
@@ -112,7 +132,7 @@ public class SketchPad extends JPanel {
                             currentBezierCreationList.remove(Integer.valueOf(nextSelectionIndex));
                         } else { // add it to the list
                             currentBezierCreationList.add(nextSelectionIndex);
-                            if (currentBezierCreationList.size() == 4) {
+                            if (isBezierCreationModeOn && currentBezierCreationList.size() == 4) {
                                 // if we reach 4 points, create the curve and reset the creation array
                             	createBezierCurve(currentBezierCreationList);
                                 currentBezierCreationList.clear();
@@ -165,24 +185,62 @@ public class SketchPad extends JPanel {
      * @param y		the destination y coordinate
      */
     public void movePoint(int x, int y) {
-        controlPoints.get(this.selectedIndex).setLocation(x, y);
+        CanvasPoint point = controlPoints.get(this.selectedIndex);
+        point.setLocation(x, y);
+        // only the spline segments near the point are recomputed
+        for (CatmullRomSpline spline : splines) {
+        	spline.pointMoved(point);
+        }
         repaint();
     }
 
     /**
-     * Instantiates a {@link CubicBezierCurve} object with the indices of 4 existing control points, and 
-     * adds it to the list of stored {@link BezierCurve} objects.
+     * Instantiates a {@link BezierCurve} object with the indices of existing control points, and adds it to the list
+     * of stored {@link BezierCurve} objects. Four points make a {@link CubicBezierCurve}, three points a 
+     * {@link QuadraticBezierCurve}, and any other number of at least two points a {@link GeneralBezierCurve}.
      * @param controlIndices	an {@link ArrayList} of {@link Integer} objects representing indices in the
      * controlPoints {@link ArrayList}
      */
     public void createBezierCurve(ArrayList<Integer> controlIndices) {
-    	if (controlIndices.size() == 4) {
-    		bezierControlIndices.add(new ArrayList<Integer>(controlIndices));
-    		bezierCurves.add(new CubicBezierCurve(controlPoints.get(controlIndices.get(0)),
-                    controlPoints.get(controlIndices.get(1)),
-                    controlPoints.get(controlIndices.get(2)),
-                    controlPoints.get(controlIndices.get(3))));
+    	if (controlIndices.size() < 2) {
+    		return;
+    	}
+    	Point2D[] curveControls = new Point2D[controlIndices.size()];
+    	for (int i = 0; i < curveControls.length; i++) {
+    		curveControls[i] = controlPoints.get(controlIndices.get(i));
+    	}
+    	BezierCurve curve;
+    	if (curveControls.length == 4) {
+    		curve = new CubicBezierCurve(curveControls[0], curveControls[1], curveControls[2], curveControls[3]);
+    	} else if (curveControls.length == 3) {
+    		curve = new QuadraticBezierCurve(curveControls[0], curveControls[1], curveControls[2]);
+    	} else {
+    		curve = new GeneralBezierCurve(curveControls);
     	}
+    	curve.setSamplingMode(SamplingMode.FORWARD_DIFFERENCE);
+    	bezierControlIndices.add(new ArrayList<Integer>(controlIndices));
+    	bezierCurves.add(curve);
+    }
+    
+    /**
+     * Instantiates a {@link CatmullRomSpline} object through existing control points, and adds it to the list of
+     * stored splines. The spline's segments are updated whenever one of its points is moved.
+     * @param controlIndices	an {@link ArrayList} of at least two {@link Integer} objects representing indices in
+     * the controlPoints {@link ArrayList}, in order along the spline
+     */
+    public void createCatmullRomSpline(ArrayList<Integer> controlIndices) {
+    	if (controlIndices.size() < 2) {
+    		return;
+    	}
+    	CatmullRomSpline spline = new CatmullRomSpline(splineParameterization);
+    	for (int index : controlIndices) {
+    		spline.append(controlPoints.get(index));
+    	}
+    	for (BezierCurve c : spline.getCurves()) {
+    		c.setSamplingMode(SamplingMode.FORWARD_DIFFERENCE);
+    	}
+    	splineControlIndices.add(new ArrayList<Integer>(controlIndices));
+    	splines.add(spline);
     }
     
     /**
@@ -229,8 +287,19 @@ public class SketchPad extends JPanel {
                 	}
                 }
             }
-            
-            
+            for (int i = splines.size() - 1; i > -1; i--) {
+            	ArrayList<Integer> indices = splineControlIndices.get(i);
+            	if (indices.contains(selectedIndex)) {
+            		splines.remove(i);
+            		splineControlIndices.remove(i);
+            	} else {
+            		for (int j = 0; j < indices.size(); j++) {
+            			if (indices.get(j) > selectedIndex) {
+            				indices.set(j, indices.get(j) - 1);
+            			}
+            		}
+            	}
+            }
         }
         selectedIndex = Constants.NULL_INDEX;
         repaint();
@@ -246,6 +315,8 @@ public class SketchPad extends JPanel {
     	System.out.println(Integer.toString(selectedIndex));
     	System.out.println("bezierControlIndices:");
     	System.out.println(this.bezierControlIndices.toString());
+    	System.out.println("splineControlIndices:");
+    	System.out.println(this.splineControlIndices.toString());
     	System.out.println("globalT:");
     	System.out.println(this.globalT);
     }
@@ -264,61 +335,75 @@ public class SketchPad extends JPanel {
      * @param c		the {@link BezierCurve} object to be drawn
      */
     public void drawBezierCurve(Graphics2D g2d, BezierCurve c) {
-    	if (c instanceof CubicBezierCurve) {
-    		g2d.setColor(bezierPalette[c.getOrder()]);
-    		if (showReferenceLines) { // draw all control lines
-    			g2d.setStroke(referenceStroke);    			
-    		} else { // draw only the guiding tangent lines between control points
-    			g2d.setStroke(dashed);
+    	if (flatnessTolerance > 0) {
+    		c.flatten(flatnessTolerance, traceSamples);
+    	} else {
+    		c.computePosition(c.getBezierFineness(), traceSamples);
+    	}
+    	drawBezierCurve(g2d, c, traceSamples.getX(), traceSamples.getY(), 0, traceSamples.size());
+    }
+    
+    /**
+     * Draws a {@link BezierCurve} object onto the canvas from samples of its trace that have already been computed.
+     * @param g2d	the {@link Graphics2D} object controlling the canvas rendering
+     * @param c		the {@link BezierCurve} object to be drawn
+     * @param traceX	the array holding the x coordinates of the trace
+     * @param traceY	the array holding the y coordinates of the trace
+     * @param offset	the index in the arrays of the first sample of the trace
+     * @param count		the number of samples in the trace
+     */
+    private void drawBezierCurve(Graphics2D g2d, BezierCurve c, double[] traceX, double[] traceY, int offset, 
+    		int count) {
+    	g2d.setColor(bezierPalette[c.getOrder() % bezierPalette.length]);
+    	if (showReferenceLines) { // draw all control lines
+    		g2d.setStroke(referenceStroke);    			
+    	} else { // draw only the guiding tangent lines between control points
+    		g2d.setStroke(dashed);
+    	}
+    	int nControls = c.getControlPointCount();
+    	for (int i = 0; i < nControls - 1; i++) {
+    		if (showReferenceLines || i == 0 || i == nControls - 2) {
+    			Point2D start = c.getControlPoint(i);
+    			Point2D end = c.getControlPoint(i + 1);
+    			g2d.draw(new Line2D.Double(start.getX(), start.getY(), end.getX(), end.getY()));
     		}
-    		Point2D[] curveControls = c.getControlPoints();
-            g2d.draw(new Line2D.Double(curveControls[0].getX(), curveControls[0].getY(),
-                    curveControls[1].getX(), curveControls[1].getY()));
-            if (showReferenceLines) {
-	            g2d.draw(new Line2D.Double(curveControls[1].getX(), curveControls[1].getY(),
-	                    curveControls[2].getX(), curveControls[2].getY()));
-            }
-            g2d.draw(new Line2D.Double(curveControls[2].getX(), curveControls[2].getY(),
-                    curveControls[3].getX(), curveControls[3].getY()));
-            
-            Point2D[] tracePoints = c.computePosition();
-            
-            if (showT & showReferenceLines) {
-            	g2d.setStroke(referenceStroke); 
-            	// draw all the other reference lines at T and their points
-            	Point2D[] referencePoints = c.computeLerpsAtT(globalT);
-            	int maxOrder = c.getOrder();
-            	int orderCounter = c.getOrder();
-            	int refPointIdx = referencePoints.length - 1;
-            	while (refPointIdx > 0) {
-            		Color currColor = bezierPalette[orderCounter - 1];
-            		g2d.setColor(currColor);
-            		while (orderCounter > 1) {
-            			g2d.draw(new Line2D.Double(referencePoints[refPointIdx].getX(), referencePoints[refPointIdx].getY(),
-            					referencePoints[refPointIdx - 1].getX(), referencePoints[refPointIdx - 1].getY()));
-            			drawPoint(g2d, referencePoints[refPointIdx], currColor, false);
-            			refPointIdx -= 1;
-            			orderCounter -= 1;
-            		}
-            		drawPoint(g2d, referencePoints[refPointIdx], currColor, false);
-            		refPointIdx -= 1;
-            		maxOrder -= 1;
-            		orderCounter = maxOrder;
-            	}
-            }
-            
-            // draw the curve itself
-            g2d.setStroke(traceStroke);
-            g2d.setColor(bezierPalette[0]);
-            for (int i = 0; i < tracePoints.length - 1; i++) {
-                g2d.draw(new Line2D.Double(tracePoints[i].getX(), tracePoints[i].getY(),
-                        tracePoints[i+1].getX(), tracePoints[i+1].getY()));
-            }
-            
-            if (showT) { // highlight the point at t
-            	drawPoint(g2d, c.computeLerpsAtT(globalT)[0], tPointColor, false);
-            }
     	}
+        
+        if (showT & showReferenceLines) {
+        	g2d.setStroke(referenceStroke); 
+        	// draw all the other reference lines at T and their points
+        	Point2D[] referencePoints = c.computeLerpsAtT(globalT);
+        	int maxOrder = c.getOrder();
+        	int orderCounter = c.getOrder();
+        	int refPointIdx = referencePoints.length - 1;
+        	while (refPointIdx > 0) {
+        		Color currColor = bezierPalette[(orderCounter - 1) % bezierPalette.length];
+        		g2d.setColor(currColor);
+        		while (orderCounter > 1) {
+        			g2d.draw(new Line2D.Double(referencePoints[refPointIdx].getX(), referencePoints[refPointIdx].getY(),
+        					referencePoints[refPointIdx - 1].getX(), referencePoints[refPointIdx - 1].getY()));
+        			drawPoint(g2d, referencePoints[refPointIdx], currColor, false);
+        			refPointIdx -= 1;
+        			orderCounter -= 1;
+        		}
+        		drawPoint(g2d, referencePoints[refPointIdx], currColor, false);
+        		refPointIdx -= 1;
+        		maxOrder -= 1;
+        		orderCounter = maxOrder;
+        	}
+        }
+        
+        // draw the curve itself
+        g2d.setStroke(traceStroke);
+        g2d.setColor(bezierPalette[0]);
+        for (int i = offset; i < offset + count - 1; i++) {
+        	traceSegment.setLine(traceX[i], traceY[i], traceX[i+1], traceY[i+1]);
+            g2d.draw(traceSegment);
+        }
+        
+        if (showT) { // highlight the point at t
+        	drawPoint(g2d, c.computePositionAtT(globalT), tPointColor, false);
+        }
     }
     
     /**
@@ -352,8 +437,15 @@ public class SketchPad extends JPanel {
     	
     	if (ann instanceof Circle) {
     		Circle annCircle = (Circle) ann;
-    		Shape circle = new Ellipse2D.Double(annCircle.getX() - annCircle.getRadius(), annCircle.getY() - annCircle.getRadius(), 
-    				2.0 * annCircle.getRadius(), 2.0 * annCircle.getRadius());
+    		if (annCircle.computeTrace(traceSamples).size() == 0) {
+    			return;
+    		}
+    		Path2D.Double circle = new Path2D.Double(Path2D.WIND_NON_ZERO, traceSamples.size());
+    		circle.moveTo(traceSamples.getX(0), traceSamples.getY(0));
+    		for (int i = 1; i < traceSamples.size(); i++) {
+    			circle.lineTo(traceSamples.getX(i), traceSamples.getY(i));
+    		}
+    		circle.closePath();
 			if (annCircle.isFill()) {
 				g2d.fill(circle);
 			} else {
@@ -369,13 +461,18 @@ public class SketchPad extends JPanel {
 		}
     }
 
+    private boolean isBatchable(BezierCurve c) {
+    	return flatnessTolerance <= 0 && c instanceof CubicBezierCurve 
+    			&& c.getBezierFineness() == Constants.BEZIER_FINENESS;
+    }
+
     @Override
     public void paintComponent(Graphics g) {
         Graphics2D g2d = (Graphics2D) g;
         super.paintComponent(g);
 
         // draw points
-        if (isBezierCreationModeOn) {
+        if (isBezierCreationModeOn || isSplineCreationModeOn) {
             for (CanvasPoint point : controlPoints) {
             	drawPoint(g2d, point, pointDefaultColor, true);
             }
@@ -383,7 +480,9 @@ public class SketchPad extends JPanel {
             for (int i = 0; i < currentBezierCreationList.size(); i++) {
                 int controlPointIndex = currentBezierCreationList.get(i);
                 CanvasPoint point = controlPoints.get(controlPointIndex);
-                if (i == 0) {
+                if (isSplineCreationModeOn) {
+                    g2d.drawString(Integer.toString(i + 1), (int) (point.getX() + Constants.POINT_RADIUS), (int) (point.getY() - Constants.POINT_RADIUS));
+                } else if (i == 0) {
                     g2d.drawString("P1", (int) (point.getX() + Constants.POINT_RADIUS), (int) (point.getY() - Constants.POINT_RADIUS));
                 } else if (i == 1) {
                     g2d.drawString("C1", (int) (point.getX() + Constants.POINT_RADIUS), (int) (point.getY() - Constants.POINT_RADIUS));
@@ -406,9 +505,43 @@ public class SketchPad extends JPanel {
             }
         }
         
-        // draw curves
+        // draw curves by sampling all the cubic curves at the default fineness together in one batch, or else flattened 
+        // to the tolerance once one is set
+        curveBatch.clear();
         for (BezierCurve c : bezierCurves) {
-        	drawBezierCurve(g2d, c);
+        	if (isBatchable(c)) {
+        		curveBatch.add((CubicBezierCurve) c);
+        	}
+        }
+        int nSamples = Constants.BEZIER_FINENESS + 1;
+        batchSamples.resize(curveBatch.size() * nSamples);
+        curveBatch.evaluateGrid(Constants.BEZIER_FINENESS, batchSamples.getX(), batchSamples.getY());
+        int batchIndex = 0;
+        for (BezierCurve c : bezierCurves) {
+        	if (isBatchable(c)) {
+        		drawBezierCurve(g2d, c, batchSamples.getX(), batchSamples.getY(), batchIndex * nSamples, nSamples);
+        		batchIndex++;
+        	} else {
+        		drawBezierCurve(g2d, c);
+        	}
+        }
+        
+        // draw splines as their traces alone, since their inner control points are not on the canvas
+        g2d.setStroke(traceStroke);
+        g2d.setColor(bezierPalette[0]);
+        for (CatmullRomSpline spline : splines) {
+        	for (CubicBezierCurve c : spline.getCurves()) {
+        		if (flatnessTolerance > 0) {
+        			c.flatten(flatnessTolerance, traceSamples);
+        		} else {
+        			c.computePosition(c.getBezierFineness(), traceSamples);
+        		}
+        		for (int i = 0; i < traceSamples.size() - 1; i++) {
+        			traceSegment.setLine(traceSamples.getX(i), traceSamples.getY(i), 
+        					traceSamples.getX(i + 1), traceSamples.getY(i + 1));
+        			g2d.draw(traceSegment);
+        		}
+        	}
         }
         
         // draw annotations
@@ -419,12 +552,21 @@ public class SketchPad extends JPanel {
         }
     }
 
+    /**
+     * Turns cubic Bezier creation mode on or off. The creation modes share the list of collected points, so turning
+     * this mode on turns spline creation mode off and discards the points it had collected.
+     * @param isOn	a boolean specifying whether Bezier creation mode is on
+     */
     public void setBezierCreationModeOn(boolean isOn) {
+    	if (isOn & isSplineCreationModeOn) {
+    		isSplineCreationModeOn = false;
+    		currentBezierCreationList.clear();
+    	}
         if (isOn & selectedIndex != Constants.NULL_INDEX) {
             // if turning creation mode on and there is a selected point, deselect it and choose it as the first control point
             currentBezierCreationList.add(selectedIndex);
             selectedIndex = Constants.NULL_INDEX;
-        } else if (!isOn) {
+        } else if (!isOn & isBezierCreationModeOn) {
         	// if turning creation mode off, clear the current selections
         	currentBezierCreationList.clear();
         }
@@ -432,6 +574,44 @@ public class SketchPad extends JPanel {
         repaint();
     }
     
+    /**
+     * Turns spline creation mode on or off. While it is on, clicked points are collected in order; turning it off
+     * connects the collected points into a {@link CatmullRomSpline}. Turning it on turns Bezier creation mode off and
+     * discards the points it had collected.
+     * @param isOn	a boolean specifying whether spline creation mode is on
+     */
+    public void setSplineCreationModeOn(boolean isOn) {
+    	if (isOn & isBezierCreationModeOn) {
+    		isBezierCreationModeOn = false;
+    		currentBezierCreationList.clear();
+    	}
+    	if (isOn & selectedIndex != Constants.NULL_INDEX) {
+    		currentBezierCreationList.add(selectedIndex);
+    		selectedIndex = Constants.NULL_INDEX;
+    	} else if (!isOn & isSplineCreationModeOn) {
+    		createCatmullRomSpline(currentBezierCreationList);
+    		currentBezierCreationList.clear();
+    	}
+    	isSplineCreationModeOn = isOn;
+    	repaint();
+    }
+    
+    public CatmullRomParameterization getSplineParameterization() {
+    	return splineParameterization;
+    }
+    
+    /**
+     * Sets the knot spacing of new splines and of every existing spline.
+     * @param splineParameterization	the {@link CatmullRomParameterization} to use
+     */
+    public void setSplineParameterization(CatmullRomParameterization splineParameterization) {
+    	this.splineParameterization = splineParameterization;
+    	for (CatmullRomSpline spline : splines) {
+    		spline.setParameterization(splineParameterization);
+    	}
+    	repaint();
+    }
+    
     public void setT(double t) {
     	if (0 <= t & t <= 1) {
     		this.globalT = t;
@@ -455,6 +635,20 @@ public class SketchPad extends JPanel {
     	repaint();
     }
 	
+	public double getFlatnessTolerance() {
+		return flatnessTolerance;
+	}
+
+	/**
+	 * Sets the tolerance, in pixels, to which curves are flattened when drawn, such as 
+	 * {@link Constants#FLATNESS_TOLERANCE}. The default tolerance of 0 draws every curve at its fixed fineness instead.
+	 * @param flatnessTolerance		the maximum distance between a drawn curve and the true curve
+	 */
+	public void setFlatnessTolerance(double flatnessTolerance) {
+		this.flatnessTolerance = flatnessTolerance;
+		repaint();
+	}
+	
 	public boolean isPointSelected() {
 		return this.selectedIndex != Constants.NULL_INDEX & selectedIndex < controlPoints.size();
 	}
@@ -463,6 +657,10 @@ public class SketchPad extends JPanel {
 		return this.bezierCurves;
 	}
 	
+	public ArrayList<CatmullRomSpline> getSplines() {
+		return splines;
+	}
+
 	public ArrayList<AnnotationShape> getAnnotationShapes() {
 		return this.annotationShapes;
 	}
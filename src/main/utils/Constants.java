@@ -10,6 +10,12 @@ import org.ejml.simple.SimpleMatrix;
 public class Constants {
 
     public static final int BEZIER_FINENESS = 100;
+    
+    public static final double FLATNESS_TOLERANCE = 0.25; // maximum distance, in pixels, of a flattened curve from the curve
+    public static final int MAX_FLATTENING_DEPTH = 16; // maximum number of times a curve is halved when flattening
+    public static final double ARC_LENGTH_TOLERANCE = 1e-6; // maximum error, in pixels, of an integrated arc length
+    public static final int MAX_ARC_LENGTH_DEPTH = 24; // maximum number of times an interval is halved when integrating
+    public static final int MAX_ARC_LENGTH_ITERATIONS = 32; // maximum number of steps when solving for t at an arc length
 
     public static final int CANVAS_WIDTH = 1000;
     public static final int CANVAS_HEIGHT = 800;
@@ -0,0 +1,159 @@
+package main.utils;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.ejml.simple.SimpleMatrix;
+
+import main.shapes.BernsteinKernel;
+
+/**
+ * An immutable table of cubic basis functions sampled at bezierFineness regular intervals on the curve parameter t,
+ * bounded between 0 and 1, inclusive. Tables depend only on the fineness and the derivative order, so they are built
+ * once per process and shared by every curve through {@link #getPowerBasis(int, int)} and
+ * {@link #getBernsteinWeights(int, int)}.
+ * @author smaffa
+ *
+ */
+public final class CubicBasisTable {
+
+	public static final int MAX_DERIVATIVE_ORDER = 3;
+
+	private static final ConcurrentHashMap<Long, CubicBasisTable> POWER_BASIS_CACHE =
+			new ConcurrentHashMap<Long, CubicBasisTable>();
+	private static final ConcurrentHashMap<Long, CubicBasisTable> BERNSTEIN_WEIGHT_CACHE =
+			new ConcurrentHashMap<Long, CubicBasisTable>();
+
+	private final int bezierFineness;
+	private final int derivativeOrder;
+	private final double[] tValues;
+	private final double[] values; // row-major, 4 values per row
+	private final double[][] columns; // the same values, one array per basis function
+
+	private CubicBasisTable(int bezierFineness, int derivativeOrder, double[] tValues, double[] values) {
+		this.bezierFineness = bezierFineness;
+		this.derivativeOrder = derivativeOrder;
+		this.tValues = tValues;
+		this.values = values;
+		this.columns = new double[4][bezierFineness + 1];
+		for (int i = 0; i <= bezierFineness; i++) {
+			for (int j = 0; j < 4; j++) {
+				columns[j][i] = values[4 * i + j];
+			}
+		}
+	}
+
+	/**
+	 * Provides the shared table of power basis row vectors, differentiated derivativeOrder times. For example, the rows
+	 * are [1, t, t^2, t^3] for position, [0, 1, 2t, 3t^2] for velocity, and [0, 0, 2, 6t] for acceleration.
+	 * @param bezierFineness	the number of intervals to sample along the curve parameter
+	 * @param derivativeOrder	the order of the derivative, between 0 and 3, inclusive
+	 * @return a {@link CubicBasisTable} with bezierFineness + 1 rows
+	 */
+	public static CubicBasisTable getPowerBasis(int bezierFineness, int derivativeOrder) {
+		return POWER_BASIS_CACHE.computeIfAbsent(key(bezierFineness, derivativeOrder),
+				k -> computePowerBasis(bezierFineness, derivativeOrder));
+	}
+
+	/**
+	 * Provides the shared table of Bernstein weights, differentiated derivativeOrder times. Each row is the power basis
+	 * row multiplied by CUBIC_POINT_COEFFICIENT_MATRIX, so the weighted sum of the four control points with a row
+	 * gives the curve (or its derivative) at the corresponding value of t.
+	 * @param bezierFineness	the number of intervals to sample along the curve parameter
+	 * @param derivativeOrder	the order of the derivative, between 0 and 3, inclusive
+	 * @return a {@link CubicBasisTable} with bezierFineness + 1 rows
+	 */
+	public static CubicBasisTable getBernsteinWeights(int bezierFineness, int derivativeOrder) {
+		return BERNSTEIN_WEIGHT_CACHE.computeIfAbsent(key(bezierFineness, derivativeOrder),
+				k -> computeBernsteinWeights(bezierFineness, derivativeOrder));
+	}
+
+	private static long key(int bezierFineness, int derivativeOrder) {
+		if (bezierFineness < 1) {
+			throw new IllegalArgumentException("bezierFineness must be positive: " + bezierFineness);
+		}
+		if (derivativeOrder < 0 || derivativeOrder > MAX_DERIVATIVE_ORDER) {
+			throw new IllegalArgumentException("derivativeOrder must be between 0 and " + MAX_DERIVATIVE_ORDER
+					+ ": " + derivativeOrder);
+		}
+		return ((long) bezierFineness << 2) | derivativeOrder;
+	}
+
+	private static CubicBasisTable computePowerBasis(int bezierFineness, int derivativeOrder) {
+		double[] tVals = Utility.linspace(0, 1, bezierFineness + 1);
+		double[] values = new double[4 * (bezierFineness + 1)];
+		for (int i = 0; i <= bezierFineness; i++) {
+			for (int j = derivativeOrder; j < 4; j++) {
+				// d^k/dt^k t^j = j! / (j - k)! * t^(j - k)
+				double factor = 1;
+				for (int k = 0; k < derivativeOrder; k++) {
+					factor *= j - k;
+				}
+				values[4 * i + j] = factor * Math.pow(tVals[i], j - derivativeOrder);
+			}
+		}
+		return new CubicBasisTable(bezierFineness, derivativeOrder, tVals, values);
+	}
+
+	private static CubicBasisTable computeBernsteinWeights(int bezierFineness, int derivativeOrder) {
+		CubicBasisTable powerBasis = getPowerBasis(bezierFineness, derivativeOrder);
+		SimpleMatrix powerMatrix = new SimpleMatrix(bezierFineness + 1, 4, true, powerBasis.values);
+		SimpleMatrix weightMatrix = powerMatrix.mult(Constants.CUBIC_POINT_COEFFICIENT_MATRIX);
+
+		double[] values = new double[4 * (bezierFineness + 1)];
+		for (int i = 0; i <= bezierFineness; i++) {
+			for (int j = 0; j < 4; j++) {
+				values[4 * i + j] = weightMatrix.get(i, j);
+			}
+		}
+		return new CubicBasisTable(bezierFineness, derivativeOrder, powerBasis.tValues, values);
+	}
+
+	/**
+	 * Provides a single entry of the table.
+	 * @param row	the index of the sample, between 0 and bezierFineness, inclusive
+	 * @param col	the index of the basis function, between 0 and 3, inclusive
+	 * @return the double value of the basis function at the sample
+	 */
+	public double get(int row, int col) {
+		return values[4 * row + col];
+	}
+
+	/**
+	 * Evaluates one coordinate of a curve at every sample of the table, out[outOffset + i] = get(i, 0) * a
+	 * + get(i, 1) * b + get(i, 2) * c + get(i, 3) * d, running the kernel down the columns of the table. The columns
+	 * are shared by every user of the table, so they are never handed out.
+	 * @param kernel	the {@link BernsteinKernel} that runs the sums
+	 * @param a		the first control coordinate
+	 * @param b		the second control coordinate
+	 * @param c		the third control coordinate
+	 * @param d		the fourth control coordinate
+	 * @param out	the array that receives bezierFineness + 1 samples
+	 * @param outOffset		the index in out of the first sample
+	 */
+	public void combine(BernsteinKernel kernel, double a, double b, double c, double d, double[] out, int outOffset) {
+		kernel.combineSamples(columns[0], columns[1], columns[2], columns[3], a, b, c, d, out, outOffset,
+				bezierFineness + 1);
+	}
+
+	/**
+	 * Provides the value of the curve parameter at a sample.
+	 * @param row	the index of the sample, between 0 and bezierFineness, inclusive
+	 * @return the double value of t at the sample
+	 */
+	public double getT(int row) {
+		return tValues[row];
+	}
+
+	public int getRowCount() {
+		return bezierFineness + 1;
+	}
+
+	public int getBezierFineness() {
+		return bezierFineness;
+	}
+
+	public int getDerivativeOrder() {
+		return derivativeOrder;
+	}
+
+}
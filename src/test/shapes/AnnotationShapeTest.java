@@ -0,0 +1,68 @@
+package test.shapes;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Point2D;
+
+import org.junit.jupiter.api.Test;
+
+import main.shapes.Circle;
+import main.shapes.PolyLine;
+import main.shapes.RegularPolygon;
+import main.utils.Constants;
+
+class AnnotationShapeTest {
+
+	/**
+	 * Test that a polyline is mapped point by point, the same through the primitives as in one call
+	 */
+	@Test
+	void testPolyLineTransforms() {
+		Point2D[] points = {new Point2D.Double(0, 0), new Point2D.Double(3, 1), new Point2D.Double(-2, 5)};
+		Point2D[] expected = new Point2D[points.length];
+		AffineTransform transform = new AffineTransform(1.5, 0.4, -0.7, 2, 10, -3);
+		transform.transform(points, 0, expected, 0, points.length);
+		PolyLine mapped = new PolyLine(copy(points));
+		assertSame(mapped, mapped.applyTransform(transform));
+		PolyLine decomposed = new PolyLine(copy(points));
+		decomposed.scale(2, 0.5).shearX(0.3).rotate(0.7).translate(10, -3);
+		AffineTransform composite = new AffineTransform();
+		composite.translate(10, -3);
+		composite.rotate(0.7);
+		composite.shear(0.3, 0);
+		composite.scale(2, 0.5);
+		for (int i = 0; i < points.length; i++) {
+			assertEquals(expected[i].getX(), mapped.getTrace()[i].getX(), Constants.ERROR_TOLERANCE);
+			assertEquals(expected[i].getY(), mapped.getTrace()[i].getY(), Constants.ERROR_TOLERANCE);
+			Point2D composed = composite.transform(points[i], null);
+			assertEquals(composed.getX(), decomposed.getTrace()[i].getX(), Constants.ERROR_TOLERANCE);
+			assertEquals(composed.getY(), decomposed.getTrace()[i].getY(), Constants.ERROR_TOLERANCE);
+		}
+
+		// reflecting over the y axis, then shearing in y
+		PolyLine flipped = new PolyLine(copy(points)).reflect(0, 1).shearY(2);
+		assertEquals(-3, flipped.getTrace()[1].getX(), Constants.ERROR_TOLERANCE);
+		assertEquals(-5, flipped.getTrace()[1].getY(), Constants.ERROR_TOLERANCE);
+	}
+
+	/**
+	 * Test that shapes which cannot hold the image of an affine map refuse it rather than return nothing
+	 */
+	@Test
+	void testUnsupportedTransforms() {
+		AffineTransform transform = AffineTransform.getTranslateInstance(5, 5);
+		assertThrows(UnsupportedOperationException.class, () -> new Circle(0, 0, 10).applyTransform(transform));
+		assertThrows(UnsupportedOperationException.class,
+				() -> new RegularPolygon(0, 0, 5).applyTransform(transform));
+	}
+
+	static Point2D[] copy(Point2D[] points) {
+		Point2D[] copy = new Point2D[points.length];
+		for (int i = 0; i < points.length; i++) {
+			copy[i] = new Point2D.Double(points[i].getX(), points[i].getY());
+		}
+		return copy;
+	}
+
+}
@@ -0,0 +1,272 @@
+package test.shapes;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.geom.Point2D;
+
+import org.junit.jupiter.api.Test;
+
+import main.shapes.ArcLengthTable;
+import main.shapes.CubicBezierCurve;
+import main.shapes.CurveSamples;
+import main.shapes.GeneralBezierCurve;
+import main.shapes.RationalBezierCurve;
+import main.utils.Constants;
+
+class ArcLengthTableTest {
+
+	static CubicBezierCurve curve() {
+		return new CubicBezierCurve(new Point2D.Double(12.5, 340.25), new Point2D.Double(97, -45.5),
+				new Point2D.Double(410.75, 288), new Point2D.Double(230.125, 15), 200);
+	}
+
+	/**
+	 * A linear scan over the table, as the lookup was done before the binary search
+	 */
+	static double scanT(ArcLengthTable table, double s) {
+		for (int i = 0; i < table.size() - 1; i++) {
+			if (s <= table.getCumulativeLength(i+1)) {
+				double segmentLength = table.getCumulativeLength(i+1) - table.getCumulativeLength(i);
+				double sPartial = segmentLength > 0 ? Math.max(0, s - table.getCumulativeLength(i)) / segmentLength : 1;
+				return table.getSampleT(i) + sPartial * (table.getSampleT(i+1) - table.getSampleT(i));
+			}
+		}
+		return table.getSampleT(table.size() - 1);
+	}
+
+	/**
+	 * Test that the binary search and the cursor agree with a linear scan, in order, out of order and wrapping around
+	 */
+	@Test
+	void testLookup() {
+		CubicBezierCurve curve = curve();
+		ArcLengthTable table = curve.computeArcLengthTable();
+		assertEquals(201, table.size());
+		assertEquals(0, table.getCumulativeLength(0));
+		assertEquals(1, table.getCumulativeLength(200));
+		assertEquals(0, table.getT(0));
+		assertEquals(1, table.getT(1));
+		assertEquals(0, table.getT(-0.5));
+		assertEquals(1, table.getT(1.5));
+
+		double[] cumulativeDistance = curve.computeCumulativeArcLengthDistance();
+		ArcLengthTable.Cursor cursor = new ArcLengthTable.Cursor();
+		for (int i = 0; i <= 3000; i++) {
+			double s = ((i * 0.37) % 1.3) / 1.3;
+			double t = scanT(table, s);
+			assertEquals(t, table.getT(s));
+			assertEquals(t, table.getT(s, cursor));
+			assertEquals(t, table.getT(s, null));
+			assertEquals(t, curve.arcLengthApproximateT(cumulativeDistance, s), Constants.ERROR_TOLERANCE);
+		}
+		cursor.reset();
+		for (int i = 0; i <= 1000; i++) {
+			double s = i / 1000.0;
+			assertEquals(scanT(table, s), table.getT(s, cursor));
+		}
+		// every sample lands on its own value of t
+		for (int i = 0; i < table.size(); i++) {
+			assertEquals(table.getSampleT(i), table.getT(table.getCumulativeLength(i)), Constants.ERROR_TOLERANCE);
+		}
+	}
+
+	/**
+	 * Test that the table keeps the total length, and handles a curve with no length
+	 */
+	@Test
+	void testTotalLength() {
+		CubicBezierCurve curve = curve();
+		CurveSamples samples = curve.computePosition(curve.getBezierFineness(), new CurveSamples());
+		ArcLengthTable chords = curve.computeArcLengthTable(samples);
+		double length = 0;
+		for (int i = 1; i < samples.size(); i++) {
+			length += Math.hypot(samples.getX(i) - samples.getX(i-1), samples.getY(i) - samples.getY(i-1));
+		}
+		assertEquals(length, chords.getTotalLength(), Constants.ERROR_TOLERANCE);
+		assertEquals(curve.computeArcLength(), curve.computeArcLengthTable().getTotalLength(),
+				Constants.ARC_LENGTH_TOLERANCE);
+
+		CubicBezierCurve point = new CubicBezierCurve(new Point2D.Double(0, 0), new Point2D.Double(0, 0),
+				new Point2D.Double(0, 0), new Point2D.Double(0, 0), 10);
+		ArcLengthTable degenerate = point.computeArcLengthTable();
+		assertEquals(0, degenerate.getTotalLength());
+		assertEquals(0.5, degenerate.getT(0.5), Constants.ERROR_TOLERANCE);
+		assertFalse(Double.isNaN(point.computeCumulativeArcLengthDistance()[5]));
+
+		assertEquals(0, point.computeArcLength());
+
+		CurveSamples single = new CurveSamples();
+		single.add(0, 1, 1);
+		assertThrows(IllegalArgumentException.class, () -> new ArcLengthTable(single));
+	}
+
+	/**
+	 * Test the integrated arc length against curves of known length, and that it beats the chords on a tight curve
+	 */
+	@Test
+	void testIntegratedLength() {
+		// a cubic with evenly spaced collinear control points runs at constant speed
+		CubicBezierCurve line = new CubicBezierCurve(new Point2D.Double(0, 0), new Point2D.Double(1, 1),
+				new Point2D.Double(2, 2), new Point2D.Double(3, 3));
+		assertEquals(3 * Math.sqrt(2), line.computeArcLength(), Constants.ARC_LENGTH_TOLERANCE);
+		assertEquals(0.5, line.computeArcLengthTable().getT(0.5), Constants.ERROR_TOLERANCE);
+
+		// a rational quarter circle
+		RationalBezierCurve arc = RationalBezierCurve.arc(0, 0, 200, 0, Math.PI / 2)[0];
+		assertEquals(100 * Math.PI, arc.computeArcLength(), Constants.ARC_LENGTH_TOLERANCE);
+		ArcLengthTable arcTable = arc.computeArcLengthTable();
+		assertEquals(100 * Math.PI, arcTable.getTotalLength(), Constants.ARC_LENGTH_TOLERANCE);
+		for (int i = 0; i < arcTable.size(); i++) {
+			// the angle swept is proportional to the arc length
+			Point2D point = arc.computePositionAtT(arcTable.getSampleT(i));
+			assertEquals(arcTable.getCumulativeLength(i) * Math.PI / 2, Math.atan2(point.getY(), point.getX()), 1e-8);
+		}
+
+		// a tight loop, on which chords fall short of the length
+		CubicBezierCurve loop = new CubicBezierCurve(new Point2D.Double(0, 0), new Point2D.Double(600, 400),
+				new Point2D.Double(-200, 400), new Point2D.Double(400, 0), 20);
+		double reference = loop.computeArcLength(0, 1, 1e-10);
+		ArcLengthTable chords = loop.computeArcLengthTable(loop.computePosition(20, new CurveSamples()));
+		ArcLengthTable integrated = loop.computeArcLengthTable();
+		assertTrue(chords.getTotalLength() < reference - 1);
+		assertEquals(reference, integrated.getTotalLength(), Constants.ARC_LENGTH_TOLERANCE);
+		assertEquals(21, integrated.size());
+		assertEquals(loop.computeArcLength(0, 0.35, 1e-10), integrated.getCumulativeLength(7) * reference, 1e-6);
+		assertEquals(loop.computeArcLength(0.35, 0, 1e-10), loop.computeArcLength(0, 0.35, 1e-10));
+
+		// the speed of a curve of any class
+		GeneralBezierCurve general = new GeneralBezierCurve(loop.getControlPoints());
+		assertEquals(reference, general.computeArcLength(), Constants.ARC_LENGTH_TOLERANCE);
+		assertEquals(loop.computeVelocityAtT(0.3).distance(0, 0), general.computeSpeedAtT(0.3), Constants.ERROR_TOLERANCE);
+
+		assertThrows(IllegalArgumentException.class, () -> loop.computeArcLength(0, 1, 0));
+		assertThrows(IllegalArgumentException.class, () -> loop.computeArcLengthTable(0, 1e-6));
+	}
+
+	/**
+	 * A curve that counts how many times its speed is evaluated
+	 */
+	static class CountingCurve extends CubicBezierCurve {
+
+		int nEvaluations = 0;
+
+		CountingCurve(CubicBezierCurve curve, int bezierFineness) {
+			super(curve.getP1(), curve.getC1(), curve.getC2(), curve.getP2(), bezierFineness);
+		}
+
+		@Override
+		public double computeSpeedAtT(double t) {
+			nEvaluations++;
+			return super.computeSpeedAtT(t);
+		}
+
+	}
+
+	/**
+	 * Test that the integrated table costs no more evaluations of the speed than the total length, at any size
+	 */
+	@Test
+	void testTableCost() {
+		CubicBezierCurve loop = new CubicBezierCurve(new Point2D.Double(0, 0), new Point2D.Double(600, 400),
+				new Point2D.Double(-200, 400), new Point2D.Double(400, 0));
+		CountingCurve counted = new CountingCurve(loop, 20);
+		counted.computeArcLength();
+		int lengthCost = counted.nEvaluations;
+		for (int fineness : new int[] {1, 20, 100, 1000}) {
+			counted.setBezierFineness(fineness);
+			counted.nEvaluations = 0;
+			ArcLengthTable table = counted.computeArcLengthTable();
+			assertEquals(lengthCost, counted.nEvaluations);
+			for (int i = 0; i <= fineness; i += Math.max(1, fineness / 20)) {
+				double t = table.getSampleT(i);
+				assertEquals(loop.computeArcLength(0, t, 1e-10), table.getCumulativeLength(i) * table.getTotalLength(),
+						Constants.ARC_LENGTH_TOLERANCE, "t = " + t);
+			}
+		}
+	}
+
+	/**
+	 * Test that the Newton solve lands on the arc length asked for, and that warm starts converge in a step or two
+	 */
+	@Test
+	void testSolve() {
+		CountingCurve loop = new CountingCurve(new CubicBezierCurve(new Point2D.Double(0, 0), 
+				new Point2D.Double(600, 400), new Point2D.Double(-200, 400), new Point2D.Double(400, 0)), 20);
+		ArcLengthTable table = loop.computeArcLengthTable();
+		double totalLength = table.getTotalLength();
+		double maxTableError = 0;
+		double maxSolveError = 0;
+		for (int i = 0; i <= 200; i++) {
+			double s = i / 200.0;
+			double t = loop.arcLengthSolveT(table, s, null);
+			double solveError = Math.abs(loop.computeArcLength(0, t, 1e-10) - s * totalLength);
+			double tableError = Math.abs(loop.computeArcLength(0, table.getT(s), 1e-10) - s * totalLength);
+			assertTrue(solveError < 1e-5, "s = " + s + ": " + solveError);
+			maxSolveError = Math.max(maxSolveError, solveError);
+			maxTableError = Math.max(maxTableError, tableError);
+		}
+		assertEquals(0, loop.arcLengthSolveT(table, 0, null));
+		assertEquals(1, loop.arcLengthSolveT(table, 1, null));
+		// the piecewise linear estimate is off by far more than a pixel's worth of precision
+		assertTrue(maxTableError > 1000 * maxSolveError);
+
+		// a rider advancing by one frame of animation at a time, wrapping around the end of the curve
+		ArcLengthTable.Cursor cursor = new ArcLengthTable.Cursor();
+		assertTrue(Double.isNaN(cursor.getT()));
+		double s = 0.001;
+		int nEvaluations = 0;
+		for (int frame = 0; frame < 400; frame++) {
+			int nBefore = loop.nEvaluations;
+			double t = loop.arcLengthSolveT(table, s, cursor);
+			nEvaluations += loop.nEvaluations - nBefore;
+			assertEquals(t, cursor.getT());
+			assertEquals(loop.arcLengthSolveT(table, s, null), t, 1e-8);
+			if (frame > 0 && s > 0.005) {
+				assertTrue(cursor.getIterationCount() <= 2, "s = " + s + ": " + cursor.getIterationCount());
+			}
+			s += 0.005;
+			if (s > 1) {
+				s -= 1;
+			}
+		}
+		// each Newton step from the previous solution measures its arc by a single five point rule, so the rider
+		// costs less than one adaptive integration, of at least three rules, per frame
+		assertTrue(nEvaluations < 400 * 15, "" + nEvaluations);
+		cursor.reset();
+		assertTrue(Double.isNaN(cursor.getT()));
+	}
+
+	/**
+	 * Test that the curve's own table is shared until the geometry changes, and rebuilt once after
+	 */
+	@Test
+	void testCurveOwnedTable() {
+		CubicBezierCurve curve = curve();
+		ArcLengthTable table = curve.getArcLengthTable();
+		assertSame(table, curve.getArcLengthTable());
+		assertEquals(curve.computeArcLength(), curve.getArcLength(), Constants.ARC_LENGTH_TOLERANCE);
+		assertEquals(curve.arcLengthSolveT(table, 0.3, null), curve.arcLengthSolveT(0.3, null));
+
+		curve.getP2().setLocation(500, 500);
+		ArcLengthTable moved = curve.getArcLengthTable();
+		assertNotSame(table, moved);
+		assertSame(moved, curve.getArcLengthTable());
+		assertEquals(curve.computeArcLength(), moved.getTotalLength(), Constants.ARC_LENGTH_TOLERANCE);
+
+		curve.setBezierFineness(50);
+		assertEquals(51, curve.getArcLengthTable().size());
+
+		curve.setTransformDeferred(true);
+		double length = curve.getArcLength();
+		curve.scale(2);
+		assertEquals(2 * length, curve.getArcLength(), 2 * Constants.ARC_LENGTH_TOLERANCE);
+
+		// a rational curve also changes shape with its weights
+		RationalBezierCurve arc = RationalBezierCurve.arc(0, 0, 200, 0, Math.PI / 2)[0];
+		ArcLengthTable arcTable = arc.getArcLengthTable();
+		arc.setWeight(1, 2);
+		assertNotSame(arcTable, arc.getArcLengthTable());
+		assertTrue(arc.getArcLength() > arcTable.getTotalLength());
+	}
+
+}
@@ -0,0 +1,166 @@
+package test.shapes;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.geom.Point2D;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import main.shapes.BSplineCurve;
+import main.shapes.BezierCurve;
+import main.shapes.CubicBezierCurve;
+import main.shapes.CubicCurveBatch;
+import main.shapes.NurbsCurve;
+import main.shapes.RationalBezierCurve;
+import main.utils.Constants;
+
+class BSplineCurveTest {
+
+	static void assertPointsMatch(Point2D p1, Point2D p2) {
+		assertEquals(p1.getX(), p2.getX(), Constants.ERROR_TOLERANCE);
+		assertEquals(p1.getY(), p2.getY(), Constants.ERROR_TOLERANCE);
+	}
+
+	static Point2D[] zigzag(int nPoints) {
+		Point2D[] points = new Point2D[nPoints];
+		for (int i = 0; i < nPoints; i++) {
+			points[i] = new Point2D.Double(10 * i + (i % 3), (i % 2 == 0 ? 20 : -15) + 0.5 * i);
+		}
+		return points;
+	}
+
+	@Test
+	void testConstructor() {
+		Point2D[] points = zigzag(5);
+		assertThrows(IllegalArgumentException.class, () -> new BSplineCurve(points, 0));
+		assertThrows(IllegalArgumentException.class, () -> new BSplineCurve(points, 5));
+		// unclamped
+		assertThrows(IllegalArgumentException.class, () -> new BSplineCurve(points, 2,
+				new double[] {0, 1, 2, 3, 4, 5, 6, 7}));
+		// interior knot repeated more than the degree
+		assertThrows(IllegalArgumentException.class, () -> new BSplineCurve(points, 2,
+				new double[] {0, 0, 0, 1, 1, 1, 2, 2}));
+		assertThrows(IllegalArgumentException.class, () -> new BSplineCurve(points, 2,
+				new double[] {0, 0, 0, 2, 1, 3, 3, 3}));
+
+		BSplineCurve curve = new BSplineCurve(points, 3);
+		assertArrayEquals(new double[] {0, 0, 0, 0, 1, 2, 2, 2, 2}, curve.getKnots());
+		assertEquals(2, curve.getSegmentCount());
+		assertPointsMatch(points[0], curve.computePositionAtT(curve.getDomainStart()));
+		assertPointsMatch(points[4], curve.computePositionAtT(curve.getDomainEnd()));
+	}
+
+	/**
+	 * Test that a B-spline with a single span is the Bezier curve over its control points
+	 */
+	@Test
+	void testSingleSpan() {
+		Point2D[] points = zigzag(4);
+		BSplineCurve spline = new BSplineCurve(points, 3);
+		CubicBezierCurve bezier = new CubicBezierCurve(points[0], points[1], points[2], points[3]);
+		for (double t = 0; t <= 1; t += 0.125) {
+			assertPointsMatch(bezier.computePositionAtT(t), spline.computePositionAtT(t));
+		}
+	}
+
+	/**
+	 * Test that the Bezier segments of a spline trace the spline, for several degrees and non-uniform knots
+	 */
+	@Test
+	void testToBezierCurves() {
+		Point2D[] points = zigzag(9);
+		double[][] knotVectors = {
+				BSplineCurve.clampedUniformKnots(9, 1),
+				{0, 0, 0, 0.5, 0.5, 2, 3, 3.25, 7, 8, 8, 8},
+				{0, 0, 0, 0, 1, 1.5, 1.5, 1.5, 4, 6, 6, 6, 6},
+				BSplineCurve.clampedUniformKnots(9, 4)};
+		for (double[] knots : knotVectors) {
+			int degree = knots.length - points.length - 1;
+			BSplineCurve spline = new BSplineCurve(points, degree, knots);
+			List<BezierCurve> segments = spline.toBezierCurves();
+			assertEquals(spline.getSegmentCount(), segments.size());
+			if (degree == 3) {
+				assertTrue(segments.get(0) instanceof CubicBezierCurve);
+			}
+
+			int segment = 0;
+			for (int i = degree; i < points.length; i++) {
+				if (knots[i + 1] == knots[i]) {
+					continue;
+				}
+				BezierCurve curve = segments.get(segment++);
+				assertEquals(degree, curve.getOrder());
+				for (double t = 0; t <= 1; t += 0.125) {
+					double u = knots[i] + t * (knots[i + 1] - knots[i]);
+					assertPointsMatch(spline.computePositionAtT(u), curve.computePositionAtT(t));
+				}
+			}
+
+			if (degree <= 3) {
+				CubicCurveBatch batch = spline.toBezierBatch(new CubicCurveBatch());
+				assertEquals(segments.size(), batch.size());
+				for (int i = 0; i < batch.size(); i++) {
+					for (double t = 0; t <= 1; t += 0.125) {
+						assertPointsMatch(segments.get(i).computePositionAtT(t), batch.getCurve(i).computePositionAtT(t));
+					}
+				}
+			} else {
+				assertThrows(IllegalStateException.class, () -> spline.toBezierBatch(new CubicCurveBatch()));
+			}
+		}
+	}
+
+	/**
+	 * Test that a large spline converts into one packed segment per span
+	 */
+	@Test
+	void testLargeBatch() {
+		int nPoints = 100000;
+		BSplineCurve spline = new BSplineCurve(zigzag(nPoints), 3);
+		CubicCurveBatch batch = spline.toBezierBatch(new CubicCurveBatch());
+		assertEquals(nPoints - 3, batch.size());
+		double[] xs = new double[batch.size()];
+		double[] ys = new double[batch.size()];
+		batch.evaluateAt(0, xs, ys);
+		for (int i = 0; i < batch.size(); i += 9973) {
+			assertPointsMatch(spline.computePositionAtT(i), new Point2D.Double(xs[i], ys[i]));
+		}
+	}
+
+	/**
+	 * Test that a NURBS curve represents a circle exactly, and that its segments are rational
+	 */
+	@Test
+	void testNurbsCircle() {
+		double w = Math.sqrt(2) / 2;
+		Point2D[] points = {new Point2D.Double(1, 0), new Point2D.Double(1, 1), new Point2D.Double(0, 1),
+				new Point2D.Double(-1, 1), new Point2D.Double(-1, 0), new Point2D.Double(-1, -1),
+				new Point2D.Double(0, -1), new Point2D.Double(1, -1), new Point2D.Double(1, 0)};
+		double[] weights = {1, w, 1, w, 1, w, 1, w, 1};
+		double[] knots = {0, 0, 0, 1, 1, 2, 2, 3, 3, 4, 4, 4};
+		NurbsCurve circle = new NurbsCurve(points, weights, 2, knots);
+		for (double u = 0; u <= 4; u += 0.1) {
+			assertEquals(1, circle.computePositionAtT(u).distance(0, 0), Constants.ERROR_TOLERANCE);
+		}
+
+		List<BezierCurve> segments = circle.toBezierCurves();
+		assertEquals(4, segments.size());
+		for (int i = 0; i < segments.size(); i++) {
+			assertTrue(segments.get(i) instanceof RationalBezierCurve);
+			for (double t = 0; t <= 1; t += 0.125) {
+				assertPointsMatch(circle.computePositionAtT(i + t), segments.get(i).computePositionAtT(t));
+			}
+		}
+		assertThrows(IllegalStateException.class, () -> circle.toBezierBatch(new CubicCurveBatch()));
+
+		// equal weights give the polynomial spline
+		NurbsCurve polynomial = new NurbsCurve(points, new double[] {2, 2, 2, 2, 2, 2, 2, 2, 2}, 2, knots);
+		BSplineCurve spline = new BSplineCurve(points, 2, knots);
+		assertEquals(4, polynomial.toBezierBatch(new CubicCurveBatch()).size());
+		for (double u = 0; u <= 4; u += 0.1) {
+			assertPointsMatch(spline.computePositionAtT(u), polynomial.computePositionAtT(u));
+		}
+	}
+
+}
@@ -0,0 +1,145 @@
+package test.shapes;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import main.shapes.CatmullRomParameterization;
+import main.shapes.CatmullRomSpline;
+import main.shapes.CubicBezierCurve;
+import main.utils.Constants;
+
+class CatmullRomSplineTest {
+
+	static void assertPointsMatch(Point2D p1, Point2D p2) {
+		assertEquals(p1.getX(), p2.getX(), Constants.ERROR_TOLERANCE);
+		assertEquals(p1.getY(), p2.getY(), Constants.ERROR_TOLERANCE);
+	}
+
+	static List<Point2D> wave(int nPoints) {
+		List<Point2D> points = new ArrayList<Point2D>();
+		for (int i = 0; i < nPoints; i++) {
+			points.add(new Point2D.Double(15 * i + 7 * (i % 3), 100 + 60 * Math.sin(0.7 * i)));
+		}
+		return points;
+	}
+
+	static void assertSplinesMatch(CatmullRomSpline expected, CatmullRomSpline actual) {
+		assertEquals(expected.getCurves().size(), actual.getCurves().size());
+		for (int i = 0; i < expected.getCurves().size(); i++) {
+			CubicBezierCurve e = expected.getCurves().get(i);
+			CubicBezierCurve a = actual.getCurves().get(i);
+			assertPointsMatch(e.getP1(), a.getP1());
+			assertPointsMatch(e.getC1(), a.getC1());
+			assertPointsMatch(e.getC2(), a.getC2());
+			assertPointsMatch(e.getP2(), a.getP2());
+		}
+	}
+
+	/**
+	 * Test that the segments interpolate the points, share them as endpoints, and meet with parallel tangents
+	 */
+	@Test
+	void testInterpolation() {
+		List<Point2D> points = wave(12);
+		for (CatmullRomParameterization parameterization : CatmullRomParameterization.values()) {
+			CatmullRomSpline spline = new CatmullRomSpline(points, parameterization);
+			List<CubicBezierCurve> curves = spline.getCurves();
+			assertEquals(11, curves.size());
+			for (int i = 0; i < curves.size(); i++) {
+				assertSame(points.get(i), curves.get(i).getP1());
+				assertSame(points.get(i + 1), curves.get(i).getP2());
+				assertPointsMatch(points.get(i), curves.get(i).computePositionAtT(0));
+				assertPointsMatch(points.get(i + 1), curves.get(i).computePositionAtT(1));
+			}
+			for (int i = 1; i < curves.size(); i++) {
+				Point2D incoming = curves.get(i - 1).computeVelocityAtT(1);
+				Point2D outgoing = curves.get(i).computeVelocityAtT(0);
+				double cross = incoming.getX() * outgoing.getY() - incoming.getY() * outgoing.getX();
+				double dot = incoming.getX() * outgoing.getX() + incoming.getY() * outgoing.getY();
+				assertEquals(0, cross / dot, Constants.ERROR_TOLERANCE);
+				assertTrue(dot > 0);
+				if (parameterization == CatmullRomParameterization.UNIFORM) {
+					assertPointsMatch(incoming, outgoing);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Test that the uniform spline has the classic tangents (P(i+1) - P(i-1)) / 2
+	 */
+	@Test
+	void testUniformTangents() {
+		List<Point2D> points = wave(5);
+		CatmullRomSpline spline = new CatmullRomSpline(points, CatmullRomParameterization.UNIFORM);
+		CubicBezierCurve curve = spline.getCurves().get(1);
+		assertPointsMatch(new Point2D.Double(
+				points.get(1).getX() + (points.get(2).getX() - points.get(0).getX()) / 6,
+				points.get(1).getY() + (points.get(2).getY() - points.get(0).getY()) / 6), curve.getC1());
+		assertPointsMatch(new Point2D.Double(
+				points.get(2).getX() - (points.get(3).getX() - points.get(1).getX()) / 6,
+				points.get(2).getY() - (points.get(3).getY() - points.get(1).getY()) / 6), curve.getC2());
+	}
+
+	/**
+	 * Test that incremental updates match rebuilding the spline
+	 */
+	@Test
+	void testIncrementalUpdates() {
+		List<Point2D> points = wave(40);
+		CatmullRomSpline spline = new CatmullRomSpline(points, CatmullRomParameterization.CENTRIPETAL);
+		List<CubicBezierCurve> curves = spline.getCurves();
+		CubicBezierCurve farCurve = curves.get(30);
+		long farVersion = farCurve.getVersion();
+
+		for (int index : new int[] {0, 1, 17, 38, 39}) {
+			points.get(index).setLocation(points.get(index).getX() + 25, points.get(index).getY() - 40);
+			assertTrue(spline.pointMoved(points.get(index)));
+			assertSplinesMatch(new CatmullRomSpline(points, CatmullRomParameterization.CENTRIPETAL), spline);
+		}
+		assertFalse(spline.pointMoved(new Point2D.Double()));
+		// segments far from the moved points are untouched
+		assertEquals(farVersion, farCurve.getVersion());
+
+		spline.append(new Point2D.Double(700, 30));
+		points.add(spline.getPoint(40));
+		assertSplinesMatch(new CatmullRomSpline(points, CatmullRomParameterization.CENTRIPETAL), spline);
+
+		spline.setParameterization(CatmullRomParameterization.CHORDAL);
+		assertSplinesMatch(new CatmullRomSpline(points, CatmullRomParameterization.CHORDAL), spline);
+
+		// a closed loop interpolates its first point again at the end, and moving it updates both ends
+		List<Point2D> loop = wave(10);
+		loop.add(loop.get(0));
+		CatmullRomSpline closed = new CatmullRomSpline(loop, CatmullRomParameterization.CENTRIPETAL);
+		assertEquals(0, closed.indexOf(loop.get(0)));
+		loop.get(0).setLocation(loop.get(0).getX() - 30, loop.get(0).getY() + 15);
+		assertTrue(closed.pointMoved(loop.get(0)));
+		assertSplinesMatch(new CatmullRomSpline(loop, CatmullRomParameterization.CENTRIPETAL), closed);
+	}
+
+	/**
+	 * Test that coincident points do not produce undefined control points
+	 */
+	@Test
+	void testCoincidentPoints() {
+		List<Point2D> points = new ArrayList<Point2D>();
+		points.add(new Point2D.Double(0, 0));
+		points.add(new Point2D.Double(10, 10));
+		points.add(new Point2D.Double(10, 10));
+		points.add(new Point2D.Double(20, 0));
+		for (CatmullRomParameterization parameterization : CatmullRomParameterization.values()) {
+			for (CubicBezierCurve curve : new CatmullRomSpline(points, parameterization).getCurves()) {
+				for (Point2D pt : curve.getControlPoints()) {
+					assertFalse(Double.isNaN(pt.getX()) || Double.isNaN(pt.getY()));
+				}
+			}
+		}
+	}
+
+}
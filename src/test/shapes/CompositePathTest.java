@@ -0,0 +1,142 @@
+package test.shapes;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import main.shapes.ArcLengthTable;
+import main.shapes.CompositePath;
+import main.shapes.CubicBezierCurve;
+import main.utils.Constants;
+
+class CompositePathTest {
+
+	/**
+	 * A segment that counts how many times it has been measured
+	 */
+	static class CountingCurve extends CubicBezierCurve {
+
+		int nMeasured = 0;
+
+		CountingCurve(Point2D p1, Point2D c1, Point2D c2, Point2D p2) {
+			super(p1, c1, c2, p2);
+		}
+
+		@Override
+		public ArcLengthTable computeArcLengthTable() {
+			nMeasured++;
+			return super.computeArcLengthTable();
+		}
+
+	}
+
+	static List<CountingCurve> chain(int nSegments, long seed) {
+		Random random = new Random(seed);
+		List<CountingCurve> segments = new ArrayList<CountingCurve>();
+		Point2D start = new Point2D.Double(0, 0);
+		for (int i = 0; i < nSegments; i++) {
+			// segments of very different lengths, from a fraction of a pixel to hundreds of pixels
+			double scale = Math.pow(10, 3 * random.nextDouble() - 1);
+			Point2D end = new Point2D.Double(start.getX() + scale * random.nextDouble(),
+					start.getY() + scale * (random.nextDouble() - 0.5));
+			segments.add(new CountingCurve(start,
+					new Point2D.Double(start.getX() + scale * random.nextDouble(), start.getY() + scale * random.nextDouble()),
+					new Point2D.Double(end.getX() - scale * random.nextDouble(), end.getY() - scale * random.nextDouble()),
+					end));
+			start = new Point2D.Double(end.getX(), end.getY());
+		}
+		return segments;
+	}
+
+	/**
+	 * Test that a global s lands on the point that far along the whole path
+	 */
+	@Test
+	void testLocate() {
+		List<CountingCurve> segments = chain(200, 7);
+		CompositePath path = new CompositePath(segments);
+		assertEquals(200, path.getSegmentCount());
+		double totalLength = 0;
+		for (CountingCurve segment : segments) {
+			totalLength += segment.computeArcLength(0, 1, Constants.ARC_LENGTH_TOLERANCE);
+		}
+		assertEquals(totalLength, path.getTotalLength(), 200 * Constants.ARC_LENGTH_TOLERANCE);
+		assertEquals(0, path.getStartLength(0));
+		assertEquals(path.getTotalLength(), path.getStartLength(200));
+
+		ArcLengthTable.Cursor cursor = new ArcLengthTable.Cursor();
+		for (int i = 0; i <= 1000; i++) {
+			double s = i / 1000.0;
+			int index = path.findSegment(s);
+			double t = path.computeLocalT(s, index, cursor);
+			double length = path.getStartLength(index) + segments.get(index).computeArcLength(0, t, 1e-10);
+			assertEquals(s * path.getTotalLength(), length, 1e-4);
+			assertTrue(path.getStartLength(index) <= s * path.getTotalLength());
+			assertTrue(s * path.getTotalLength() <= path.getStartLength(index + 1) || s == 1);
+			Point2D point = path.computePositionAtS(s);
+			Point2D expected = segments.get(index).computePositionAtT(t);
+			assertEquals(expected.getX(), point.getX(), 1e-6);
+			assertEquals(expected.getY(), point.getY(), 1e-6);
+		}
+		assertEquals(0, path.findSegment(-1));
+		assertEquals(199, path.findSegment(2));
+		assertThrows(IllegalStateException.class, () -> new CompositePath().findSegment(0.5));
+	}
+
+	/**
+	 * Test that a change to one segment measures only that segment again
+	 */
+	@Test
+	void testIncrementalUpdate() {
+		List<CountingCurve> segments = chain(1000, 11);
+		CompositePath path = new CompositePath(segments);
+		double totalLength = path.getTotalLength();
+		double startLength = path.getStartLength(500);
+		double endStartLength = path.getStartLength(800);
+		// solving within the segments uses the tables they were measured with
+		for (int i = 0; i <= 100; i++) {
+			path.computePositionAtS(i / 100.0);
+		}
+		for (CountingCurve segment : segments) {
+			assertEquals(1, segment.nMeasured);
+		}
+
+		// nothing moved, so nothing is measured again
+		assertEquals(0, path.refresh());
+		path.getTotalLength();
+
+		CountingCurve moved = segments.get(700);
+		double oldLength = path.getSegmentLength(700);
+		moved.getC1().setLocation(moved.getC1().getX() + 100, moved.getC1().getY() + 100);
+		path.segmentChanged(700);
+		double newLength = path.getSegmentLength(700);
+		assertNotEquals(oldLength, newLength);
+		assertEquals(startLength, path.getStartLength(500));
+		assertEquals(endStartLength + newLength - oldLength, path.getStartLength(800), 1e-9 * totalLength);
+		assertEquals(totalLength + newLength - oldLength, path.getTotalLength(), 1e-9 * totalLength);
+		for (int i = 0; i < segments.size(); i++) {
+			assertEquals(i == 700 ? 2 : 1, segments.get(i).nMeasured);
+		}
+
+		// a move found by checking versions
+		segments.get(3).getP1().setLocation(-50, -50);
+		assertEquals(1, path.refresh());
+		path.getTotalLength();
+		assertEquals(2, segments.get(3).nMeasured);
+		assertEquals(1, segments.get(4).nMeasured);
+
+		CountingCurve replacement = chain(1, 3).get(0);
+		path.set(10, replacement);
+		assertEquals(replacement.computeArcLength(), path.getSegmentLength(10), Constants.ERROR_TOLERANCE);
+		path.add(replacement);
+		assertEquals(1001, path.getSegmentCount());
+		assertEquals(path.getStartLength(1000) + path.getSegmentLength(1000), path.getTotalLength());
+		assertThrows(IndexOutOfBoundsException.class, () -> path.segmentChanged(1001));
+	}
+
+}
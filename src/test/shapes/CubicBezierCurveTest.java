@@ -2,12 +2,26 @@ package test.shapes;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Line2D;
 import java.awt.geom.Point2D;
+import java.nio.BufferOverflowException;
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
 
 import org.junit.jupiter.api.Test;
 
+import main.shapes.CompactCurveStore;
 import main.shapes.CubicBezierCurve;
+import main.shapes.CubicCurveBatch;
+import main.shapes.CurveSamples;
+import main.shapes.FrameBuffer;
+import main.shapes.GeneralBezierCurve;
+import main.shapes.PlotLine;
+import main.shapes.QuadraticBezierCurve;
+import main.shapes.SamplingMode;
 import main.utils.Constants;
+import main.utils.Utility;
 
 class CubicBezierCurveTest {
 
@@ -251,9 +265,485 @@ class CubicBezierCurveTest {
 		}
 	}
 	
+	@Test
+	void testComputeAtT() {
+		CubicBezierCurve curve = new CubicBezierCurve(new Point2D.Double(-3,7), 
+				new Point2D.Double(12,4), 
+				new Point2D.Double(-5,-8), 
+				new Point2D.Double(9,2),
+				20);
+		Point2D[] position = curve.computePosition();
+		Point2D[] velocity = curve.computeVelocity();
+		Point2D[] acceleration = curve.computeAcceleration();
+		double[] curvature = curve.computeCurvature();
+		
+		Point2D pointOut = new Point2D.Double();
+		double[] arrayOut = new double[4];
+		for (int i = 0; i <= curve.getBezierFineness(); i++) {
+			double t = (double) i / curve.getBezierFineness();
+			assertPointsMatch(position[i], curve.computePositionAtT(t));
+			assertPointsMatch(velocity[i], curve.computeVelocityAtT(t));
+			assertPointsMatch(acceleration[i], curve.computeAccelerationAtT(t));
+			assertEquals(curvature[i], curve.computeCurvatureAtT(t), Constants.ERROR_TOLERANCE);
+			
+			// caller-supplied outputs
+			assertSame(pointOut, curve.computeVelocityAtT(t, pointOut));
+			assertPointsMatch(velocity[i], pointOut);
+			curve.computePositionAtT(t, arrayOut, 2);
+			assertEquals(position[i].getX(), arrayOut[2], Constants.ERROR_TOLERANCE);
+			assertEquals(position[i].getY(), arrayOut[3], Constants.ERROR_TOLERANCE);
+		}
+	}
+	
+	@Test
+	void testCoefficientInvalidation() {
+		Point2D c1 = new Point2D.Double(-1,1);
+		CubicBezierCurve curve = new CubicBezierCurve(new Point2D.Double(-1,-1), 
+				c1, 
+				new Point2D.Double(1,1), 
+				new Point2D.Double(1,-1));
+		long version = curve.getVersion();
+		assertEquals(version, curve.getVersion());
+		assertPointsMatch(new Point2D.Double(0, 0.5), curve.computePositionAtT(0.5));
+		
+		// moving a shared control point in place
+		c1.setLocation(-1, 3);
+		assertNotEquals(version, curve.getVersion());
+		assertPointsMatch(new Point2D.Double(0, 1.25), curve.computePositionAtT(0.5));
+		
+		// replacing a control point
+		version = curve.getVersion();
+		curve.setC2(new Point2D.Double(1, 3));
+		assertNotEquals(version, curve.getVersion());
+		assertPointsMatch(new Point2D.Double(0, 2), curve.computePositionAtT(0.5));
+		
+		// transforming the curve
+		curve.translate(2, 1);
+		assertPointsMatch(new Point2D.Double(2, 3), curve.computePositionAtT(0.5));
+		assertPointsMatch(curve.computePosition()[curve.getBezierFineness() / 2], curve.computePositionAtT(0.5));
+	}
+	
+	@Test
+	void testForwardDifferenceSampling() {
+		CubicBezierCurve curve = new CubicBezierCurve(new Point2D.Double(120,870), 
+				new Point2D.Double(940,35), 
+				new Point2D.Double(15,410), 
+				new Point2D.Double(730,655));
+		Point2D[][] direct = {curve.computePosition(500, SamplingMode.DIRECT), 
+				curve.computeVelocity(500, SamplingMode.DIRECT), 
+				curve.computeAcceleration(500, SamplingMode.DIRECT)};
+		Point2D[][] differenced = {curve.computePosition(500, SamplingMode.FORWARD_DIFFERENCE), 
+				curve.computeVelocity(500, SamplingMode.FORWARD_DIFFERENCE), 
+				curve.computeAcceleration(500, SamplingMode.FORWARD_DIFFERENCE)};
+		
+		// documented bound: 64 * n * eps * max|P| for the position; derivatives scale by at most 6 per order
+		double bound = 64 * 500 * Math.ulp(1.0) / 2 * 940 * 36;
+		for (int k = 0; k < direct.length; k++) {
+			assertEquals(direct[k].length, differenced[k].length);
+			for (int i = 0; i < direct[k].length; i++) {
+				assertEquals(direct[k][i].getX(), differenced[k][i].getX(), bound);
+				assertEquals(direct[k][i].getY(), differenced[k][i].getY(), bound);
+			}
+		}
+		
+		// endpoints are exact, and the curve's own mode is used by default
+		assertEquals(curve.getP1(), differenced[0][0]);
+		assertEquals(curve.getP2(), differenced[0][500]);
+		curve.setSamplingMode(SamplingMode.FORWARD_DIFFERENCE);
+		assertArrayEquals(differenced[0], curve.computePosition(500));
+	}
+	
+	@Test
+	void testComputeFrames() {
+		CubicBezierCurve curve = new CubicBezierCurve(new Point2D.Double(-3,7), 
+				new Point2D.Double(12,4), 
+				new Point2D.Double(-5,-8), 
+				new Point2D.Double(9,2),
+				20);
+		Point2D[] position = curve.computePosition();
+		Point2D[] velocity = curve.computeVelocity();
+		Point2D[] acceleration = curve.computeAcceleration();
+		double[] curvature = curve.computeCurvature();
+		
+		FrameBuffer frames = curve.computeFrames(new FrameBuffer());
+		assertEquals(frames.getSampleCount(), curve.getBezierFineness() + 1);
+		for (int i = 0; i < frames.getSampleCount(); i++) {
+			assertPointsMatch(position[i], new Point2D.Double(frames.getPositionX()[i], frames.getPositionY()[i]));
+			assertPointsMatch(velocity[i], new Point2D.Double(frames.getVelocityX()[i], frames.getVelocityY()[i]));
+			assertPointsMatch(acceleration[i], 
+					new Point2D.Double(frames.getAccelerationX()[i], frames.getAccelerationY()[i]));
+			assertEquals(curvature[i], frames.getCurvature()[i], Constants.ERROR_TOLERANCE);
+			
+			Point2D tangent = Utility.normalizeVector(velocity[i]);
+			assertPointsMatch(tangent, new Point2D.Double(frames.getTangentX()[i], frames.getTangentY()[i]));
+			assertPointsMatch(new Point2D.Double(-tangent.getY(), tangent.getX()), 
+					new Point2D.Double(frames.getNormalX()[i], frames.getNormalY()[i]));
+		}
+		
+		// buffers are reused for fewer samples
+		double[] curvatureArray = frames.getCurvature();
+		curve.computeFrames(5, frames);
+		assertEquals(6, frames.getSampleCount());
+		assertSame(curvatureArray, frames.getCurvature());
+	}
+	
+	@Test
+	void testComputeIntoBuffers() {
+		CubicBezierCurve curve = new CubicBezierCurve(new Point2D.Double(-3,7), 
+				new Point2D.Double(12,4), 
+				new Point2D.Double(-5,-8), 
+				new Point2D.Double(9,2),
+				20);
+		for (SamplingMode mode : SamplingMode.values()) {
+			curve.setSamplingMode(mode);
+			Point2D[] position = curve.computePosition();
+			Point2D[] velocity = curve.computeVelocity();
+			int n = position.length;
+			
+			// interleaved, at an offset
+			double[] xy = new double[2 * n + 3];
+			curve.computePosition(curve.getBezierFineness(), xy, 3);
+			
+			// split
+			double[] xs = new double[n];
+			double[] ys = new double[n];
+			curve.computeVelocity(curve.getBezierFineness(), xs, ys, 0);
+			
+			// DoubleBuffer
+			DoubleBuffer buffer = DoubleBuffer.allocate(2 * n + 1);
+			buffer.put(0);
+			curve.computePosition(curve.getBezierFineness(), buffer);
+			assertEquals(2 * n + 1, buffer.position());
+			
+			// reusable holders, the derivative ones first filled with the irregular t values of a flattening
+			CurveSamples samples = curve.computePosition(curve.getBezierFineness(), new CurveSamples());
+			assertEquals(n, samples.size());
+			Point2D[] acceleration = curve.computeAcceleration();
+			CurveSamples velocitySamples = curve.computeVelocity(curve.getBezierFineness(),
+					curve.flatten(0.001, new CurveSamples()));
+			CurveSamples accelerationSamples = curve.computeAcceleration(curve.getBezierFineness(),
+					curve.flatten(0.001, new CurveSamples()));
+			assertEquals(n, velocitySamples.size());
+			assertEquals(n, accelerationSamples.size());
+			
+			for (int i = 0; i < n; i++) {
+				assertEquals(position[i], new Point2D.Double(xy[3 + 2 * i], xy[4 + 2 * i]));
+				assertEquals(velocity[i], new Point2D.Double(xs[i], ys[i]));
+				assertEquals(position[i], new Point2D.Double(buffer.get(1 + 2 * i), buffer.get(2 + 2 * i)));
+				assertEquals(position[i], new Point2D.Double(samples.getX(i), samples.getY(i)));
+				assertEquals(velocity[i], new Point2D.Double(velocitySamples.getX(i), velocitySamples.getY(i)));
+				assertEquals(acceleration[i],
+						new Point2D.Double(accelerationSamples.getX(i), accelerationSamples.getY(i)));
+				double t = (double) i / curve.getBezierFineness();
+				assertEquals(t, samples.getT(i));
+				assertEquals(t, velocitySamples.getT(i));
+				assertEquals(t, accelerationSamples.getT(i));
+			}
+			
+			// growing a holder keeps the samples it holds
+			int capacity = samples.getX().length;
+			samples.ensureCapacity(capacity + 1);
+			assertEquals(n, samples.size());
+			for (int i = 0; i < n; i++) {
+				assertEquals(position[i], new Point2D.Double(samples.getX(i), samples.getY(i)));
+				assertEquals((double) i / curve.getBezierFineness(), samples.getT(i));
+			}
+		}
+		
+		// a slice too small for the samples is left untouched, as is the rest of the array it shares
+		double[] shared = new double[100];
+		Arrays.fill(shared, -1);
+		DoubleBuffer slice = DoubleBuffer.wrap(shared, 10, 20).slice();
+		assertThrows(BufferOverflowException.class, () -> curve.computePosition(curve.getBezierFineness(), slice));
+		assertEquals(0, slice.position());
+		for (double value : shared) {
+			assertEquals(-1, value);
+		}
+		DoubleBuffer readOnly = DoubleBuffer.allocate(2 * curve.getBezierFineness() + 1).asReadOnlyBuffer();
+		assertThrows(BufferOverflowException.class, () -> curve.computePosition(curve.getBezierFineness(), readOnly));
+	}
+	
+	/**
+	 * Test batched evaluation of several curves against evaluation of each curve on its own
+	 */
+	@Test
+	void testCurveBatch() {
+		CubicBezierCurve[] curves = new CubicBezierCurve[37];
+		CubicCurveBatch batch = new CubicCurveBatch(4);
+		for (int i = 0; i < curves.length; i++) {
+			curves[i] = new CubicBezierCurve(new Point2D.Double(i, -i), 
+					new Point2D.Double(2 * i, 5), 
+					new Point2D.Double(-3, i * i), 
+					new Point2D.Double(7 - i, 1));
+			assertEquals(i, batch.add(curves[i]));
+		}
+		assertEquals(curves.length, batch.size());
+		
+		double[] xs = new double[curves.length];
+		double[] ys = new double[curves.length];
+		for (double t : new double[] {0, 0.3, 0.5, 1}) {
+			batch.evaluateAt(t, xs, ys);
+			for (int i = 0; i < curves.length; i++) {
+				assertPointsMatch(curves[i].computePositionAtT(t), new Point2D.Double(xs[i], ys[i]));
+			}
+			batch.evaluateAt(t, 1, xs, ys);
+			for (int i = 0; i < curves.length; i++) {
+				assertPointsMatch(curves[i].computeVelocityAtT(t), new Point2D.Double(xs[i], ys[i]));
+			}
+			batch.evaluateAt(t, 2, xs, ys);
+			for (int i = 0; i < curves.length; i++) {
+				assertPointsMatch(curves[i].computeAccelerationAtT(t), new Point2D.Double(xs[i], ys[i]));
+			}
+		}
+		
+		int n = Constants.BEZIER_FINENESS + 1;
+		double[] gridX = new double[curves.length * n];
+		double[] gridY = new double[curves.length * n];
+		batch.evaluateGrid(Constants.BEZIER_FINENESS, gridX, gridY);
+		for (int i = 0; i < curves.length; i++) {
+			Point2D[] position = curves[i].computePosition();
+			for (int k = 0; k < n; k++) {
+				assertPointsMatch(position[k], new Point2D.Double(gridX[i * n + k], gridY[i * n + k]));
+			}
+		}
+		
+		assertPositionsMatch(curves[5], batch.getCurve(5));
+		assertThrows(IllegalArgumentException.class, () -> batch.evaluateAt(0.5, 3, xs, ys));
+	}
+	
+	/**
+	 * Test adaptive flattening against the tolerance, and arc length estimates from the flattened samples
+	 */
+	@Test
+	void testFlatten() {
+		// a straight curve needs a single segment
+		CubicBezierCurve line = new CubicBezierCurve(new Point2D.Double(0,0), 
+				new Point2D.Double(100,50), 
+				new Point2D.Double(200,100), 
+				new Point2D.Double(300,150));
+		CurveSamples samples = line.flatten(0.25, new CurveSamples());
+		assertEquals(2, samples.size());
+		
+		// a curve which doubles back along its chord must not be flattened to the chord
+		CubicBezierCurve overshoot = new CubicBezierCurve(new Point2D.Double(0,0), 
+				new Point2D.Double(400,0), 
+				new Point2D.Double(400,0), 
+				new Point2D.Double(100,0));
+		overshoot.flatten(0.25, samples);
+		assertTrue(samples.size() > 2);
+		
+		CubicBezierCurve curve = new CubicBezierCurve(new Point2D.Double(-300,700), 
+				new Point2D.Double(1200,400), 
+				new Point2D.Double(-500,-800), 
+				new Point2D.Double(900,200));
+		for (double tolerance : new double[] {2, 0.25, 0.01}) {
+			curve.flatten(tolerance, samples);
+			assertEquals(0, samples.getT(0));
+			assertEquals(1, samples.getT(samples.size() - 1));
+			for (int i = 0; i < samples.size(); i++) {
+				assertPointsMatch(curve.computePositionAtT(samples.getT(i)), 
+						new Point2D.Double(samples.getX(i), samples.getY(i)));
+			}
+			// every point of the curve is within the tolerance of the segment it was flattened into
+			for (int i = 0; i < samples.size() - 1; i++) {
+				double t0 = samples.getT(i);
+				double t1 = samples.getT(i + 1);
+				for (int j = 1; j < 20; j++) {
+					Point2D pt = curve.computePositionAtT(t0 + (t1 - t0) * j / 20);
+					double distance = Line2D.ptSegDist(samples.getX(i), samples.getY(i), 
+							samples.getX(i + 1), samples.getY(i + 1), pt.getX(), pt.getY());
+					assertTrue(distance <= tolerance + Constants.ERROR_TOLERANCE);
+				}
+			}
+		}
+		
+		// finer tolerances take more samples
+		int coarseCount = curve.flatten(2, samples).size();
+		assertTrue(curve.flatten(0.01, samples).size() > coarseCount);
+		
+		double[] cumulativeDistance = curve.computeCumulativeArcLengthDistance(samples);
+		assertEquals(samples.size(), cumulativeDistance.length);
+		assertEquals(1, cumulativeDistance[cumulativeDistance.length - 1], Constants.ERROR_TOLERANCE);
+		assertEquals(0, curve.arcLengthApproximateT(samples, cumulativeDistance, 0));
+		assertEquals(1, curve.arcLengthApproximateT(samples, cumulativeDistance, 1));
+		double previousT = 0;
+		for (int i = 1; i <= 50; i++) {
+			double t = curve.arcLengthApproximateT(samples, cumulativeDistance, i / 50.0);
+			assertTrue(t > previousT);
+			previousT = t;
+		}
+		
+		assertThrows(IllegalArgumentException.class, () -> curve.flatten(0, new CurveSamples()));
+	}
+	
+	/**
+	 * Test the cached hodographs against the velocity and acceleration of the curve
+	 */
+	@Test
+	void testHodographs() {
+		Point2D c1 = new Point2D.Double(12,4);
+		CubicBezierCurve curve = new CubicBezierCurve(new Point2D.Double(-3,7), 
+				c1, 
+				new Point2D.Double(-5,-8), 
+				new Point2D.Double(9,2),
+				20);
+		QuadraticBezierCurve velocityCurve = curve.getVelocityCurve();
+		GeneralBezierCurve accelerationCurve = curve.getAccelerationCurve();
+		assertEquals(2, velocityCurve.getOrder());
+		assertEquals(1, accelerationCurve.getOrder());
+		assertSame(velocityCurve, curve.getVelocityCurve());
+		
+		for (int step = 0; step < 2; step++) {
+			Point2D[] velocity = curve.computeVelocity();
+			Point2D[] hodographPosition = curve.getVelocityCurve().computePosition();
+			assertEquals(velocity.length, hodographPosition.length);
+			for (int i = 0; i <= curve.getBezierFineness(); i++) {
+				double t = (double) i / curve.getBezierFineness();
+				assertPointsMatch(velocity[i], hodographPosition[i]);
+				assertPointsMatch(curve.computeAccelerationAtT(t), curve.getAccelerationCurve().computePositionAtT(t));
+				assertPointsMatch(curve.computeAccelerationAtT(t), curve.getVelocityCurve().computeVelocityAtT(t));
+			}
+			// moving a control point updates the cached hodographs in place
+			c1.setLocation(-20, 30);
+			assertSame(velocityCurve, curve.getVelocityCurve());
+			assertSame(accelerationCurve, curve.getAccelerationCurve());
+			assertPointsMatch(new Point2D.Double(-51,69), velocityCurve.getP1());
+		}
+	}
+	
+	/**
+	 * Test the float curve store against the double curves, within its error bound, and promotion for editing
+	 */
+	@Test
+	void testCompactCurveStore() {
+		CompactCurveStore store = new CompactCurveStore(2);
+		CubicBezierCurve[] curves = new CubicBezierCurve[5];
+		for (int i = 0; i < curves.length; i++) {
+			curves[i] = new CubicBezierCurve(new Point2D.Double(1234.567 * i, -987.654321), 
+					new Point2D.Double(2047.3 - i, 13.0 / 7), 
+					new Point2D.Double(-1500.1 + 3 * i, 1999.999), 
+					new Point2D.Double(Math.PI * 100, -Math.E * 300 * i));
+			assertEquals(i, store.add(curves[i]));
+		}
+		assertEquals(5, store.size());
+		
+		int fineness = 64;
+		int nSamples = fineness + 1;
+		double[] xs = new double[curves.length * nSamples];
+		double[] ys = new double[curves.length * nSamples];
+		store.evaluateGrid(fineness, xs, ys);
+		Point2D pt = new Point2D.Double();
+		for (int i = 0; i < curves.length; i++) {
+			double maxCoordinate = 0;
+			for (Point2D control : curves[i].getControlPoints()) {
+				maxCoordinate = Math.max(maxCoordinate, Math.max(Math.abs(control.getX()), Math.abs(control.getY())));
+			}
+			double bound = CompactCurveStore.ERROR_BOUND * maxCoordinate;
+			for (int k = 0; k < nSamples; k++) {
+				double t = (double) k / fineness;
+				Point2D expected = curves[i].computePositionAtT(t);
+				assertEquals(expected.getX(), xs[i * nSamples + k], bound);
+				assertEquals(expected.getY(), ys[i * nSamples + k], bound);
+				store.computePositionAtT(i, t, pt);
+				assertEquals(expected.getX(), pt.getX(), bound);
+				assertEquals(expected.getY(), pt.getY(), bound);
+			}
+		}
+		
+		// a promoted curve is exact and editable, and is rounded again when compacted
+		CubicBezierCurve edited = store.promote(2);
+		assertTrue(store.isPromoted(2));
+		assertSame(edited, store.promote(2));
+		edited.getC1().setLocation(0.1, 0.2);
+		Point2D expected = new CubicBezierCurve(curves[2].getP1(), new Point2D.Double(0.1, 0.2), curves[2].getC2(), 
+				curves[2].getP2()).computePositionAtT(0.25);
+		assertEquals((float) expected.getX(), (float) store.computePositionAtT(2, 0.25, pt).getX());
+		assertEquals(0.1, store.toBatch(new CubicCurveBatch()).getCurve(2).getC1().getX());
+		store.compact(2);
+		assertFalse(store.isPromoted(2));
+		assertEquals((float) 0.1, store.getCurve(2, new CubicBezierCurve(curves[0])).getC1().getX());
+		assertThrows(IndexOutOfBoundsException.class, () -> store.promote(5));
+
+		// promotions survive the store growing, and are dropped when it is cleared
+		CubicBezierCurve last = store.promote(4);
+		for (int i = 0; i < 20; i++) {
+			store.add(curves[0]);
+		}
+		assertSame(last, store.promote(4));
+		assertFalse(store.isPromoted(24));
+		assertFalse(store.isPromoted(25));
+		store.clear();
+		store.add(curves[0]);
+		store.add(curves[1]);
+		store.add(curves[2]);
+		store.add(curves[3]);
+		store.add(curves[4]);
+		assertFalse(store.isPromoted(4));
+		assertEquals(curves[4].getC1().getX(), store.getCurve(4, new CubicBezierCurve(curves[0])).getC1().getX(),
+				CompactCurveStore.ERROR_BOUND * 4000);
+	}
+	
+	/**
+	 * Test splitting, trimming and subdivision against evaluation of the original curve
+	 */
+	@Test
+	void testSubdivision() {
+		CubicBezierCurve curve = new CubicBezierCurve(new Point2D.Double(-3,7), 
+				new Point2D.Double(12,4), 
+				new Point2D.Double(-5,-8), 
+				new Point2D.Double(9,2));
+		
+		// the primitive pyramid matches the point pyramid
+		double[] lerps = new double[12];
+		curve.computeLerpsAtT(0.3, lerps, 0);
+		Point2D[] lerpPoints = curve.computeLerpsAtT(0.3);
+		for (int i = 0; i < lerpPoints.length; i++) {
+			assertPointsMatch(lerpPoints[i], new Point2D.Double(lerps[2 * i], lerps[2 * i + 1]));
+		}
+		
+		// split into preallocated curves, sharing the point at the split
+		Point2D mid = new Point2D.Double();
+		CubicBezierCurve left = new CubicBezierCurve(new Point2D.Double(), new Point2D.Double(), 
+				new Point2D.Double(), mid);
+		CubicBezierCurve right = new CubicBezierCurve(mid, new Point2D.Double(), new Point2D.Double(), 
+				new Point2D.Double());
+		curve.splitAt(0.3, left, right);
+		assertPointsMatch(curve.computePositionAtT(0.3), mid);
+		for (double t = 0; t <= 1; t += 0.125) {
+			assertPointsMatch(curve.computePositionAtT(0.3 * t), left.computePositionAtT(t));
+			assertPointsMatch(curve.computePositionAtT(0.3 + 0.7 * t), right.computePositionAtT(t));
+		}
+		
+		// trim, forwards, backwards and in place
+		CubicBezierCurve trimmed = curve.trim(0.2, 0.65, new CubicBezierCurve(curve));
+		CubicBezierCurve reversed = curve.trim(0.65, 0.2, new CubicBezierCurve(curve));
+		for (double t = 0; t <= 1; t += 0.125) {
+			assertPointsMatch(curve.computePositionAtT(0.2 + 0.45 * t), trimmed.computePositionAtT(t));
+			assertPointsMatch(curve.computePositionAtT(0.65 - 0.45 * t), reversed.computePositionAtT(t));
+		}
+		CubicBezierCurve inPlace = new CubicBezierCurve(curve);
+		assertSame(inPlace, inPlace.trim(0.2, 0.65, inPlace));
+		assertPositionsMatch(trimmed, inPlace);
+		CubicBezierCurve splitInPlace = new CubicBezierCurve(curve);
+		splitInPlace.splitAt(0.3, splitInPlace, right);
+		assertPositionsMatch(left, splitInPlace);
+
+		// uniform subdivision in place
+		double[] pieces = new double[8 * 8];
+		curve.getControlCoordinates(pieces, 0);
+		CubicBezierCurve.subdivide(pieces, 0, 3, pieces, 0);
+		CubicBezierCurve piece = new CubicBezierCurve(curve);
+		for (int k = 0; k < 8; k++) {
+			piece.setControlCoordinates(pieces, 8 * k);
+			for (double t = 0; t <= 1; t += 0.25) {
+				assertPointsMatch(curve.computePositionAtT((k + t) / 8), piece.computePositionAtT(t));
+			}
+		}
+	}
+	
 	static void assertPointsMatch(Point2D p1, Point2D p2) {
 		assertEquals(p1.getX(), p2.getX(), Constants.ERROR_TOLERANCE);
-		assertEquals(p1.getY(), p1.getY(), Constants.ERROR_TOLERANCE);
+		assertEquals(p1.getY(), p2.getY(), Constants.ERROR_TOLERANCE);
 	}
 	
 	static void assertPositionsMatch(CubicBezierCurve c1, CubicBezierCurve c2) {
@@ -472,5 +962,70 @@ class CubicBezierCurveTest {
 		shearYIdentity.shearY(-0.4).shearY(0.4);
 		assertPositionsMatch(square, shearYIdentity);
 	}
+	
+	/**
+	 * Test that deferred transforms compose into the same curve as immediate ones, and that a single affine 
+	 * transform matches the equivalent chain of transforms
+	 */
+	@Test
+	void testDeferredTransforms() {
+		CubicBezierCurve curve = new CubicBezierCurve(new Point2D.Double(1,2), 
+				new Point2D.Double(4,7), 
+				new Point2D.Double(9,-3), 
+				new Point2D.Double(12,5));
+		
+		CubicBezierCurve immediate = new CubicBezierCurve(curve);
+		immediate.translate(3, -1).rotate(0.7).scale(2, 0.5).shearX(0.3).reflect(1, 2).shearY(-0.2).centerAtP1()
+				.rotate(Math.PI / 2);
+		
+		CubicBezierCurve deferred = new CubicBezierCurve(curve);
+		Point2D c2 = deferred.getC2();
+		deferred.setTransformDeferred(true);
+		long version = deferred.getVersion();
+		deferred.translate(3, -1).rotate(0.7).scale(2, 0.5).shearX(0.3).reflect(1, 2).shearY(-0.2).centerAtP1()
+				.rotate(Math.PI / 2);
+		// the control points are untouched until the geometry is read
+		assertTrue(deferred.hasPendingTransform());
+		assertEquals(new Point2D.Double(9,-3), c2);
+		assertPositionsMatch(immediate, deferred);
+		assertFalse(deferred.hasPendingTransform());
+		assertNotEquals(version, deferred.getVersion());
+		assertPointsMatch(new Point2D.Double(0,0), deferred.getP1());
+		
+		// reads through the coefficient cache see the pending transform
+		deferred.scale(3);
+		immediate.scale(3);
+		assertPointsMatch(immediate.computePositionAtT(0.3), deferred.computePositionAtT(0.3));
+		assertPointsMatch(immediate.computeVelocityAtT(0.6), deferred.computeVelocityAtT(0.6));
+		
+		// turning deferral off applies the pending transform
+		deferred.translate(-5, 5);
+		deferred.setTransformDeferred(false);
+		assertFalse(deferred.hasPendingTransform());
+		assertSame(c2, deferred.getC2());
+		immediate.translate(-5, 5);
+		assertPositionsMatch(immediate, deferred);
+		
+		AffineTransform transform = new AffineTransform(1.5, -0.4, 0.8, 2.5, 7, -3);
+		CubicBezierCurve mapped = new CubicBezierCurve(curve).applyTransform(transform);
+		for (int i = 0; i < 4; i++) {
+			assertPointsMatch(transform.transform(curve.getControlPoint(i), null), mapped.getControlPoint(i));
+		}
+		GeneralBezierCurve general = new GeneralBezierCurve(new CubicBezierCurve(curve).getControlPoints())
+				.applyTransform(transform);
+		for (int i = 0; i < 4; i++) {
+			assertPointsMatch(mapped.getControlPoint(i), general.getControlPoint(i));
+		}
+		
+		// shapes without a direct mapping decompose the transform into the basic ones
+		PlotLine line = new PlotLine(new Point2D[] {new Point2D.Double(1,2), new Point2D.Double(-3,4), 
+				new Point2D.Double(5,-6)});
+		PlotLine original = new PlotLine(line);
+		line.applyTransform(transform);
+		for (int i = 0; i < 3; i++) {
+			assertPointsMatch(transform.transform(original.getTrace().get(i), null), line.getTrace().get(i));
+		}
+		assertThrows(IllegalArgumentException.class, () -> line.applyTransform(new AffineTransform(1, 2, 2, 4, 0, 0)));
+	}
 
 }
@@ -0,0 +1,139 @@
+package test.shapes;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.geom.Point2D;
+
+import org.junit.jupiter.api.Test;
+
+import main.shapes.CubicBezierCurve;
+import main.shapes.CurveEvaluator;
+import main.shapes.CurveEvaluators;
+import main.shapes.EvaluatorCapability;
+import main.shapes.SamplingMode;
+import main.utils.Constants;
+
+class CurveEvaluatorTest {
+
+	static final double[] CONTROL = {12.5, 340.25, 97, -45.5, 410.75, 288, 230.125, 15};
+
+	@Test
+	void testRegistry() {
+		for (String name : new String[] {CurveEvaluators.EJML, CurveEvaluators.HORNER,
+				CurveEvaluators.FORWARD_DIFFERENCE, CurveEvaluators.BERNSTEIN}) {
+			assertTrue(CurveEvaluators.isAvailable(name));
+			assertEquals(name, CurveEvaluators.get(name).getName());
+		}
+		assertThrows(IllegalArgumentException.class, () -> CurveEvaluators.get("gpu"));
+		assertThrows(IllegalArgumentException.class, () -> CurveEvaluators.setDefault("gpu"));
+		assertThrows(IllegalArgumentException.class,
+				() -> CurveEvaluators.register(CurveEvaluators.get(CurveEvaluators.HORNER)));
+		assertTrue(CurveEvaluators.get(CurveEvaluators.EJML).hasCapability(EvaluatorCapability.REFERENCE));
+		assertTrue(CurveEvaluators.getDefault().hasCapability(EvaluatorCapability.BIT_IDENTICAL));
+	}
+
+	/**
+	 * Test every backend against the EJML reference, for each derivative, in contiguous and interleaved layouts
+	 */
+	@Test
+	void testAgainstReference() {
+		CurveEvaluator reference = CurveEvaluators.get(CurveEvaluators.EJML);
+		CurveEvaluator bernstein = CurveEvaluators.get(CurveEvaluators.BERNSTEIN);
+		for (CurveEvaluator evaluator : CurveEvaluators.getAvailable()) {
+			for (int derivativeOrder = 0; derivativeOrder <= 2; derivativeOrder++) {
+				for (int bezierFineness : new int[] {1, 7, 100}) {
+					int nSamples = bezierFineness + 1;
+					double[] expectedX = new double[nSamples];
+					double[] expectedY = new double[nSamples];
+					reference.sample(CONTROL, 0, derivativeOrder, bezierFineness, expectedX, 0, expectedY, 0, 1);
+
+					double[] xs = new double[nSamples];
+					double[] ys = new double[nSamples];
+					evaluator.sample(CONTROL, 0, derivativeOrder, bezierFineness, xs, 0, ys, 0, 1);
+					assertArrayEquals(expectedX, xs, Constants.ERROR_TOLERANCE);
+					assertArrayEquals(expectedY, ys, Constants.ERROR_TOLERANCE);
+
+					double[] xy = new double[2 * nSamples + 3];
+					double[] control = new double[CONTROL.length + 5];
+					System.arraycopy(CONTROL, 0, control, 5, CONTROL.length);
+					evaluator.sample(control, 5, derivativeOrder, bezierFineness, xy, 3, xy, 4, 2);
+					for (int i = 0; i < nSamples; i++) {
+						assertEquals(xs[i], xy[3 + 2 * i]);
+						assertEquals(ys[i], xy[4 + 2 * i]);
+					}
+
+					if (evaluator.hasCapability(EvaluatorCapability.BIT_IDENTICAL)) {
+						double[] bernsteinX = new double[nSamples];
+						double[] bernsteinY = new double[nSamples];
+						bernstein.sample(CONTROL, 0, derivativeOrder, bezierFineness, bernsteinX, 0, bernsteinY, 0, 1);
+						assertArrayEquals(bernsteinX, xs);
+						assertArrayEquals(bernsteinY, ys);
+					}
+					if (derivativeOrder == 0 && evaluator.hasCapability(EvaluatorCapability.EXACT_ENDPOINTS)) {
+						assertEquals(CONTROL[0], xs[0]);
+						assertEquals(CONTROL[1], ys[0]);
+						assertEquals(CONTROL[6], xs[bezierFineness]);
+						assertEquals(CONTROL[7], ys[bezierFineness]);
+					}
+				}
+
+				double[] expected = new double[2];
+				double[] actual = new double[2];
+				for (double t = 0; t <= 1; t += 0.0625) {
+					if (evaluator.hasCapability(EvaluatorCapability.POINT_EVALUATION)) {
+						reference.evaluate(CONTROL, 0, derivativeOrder, t, expected, 0);
+						evaluator.evaluate(CONTROL, 0, derivativeOrder, t, actual, 0);
+						assertArrayEquals(expected, actual, Constants.ERROR_TOLERANCE);
+					} else {
+						final double tValue = t;
+						final int order = derivativeOrder;
+						assertThrows(UnsupportedOperationException.class,
+								() -> evaluator.evaluate(CONTROL, 0, order, tValue, actual, 0));
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Test that curves sample through the backend selected for them
+	 */
+	@Test
+	void testCurveSelection() {
+		CubicBezierCurve curve = new CubicBezierCurve(new Point2D.Double(CONTROL[0], CONTROL[1]),
+				new Point2D.Double(CONTROL[2], CONTROL[3]), new Point2D.Double(CONTROL[4], CONTROL[5]),
+				new Point2D.Double(CONTROL[6], CONTROL[7]), 50);
+		CurveEvaluator horner = CurveEvaluators.get(CurveEvaluators.HORNER);
+		double[] xs = new double[51];
+		double[] ys = new double[51];
+		horner.sample(CONTROL, 0, 1, 50, xs, 0, ys, 0, 1);
+
+		CurveEvaluator previousDefault = CurveEvaluators.getDefault();
+		try {
+			CurveEvaluators.setDefault(CurveEvaluators.HORNER);
+			assertSame(horner, curve.getEvaluator());
+			Point2D[] velocity = curve.computeVelocity();
+			for (int i = 0; i <= 50; i++) {
+				assertEquals(xs[i], velocity[i].getX());
+				assertEquals(ys[i], velocity[i].getY());
+			}
+		} finally {
+			CurveEvaluators.setDefault(previousDefault.getName());
+		}
+
+		curve.setSamplingMode(SamplingMode.FORWARD_DIFFERENCE);
+		assertSame(CurveEvaluators.get(CurveEvaluators.FORWARD_DIFFERENCE), curve.getEvaluator());
+		// a backend of the curve's own takes precedence over the sampling mode
+		curve.setEvaluator(horner);
+		assertSame(horner, curve.getEvaluator());
+		assertSame(horner, new CubicBezierCurve(curve).getEvaluator());
+		Point2D[] velocity = curve.computeVelocity();
+		for (int i = 0; i <= 50; i++) {
+			assertEquals(xs[i], velocity[i].getX());
+			assertEquals(ys[i], velocity[i].getY());
+		}
+		curve.setEvaluator(null);
+		assertSame(CurveEvaluators.get(CurveEvaluators.FORWARD_DIFFERENCE), curve.getEvaluator());
+	}
+
+}
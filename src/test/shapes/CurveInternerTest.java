@@ -0,0 +1,99 @@
+package test.shapes;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.geom.Point2D;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import main.shapes.CubicBezierCurve;
+import main.shapes.CurveInterner;
+import main.shapes.GeneralBezierCurve;
+import main.shapes.QuadraticBezierCurve;
+import main.shapes.RationalBezierCurve;
+
+class CurveInternerTest {
+
+	static CubicBezierCurve glyph(double dx) {
+		return new CubicBezierCurve(new Point2D.Double(dx, 0), new Point2D.Double(dx + 1, 2),
+				new Point2D.Double(dx + 3, 2), new Point2D.Double(dx + 4, 0));
+	}
+
+	/**
+	 * Test that equality and hashing follow the control coordinates, degree and fineness
+	 */
+	@Test
+	void testEqualityByCoordinates() {
+		assertEquals(glyph(0), glyph(0));
+		assertEquals(glyph(0).hashCode(), glyph(0).hashCode());
+		assertNotEquals(glyph(0), glyph(1));
+
+		// 0.0 and -0.0 are the same coordinate
+		CubicBezierCurve negativeZero = glyph(0);
+		negativeZero.getP1().setLocation(-0.0, -0.0);
+		assertEquals(glyph(0), negativeZero);
+		assertEquals(glyph(0).hashCode(), negativeZero.hashCode());
+
+		// the same points as a curve of another class or degree
+		GeneralBezierCurve general = new GeneralBezierCurve(glyph(0).getControlPoints());
+		assertNotEquals(glyph(0), general);
+		assertNotEquals(general, new GeneralBezierCurve(glyph(0).getP1(), glyph(0).getC1(), glyph(0).getC2()));
+		assertEquals(general, new GeneralBezierCurve(glyph(0).getControlPoints()));
+		assertNotEquals(new QuadraticBezierCurve(new Point2D.Double(0, 0), new Point2D.Double(1, 1),
+				new Point2D.Double(2, 0)), new GeneralBezierCurve(new Point2D.Double(0, 0), new Point2D.Double(1, 1),
+				new Point2D.Double(2, 0)));
+
+		// rational curves also compare their weights
+		Point2D[] points = {new Point2D.Double(1, 0), new Point2D.Double(1, 1), new Point2D.Double(0, 1)};
+		RationalBezierCurve arc = new RationalBezierCurve(points, new double[] {1, Math.sqrt(0.5), 1});
+		assertEquals(arc, new RationalBezierCurve(arc));
+		assertEquals(arc.hashCode(), new RationalBezierCurve(arc).hashCode());
+		assertNotEquals(arc, new RationalBezierCurve(points, new double[] {1, 2, 1}));
+
+		// a deferred transform is applied before comparing
+		CubicBezierCurve deferred = glyph(0);
+		deferred.setTransformDeferred(true);
+		deferred.translate(1, 0);
+		assertEquals(glyph(1), deferred);
+		assertEquals(glyph(1).hashCode(), deferred.hashCode());
+	}
+
+	/**
+	 * Test that repeated curves intern to one canonical instance
+	 */
+	@Test
+	void testIntern() {
+		CurveInterner interner = new CurveInterner();
+		Set<CubicBezierCurve> canonical = new HashSet<CubicBezierCurve>();
+		CubicBezierCurve first = glyph(0);
+		assertSame(first, interner.intern(first));
+		for (int i = 0; i < 1000; i++) {
+			CubicBezierCurve curve = interner.intern(glyph(i % 10));
+			canonical.add(curve);
+			assertEquals(glyph(i % 10), curve);
+		}
+		assertEquals(10, canonical.size());
+		assertEquals(10, interner.size());
+		assertSame(first, interner.intern(glyph(0)));
+		assertTrue(interner.isCanonical(first));
+		assertFalse(interner.isCanonical(glyph(0)));
+
+		// a canonical curve that moves is no longer returned for its old geometry
+		first.translate(100, 0);
+		CubicBezierCurve replacement = interner.intern(glyph(0));
+		assertNotSame(first, replacement);
+		assertEquals(glyph(0), replacement);
+		assertEquals(11, interner.size());
+		assertEquals(1, interner.purgeModified());
+		assertEquals(10, interner.size());
+		assertFalse(interner.isCanonical(first));
+		assertSame(replacement, interner.intern(glyph(0)));
+
+		interner.clear();
+		assertEquals(0, interner.size());
+		assertSame(first, interner.intern(first));
+	}
+
+}
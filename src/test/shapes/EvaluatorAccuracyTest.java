@@ -0,0 +1,389 @@
+package test.shapes;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import main.shapes.CubicBezierCurve;
+import main.shapes.CurveEvaluator;
+import main.shapes.CurveEvaluators;
+import main.shapes.EvaluatorCapability;
+
+/**
+ * Differential accuracy harness: samples random and degenerate curves with every registered evaluation backend, and
+ * with the point queries of {@link CubicBezierCurve}, and compares position, velocity, acceleration and curvature
+ * against the EJML reference backend. An error passes only if it is within both the ULP bound and the absolute bound.
+ * ULPs are counted at the scale of the curve: the largest absolute control coordinate for the position and its
+ * derivatives, and |a| / |v|^2, the largest curvature the velocity and acceleration allow, for the curvature. The
+ * absolute bounds are off unless set, since every coordinate of a tiny curve falls under any fixed absolute bound
+ * whatever its accuracy. Curvature is not compared near cusps, where it is ill-conditioned.
+ * <p>
+ * A per-backend histogram of the ULP errors is printed to standard output. The harness is configured with system
+ * properties, for example -Dtest.shapes.accuracy.curves=2000000 for a full run:
+ * <ul>
+ * <li>test.shapes.accuracy.curves: the number of curves (20000)</li>
+ * <li>test.shapes.accuracy.fineness: the number of intervals sampled along each curve (32)</li>
+ * <li>test.shapes.accuracy.seed: the random seed</li>
+ * <li>test.shapes.accuracy.ulps.position, .velocity, .acceleration, .curvature: the ULP error bounds</li>
+ * <li>test.shapes.accuracy.absolute.position, .velocity, .acceleration, .curvature: the absolute error bounds
+ * (infinite)</li>
+ * <li>test.shapes.accuracy.cusp: the speed, relative to the largest control coordinate, below which curvature is
+ * not compared (1e-3)</li>
+ * </ul>
+ * @author smaffa
+ *
+ */
+class EvaluatorAccuracyTest {
+
+	static final String PROPERTY_PREFIX = "test.shapes.accuracy.";
+
+	static final int CURVE_COUNT = Integer.getInteger(PROPERTY_PREFIX + "curves", 20000);
+	static final int BEZIER_FINENESS = Integer.getInteger(PROPERTY_PREFIX + "fineness", 32);
+	static final long SEED = Long.getLong(PROPERTY_PREFIX + "seed", 0x5eedL);
+	static final double CUSP_THRESHOLD = doubleProperty("cusp", 1e-3);
+
+	/**
+	 * The quantities compared, with their default ULP bounds, the next power of two above the worst error seen at the
+	 * default fineness. The forward differencing backend dominates the bounds: its error grows with the number of
+	 * samples, as described in {@link main.shapes.ForwardDifferencer}, so a run at a higher fineness needs them raised.
+	 */
+	enum Quantity {
+		POSITION(64),
+		VELOCITY(256),
+		ACCELERATION(512),
+		CURVATURE(1 << 17);
+
+		final double ulpBound;
+		final double absoluteBound;
+
+		Quantity(double defaultUlpBound) {
+			this.ulpBound = doubleProperty("ulps." + name().toLowerCase(), defaultUlpBound);
+			this.absoluteBound = doubleProperty("absolute." + name().toLowerCase(), Double.POSITIVE_INFINITY);
+		}
+	}
+
+	/**
+	 * The kinds of curves sampled, in turn.
+	 */
+	enum Family {
+		RANDOM, HUGE, TINY, COINCIDENT, CUSP, COLLINEAR, MIXED_SCALE
+	}
+
+	static double doubleProperty(String name, double defaultValue) {
+		String value = System.getProperty(PROPERTY_PREFIX + name);
+		return value == null ? defaultValue : Double.parseDouble(value);
+	}
+
+	/**
+	 * A histogram of ULP errors in power-of-two buckets, with the worst error seen.
+	 */
+	static class ErrorHistogram {
+		static final int BUCKET_COUNT = 34;
+
+		final long[] buckets = new long[BUCKET_COUNT];
+		long count = 0;
+		long skipped = 0;
+		long failures = 0;
+		double maxUlps = 0;
+		double maxAbsolute = 0;
+		String worst = "";
+
+		/**
+		 * Records an error: bucket 0 holds exact results, bucket 1 errors of at most 1 ULP, and bucket k errors of
+		 * at most 2^(k - 1) ULPs.
+		 */
+		void record(double expected, double actual, double scale, Quantity quantity, double[] control, Family family,
+				int sample) {
+			count++;
+			double absolute = Math.abs(actual - expected);
+			double ulps = absolute / Math.ulp(scale);
+			if (Double.isNaN(absolute) && Double.isNaN(expected) && Double.isNaN(actual)) {
+				absolute = 0;
+				ulps = 0;
+			}
+			int bucket;
+			if (ulps == 0) {
+				bucket = 0;
+			} else if (!(ulps <= Math.scalb(1.0, BUCKET_COUNT - 3))) {
+				bucket = BUCKET_COUNT - 1;
+			} else if (ulps <= 1) {
+				bucket = 1;
+			} else {
+				int exponent = Math.getExponent(ulps);
+				if (ulps > Math.scalb(1.0, exponent)) {
+					exponent++;
+				}
+				bucket = 1 + exponent;
+			}
+			buckets[bucket]++;
+			if (!(ulps <= quantity.ulpBound && absolute <= quantity.absoluteBound)) {
+				failures++;
+			}
+			if (!(ulps <= maxUlps)) {
+				maxUlps = ulps;
+				worst = family + " curve " + Arrays.toString(control) + " sample " + sample + ": expected " + expected
+						+ ", was " + actual;
+			}
+			if (!(absolute <= maxAbsolute)) {
+				maxAbsolute = absolute;
+			}
+		}
+
+		String format() {
+			StringBuilder builder = new StringBuilder();
+			builder.append(String.format("n=%d skipped=%d failures=%d max=%.3g ulps (%.3g absolute) |", count, skipped,
+					failures, maxUlps, maxAbsolute));
+			for (int i = 0; i < BUCKET_COUNT; i++) {
+				if (buckets[i] == 0) {
+					continue;
+				}
+				String label = i == 0 ? "0" : i == BUCKET_COUNT - 1 ? ">2^" + (i - 2) : "<=2^" + (i - 1);
+				builder.append(' ').append(label).append(':').append(buckets[i]);
+			}
+			return builder.toString();
+		}
+	}
+
+	/**
+	 * The samples of one curve, as computed by one backend.
+	 */
+	static class CurveSamples {
+		final double[][] values = new double[6][BEZIER_FINENESS + 1]; // x and y of position, velocity, acceleration
+		final double[] curvature = new double[BEZIER_FINENESS + 1];
+
+		void computeCurvature() {
+			for (int i = 0; i <= BEZIER_FINENESS; i++) {
+				double vX = values[2][i];
+				double vY = values[3][i];
+				double vectorNorm = Math.sqrt(vX * vX + vY * vY);
+				curvature[i] = ((vX * values[5][i]) - (vY * values[4][i])) / (vectorNorm * vectorNorm * vectorNorm);
+			}
+		}
+	}
+
+	/**
+	 * Writes the control coordinates of the next curve of a family, in the layout of
+	 * {@link CubicBezierCurve#getControlCoordinates(double[], int)}.
+	 */
+	static void generate(Family family, int index, Random random, double[] control) {
+		switch (family) {
+		case RANDOM:
+			fill(random, control, 1000);
+			break;
+		case HUGE:
+			fill(random, control, Math.pow(10, 10 + 90 * random.nextDouble()));
+			break;
+		case TINY:
+			fill(random, control, Math.pow(10, -10 - 70 * random.nextDouble()));
+			break;
+		case COINCIDENT:
+			fill(random, control, 1000);
+			switch (index % 5) {
+			case 0:
+				// a single point
+				copyPoint(control, 0, 2);
+				copyPoint(control, 0, 4);
+				copyPoint(control, 0, 6);
+				break;
+			case 1:
+				copyPoint(control, 0, 2);
+				break;
+			case 2:
+				copyPoint(control, 4, 6);
+				break;
+			case 3:
+				copyPoint(control, 2, 4);
+				break;
+			default:
+				// a closed loop
+				copyPoint(control, 0, 6);
+			}
+			break;
+		case CUSP:
+			// (0,0), (1,1), (0,1), (1,0) has a cusp at t = 1/2, which any affine map preserves
+			double[] cusp = {0, 0, 1, 1, 0, 1, 1, 0};
+			double scale = 1000 * random.nextDouble() + 1;
+			double m00 = scale * random.nextGaussian();
+			double m01 = scale * random.nextGaussian();
+			double m10 = scale * random.nextGaussian();
+			double m11 = scale * random.nextGaussian();
+			double dx = 1000 * random.nextGaussian();
+			double dy = 1000 * random.nextGaussian();
+			for (int k = 0; k < 8; k += 2) {
+				control[k] = m00 * cusp[k] + m01 * cusp[k + 1] + dx;
+				control[k + 1] = m10 * cusp[k] + m11 * cusp[k + 1] + dy;
+			}
+			break;
+		case COLLINEAR:
+			// points along one line, out of order, so that the curve doubles back
+			double x0 = 1000 * random.nextGaussian();
+			double y0 = 1000 * random.nextGaussian();
+			double angle = 2 * Math.PI * random.nextDouble();
+			for (int k = 0; k < 8; k += 2) {
+				double s = 1000 * (2 * random.nextDouble() - 1);
+				control[k] = x0 + s * Math.cos(angle);
+				control[k + 1] = y0 + s * Math.sin(angle);
+			}
+			break;
+		default:
+			fill(random, control, 1);
+			int huge = 2 * random.nextInt(4);
+			control[huge] *= 1e8;
+			control[huge + 1] *= 1e8;
+		}
+	}
+
+	static void copyPoint(double[] control, int from, int to) {
+		control[to] = control[from];
+		control[to + 1] = control[from + 1];
+	}
+
+	static void fill(Random random, double[] control, double magnitude) {
+		for (int k = 0; k < 8; k++) {
+			control[k] = magnitude * (2 * random.nextDouble() - 1);
+		}
+	}
+
+	static double maxAbs(double[] control) {
+		double max = 0;
+		for (double value : control) {
+			max = Math.max(max, Math.abs(value));
+		}
+		return max;
+	}
+
+	/**
+	 * Samples a curve with a backend through {@link CurveEvaluator#sample}, and its curvature through
+	 * {@link CubicBezierCurve#computeCurvature(int)} with the curve set to use the backend.
+	 */
+	static void sample(CurveEvaluator evaluator, double[] control, CubicBezierCurve curve, CurveSamples out) {
+		for (int order = 0; order <= 2; order++) {
+			evaluator.sample(control, 0, order, BEZIER_FINENESS, out.values[2 * order], 0, out.values[2 * order + 1],
+					0, 1);
+		}
+		curve.setEvaluator(evaluator);
+		System.arraycopy(curve.computeCurvature(BEZIER_FINENESS), 0, out.curvature, 0, BEZIER_FINENESS + 1);
+	}
+
+	/**
+	 * Evaluates a curve with its own point queries at the sample values of t.
+	 */
+	static void sampleAtT(CubicBezierCurve curve, CurveSamples out) {
+		Point2D pt = new Point2D.Double();
+		for (int i = 0; i <= BEZIER_FINENESS; i++) {
+			double t = (double) i / BEZIER_FINENESS;
+			curve.computePositionAtT(t, pt);
+			out.values[0][i] = pt.getX();
+			out.values[1][i] = pt.getY();
+			curve.computeVelocityAtT(t, pt);
+			out.values[2][i] = pt.getX();
+			out.values[3][i] = pt.getY();
+			curve.computeAccelerationAtT(t, pt);
+			out.values[4][i] = pt.getX();
+			out.values[5][i] = pt.getY();
+			out.curvature[i] = curve.computeCurvatureAtT(t);
+		}
+	}
+
+	static void compare(CurveSamples expected, CurveSamples actual, double[] control, Family family,
+			ErrorHistogram[] histograms) {
+		double scale = maxAbs(control);
+		if (scale == 0) {
+			scale = Double.MIN_NORMAL;
+		}
+		for (int i = 0; i <= BEZIER_FINENESS; i++) {
+			for (int k = 0; k < 6; k++) {
+				Quantity quantity = Quantity.values()[k / 2];
+				histograms[quantity.ordinal()].record(expected.values[k][i], actual.values[k][i], scale, quantity,
+						control, family, i);
+			}
+			double speed = Math.hypot(expected.values[2][i], expected.values[3][i]);
+			ErrorHistogram curvatureHistogram = histograms[Quantity.CURVATURE.ordinal()];
+			if (!(speed >= CUSP_THRESHOLD * scale)) {
+				curvatureHistogram.skipped++;
+				continue;
+			}
+			// the curvature is at most |a| / |v|^2, which is the scale of its rounding errors even where it cancels
+			double accelerationNorm = Math.hypot(expected.values[4][i], expected.values[5][i]);
+			double curvatureScale = Math.max(Math.abs(expected.curvature[i]), accelerationNorm / (speed * speed));
+			if (curvatureScale == 0) {
+				curvatureScale = Double.MIN_NORMAL;
+			}
+			curvatureHistogram.record(expected.curvature[i], actual.curvature[i], curvatureScale, Quantity.CURVATURE,
+					control, family, i);
+		}
+	}
+
+	/**
+	 * Test every backend, and the point queries of the curve, against the EJML reference
+	 */
+	@Test
+	void testAgainstReference() {
+		CurveEvaluator reference = CurveEvaluators.get(CurveEvaluators.EJML);
+		List<CurveEvaluator> backends = new ArrayList<CurveEvaluator>();
+		for (CurveEvaluator evaluator : CurveEvaluators.getAvailable()) {
+			if (!evaluator.hasCapability(EvaluatorCapability.REFERENCE)) {
+				backends.add(evaluator);
+			}
+		}
+		String[] names = new String[backends.size() + 1];
+		ErrorHistogram[][] histograms = new ErrorHistogram[names.length][Quantity.values().length];
+		for (int b = 0; b < names.length; b++) {
+			names[b] = b < backends.size() ? backends.get(b).getName() : "curve point queries";
+			for (int q = 0; q < Quantity.values().length; q++) {
+				histograms[b][q] = new ErrorHistogram();
+			}
+		}
+
+		Random random = new Random(SEED);
+		double[] control = new double[8];
+		CubicBezierCurve curve = new CubicBezierCurve(new Point2D.Double(), new Point2D.Double(),
+				new Point2D.Double(), new Point2D.Double());
+		CurveSamples expected = new CurveSamples();
+		CurveSamples actual = new CurveSamples();
+		Family[] families = Family.values();
+		for (int n = 0; n < CURVE_COUNT; n++) {
+			Family family = families[n % families.length];
+			generate(family, n / families.length, random, control);
+			curve.setControlCoordinates(control, 0);
+
+			for (int order = 0; order <= 2; order++) {
+				reference.sample(control, 0, order, BEZIER_FINENESS, expected.values[2 * order], 0,
+						expected.values[2 * order + 1], 0, 1);
+			}
+			expected.computeCurvature();
+
+			for (int b = 0; b < backends.size(); b++) {
+				sample(backends.get(b), control, curve, actual);
+				compare(expected, actual, control, family, histograms[b]);
+			}
+			sampleAtT(curve, actual);
+			compare(expected, actual, control, family, histograms[backends.size()]);
+		}
+
+		System.out.println("Evaluator accuracy against " + reference.getName() + ": " + CURVE_COUNT + " curves, "
+				+ (BEZIER_FINENESS + 1) + " samples each");
+		long failures = 0;
+		StringBuilder worst = new StringBuilder();
+		for (int b = 0; b < names.length; b++) {
+			for (Quantity quantity : Quantity.values()) {
+				ErrorHistogram histogram = histograms[b][quantity.ordinal()];
+				System.out.println(String.format("  %-20s %-12s %s", names[b], quantity.name().toLowerCase(),
+						histogram.format()));
+				failures += histogram.failures;
+				if (histogram.failures > 0) {
+					worst.append('\n').append(names[b]).append(' ').append(quantity).append(": ")
+							.append(histogram.worst);
+				}
+			}
+		}
+		assertEquals(0L, failures, "Errors beyond the bounds:" + worst);
+	}
+
+}
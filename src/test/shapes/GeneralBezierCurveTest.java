@@ -0,0 +1,131 @@
+package test.shapes;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.geom.Point2D;
+
+import org.junit.jupiter.api.Test;
+
+import main.shapes.CubicBezierCurve;
+import main.shapes.GeneralBezierCurve;
+import main.shapes.QuadraticBezierCurve;
+import main.utils.Constants;
+
+class GeneralBezierCurveTest {
+	
+	static void assertPointsMatch(Point2D p1, Point2D p2) {
+		assertEquals(p1.getX(), p2.getX(), Constants.ERROR_TOLERANCE);
+		assertEquals(p1.getY(), p2.getY(), Constants.ERROR_TOLERANCE);
+	}
+	
+	/**
+	 * Raises the degree of a curve by one without changing its shape
+	 */
+	static Point2D[] elevateDegree(Point2D[] controlPoints) {
+		int n = controlPoints.length - 1;
+		Point2D[] elevated = new Point2D[n + 2];
+		elevated[0] = new Point2D.Double(controlPoints[0].getX(), controlPoints[0].getY());
+		elevated[n + 1] = new Point2D.Double(controlPoints[n].getX(), controlPoints[n].getY());
+		for (int i = 1; i <= n; i++) {
+			double alpha = (double) i / (n + 1);
+			elevated[i] = new Point2D.Double(alpha * controlPoints[i - 1].getX() + (1 - alpha) * controlPoints[i].getX(),
+					alpha * controlPoints[i - 1].getY() + (1 - alpha) * controlPoints[i].getY());
+		}
+		return elevated;
+	}
+	
+	@Test
+	void testConstructor() {
+		assertThrows(IllegalArgumentException.class, () -> new GeneralBezierCurve(new Point2D.Double(0, 0)));
+		GeneralBezierCurve curve = new GeneralBezierCurve(new Point2D.Double(0, 0), new Point2D.Double(1, 2));
+		assertEquals(1, curve.getOrder());
+		assertEquals(2, curve.getControlPointCount());
+		
+		GeneralBezierCurve copy = new GeneralBezierCurve(curve);
+		assertNotSame(curve.getControlPoint(0), copy.getControlPoint(0));
+		assertPointsMatch(curve.getControlPoint(1), copy.getControlPoint(1));
+	}
+	
+	/**
+	 * Test that a general cubic curve agrees with the specialised cubic curve
+	 */
+	@Test
+	void testMatchesCubic() {
+		Point2D[] controls = {new Point2D.Double(-3,7), new Point2D.Double(12,4), new Point2D.Double(-5,-8), 
+				new Point2D.Double(9,2)};
+		CubicBezierCurve cubic = new CubicBezierCurve(controls[0], controls[1], controls[2], controls[3], 20);
+		GeneralBezierCurve general = new GeneralBezierCurve(controls, 20);
+		assertEquals(3, general.getOrder());
+		
+		Point2D[] cubicPosition = cubic.computePosition();
+		Point2D[] generalPosition = general.computePosition();
+		Point2D[] cubicVelocity = cubic.computeVelocity();
+		Point2D[] generalVelocity = general.computeVelocity();
+		Point2D[] cubicAcceleration = cubic.computeAcceleration();
+		Point2D[] generalAcceleration = general.computeAcceleration();
+		double[] cubicCurvature = cubic.computeCurvature();
+		double[] generalCurvature = general.computeCurvature();
+		for (int i = 0; i <= 20; i++) {
+			assertPointsMatch(cubicPosition[i], generalPosition[i]);
+			assertPointsMatch(cubicVelocity[i], generalVelocity[i]);
+			assertPointsMatch(cubicAcceleration[i], generalAcceleration[i]);
+			assertEquals(cubicCurvature[i], generalCurvature[i], Constants.ERROR_TOLERANCE);
+			
+			double t = i / 20.0;
+			Point2D[] cubicLerps = cubic.computeLerpsAtT(t);
+			Point2D[] generalLerps = general.computeLerpsAtT(t);
+			assertEquals(cubicLerps.length, generalLerps.length);
+			for (int j = 0; j < cubicLerps.length; j++) {
+				assertPointsMatch(cubicLerps[j], generalLerps[j]);
+			}
+		}
+	}
+	
+	/**
+	 * Test the nested evaluation of higher degrees against de Casteljau's algorithm and degree elevation
+	 */
+	@Test
+	void testHigherDegrees() {
+		Point2D[] controls = {new Point2D.Double(-3,7), new Point2D.Double(12,4), new Point2D.Double(-5,-8), 
+				new Point2D.Double(9,2)};
+		GeneralBezierCurve cubic = new GeneralBezierCurve(controls);
+		for (int degree = 4; degree <= 12; degree++) {
+			controls = elevateDegree(controls);
+			GeneralBezierCurve curve = new GeneralBezierCurve(controls);
+			assertEquals(degree, curve.getOrder());
+			assertEquals(degree * (degree + 1) / 2, curve.computeLerpsAtT(0.5).length);
+			for (int i = 0; i <= 16; i++) {
+				double t = i / 16.0;
+				assertPointsMatch(cubic.computePositionAtT(t), curve.computePositionAtT(t));
+				assertPointsMatch(curve.computeLerpsAtT(t)[0], curve.computePositionAtT(t));
+				assertPointsMatch(cubic.computeVelocityAtT(t), curve.computeVelocityAtT(t));
+				assertPointsMatch(cubic.computeAccelerationAtT(t), curve.computeAccelerationAtT(t));
+			}
+		}
+	}
+	
+	@Test
+	void testQuadratic() {
+		QuadraticBezierCurve curve = new QuadraticBezierCurve(new Point2D.Double(0,0), new Point2D.Double(2,4), 
+				new Point2D.Double(4,0));
+		assertEquals(2, curve.getOrder());
+		assertPointsMatch(new Point2D.Double(0,0), curve.computePositionAtT(0));
+		assertPointsMatch(new Point2D.Double(2,2), curve.computePositionAtT(0.5));
+		assertPointsMatch(new Point2D.Double(4,0), curve.computePositionAtT(1));
+		assertPointsMatch(new Point2D.Double(4,8), curve.computeVelocityAtT(0));
+		assertPointsMatch(new Point2D.Double(0,-16), curve.computeAccelerationAtT(0.3));
+		
+		Point2D[] lerps = curve.computeLerpsAtT(0.5);
+		assertEquals(3, lerps.length);
+		assertPointsMatch(new Point2D.Double(2,2), lerps[0]);
+		assertPointsMatch(new Point2D.Double(1,2), lerps[1]);
+		assertPointsMatch(new Point2D.Double(3,2), lerps[2]);
+		
+		assertPointsMatch(new Point2D.Double(3,5), curve.translate(1, 1).getC1());
+		assertPointsMatch(new Point2D.Double(-3,5), curve.reflect(0, 1).getC1());
+		assertPointsMatch(new Point2D.Double(-5,-3), curve.rotate(Math.PI / 2).getC1());
+		assertPointsMatch(new Point2D.Double(-10,-3), curve.scale(2, 1).getC1());
+		assertPointsMatch(new Point2D.Double(-16,-3), curve.shearX(2).getC1());
+	}
+	
+}
@@ -0,0 +1,136 @@
+package test.shapes;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.geom.Point2D;
+
+import org.junit.jupiter.api.Test;
+
+import main.shapes.Circle;
+import main.shapes.CurveSamples;
+import main.shapes.GeneralBezierCurve;
+import main.shapes.RationalBezierCurve;
+import main.utils.Constants;
+
+class RationalBezierCurveTest {
+
+	static void assertPointsMatch(Point2D p1, Point2D p2) {
+		assertEquals(p1.getX(), p2.getX(), Constants.ERROR_TOLERANCE);
+		assertEquals(p1.getY(), p2.getY(), Constants.ERROR_TOLERANCE);
+	}
+
+	@Test
+	void testConstructor() {
+		Point2D[] controls = {new Point2D.Double(0, 0), new Point2D.Double(1, 2), new Point2D.Double(3, 1)};
+		assertThrows(IllegalArgumentException.class, () -> new RationalBezierCurve(controls, new double[] {1, 1}));
+		assertThrows(IllegalArgumentException.class, () -> new RationalBezierCurve(controls, new double[] {1, 0, 1}));
+		RationalBezierCurve curve = new RationalBezierCurve(controls, new double[] {1, 2, 1});
+		assertEquals(2, curve.getOrder());
+		assertEquals(2, curve.getWeight(1));
+
+		RationalBezierCurve copy = new RationalBezierCurve(curve);
+		assertNotSame(curve.getControlPoint(0), copy.getControlPoint(0));
+		assertEquals(curve, copy);
+		copy.setWeight(1, 3);
+		assertNotEquals(curve, copy);
+	}
+
+	/**
+	 * Test that a rational curve with unit weights is the polynomial curve, with the same derivatives
+	 */
+	@Test
+	void testUnitWeights() {
+		Point2D[] controls = {new Point2D.Double(-3,7), new Point2D.Double(12,4), new Point2D.Double(-5,-8),
+				new Point2D.Double(9,2), new Point2D.Double(4,11), new Point2D.Double(-6,0)};
+		GeneralBezierCurve polynomial = new GeneralBezierCurve(controls);
+		RationalBezierCurve rational = new RationalBezierCurve(controls, new double[] {1, 1, 1, 1, 1, 1});
+		for (double t = 0; t <= 1; t += 0.125) {
+			assertPointsMatch(polynomial.computePositionAtT(t), rational.computePositionAtT(t));
+			assertPointsMatch(polynomial.computeVelocityAtT(t), rational.computeVelocityAtT(t));
+			assertPointsMatch(polynomial.computeAccelerationAtT(t), rational.computeAccelerationAtT(t));
+			Point2D[] polynomialLerps = polynomial.computeLerpsAtT(t);
+			Point2D[] rationalLerps = rational.computeLerpsAtT(t);
+			assertEquals(polynomialLerps.length, rationalLerps.length);
+			for (int i = 0; i < polynomialLerps.length; i++) {
+				assertPointsMatch(polynomialLerps[i], rationalLerps[i]);
+			}
+		}
+	}
+
+	/**
+	 * Test that circles and arcs lie exactly on the circle, with curvature 1 / radius
+	 */
+	@Test
+	void testCircle() {
+		double cx = 40;
+		double cy = -25;
+		double radius = 130;
+		RationalBezierCurve[] quarters = RationalBezierCurve.circle(cx, cy, radius);
+		assertEquals(4, quarters.length);
+		assertPointsMatch(new Point2D.Double(cx + radius, cy), quarters[0].computePositionAtT(0));
+		assertPointsMatch(new Point2D.Double(cx, cy + radius), quarters[0].computePositionAtT(1));
+		assertPointsMatch(quarters[3].computePositionAtT(1), quarters[0].computePositionAtT(0));
+
+		RationalBezierCurve[] arc = RationalBezierCurve.arc(cx, cy, radius, 0.3, -4.0);
+		assertEquals(3, arc.length);
+		assertPointsMatch(new Point2D.Double(cx + radius * Math.cos(-3.7), cy + radius * Math.sin(-3.7)),
+				arc[2].computePositionAtT(1));
+
+		for (RationalBezierCurve[] segments : new RationalBezierCurve[][] {quarters, arc}) {
+			for (RationalBezierCurve segment : segments) {
+				for (Point2D pt : segment.computePosition(50)) {
+					assertEquals(radius, pt.distance(cx, cy), Constants.ERROR_TOLERANCE);
+				}
+				for (double t = 0; t <= 1; t += 0.25) {
+					assertEquals(1 / radius, Math.abs(segment.computeCurvatureAtT(t)), Constants.ERROR_TOLERANCE);
+				}
+			}
+		}
+	}
+
+	@Test
+	void testFlatten() {
+		RationalBezierCurve quarter = RationalBezierCurve.circle(0, 0, 300)[0];
+		CurveSamples samples = quarter.flatten(0.25, new CurveSamples());
+		assertTrue(samples.size() > 2);
+		assertEquals(0, samples.getT(0));
+		assertEquals(1, samples.getT(samples.size() - 1));
+		for (int i = 0; i < samples.size(); i++) {
+			Point2D pt = new Point2D.Double(samples.getX(i), samples.getY(i));
+			assertPointsMatch(quarter.computePositionAtT(samples.getT(i)), pt);
+			if (i > 0) {
+				// the chord's midpoint is within the tolerance of the circle
+				double midX = (samples.getX(i - 1) + samples.getX(i)) / 2;
+				double midY = (samples.getY(i - 1) + samples.getY(i)) / 2;
+				assertTrue(300 - Math.hypot(midX, midY) <= 0.25);
+			}
+		}
+
+		// a finer tolerance gives more vertices
+		assertTrue(quarter.flatten(0.01, new CurveSamples()).size() > samples.size());
+	}
+
+	@Test
+	void testCircleTrace() {
+		Circle circle = new Circle(10, 20, 50);
+		Point2D[] trace = circle.getTrace();
+		assertPointsMatch(new Point2D.Double(60, 20), trace[0]);
+		assertPointsMatch(trace[0], trace[trace.length - 1]);
+		for (Point2D pt : trace) {
+			assertEquals(50, pt.distance(10, 20), Constants.ERROR_TOLERANCE);
+		}
+
+		// moving the circle moves the trace without changing its shape
+		circle.setX(-5);
+		Point2D[] movedTrace = circle.getTrace();
+		assertEquals(trace.length, movedTrace.length);
+		assertPointsMatch(new Point2D.Double(trace[7].getX() - 15, trace[7].getY()), movedTrace[7]);
+
+		// large circles are limited to the discretization
+		circle.setRadius(1e7);
+		assertTrue(circle.getTrace().length <= 201);
+		circle.setRadius(Double.POSITIVE_INFINITY);
+		assertEquals(0, circle.getTrace().length);
+	}
+
+}